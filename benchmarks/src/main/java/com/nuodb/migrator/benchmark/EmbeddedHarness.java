@@ -0,0 +1,368 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import com.nuodb.migrator.Migrator;
+import com.nuodb.migrator.backup.loader.ChunkLevelParallelizer;
+import com.nuodb.migrator.backup.loader.Parallelizer;
+import com.nuodb.migrator.backup.loader.RowLevelParallelizer;
+import com.nuodb.migrator.backup.loader.TableLevelParallelizer;
+import com.nuodb.migrator.backup.loader.WorkStealingParallelizer;
+import com.nuodb.migrator.jdbc.commit.CommitStrategy;
+import com.nuodb.migrator.spec.DriverConnectionSpec;
+import com.nuodb.migrator.spec.DumpJobSpec;
+import com.nuodb.migrator.spec.LoadJobSpec;
+import com.nuodb.migrator.spec.MigrationMode;
+import com.nuodb.migrator.spec.ResourceSpec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.nuodb.migrator.cli.run.CliLoadJob.PARALLELIZER_CHUNK_LEVEL;
+import static com.nuodb.migrator.cli.run.CliLoadJob.PARALLELIZER_ROW_LEVEL;
+import static com.nuodb.migrator.cli.run.CliLoadJob.PARALLELIZER_TABLE_LEVEL;
+import static com.nuodb.migrator.cli.run.CliLoadJob.PARALLELIZER_WORK_STEALING;
+import static com.nuodb.migrator.cli.run.CliOptionValues.INSTANCE;
+import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static com.nuodb.migrator.jdbc.metadata.Table.TABLE;
+import static java.lang.Boolean.parseBoolean;
+import static java.lang.Double.parseDouble;
+import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.io.FileUtils.sizeOfDirectory;
+
+/**
+ * End to end performance harness running dump & load jobs against in process
+ * H2 databases, so that throughput is measured locally without live servers.
+ * Source database is populated once with a synthetic schema, then for every
+ * combination of format & dump threads the source is dumped and the backup is
+ * loaded into a fresh target for every combination of load threads,
+ * parallelizer & commit strategy. Target tables are created by the harness
+ * and only data is loaded, loaded row counts are verified against the source.
+ * Each scenario is reported as a row of a comparable table printed to the
+ * standard output and optionally written to a csv report:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.nuodb.migrator.benchmark.EmbeddedHarness \
+ *     --tables=8 --rows=200000 --columns=12 --lob.ratio=0.1 --skewed=true \
+ *     --formats=csv,bson --threads=1,4 --parallelizers=table.level,work.stealing \
+ *     --commit.strategies=batch,single --report=harness.csv
+ * </pre>
+ */
+public class EmbeddedHarness {
+
+    public static final String DRIVER = "org.h2.Driver";
+    public static final String URL = "jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1";
+    public static final String USERNAME = "sa";
+    public static final String SCHEMA = "PUBLIC";
+    /**
+     * H2 2.x reports tables as BASE TABLE rather than TABLE
+     */
+    public static final String[] TABLE_TYPES = new String[] { TABLE, "BASE TABLE" };
+
+    private SyntheticSchema schema = new SyntheticSchema();
+    private Collection<String> formats = asList("csv", "bson");
+    private Collection<Integer> threads = asList(1, 4);
+    private Collection<String> parallelizers = asList(PARALLELIZER_TABLE_LEVEL, PARALLELIZER_WORK_STEALING);
+    private Collection<String> commitStrategies = asList("batch");
+    private Map<String, Object> commitStrategyAttributes = newHashMap();
+    private String report;
+    private int targets;
+
+    public static void main(String[] args) throws Exception {
+        EmbeddedHarness harness = new EmbeddedHarness();
+        harness.parse(args);
+        harness.run();
+    }
+
+    public void parse(String[] args) {
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (!arg.startsWith("--") || index < 0) {
+                throw new IllegalArgumentException(format("Argument %s is not --name=value", arg));
+            }
+            String name = arg.substring(2, index);
+            String value = arg.substring(index + 1);
+            if (name.equals("tables")) {
+                schema.setTables(parseInt(value));
+            } else if (name.equals("rows")) {
+                schema.setRows(parseLong(value));
+            } else if (name.equals("columns")) {
+                schema.setColumns(parseInt(value));
+            } else if (name.equals("lob.ratio")) {
+                schema.setLobRatio(parseDouble(value));
+            } else if (name.equals("lob.size")) {
+                schema.setLobSize(parseInt(value));
+            } else if (name.equals("skewed")) {
+                schema.setSkewed(parseBoolean(value));
+            } else if (name.equals("formats")) {
+                formats = asList(value.split(","));
+            } else if (name.equals("threads")) {
+                threads = newArrayList();
+                for (String thread : value.split(",")) {
+                    threads.add(parseInt(thread));
+                }
+            } else if (name.equals("parallelizers")) {
+                parallelizers = asList(value.split(","));
+            } else if (name.equals("commit.strategies")) {
+                commitStrategies = asList(value.split(","));
+            } else if (name.startsWith("commit.")) {
+                commitStrategyAttributes.put(name.substring("commit.".length()), value);
+            } else if (name.equals("report")) {
+                report = value;
+            } else {
+                throw new IllegalArgumentException(format("Unknown argument %s", name));
+            }
+        }
+    }
+
+    public void run() throws Exception {
+        DriverConnectionSpec sourceSpec = createConnectionSpec("source");
+        Connection source = openConnection(sourceSpec);
+        try {
+            long start = nanoTime();
+            schema.create(source);
+            schema.populate(source);
+            System.out.println(format("Source %s populated in %d ms", schema,
+                    NANOSECONDS.toMillis(nanoTime() - start)));
+            List<Result> results = newArrayList();
+            for (String format : formats) {
+                for (Integer dumpThreads : threads) {
+                    results.addAll(run(sourceSpec, format, dumpThreads));
+                }
+            }
+            print(results);
+        } finally {
+            closeQuietly(source);
+        }
+    }
+
+    protected List<Result> run(DriverConnectionSpec sourceSpec, String format, int dumpThreads) throws Exception {
+        File output = createTempDirectory("harness").toFile();
+        try {
+            DumpJobSpec dumpJobSpec = new DumpJobSpec();
+            dumpJobSpec.setSourceSpec(sourceSpec);
+            dumpJobSpec.setOutputSpec(createResourceSpec(output, format));
+            dumpJobSpec.setThreads(dumpThreads);
+            dumpJobSpec.setTableTypes(TABLE_TYPES);
+            long dumpTime = execute(dumpJobSpec);
+            long backupSize = sizeOfDirectory(output);
+
+            List<Result> results = newArrayList();
+            for (Integer loadThreads : threads) {
+                for (String parallelizer : parallelizers) {
+                    for (String commitStrategy : commitStrategies) {
+                        Result result = new Result();
+                        result.format = format;
+                        result.dumpThreads = dumpThreads;
+                        result.dumpTime = dumpTime;
+                        result.backupSize = backupSize;
+                        result.loadThreads = loadThreads;
+                        result.parallelizer = parallelizer;
+                        result.commitStrategy = commitStrategy;
+                        load(output, result);
+                        results.add(result);
+                    }
+                }
+            }
+            return results;
+        } finally {
+            deleteQuietly(output);
+        }
+    }
+
+    protected void load(File input, Result result) throws Exception {
+        DriverConnectionSpec targetSpec = createConnectionSpec("target" + (++targets));
+        Connection target = openConnection(targetSpec);
+        try {
+            schema.create(target);
+            LoadJobSpec loadJobSpec = new LoadJobSpec();
+            loadJobSpec.setInputSpec(createResourceSpec(input, null));
+            loadJobSpec.setTargetSpec(targetSpec);
+            loadJobSpec.setMigrationModes(newHashSet(MigrationMode.DATA));
+            loadJobSpec.setThreads(result.loadThreads);
+            loadJobSpec.getMetaDataSpec().setTableTypes(TABLE_TYPES);
+            loadJobSpec.setParallelizer(createParallelizer(result.parallelizer));
+            loadJobSpec.setCommitStrategy(createCommitStrategy(result.commitStrategy));
+            result.loadTime = execute(loadJobSpec);
+            result.verified = verify(target);
+        } finally {
+            drop(target);
+        }
+    }
+
+    protected long execute(DumpJobSpec jobSpec) {
+        long start = nanoTime();
+        new Migrator().execute(jobSpec, newHashMap());
+        return nanoTime() - start;
+    }
+
+    protected long execute(LoadJobSpec jobSpec) {
+        long start = nanoTime();
+        new Migrator().execute(jobSpec, newHashMap());
+        return nanoTime() - start;
+    }
+
+    protected boolean verify(Connection target) throws SQLException {
+        Statement statement = target.createStatement();
+        try {
+            for (int table = 0; table < schema.getTables(); table++) {
+                ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + schema.getTableName(table));
+                try {
+                    if (!resultSet.next() || resultSet.getLong(1) != schema.getRows(table)) {
+                        return false;
+                    }
+                } finally {
+                    closeQuietly(resultSet);
+                }
+            }
+            return true;
+        } finally {
+            closeQuietly(statement);
+        }
+    }
+
+    protected void drop(Connection target) throws SQLException {
+        Statement statement = target.createStatement();
+        try {
+            statement.execute("SHUTDOWN");
+        } finally {
+            closeQuietly(statement);
+            closeQuietly(target);
+        }
+    }
+
+    protected DriverConnectionSpec createConnectionSpec(String database) {
+        DriverConnectionSpec connectionSpec = new DriverConnectionSpec();
+        connectionSpec.setDriver(DRIVER);
+        connectionSpec.setUrl(format(URL, database));
+        connectionSpec.setUsername(USERNAME);
+        connectionSpec.setPassword("");
+        connectionSpec.setSchema(SCHEMA);
+        return connectionSpec;
+    }
+
+    protected Connection openConnection(DriverConnectionSpec connectionSpec) throws Exception {
+        Class.forName(connectionSpec.getDriver());
+        return DriverManager.getConnection(connectionSpec.getUrl(), connectionSpec.getUsername(),
+                connectionSpec.getPassword());
+    }
+
+    protected ResourceSpec createResourceSpec(File path, String format) {
+        ResourceSpec resourceSpec = new ResourceSpec();
+        resourceSpec.setPath(path.getAbsolutePath());
+        resourceSpec.setType(format);
+        return resourceSpec;
+    }
+
+    protected Parallelizer createParallelizer(String parallelizer) {
+        if (PARALLELIZER_TABLE_LEVEL.equalsIgnoreCase(parallelizer)) {
+            return new TableLevelParallelizer();
+        } else if (PARALLELIZER_ROW_LEVEL.equalsIgnoreCase(parallelizer)) {
+            return new RowLevelParallelizer();
+        } else if (PARALLELIZER_CHUNK_LEVEL.equalsIgnoreCase(parallelizer)) {
+            return new ChunkLevelParallelizer();
+        } else if (PARALLELIZER_WORK_STEALING.equalsIgnoreCase(parallelizer)) {
+            return new WorkStealingParallelizer();
+        } else {
+            throw new IllegalArgumentException(format("Unknown parallelizer %s", parallelizer));
+        }
+    }
+
+    protected CommitStrategy createCommitStrategy(String commitStrategy) {
+        CommitStrategy strategy = INSTANCE.getCommitStrategyMap().get(commitStrategy);
+        if (strategy == null) {
+            throw new IllegalArgumentException(format("Unknown commit strategy %s", commitStrategy));
+        }
+        strategy.setAttributes(commitStrategyAttributes);
+        return strategy;
+    }
+
+    protected void print(List<Result> results) throws IOException {
+        String header = format("%-8s %6s %10s %12s %10s %6s %-14s %-10s %10s %12s %8s", "format", "dump.t", "dump.ms",
+                "dump.rows/s", "backup.mb", "load.t", "parallelizer", "commit", "load.ms", "load.rows/s", "verified");
+        System.out.println(header);
+        for (Result result : results) {
+            System.out.println(format("%-8s %6d %10d %12d %10.1f %6d %-14s %-10s %10d %12d %8s", result.format,
+                    result.dumpThreads, NANOSECONDS.toMillis(result.dumpTime), getRowsPerSecond(result.dumpTime),
+                    result.backupSize / (1024.0 * 1024.0), result.loadThreads, result.parallelizer,
+                    result.commitStrategy, NANOSECONDS.toMillis(result.loadTime), getRowsPerSecond(result.loadTime),
+                    result.verified));
+        }
+        if (report != null) {
+            PrintWriter writer = new PrintWriter(report, "UTF-8");
+            try {
+                writer.println("format,dump.threads,dump.ms,dump.rows/s,backup.bytes,load.threads,parallelizer," +
+                        "commit.strategy,load.ms,load.rows/s,verified");
+                for (Result result : results) {
+                    writer.println(format("%s,%d,%d,%d,%d,%d,%s,%s,%d,%d,%s", result.format, result.dumpThreads,
+                            NANOSECONDS.toMillis(result.dumpTime), getRowsPerSecond(result.dumpTime),
+                            result.backupSize, result.loadThreads, result.parallelizer, result.commitStrategy,
+                            NANOSECONDS.toMillis(result.loadTime), getRowsPerSecond(result.loadTime),
+                            result.verified));
+                }
+            } finally {
+                writer.close();
+            }
+        }
+    }
+
+    protected long getRowsPerSecond(long time) {
+        return time > 0 ? (long) (schema.getTotalRows() * 1e9 / time) : 0;
+    }
+
+    static class Result {
+        String format;
+        int dumpThreads;
+        long dumpTime;
+        long backupSize;
+        int loadThreads;
+        String parallelizer;
+        String commitStrategy;
+        long loadTime;
+        boolean verified;
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.FormatFactory;
+import com.nuodb.migrator.backup.format.Input;
+import com.nuodb.migrator.backup.format.Output;
+import com.nuodb.migrator.backup.format.SimpleFormatFactory;
+import com.nuodb.migrator.backup.format.value.Value;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures encode and decode throughput of each backup format in rows per
+ * second. A chunk of prepared rows is encoded to a discarding stream and
+ * decoded from memory, so that formats are compared without i/o. Run with {@code -prof gc}
+ * to compare allocation rate per row:
+ *
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar FormatBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = SECONDS)
+@Fork(1)
+public class FormatBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({ "csv", "xml", "bson", "columnar" })
+    private String format;
+
+    private FormatFactory formatFactory = new SimpleFormatFactory();
+    private Map<String, Object> attributes = Collections.emptyMap();
+    private RowSet rowSet;
+    private Value[][] rows;
+    private byte[] chunk;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rowSet = SyntheticRows.createRowSet();
+        rows = new Value[ROWS][];
+        for (int row = 0; row < ROWS; row++) {
+            rows[row] = SyntheticRows.fillValues(SyntheticRows.createValues(), row);
+        }
+        chunk = SyntheticRows.encode(formatFactory.createOutput(format, attributes), rowSet, 0, ROWS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void encode() {
+        Output output = formatFactory.createOutput(format, attributes);
+        output.setRowSet(rowSet);
+        output.setOutputStream(NullOutputStream.INSTANCE);
+        output.init();
+        output.writeStart();
+        for (int row = 0; row < ROWS; row++) {
+            output.writeValues(rows[row]);
+        }
+        output.writeEnd();
+        output.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void decode(Blackhole blackhole) {
+        Input input = formatFactory.createInput(format, attributes);
+        input.setRowSet(rowSet);
+        input.setInputStream(new ByteArrayInputStream(chunk));
+        input.init();
+        input.readStart();
+        Value[] values;
+        while ((values = input.readValues()) != null) {
+            blackhole.consume(values);
+        }
+        input.readEnd();
+        input.close();
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupOpsBase;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newConcurrentMap;
+
+/**
+ * Backup operations keeping chunks in memory, so that readers are measured
+ * without file system i/o
+ */
+class InMemoryBackupOps extends BackupOpsBase {
+
+    private final Map<String, byte[]> chunks = newConcurrentMap();
+
+    public void addChunk(String name, byte[] bytes) {
+        chunks.put(name, bytes);
+    }
+
+    @Override
+    public Long getLength(String name) {
+        byte[] bytes = chunks.get(name);
+        return bytes != null ? (long) bytes.length : 0L;
+    }
+
+    @Override
+    public InputStream openInput(String name) {
+        return new ByteArrayInputStream(chunks.get(name));
+    }
+
+    @Override
+    public OutputStream openOutput(String name, boolean append) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Backup read(InputStream input, Map context) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void write(Backup backup, OutputStream output, Map context) {
+        throw new UnsupportedOperationException();
+    }
+}
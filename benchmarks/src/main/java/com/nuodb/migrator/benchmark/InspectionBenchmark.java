@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import com.nuodb.migrator.jdbc.metadata.Identifier;
+import com.nuodb.migrator.jdbc.metadata.Schema;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionManager;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionResults;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static com.nuodb.migrator.benchmark.SyntheticCatalog.getTableName;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.CATALOG;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.COLUMN;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.DATABASE;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.FOREIGN_KEY;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.INDEX;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.PRIMARY_KEY;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.SCHEMA;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.TABLE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Measures inspection of a synthetic catalog of tens of thousands of tables
+ * served by a stub {@link java.sql.DatabaseMetaData}, so that time spent by
+ * inspectors & inspection results while stitching columns, keys & indexes to
+ * their tables is measured without a database. Lookup of every table by its
+ * identifier within the schema is measured separately:
+ *
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar InspectionBenchmark -p tables=50000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InspectionBenchmark {
+
+    @Param({ "50000" })
+    private int tables;
+
+    @Param({ "4" })
+    private int columns;
+
+    private Connection connection;
+    private InspectionManager inspectionManager;
+    private InspectionResults inspectionResults;
+    private Schema schema;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = new SyntheticCatalog(tables, columns).newConnection();
+        inspectionManager = new InspectionManager();
+        inspectionResults = inspect();
+        schema = inspectionResults.getObject(SCHEMA);
+    }
+
+    @Benchmark
+    public InspectionResults inspect() throws SQLException {
+        return inspectionManager.inspect(connection, DATABASE, CATALOG, SCHEMA, TABLE, COLUMN, PRIMARY_KEY, INDEX,
+                FOREIGN_KEY);
+    }
+
+    @Benchmark
+    public void lookup(Blackhole blackhole) {
+        for (int table = 0; table < tables; table++) {
+            Table object = inspectionResults.getObject(TABLE, schema, Identifier.valueOf(getTableName(table)));
+            blackhole.consume(object);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.FormatFactory;
+import com.nuodb.migrator.backup.format.SimpleFormatFactory;
+import com.nuodb.migrator.backup.format.value.ChunkCursor;
+import com.nuodb.migrator.backup.format.value.Row;
+import com.nuodb.migrator.backup.format.value.RowReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static com.nuodb.migrator.backup.format.value.RowReaders.newPartitionedRowReader;
+import static com.nuodb.migrator.backup.format.value.RowReaders.newSequentialRowReader;
+import static com.nuodb.migrator.backup.format.value.RowReaders.newSynchronizedRowReader;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Measures time a number of threads takes to drain a row set of in memory
+ * chunks, comparing a single synchronized reader shared by the threads as
+ * used by row level parallelizer with partitioned readers taking whole chunks
+ * from a shared cursor as used by chunk level & work stealing parallelizers.
+ * Each invocation drains a fresh row set, the number of threads is 4 unless
+ * overridden with {@code -t}:
+ *
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar RowReaderBenchmark -t 8 -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 10, batchSize = 1)
+@Measurement(iterations = 10, batchSize = 1)
+@Threads(4)
+@Fork(1)
+public class RowReaderBenchmark {
+
+    private static final int CHUNKS = 32;
+    private static final int CHUNK_ROWS = 10000;
+
+    @State(Scope.Benchmark)
+    public static class Chunks {
+
+        @Param({ "csv", "bson" })
+        private String format;
+
+        @Param({ "synchronized", "partitioned" })
+        private String reader;
+
+        private FormatFactory formatFactory = new SimpleFormatFactory();
+        private Map<String, Object> attributes = Collections.emptyMap();
+        private InMemoryBackupOps backupOps;
+        private RowSet rowSet;
+        private RowReader rowReader;
+        private ChunkCursor chunkCursor;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            backupOps = new InMemoryBackupOps();
+            rowSet = SyntheticRows.createRowSet();
+            for (int index = 0; index < CHUNKS; index++) {
+                Chunk chunk = new Chunk();
+                chunk.setName(rowSet.getName() + "." + (index + 1) + "." + format);
+                chunk.setRowCount(CHUNK_ROWS);
+                backupOps.addChunk(chunk.getName(), SyntheticRows.encode(
+                        formatFactory.createOutput(format, attributes), rowSet, index * CHUNK_ROWS, CHUNK_ROWS));
+                rowSet.addChunk(chunk);
+            }
+            new Backup(format).addRowSet(rowSet);
+        }
+
+        @Setup(Level.Iteration)
+        public void open() {
+            if ("synchronized".equals(reader)) {
+                rowReader = newSynchronizedRowReader(
+                        newSequentialRowReader(rowSet, backupOps, formatFactory, attributes));
+            } else {
+                chunkCursor = new ChunkCursor(rowSet);
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void close() {
+            if (rowReader != null) {
+                rowReader.close();
+                rowReader = null;
+            }
+        }
+
+        protected RowReader getRowReader() {
+            return rowReader != null ? rowReader
+                    : newPartitionedRowReader(rowSet, chunkCursor, backupOps, formatFactory, attributes);
+        }
+    }
+
+    @Benchmark
+    public long drain(Chunks chunks, Blackhole blackhole) {
+        RowReader rowReader = chunks.getRowReader();
+        long rows = 0;
+        Row row;
+        while ((row = rowReader.readRow()) != null) {
+            blackhole.consume(row);
+            rows++;
+        }
+        return rows;
+    }
+}
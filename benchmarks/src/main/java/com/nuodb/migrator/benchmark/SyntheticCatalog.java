@@ -0,0 +1,365 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.lang.String.format;
+
+/**
+ * Stand-in for a jdbc connection to a database holding a single schema of
+ * generated tables. Its {@link DatabaseMetaData} answers catalog, schema,
+ * table, column, primary key, index & imported key requests from the table
+ * number encoded in the name, so that inspection of a very large catalog is
+ * measured without a database. Every table has a primary key on its first
+ * column, an index on its second one and references the previous table.
+ */
+class SyntheticCatalog {
+
+    public static final String CATALOG = "SYNTHETIC";
+    public static final String SCHEMA = "PUBLIC";
+
+    private static final String[] CATALOGS = { "TABLE_CAT" };
+    private static final String[] SCHEMAS = { "TABLE_SCHEM", "TABLE_CATALOG" };
+    private static final String[] TABLES = { "TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "TABLE_TYPE", "REMARKS" };
+    private static final String[] COLUMNS = { "TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "COLUMN_NAME", "DATA_TYPE",
+            "TYPE_NAME", "COLUMN_SIZE", "DECIMAL_DIGITS", "REMARKS", "ORDINAL_POSITION", "IS_AUTOINCREMENT",
+            "IS_NULLABLE", "COLUMN_DEF" };
+    private static final String[] PRIMARY_KEYS = { "TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "COLUMN_NAME", "KEY_SEQ",
+            "PK_NAME" };
+    private static final String[] INDEXES = { "TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "NON_UNIQUE", "INDEX_NAME",
+            "TYPE", "ORDINAL_POSITION", "COLUMN_NAME", "ASC_OR_DESC", "FILTER_CONDITION" };
+    private static final String[] IMPORTED_KEYS = { "PKTABLE_CAT", "PKTABLE_SCHEM", "PKTABLE_NAME", "PKCOLUMN_NAME",
+            "FKTABLE_CAT", "FKTABLE_SCHEM", "FKTABLE_NAME", "FKCOLUMN_NAME", "KEY_SEQ", "UPDATE_RULE", "DELETE_RULE",
+            "FK_NAME", "PK_NAME", "DEFERRABILITY" };
+
+    private final int tables;
+    private final int columns;
+
+    public SyntheticCatalog(int tables, int columns) {
+        this.tables = tables;
+        this.columns = Math.max(columns, 2);
+    }
+
+    public Connection newConnection() {
+        ConnectionHandler handler = new ConnectionHandler();
+        Connection connection = newProxy(Connection.class, handler);
+        handler.metaData = newProxy(DatabaseMetaData.class, new MetaDataHandler(connection));
+        return connection;
+    }
+
+    public int getTables() {
+        return tables;
+    }
+
+    public static String getTableName(int table) {
+        return format("T%06d", table);
+    }
+
+    protected static String getColumnName(int column) {
+        return "C" + column;
+    }
+
+    /**
+     * @return table number or -1 if the name does not denote a table
+     */
+    protected int getTable(String tableName) {
+        int table = -1;
+        if (tableName != null && tableName.length() > 1 && tableName.charAt(0) == 'T') {
+            try {
+                table = Integer.parseInt(tableName.substring(1));
+            } catch (NumberFormatException exception) {
+                table = -1;
+            }
+        }
+        return table >= 0 && table < tables ? table : -1;
+    }
+
+    protected List<Object[]> getTableRows(String tableNamePattern) {
+        List<Object[]> rows = newArrayList();
+        if (tableNamePattern == null || tableNamePattern.equals("%")) {
+            for (int table = 0; table < tables; table++) {
+                rows.add(new Object[] { CATALOG, SCHEMA, getTableName(table), "TABLE", null });
+            }
+        } else if (getTable(tableNamePattern) >= 0) {
+            rows.add(new Object[] { CATALOG, SCHEMA, tableNamePattern, "TABLE", null });
+        }
+        return rows;
+    }
+
+    protected List<Object[]> getColumnRows(String tableNamePattern) {
+        List<Object[]> rows = newArrayList();
+        for (Object[] table : getTableRows(tableNamePattern)) {
+            for (int column = 1; column <= columns; column++) {
+                rows.add(new Object[] { CATALOG, SCHEMA, table[2], getColumnName(column),
+                        column == 1 ? Types.INTEGER : Types.VARCHAR, column == 1 ? "INTEGER" : "VARCHAR",
+                        column == 1 ? 10 : 255, 0, null, column, "NO", column == 1 ? "NO" : "YES", null });
+            }
+        }
+        return rows;
+    }
+
+    protected List<Object[]> getPrimaryKeyRows(String tableName) {
+        List<Object[]> rows = newArrayList();
+        if (getTable(tableName) >= 0) {
+            rows.add(new Object[] { CATALOG, SCHEMA, tableName, getColumnName(1), 1, "PK_" + tableName });
+        }
+        return rows;
+    }
+
+    protected List<Object[]> getIndexRows(String tableName) {
+        List<Object[]> rows = newArrayList();
+        if (getTable(tableName) >= 0) {
+            rows.add(new Object[] { CATALOG, SCHEMA, tableName, true, "IX_" + tableName,
+                    DatabaseMetaData.tableIndexOther, 1, getColumnName(2), "A", null });
+        }
+        return rows;
+    }
+
+    protected List<Object[]> getImportedKeyRows(String tableName) {
+        List<Object[]> rows = newArrayList();
+        int table = getTable(tableName);
+        if (table > 0) {
+            String primaryTableName = getTableName(table - 1);
+            rows.add(new Object[] { CATALOG, SCHEMA, primaryTableName, getColumnName(1), CATALOG, SCHEMA, tableName,
+                    getColumnName(2), 1, DatabaseMetaData.importedKeyRestrict, DatabaseMetaData.importedKeyRestrict,
+                    "FK_" + tableName, "PK_" + primaryTableName, DatabaseMetaData.importedKeyNotDeferrable });
+        }
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static <T> T newProxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SyntheticCatalog.class.getClassLoader(), new Class[] { type }, handler);
+    }
+
+    protected static ResultSet newResultSet(String[] labels, List<Object[]> rows) {
+        return newProxy(ResultSet.class, new ResultSetHandler(labels, rows));
+    }
+
+    /**
+     * Default value for the methods not answered by a handler
+     */
+    protected static Object getDefault(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == float.class) {
+            return 0F;
+        } else if (type == double.class) {
+            return 0D;
+        } else {
+            return null;
+        }
+    }
+
+    static class ConnectionHandler implements InvocationHandler {
+
+        private DatabaseMetaData metaData;
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getMetaData")) {
+                return metaData;
+            } else if (name.equals("close")) {
+                closed = true;
+                return null;
+            } else if (name.equals("isClosed")) {
+                return closed;
+            } else if (name.equals("getCatalog")) {
+                return CATALOG;
+            } else if (name.equals("getSchema")) {
+                return SCHEMA;
+            } else if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            } else if (name.equals("equals")) {
+                return proxy == args[0];
+            } else if (name.equals("toString")) {
+                return "SyntheticConnection";
+            }
+            return getDefault(method.getReturnType());
+        }
+    }
+
+    class MetaDataHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        MetaDataHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getConnection")) {
+                return connection;
+            } else if (name.equals("getDatabaseProductName")) {
+                return "Synthetic";
+            } else if (name.equals("getDatabaseProductVersion") || name.equals("getDriverVersion")) {
+                return "1.0";
+            } else if (name.equals("getDriverName")) {
+                return "Synthetic JDBC Driver";
+            } else if (name.equals("getDatabaseMajorVersion") || name.equals("getDriverMajorVersion")) {
+                return 1;
+            } else if (name.equals("getJDBCMajorVersion")) {
+                return 4;
+            } else if (name.equals("getURL")) {
+                return "jdbc:synthetic";
+            } else if (name.equals("getIdentifierQuoteString")) {
+                return "\"";
+            } else if (name.equals("getCatalogs")) {
+                List<Object[]> rows = newArrayList();
+                rows.add(new Object[] { CATALOG });
+                return newResultSet(CATALOGS, rows);
+            } else if (name.equals("getSchemas")) {
+                List<Object[]> rows = newArrayList();
+                rows.add(new Object[] { SCHEMA, CATALOG });
+                return newResultSet(SCHEMAS, rows);
+            } else if (name.equals("getTables")) {
+                return newResultSet(TABLES, getTableRows((String) args[2]));
+            } else if (name.equals("getColumns")) {
+                return newResultSet(COLUMNS, getColumnRows((String) args[2]));
+            } else if (name.equals("getPrimaryKeys")) {
+                return newResultSet(PRIMARY_KEYS, getPrimaryKeyRows((String) args[2]));
+            } else if (name.equals("getIndexInfo")) {
+                return newResultSet(INDEXES, getIndexRows((String) args[2]));
+            } else if (name.equals("getImportedKeys")) {
+                return newResultSet(IMPORTED_KEYS, getImportedKeyRows((String) args[2]));
+            } else if (method.getReturnType() == ResultSet.class) {
+                return newResultSet(new String[0], newArrayList());
+            }
+            return getDefault(method.getReturnType());
+        }
+    }
+
+    static class ResultSetHandler implements InvocationHandler {
+
+        private final String[] labels;
+        private final Map<String, Integer> indexes = newHashMap();
+        private final List<Object[]> rows;
+        private int row = -1;
+        private boolean wasNull;
+
+        ResultSetHandler(String[] labels, List<Object[]> rows) {
+            this.labels = labels;
+            this.rows = rows;
+            for (int index = 0; index < labels.length; index++) {
+                indexes.put(labels[index], index);
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("next")) {
+                return ++row < rows.size();
+            } else if (name.equals("getMetaData")) {
+                return newProxy(ResultSetMetaData.class, new ResultSetMetaDataHandler(labels));
+            } else if (name.equals("wasNull")) {
+                return wasNull;
+            } else if (name.equals("findColumn")) {
+                return getIndex(args[0]) + 1;
+            } else if (name.startsWith("get") && args != null && args.length == 1) {
+                Object value = rows.get(row)[getIndex(args[0])];
+                wasNull = value == null;
+                return getValue(value, method.getReturnType());
+            }
+            return getDefault(method.getReturnType());
+        }
+
+        protected int getIndex(Object column) throws SQLException {
+            Integer index = column instanceof Integer ? (Integer) column - 1 : indexes.get(column);
+            if (index == null || index < 0 || index >= labels.length) {
+                throw new SQLException(format("Column %s not found", column));
+            }
+            return index;
+        }
+
+        protected Object getValue(Object value, Class<?> type) {
+            if (value == null) {
+                return getDefault(type);
+            } else if (type == String.class) {
+                return value.toString();
+            } else if (type == int.class) {
+                return ((Number) value).intValue();
+            } else if (type == short.class) {
+                return ((Number) value).shortValue();
+            } else if (type == long.class) {
+                return ((Number) value).longValue();
+            } else {
+                return value;
+            }
+        }
+    }
+
+    static class ResultSetMetaDataHandler implements InvocationHandler {
+
+        private final String[] labels;
+
+        ResultSetMetaDataHandler(String[] labels) {
+            this.labels = labels;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getColumnCount")) {
+                return labels.length;
+            } else if (name.equals("getColumnLabel") || name.equals("getColumnName")) {
+                return labels[(Integer) args[0] - 1];
+            } else if (name.equals("getColumnType")) {
+                return Types.VARCHAR;
+            } else if (name.equals("getColumnTypeName")) {
+                return "VARCHAR";
+            }
+            return getDefault(method.getReturnType());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.Output;
+import com.nuodb.migrator.backup.format.value.MutableValue;
+import com.nuodb.migrator.backup.format.value.Value;
+
+import java.io.ByteArrayOutputStream;
+
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+
+/**
+ * Rows of a typical table, a key, a name, a decimal amount, a timestamp and a
+ * short binary payload, derived from the row number
+ */
+class SyntheticRows {
+
+    private SyntheticRows() {
+    }
+
+    public static RowSet createRowSet() {
+        RowSet rowSet = new RowSet();
+        rowSet.setName("synthetic");
+        rowSet.addColumn("id", STRING);
+        rowSet.addColumn("name", STRING);
+        rowSet.addColumn("amount", STRING);
+        rowSet.addColumn("created", STRING);
+        rowSet.addColumn("payload", BINARY);
+        return rowSet;
+    }
+
+    public static Value[] createValues() {
+        return new Value[] { new MutableValue(STRING), new MutableValue(STRING), new MutableValue(STRING),
+                new MutableValue(STRING), new MutableValue(BINARY) };
+    }
+
+    public static Value[] fillValues(Value[] values, long number) {
+        ((MutableValue) values[0]).setLong(number);
+        ((MutableValue) values[1]).setString("name " + (number & 1023));
+        ((MutableValue) values[2]).setString((number % 100000) + "." + (number % 100));
+        ((MutableValue) values[3]).setString("2020-01-01 12:00:00." + (number % 1000));
+        byte[] payload = new byte[16];
+        for (int offset = 0; offset < payload.length; offset++) {
+            payload[offset] = (byte) (number >>> offset);
+        }
+        ((MutableValue) values[4]).setBytes(payload);
+        return values;
+    }
+
+    /**
+     * Encodes rows with the given output into a byte array
+     *
+     * @param output
+     *            output to encode rows with
+     * @param rowSet
+     *            row set of the rows
+     * @param from
+     *            number of the first row
+     * @param rows
+     *            number of rows
+     * @return encoded rows
+     */
+    public static byte[] encode(Output output, RowSet rowSet, long from, int rows) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        output.setRowSet(rowSet);
+        output.setOutputStream(bytes);
+        output.init();
+        output.writeStart();
+        Value[] values = createValues();
+        for (long number = from; number < from + rows; number++) {
+            output.writeValues(fillValues(values, number));
+        }
+        output.writeEnd();
+        output.close();
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static java.lang.String.format;
+
+/**
+ * Generates synthetic schema of a configurable number of tables, each having a
+ * big int primary key followed by a given number of columns cycling through
+ * var char, integer, decimal, timestamp & double types. The lob ratio defines
+ * the share of columns declared as clob & blob holding values of the lob size.
+ * Table at index {@code i} has {@code rows * (i + 1)} rows when skewed, so that
+ * parallelizers are measured on tables of uneven size too.
+ */
+public class SyntheticSchema {
+
+    public static final String TABLE_NAME = "T%d";
+    public static final int BATCH_SIZE = 1000;
+
+    private int tables = 4;
+    private long rows = 100000;
+    private int columns = 8;
+    private double lobRatio;
+    private int lobSize = 4096;
+    private boolean skewed;
+
+    public String getTableName(int table) {
+        return format(TABLE_NAME, table + 1);
+    }
+
+    public long getRows(int table) {
+        return skewed ? rows * (table + 1) : rows;
+    }
+
+    public long getTotalRows() {
+        long totalRows = 0;
+        for (int table = 0; table < tables; table++) {
+            totalRows += getRows(table);
+        }
+        return totalRows;
+    }
+
+    public int getLobColumns() {
+        return (int) Math.round(columns * lobRatio);
+    }
+
+    public String getColumnType(int column) {
+        if (column >= columns - getLobColumns()) {
+            return column % 2 == 0 ? "CLOB" : "BLOB";
+        }
+        switch (column % 5) {
+        case 0:
+            return "VARCHAR(64)";
+        case 1:
+            return "INTEGER";
+        case 2:
+            return "DECIMAL(18,4)";
+        case 3:
+            return "TIMESTAMP";
+        default:
+            return "DOUBLE";
+        }
+    }
+
+    public void create(Connection connection) throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            for (int table = 0; table < tables; table++) {
+                StringBuilder create = new StringBuilder("CREATE TABLE ").append(getTableName(table));
+                create.append(" (ID BIGINT NOT NULL PRIMARY KEY");
+                for (int column = 0; column < columns; column++) {
+                    create.append(", C").append(column + 1).append(' ').append(getColumnType(column));
+                }
+                statement.execute(create.append(")").toString());
+            }
+        } finally {
+            closeQuietly(statement);
+        }
+    }
+
+    public void populate(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (int table = 0; table < tables; table++) {
+                populate(connection, table);
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    protected void populate(Connection connection, int table) throws SQLException {
+        StringBuilder insert = new StringBuilder("INSERT INTO ").append(getTableName(table)).append(" VALUES (?");
+        for (int column = 0; column < columns; column++) {
+            insert.append(", ?");
+        }
+        PreparedStatement statement = connection.prepareStatement(insert.append(")").toString());
+        try {
+            String clob = createClob();
+            byte[] blob = createBlob();
+            long rows = getRows(table);
+            for (long row = 0; row < rows; row++) {
+                statement.setLong(1, row);
+                for (int column = 0; column < columns; column++) {
+                    setValue(statement, column, row, clob, blob);
+                }
+                statement.addBatch();
+                if ((row + 1) % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        } finally {
+            closeQuietly(statement);
+        }
+    }
+
+    protected void setValue(PreparedStatement statement, int column, long row, String clob, byte[] blob)
+            throws SQLException {
+        int index = column + 2;
+        String type = getColumnType(column);
+        if (type.equals("CLOB")) {
+            statement.setString(index, clob);
+        } else if (type.equals("BLOB")) {
+            statement.setBytes(index, blob);
+        } else if (type.startsWith("VARCHAR")) {
+            statement.setString(index, "value " + row);
+        } else if (type.equals("INTEGER")) {
+            statement.setInt(index, (int) row);
+        } else if (type.startsWith("DECIMAL")) {
+            statement.setBigDecimal(index, BigDecimal.valueOf(row, 4));
+        } else if (type.equals("TIMESTAMP")) {
+            statement.setTimestamp(index, new Timestamp(row * 1000));
+        } else {
+            statement.setDouble(index, row / 3.0);
+        }
+    }
+
+    protected String createClob() {
+        char[] clob = new char[lobSize];
+        Arrays.fill(clob, 'x');
+        return new String(clob);
+    }
+
+    protected byte[] createBlob() {
+        byte[] blob = new byte[lobSize];
+        for (int index = 0; index < lobSize; index++) {
+            blob[index] = (byte) index;
+        }
+        return blob;
+    }
+
+    public int getTables() {
+        return tables;
+    }
+
+    public void setTables(int tables) {
+        this.tables = tables;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public void setColumns(int columns) {
+        this.columns = columns;
+    }
+
+    public double getLobRatio() {
+        return lobRatio;
+    }
+
+    public void setLobRatio(double lobRatio) {
+        this.lobRatio = lobRatio;
+    }
+
+    public int getLobSize() {
+        return lobSize;
+    }
+
+    public void setLobSize(int lobSize) {
+        this.lobSize = lobSize;
+    }
+
+    public boolean isSkewed() {
+        return skewed;
+    }
+
+    public void setSkewed(boolean skewed) {
+        this.skewed = skewed;
+    }
+
+    @Override
+    public String toString() {
+        return format("tables=%d rows=%d columns=%d lob.ratio=%s lob.size=%d skewed=%s", tables, rows, columns,
+                lobRatio, lobSize, skewed);
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Map;
+
+/**
+ * Stand-in for a result set column and a prepared statement parameter. Values
+ * are derived from the current row number and boxed the way a jdbc driver
+ * boxes a fetched value, bound values are kept as a driver would keep them
+ * until the statement is executed.
+ */
+class SyntheticValueAccess implements JdbcValueAccess<Object> {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final long EPOCH = 1577836800000L;
+
+    private final Field field;
+    private final int index;
+    private long row;
+    private Object value;
+
+    public SyntheticValueAccess(Field field, int index) {
+        this.field = field;
+        this.index = index;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    /**
+     * @return value bound by the last {@link #setValue(Object, Map)}
+     */
+    public Object getBoundValue() {
+        return value;
+    }
+
+    @Override
+    public Field getField() {
+        return field;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return null;
+    }
+
+    @Override
+    public Object getValue(Map<String, Object> options) {
+        long value = row * 31 + index;
+        switch (field.getTypeCode()) {
+        case Types.BIGINT:
+            return value;
+        case Types.INTEGER:
+            return (int) value;
+        case Types.SMALLINT:
+            return (short) value;
+        case Types.DOUBLE:
+            return value / 8.0;
+        case Types.DECIMAL:
+            return BigDecimal.valueOf(value, 2);
+        case Types.DATE:
+            return new Date(EPOCH + (value & 1023) * DAY);
+        case Types.TIME:
+            return new Time(value % DAY);
+        case Types.TIMESTAMP:
+            return new Timestamp(EPOCH + value * 1001);
+        case Types.BINARY:
+        case Types.VARBINARY:
+            byte[] bytes = new byte[16];
+            for (int offset = 0; offset < bytes.length; offset++) {
+                bytes[offset] = (byte) (value >>> offset);
+            }
+            return bytes;
+        default:
+            return "value " + (value & 1023);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <X> X getValue(Class<X> valueClass, Map<String, Object> options) {
+        Object value = getValue(options);
+        return (X) (valueClass == String.class ? value.toString() : value);
+    }
+
+    @Override
+    public <X> void setValue(X value, Map<String, Object> options) {
+        this.value = value;
+    }
+}
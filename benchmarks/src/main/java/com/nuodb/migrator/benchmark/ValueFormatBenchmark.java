@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import com.nuodb.migrator.backup.format.value.JdbcDateValueFormat;
+import com.nuodb.migrator.backup.format.value.JdbcTimestampValueFormat;
+import com.nuodb.migrator.backup.format.value.JdbcValueFormat;
+import com.nuodb.migrator.backup.format.value.MutableValue;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueFormat;
+import com.nuodb.migrator.jdbc.model.SimpleField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Types;
+import java.util.Collections;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures per type cost of a value format getting a value from a result set
+ * column into a reused value holder on dump and setting a value to a prepared
+ * statement parameter on load. Result set & prepared statement are synthetic
+ * stand-ins, so that the cost of the value format is measured without a jdbc
+ * driver. Run with {@code -prof gc} to compare allocation rate per value:
+ *
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar ValueFormatBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = SECONDS)
+@Fork(1)
+public class ValueFormatBenchmark {
+
+    private static final int VALUES = 1024;
+
+    @Param({ "BIGINT", "INTEGER", "DOUBLE", "DECIMAL", "VARCHAR", "VARBINARY", "DATE", "TIMESTAMP" })
+    private String type;
+
+    private Map<String, Object> options = Collections.emptyMap();
+    private ValueFormat<Object> valueFormat;
+    private SyntheticValueAccess access;
+    private MutableValue value;
+    private Value[] values;
+    private int number;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SimpleField field = new SimpleField();
+        field.setName(type.toLowerCase());
+        field.setTypeName(type);
+        field.setTypeCode(Types.class.getField(type).getInt(null));
+        valueFormat = createValueFormat(field.getTypeCode());
+        access = new SyntheticValueAccess(field, 1);
+        value = new MutableValue();
+        values = new Value[VALUES];
+        for (int index = 0; index < VALUES; index++) {
+            access.setRow(index);
+            MutableValue value = new MutableValue();
+            valueFormat.getValue(access, options, value);
+            values[index] = value;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected ValueFormat<Object> createValueFormat(int typeCode) {
+        switch (typeCode) {
+        case Types.DATE:
+            return (ValueFormat) new JdbcDateValueFormat();
+        case Types.TIMESTAMP:
+            return (ValueFormat) new JdbcTimestampValueFormat();
+        default:
+            return new JdbcValueFormat();
+        }
+    }
+
+    /**
+     * Value fetched from a result set column into a reused value holder
+     */
+    @Benchmark
+    public Value getValue() {
+        access.setRow(number++);
+        valueFormat.getValue(access, options, value);
+        return value;
+    }
+
+    /**
+     * Value parsed from a backup and bound to a prepared statement parameter
+     */
+    @Benchmark
+    public Object setValue() {
+        valueFormat.setValue(values[number++ & (VALUES - 1)], access, options);
+        return access.getBoundValue();
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.csv.CsvOutput;
+import com.nuodb.migrator.backup.format.value.JdbcValueFormat;
+import com.nuodb.migrator.backup.format.value.MutableValue;
+import com.nuodb.migrator.backup.format.value.Row;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueFormat;
+import com.nuodb.migrator.jdbc.model.SimpleField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Types;
+import java.util.Collections;
+import java.util.Map;
+
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures cost of a dumped row from jdbc value access to csv output, comparing
+ * a value allocated per cell and a row allocated per row with value holders
+ * and a row reused across rows. Run with {@code -prof gc} to compare allocation
+ * rate per row, which is reported as {@code gc.alloc.rate.norm}:
+ *
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar WriteRowBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = SECONDS)
+@Fork(1)
+public class WriteRowBenchmark {
+
+    private static final int[] TYPE_CODES = { Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.VARCHAR,
+            Types.DECIMAL, Types.BIGINT, Types.INTEGER, Types.VARCHAR };
+
+    private ValueFormat<Object> valueFormat = new JdbcValueFormat();
+    private Map<String, Object> options = Collections.emptyMap();
+    private SyntheticValueAccess[] accesses;
+    private CsvOutput output;
+    private Value[] values;
+    private Row row;
+    private long number;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RowSet rowSet = new RowSet();
+        accesses = new SyntheticValueAccess[TYPE_CODES.length];
+        values = new Value[TYPE_CODES.length];
+        for (int index = 0; index < TYPE_CODES.length; index++) {
+            SimpleField field = new SimpleField();
+            field.setName("column" + index);
+            field.setTypeCode(TYPE_CODES[index]);
+            accesses[index] = new SyntheticValueAccess(field, index + 1);
+            values[index] = new MutableValue(STRING);
+            rowSet.addColumn(field.getName(), STRING);
+        }
+        output = new CsvOutput();
+        output.setRowSet(rowSet);
+        output.setWriter(new NullWriter());
+        output.init();
+        output.writeStart();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        output.writeEnd();
+        output.close();
+    }
+
+    /**
+     * Value per cell and row per row, as rows were written before value holders
+     */
+    @Benchmark
+    public Row allocatingRow() {
+        Value[] values = new Value[accesses.length];
+        for (int index = 0; index < accesses.length; index++) {
+            accesses[index].setRow(number);
+            values[index] = valueFormat.getValue(accesses[index], options);
+        }
+        output.writeValues(values);
+        return new Row(null, values, number++);
+    }
+
+    /**
+     * Value holders per column and a row refilled for every row
+     */
+    @Benchmark
+    public Row reusableRow() {
+        for (int index = 0; index < accesses.length; index++) {
+            accesses[index].setRow(number);
+            valueFormat.getValue(accesses[index], options, (MutableValue) values[index]);
+        }
+        output.writeValues(values);
+        if (row == null) {
+            row = new Row(null, values, number);
+        } else {
+            row.setNumber(number);
+        }
+        number++;
+        return row;
+    }
+}
@@ -0,0 +1,366 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup;
+
+import com.nuodb.migrator.backup.format.value.ValueType;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.apache.commons.lang3.StringUtils.EMPTY;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.apache.commons.lang3.StringUtils.join;
+import static org.apache.commons.lang3.StringUtils.split;
+import static org.apache.commons.lang3.StringUtils.splitPreserveAllTokens;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Checkpoint journal kept alongside the backup catalog. Dump records chunks of
+ * each query split as they are fully written & splits once all of their rows
+ * are written along with the bounds of the rows the split reads, load records
+ * number of rows committed per chunk & completed schema and constraint
+ * scripts, so that a failed dump or load can be resumed skipping the work
+ * completed by the previous runs. Every record is a tab
+ * separated line appended & flushed to the journal file, a truncated trailing
+ * line left by a crash is ignored on read & cut off on resume.
+ */
+public class BackupJournal implements Closeable {
+
+    public static final String DUMP_JOURNAL = "dump.journal";
+    public static final String LOAD_JOURNAL = "load.journal";
+
+    private static final char SEPARATOR = '\t';
+    private static final String STARTED = "started";
+    private static final String WRITTEN = "written";
+    private static final String COMPLETED = "completed";
+    private static final String LOADED = "loaded";
+    private static final String DONE = "done";
+    private static final String LOB = ":lob";
+
+    private final transient Logger logger = getLogger(getClass());
+
+    private final BackupOps backupOps;
+    private final String name;
+    private final Map<String, Map<String, Chunk>> writtenChunks = newHashMap();
+    private final Map<String, Collection<Column>> completedSplits = newHashMap();
+    private final Map<String, String> splitBounds = newHashMap();
+    private final Map<String, Long> loadedChunks = newHashMap();
+    private final Set<String> done = newHashSet();
+    private Writer writer;
+
+    public BackupJournal(BackupOps backupOps, String name) {
+        this.backupOps = backupOps;
+        this.name = name;
+    }
+
+    /**
+     * Opens journal for writing, reading records of the previous runs first if
+     * resume is requested, otherwise the journal is truncated. A truncated
+     * trailing line is cut off the resumed journal, so that appended records
+     * start on a line of their own.
+     *
+     * @param resume
+     *            true to resume work recorded in the existing journal
+     */
+    public synchronized void open(boolean resume) {
+        String records = resume ? read() : null;
+        writer = new BufferedWriter(
+                new OutputStreamWriter(backupOps.openOutput(name, resume && records == null), UTF_8));
+        if (records != null) {
+            try {
+                writer.write(records);
+                writer.flush();
+            } catch (IOException exception) {
+                throw new BackupException(format("Error writing journal %s", name), exception);
+            }
+        }
+    }
+
+    /**
+     * Reads complete records of the journal
+     *
+     * @return complete records to rewrite the journal with if the journal ends
+     *         with a truncated line, otherwise null
+     */
+    protected String read() {
+        Long length = backupOps.getLength(name);
+        if (length == null || length == 0) {
+            return null;
+        }
+        String journal;
+        InputStream input = backupOps.openInput(name);
+        try {
+            journal = IOUtils.toString(input, UTF_8);
+        } catch (IOException exception) {
+            throw new BackupException(format("Error reading journal %s", name), exception);
+        } finally {
+            closeQuietly(input);
+        }
+        String records = journal.substring(0, journal.lastIndexOf('\n') + 1);
+        for (String line : split(records, '\n')) {
+            try {
+                read(splitPreserveAllTokens(line, SEPARATOR));
+            } catch (RuntimeException exception) {
+                if (logger.isTraceEnabled()) {
+                    logger.trace(format("Skipping malformed journal record %s", line), exception);
+                }
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Resuming from journal %s with %d completed split(s) & %d loaded chunk(s)", name,
+                    completedSplits.size(), loadedChunks.size()));
+        }
+        return records.length() < journal.length() ? records : null;
+    }
+
+    protected void read(String[] record) {
+        String type = record[0];
+        if (STARTED.equals(type)) {
+            removeSplit(record[1]);
+        } else if (WRITTEN.equals(type)) {
+            Chunk chunk = new Chunk();
+            chunk.setName(record[2]);
+            chunk.setCodec(isEmpty(record[3]) ? null : record[3]);
+            chunk.setRowCount(parseLong(record[4]));
+            chunk.setLobs(record.length > 5 && !isEmpty(record[5]) ? record[5] : null);
+            addWrittenChunk(record[1], chunk);
+        } else if (COMPLETED.equals(type)) {
+            Collection<Column> columns = newArrayList();
+            for (int index = 3; index + 1 < record.length; index += 2) {
+                String valueType = record[index + 1];
+                boolean lob = valueType.endsWith(LOB);
+                if (lob) {
+                    valueType = valueType.substring(0, valueType.length() - LOB.length());
+                }
+                Column column = new Column(record[index], ValueType.fromAlias(valueType));
+                column.setLob(lob);
+                columns.add(column);
+            }
+            addCompletedSplit(record[1], record[2], columns);
+        } else if (LOADED.equals(type)) {
+            addLoadedChunk(record[1], parseLong(record[2]));
+        } else if (DONE.equals(type)) {
+            done.add(record[1]);
+        }
+    }
+
+    /**
+     * Records start of the split discarding chunks written by the previous
+     * attempts of the split
+     *
+     * @param split
+     *            name of the split
+     * @param bounds
+     *            bounds of the rows read by the split or null
+     */
+    public synchronized void startSplit(String split, String bounds) {
+        removeSplit(split);
+        write(STARTED, split, bounds != null ? bounds : EMPTY);
+    }
+
+    public synchronized void writeChunk(String split, Chunk chunk) {
+        addWrittenChunk(split, chunk);
+        write(WRITTEN, split, chunk.getName(), chunk.getCodec() != null ? chunk.getCodec() : EMPTY,
+                chunk.getRowCount(), chunk.getLobs() != null ? chunk.getLobs() : EMPTY);
+    }
+
+    public synchronized void completeSplit(String split, String bounds, Collection<Column> columns) {
+        addCompletedSplit(split, bounds, columns);
+        Collection<Object> record = newArrayList();
+        record.add(COMPLETED);
+        record.add(split);
+        record.add(bounds != null ? bounds : EMPTY);
+        for (Column column : columns) {
+            record.add(column.getName());
+            record.add(ValueType.toAlias(column.getValueType()) + (column.isLob() ? LOB : EMPTY));
+        }
+        write(record.toArray());
+    }
+
+    public synchronized boolean isSplitCompleted(String split) {
+        return completedSplits.containsKey(split);
+    }
+
+    /**
+     * Chunks written by the completed split
+     *
+     * @param split
+     *            name of the split
+     * @return copies of the split chunks or null if the split is not completed
+     */
+    public synchronized Collection<Chunk> getChunks(String split) {
+        if (!completedSplits.containsKey(split)) {
+            return null;
+        }
+        Collection<Chunk> chunks = newArrayList();
+        Map<String, Chunk> splitChunks = writtenChunks.get(split);
+        if (splitChunks != null) {
+            for (Chunk splitChunk : splitChunks.values()) {
+                Chunk chunk = new Chunk();
+                chunk.setName(splitChunk.getName());
+                chunk.setCodec(splitChunk.getCodec());
+                chunk.setRowCount(splitChunk.getRowCount());
+                chunk.setLobs(splitChunk.getLobs());
+                chunks.add(chunk);
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Bounds of the rows read by the completed split, which are compared with
+     * the bounds of the split planned by the resumed run
+     *
+     * @param split
+     *            name of the split
+     * @return bounds or null if the split is not completed or is not bounded
+     */
+    public synchronized String getBounds(String split) {
+        return splitBounds.get(split);
+    }
+
+    /**
+     * Columns of the row set written by the completed split
+     *
+     * @param split
+     *            name of the split
+     * @return columns or null if the split is not completed
+     */
+    public synchronized Collection<Column> getColumns(String split) {
+        return completedSplits.get(split);
+    }
+
+    /**
+     * Records number of rows of the chunk committed to the target database,
+     * the record is skipped if the chunk has at least as many rows recorded
+     *
+     * @param chunk
+     *            loaded chunk
+     * @param rows
+     *            number of rows loaded from the start of the chunk
+     */
+    public synchronized void loadChunk(Chunk chunk, long rows) {
+        if (addLoadedChunk(chunk.getName(), rows)) {
+            write(LOADED, chunk.getName(), rows);
+        }
+    }
+
+    public synchronized long getLoadedRows(Chunk chunk) {
+        Long rows = loadedChunks.get(chunk.getName());
+        return rows != null ? rows : 0;
+    }
+
+    public synchronized boolean isChunkLoaded(Chunk chunk) {
+        return getLoadedRows(chunk) >= chunk.getRowCount();
+    }
+
+    public synchronized void done(String key) {
+        if (done.add(key)) {
+            write(DONE, key);
+        }
+    }
+
+    public synchronized boolean isDone(String key) {
+        return done.contains(key);
+    }
+
+    protected void removeSplit(String split) {
+        writtenChunks.remove(split);
+        completedSplits.remove(split);
+        splitBounds.remove(split);
+    }
+
+    protected void addCompletedSplit(String split, String bounds, Collection<Column> columns) {
+        completedSplits.put(split, columns);
+        if (!isEmpty(bounds)) {
+            splitBounds.put(split, bounds);
+        } else {
+            splitBounds.remove(split);
+        }
+    }
+
+    protected void addWrittenChunk(String split, Chunk chunk) {
+        Map<String, Chunk> chunks = writtenChunks.get(split);
+        if (chunks == null) {
+            writtenChunks.put(split, chunks = newLinkedHashMap());
+        }
+        chunks.put(chunk.getName(), chunk);
+    }
+
+    protected boolean addLoadedChunk(String chunk, long rows) {
+        Long loadedRows = loadedChunks.get(chunk);
+        if (loadedRows == null || loadedRows < rows) {
+            loadedChunks.put(chunk, rows);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    protected void write(Object... record) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.write(join(record, SEPARATOR));
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException exception) {
+            throw new BackupException(format("Error writing journal %s", name), exception);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (writer != null) {
+            closeQuietly(writer);
+            writer = null;
+        }
+    }
+}
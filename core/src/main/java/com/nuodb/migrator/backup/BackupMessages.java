@@ -37,4 +37,5 @@ public interface BackupMessages {
     String LOAD_CONSTRAINT_WORK = "com.nuodb.migrator.backup.loader.LoadConstraintWork";
     String WRITE_QUERIES_WORK = "com.nuodb.migrator.backup.writer.WriteQueriesWork";
     String WRITE_QUERY_WORK = "com.nuodb.migrator.backup.writer.WriteQueryWork";
+    String PLAN_QUERY_WORK = "com.nuodb.migrator.backup.writer.PlanQueryWork";
 }
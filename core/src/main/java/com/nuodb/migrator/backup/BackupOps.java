@@ -60,6 +60,8 @@ public interface BackupOps {
 
     OutputStream openOutput(String name);
 
+    OutputStream openOutput(String name, boolean append);
+
     Backup read();
 
     Backup read(Map context);
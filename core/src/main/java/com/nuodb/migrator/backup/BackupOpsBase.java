@@ -133,12 +133,17 @@ public abstract class BackupOpsBase implements BackupOps {
 
     @Override
     public OutputStream openOutput(String name) {
+        return openOutput(name, false);
+    }
+
+    @Override
+    public OutputStream openOutput(String name, boolean append) {
         try {
             File file = FileUtils.getFile(getDir(), name);
             if (logger.isTraceEnabled()) {
-                logger.trace(format("Opening file for writing %s", file.getPath()));
+                logger.trace(format("Opening file for %s %s", append ? "appending" : "writing", file.getPath()));
             }
-            return openOutputStream(file);
+            return openOutputStream(file, append);
         } catch (IOException exception) {
             throw new BackupException("Error opening file for writing", exception);
         }
@@ -38,6 +38,8 @@ public class Chunk implements HasSize {
 
     private String name;
     private Long size;
+    private String codec;
+    private String lobs;
     private AtomicLong rowCount = new AtomicLong();
     private transient RowSet rowSet;
 
@@ -49,6 +51,35 @@ public class Chunk implements HasSize {
         this.name = name;
     }
 
+    /**
+     * Name of the codec the chunk is compressed with, null if the chunk is not
+     * compressed
+     *
+     * @return codec name or null
+     */
+    public String getCodec() {
+        return codec;
+    }
+
+    public void setCodec(String codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Name of the file holding large objects of the chunk, which are
+     * referenced from the chunk rows by offset & length, null if large objects
+     * are written inline
+     *
+     * @return lob file name or null
+     */
+    public String getLobs() {
+        return lobs;
+    }
+
+    public void setLobs(String lobs) {
+        this.lobs = lobs;
+    }
+
     @Override
     public Long getSize() {
         return size;
@@ -37,6 +37,7 @@ public class Column {
 
     private String name;
     private ValueType valueType;
+    private boolean lob;
     private transient RowSet rowSet;
 
     public Column() {
@@ -63,6 +64,20 @@ public class Column {
         this.valueType = valueType;
     }
 
+    /**
+     * Tells if values of the column are large objects written to the lob file
+     * of the chunk and referenced from the chunk rows
+     *
+     * @return true if the column values are lob references
+     */
+    public boolean isLob() {
+        return lob;
+    }
+
+    public void setLob(boolean lob) {
+        this.lob = lob;
+    }
+
     public RowSet getRowSet() {
         return rowSet;
     }
@@ -84,6 +99,8 @@ public class Column {
             return false;
         if (valueType != null ? !valueType.equals(column.valueType) : column.valueType != null)
             return false;
+        if (lob != column.lob)
+            return false;
 
         return true;
     }
@@ -92,6 +109,7 @@ public class Column {
     public int hashCode() {
         int result = name != null ? name.hashCode() : 0;
         result = 31 * result + (valueType != null ? valueType.hashCode() : 0);
+        result = 31 * result + (lob ? 1 : 0);
         return result;
     }
 
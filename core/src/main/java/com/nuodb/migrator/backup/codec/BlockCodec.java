@@ -0,0 +1,337 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.codec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static java.lang.Math.min;
+import static java.lang.String.format;
+
+/**
+ * Compresses chunks as a sequence of independently deflated blocks, each
+ * prefixed with its decoded and encoded length. A decoded stream skips whole
+ * blocks by their headers without inflating them, which makes chunks written
+ * with the codec splittable.
+ */
+public class BlockCodec implements SplittableCodec {
+
+    public static final String NAME = "block";
+
+    public static final int BLOCK_SIZE = 1048576;
+
+    private final int level;
+    private final int blockSize;
+
+    public BlockCodec(int level, int blockSize) {
+        this.level = level;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getExtension() {
+        return "blk";
+    }
+
+    @Override
+    public OutputStream encode(OutputStream outputStream) {
+        return new BlockOutputStream(outputStream, level, blockSize);
+    }
+
+    @Override
+    public InputStream decode(InputStream inputStream) {
+        return new BlockInputStream(inputStream);
+    }
+
+    @Override
+    public long getLength(InputStream inputStream, long length) throws IOException {
+        DataInputStream input = new DataInputStream(inputStream);
+        long decodedLength = 0;
+        long offset = 0;
+        while (offset < length) {
+            int decodedBlockLength = input.readInt();
+            int encodedBlockLength = input.readInt();
+            skipFully(input, encodedBlockLength);
+            decodedLength += decodedBlockLength;
+            offset += 8 + encodedBlockLength;
+        }
+        return decodedLength;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    static void skipFully(InputStream input, long length) throws IOException {
+        while (length > 0) {
+            long skipped = input.skip(length);
+            if (skipped <= 0) {
+                if (input.read() < 0) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            length -= skipped;
+        }
+    }
+
+    static class BlockOutputStream extends FilterOutputStream {
+
+        private final Deflater deflater;
+        private final byte[] block;
+        private byte[] encoded;
+        private int position;
+
+        public BlockOutputStream(OutputStream outputStream, int level, int blockSize) {
+            super(new DataOutputStream(outputStream));
+            this.deflater = new Deflater(level);
+            this.block = new byte[blockSize];
+            this.encoded = new byte[blockSize + (blockSize >> 3) + 64];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (position == block.length) {
+                writeBlock();
+            }
+            block[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (position == block.length) {
+                    writeBlock();
+                }
+                int count = min(length, block.length - position);
+                System.arraycopy(bytes, offset, block, position, count);
+                position += count;
+                offset += count;
+                length -= count;
+            }
+        }
+
+        protected void writeBlock() throws IOException {
+            if (position == 0) {
+                return;
+            }
+            deflater.reset();
+            deflater.setInput(block, 0, position);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == encoded.length) {
+                    byte[] encoded = new byte[this.encoded.length * 2];
+                    System.arraycopy(this.encoded, 0, encoded, 0, length);
+                    this.encoded = encoded;
+                }
+                length += deflater.deflate(encoded, length, encoded.length - length);
+            }
+            DataOutputStream output = (DataOutputStream) out;
+            output.writeInt(position);
+            output.writeInt(length);
+            output.write(encoded, 0, length);
+            position = 0;
+        }
+
+        /**
+         * Flushes the underlying stream only, a partial block is kept until it
+         * is full or the stream is closed, so that flushes do not produce
+         * small blocks compressing poorly
+         */
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                writeBlock();
+                super.close();
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    static class BlockInputStream extends FilterInputStream {
+
+        private final Inflater inflater = new Inflater();
+        private byte[] block = new byte[0];
+        private byte[] encoded = new byte[0];
+        private int position;
+        private int length;
+        private boolean end;
+
+        public BlockInputStream(InputStream inputStream) {
+            super(new DataInputStream(inputStream));
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == length && !readBlock()) {
+                return -1;
+            }
+            return block[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (position == this.length && !readBlock()) {
+                return -1;
+            }
+            int count = min(length, this.length - position);
+            System.arraycopy(block, position, bytes, offset, count);
+            position += count;
+            return count;
+        }
+
+        /**
+         * Skips blocks entirely covered by the skipped length by their
+         * headers, only the block containing the target offset is inflated
+         */
+        @Override
+        public long skip(long skip) throws IOException {
+            long skipped = 0;
+            int buffered = length - position;
+            if (skip <= buffered) {
+                position += skip;
+                return skip;
+            }
+            skipped += buffered;
+            position = length;
+            DataInputStream input = (DataInputStream) in;
+            while (skipped < skip && !end) {
+                int decodedLength;
+                try {
+                    decodedLength = input.readInt();
+                } catch (EOFException exception) {
+                    end = true;
+                    break;
+                }
+                int encodedLength = input.readInt();
+                if (skipped + decodedLength <= skip) {
+                    skipFully(input, encodedLength);
+                    skipped += decodedLength;
+                } else {
+                    inflate(decodedLength, encodedLength);
+                    position = (int) (skip - skipped);
+                    skipped = skip;
+                }
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return length - position;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        protected boolean readBlock() throws IOException {
+            if (end) {
+                return false;
+            }
+            DataInputStream input = (DataInputStream) in;
+            int decodedLength;
+            try {
+                decodedLength = input.readInt();
+            } catch (EOFException exception) {
+                end = true;
+                return false;
+            }
+            inflate(decodedLength, input.readInt());
+            return true;
+        }
+
+        protected void inflate(int decodedLength, int encodedLength) throws IOException {
+            if (encoded.length < encodedLength) {
+                encoded = new byte[encodedLength];
+            }
+            if (block.length < decodedLength) {
+                block = new byte[decodedLength];
+            }
+            ((DataInputStream) in).readFully(encoded, 0, encodedLength);
+            inflater.reset();
+            inflater.setInput(encoded, 0, encodedLength);
+            try {
+                int inflated = 0;
+                while (inflated < decodedLength) {
+                    int count = inflater.inflate(block, inflated, decodedLength - inflated);
+                    if (count == 0 && (inflater.finished() || inflater.needsInput())) {
+                        break;
+                    }
+                    inflated += count;
+                }
+                if (inflated != decodedLength) {
+                    throw new IOException(
+                            format("Block is corrupted, %d bytes are inflated out of %d", inflated, decodedLength));
+                }
+            } catch (DataFormatException exception) {
+                throw new IOException(exception);
+            }
+            position = 0;
+            length = decodedLength;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+}
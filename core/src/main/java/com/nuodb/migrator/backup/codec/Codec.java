@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compresses chunk files on write and decompresses them on read. Name of the
+ * codec is recorded per chunk in the backup catalog, so that chunks are read
+ * with the codec they were written with.
+ */
+public interface Codec {
+
+    /**
+     * Name of the codec to compress chunks with: none, gzip, deflate or block.
+     */
+    final String ATTRIBUTE_CODEC = "codec";
+    /**
+     * Compression level from 0 (no compression) to 9 (best compression).
+     */
+    final String ATTRIBUTE_CODEC_LEVEL = "codec.level";
+    /**
+     * Number of uncompressed bytes per independently compressed block of the
+     * block codec.
+     */
+    final String ATTRIBUTE_CODEC_BLOCK_SIZE = "codec.block.size";
+
+    String getName();
+
+    /**
+     * Extension appended to names of chunks written with the codec
+     *
+     * @return extension without a leading dot or null
+     */
+    String getExtension();
+
+    OutputStream encode(OutputStream outputStream) throws IOException;
+
+    InputStream decode(InputStream inputStream) throws IOException;
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.codec;
+
+import com.nuodb.migrator.backup.BackupException;
+import com.nuodb.migrator.backup.Chunk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import static com.nuodb.migrator.backup.codec.Codec.ATTRIBUTE_CODEC;
+import static com.nuodb.migrator.backup.codec.Codec.ATTRIBUTE_CODEC_BLOCK_SIZE;
+import static com.nuodb.migrator.backup.codec.Codec.ATTRIBUTE_CODEC_LEVEL;
+import static java.lang.Integer.parseInt;
+import static java.lang.String.format;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Resolves codecs from format attributes on write and from chunk codec names
+ * on read
+ */
+public class Codecs {
+
+    public static final Codec NONE = new NoneCodec();
+
+    private Codecs() {
+    }
+
+    /**
+     * Creates codec configured with codec, codec.level & codec.block.size
+     * attributes
+     *
+     * @param attributes
+     *            format attributes
+     * @return codec, none if codec attribute is not set
+     */
+    public static Codec createCodec(Map<String, Object> attributes) {
+        String name = attributes != null ? (String) attributes.get(ATTRIBUTE_CODEC) : null;
+        String level = attributes != null ? (String) attributes.get(ATTRIBUTE_CODEC_LEVEL) : null;
+        String blockSize = attributes != null ? (String) attributes.get(ATTRIBUTE_CODEC_BLOCK_SIZE) : null;
+        return createCodec(name, isEmpty(level) ? Deflater.DEFAULT_COMPRESSION : parseInt(level),
+                isEmpty(blockSize) ? BlockCodec.BLOCK_SIZE : parseInt(blockSize));
+    }
+
+    public static Codec createCodec(String name, int level, int blockSize) {
+        if (isEmpty(name) || NoneCodec.NAME.equalsIgnoreCase(name)) {
+            return NONE;
+        } else if (GzipCodec.NAME.equalsIgnoreCase(name)) {
+            return new GzipCodec(level);
+        } else if (DeflateCodec.NAME.equalsIgnoreCase(name)) {
+            return new DeflateCodec(level);
+        } else if (BlockCodec.NAME.equalsIgnoreCase(name)) {
+            return new BlockCodec(level, blockSize);
+        } else {
+            throw new BackupException(format("Codec %s is not supported", name));
+        }
+    }
+
+    /**
+     * Codec a chunk was written with, level and block size are irrelevant for
+     * decoding
+     *
+     * @param chunk
+     *            chunk to read
+     * @return chunk codec
+     */
+    public static Codec getCodec(Chunk chunk) {
+        return createCodec(chunk.getCodec(), Deflater.DEFAULT_COMPRESSION, BlockCodec.BLOCK_SIZE);
+    }
+
+    public static OutputStream encode(Codec codec, OutputStream outputStream) {
+        try {
+            return codec.encode(outputStream);
+        } catch (IOException exception) {
+            throw new BackupException(format("Can't encode output with %s codec", codec.getName()), exception);
+        }
+    }
+
+    public static InputStream decode(Chunk chunk, InputStream inputStream) {
+        Codec codec = getCodec(chunk);
+        try {
+            return codec.decode(inputStream);
+        } catch (IOException exception) {
+            throw new BackupException(format("Can't decode chunk %s with %s codec", chunk.getName(),
+                    codec.getName()), exception);
+        }
+    }
+}
@@ -27,12 +27,12 @@
  */
 package com.nuodb.migrator.backup.format;
 
+import com.nuodb.migrator.utils.CharSequenceBufferedWriter;
 import com.nuodb.migrator.utils.Counting;
 import com.nuodb.migrator.utils.CountingOutputStream;
 import com.nuodb.migrator.utils.CountingWriter;
 
 import java.io.BufferedOutputStream;
-import java.io.BufferedWriter;
 import java.io.OutputStream;
 import java.io.Writer;
 
@@ -99,7 +99,7 @@ public abstract class OutputBase extends FormatBase implements Output {
 
     protected Writer wrapWriter(Writer writer) {
         writer = isCounting() ? (Writer) (counting = new CountingWriter(writer)) : writer;
-        writer = isBuffering() ? new BufferedWriter(writer, getBufferSize()) : writer;
+        writer = isBuffering() ? new CharSequenceBufferedWriter(writer, getBufferSize()) : writer;
         return writer;
     }
 
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format;
+
+import java.io.InputStream;
+
+/**
+ * Input reading a chunk in a number of record aligned byte ranges, so that
+ * each of the ranges can be parsed by its own input concurrently.
+ */
+public interface SplittableInput extends Input {
+
+    /**
+     * Scans content of the input stream for the record boundaries closest to
+     * the evenly distributed offsets. Input attributes defining record
+     * separation should be set before the call.
+     *
+     * @param inputStream
+     *            stream over the whole chunk
+     * @param length
+     *            length of the chunk in bytes
+     * @param ranges
+     *            requested number of ranges
+     * @return ascending offsets starting with 0 and ending with length, range
+     *         i is [offsets[i], offsets[i + 1]), there may be less ranges than
+     *         requested
+     */
+    long[] split(InputStream inputStream, long length, int ranges);
+
+    /**
+     * Restricts reading of the input stream to the given range of bytes, the
+     * stream set with {@link #setInputStream(InputStream)} is positioned at 0.
+     *
+     * @param start
+     *            offset of the first byte of the range
+     * @param end
+     *            offset next to the last byte of the range
+     */
+    void setRange(long start, long end);
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.columnar;
+
+/**
+ * Binary format storing rows in blocks, where each block is laid out column by
+ * column. A block starts with its row count followed by every column encoded
+ * as an encoding marker, a null bitmap and non null values. Integral string
+ * columns are stored as fixed width offsets from the block minimum, low
+ * cardinality string columns are stored as a dictionary and fixed width codes,
+ * other columns as length prefixed bytes. A block with 0 rows ends the chunk.
+ */
+public interface ColumnarFormat {
+
+    final String TYPE = "columnar";
+
+    /**
+     * Maximum number of rows buffered and encoded as a single block.
+     */
+    final String ATTRIBUTE_BLOCK_SIZE = "columnar.block.size";
+
+    final int BLOCK_SIZE = 4096;
+
+    final int MAGIC = 0x4E4D4342;
+    final byte VERSION = 1;
+
+    final byte ENCODING_PLAIN = 0;
+    final byte ENCODING_LONG = 1;
+    final byte ENCODING_DICTIONARY = 2;
+
+    /**
+     * Maximum number of distinct values in a dictionary encoded column
+     */
+    final int MAX_DICTIONARY_SIZE = 65536;
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.columnar;
+
+import com.nuodb.migrator.backup.format.InputBase;
+import com.nuodb.migrator.backup.format.InputException;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueType;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.BitSet;
+import java.util.List;
+
+import static com.nuodb.migrator.backup.format.columnar.ColumnarUtils.readFixed;
+import static com.nuodb.migrator.backup.format.columnar.ColumnarUtils.readVarInt;
+import static com.nuodb.migrator.backup.format.utils.BitSetUtils.fromByteArray;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static java.lang.String.format;
+import static java.nio.charset.Charset.forName;
+
+/**
+ * Decodes a whole block of rows column by column and serves decoded rows one
+ * by one until the block is drained.
+ */
+public class ColumnarInput extends InputBase implements ColumnarFormat {
+
+    private static final Charset UTF_8 = forName("UTF-8");
+
+    private DataInputStream input;
+    private ValueType[] valueTypes;
+    private Value[][] block;
+    private int rows;
+    private int row;
+    private boolean end;
+
+    @Override
+    public String getFormat() {
+        return TYPE;
+    }
+
+    @Override
+    protected void init(InputStream inputStream) {
+        input = new DataInputStream(inputStream);
+    }
+
+    @Override
+    protected void init(Reader reader) {
+        throw new InputException("Columnar format requires input stream");
+    }
+
+    @Override
+    public void readStart() {
+        List<ValueType> valueTypes = getValueTypes();
+        this.valueTypes = new ValueType[valueTypes.size()];
+        for (int index = 0; index < valueTypes.size(); index++) {
+            ValueType valueType = valueTypes.get(index);
+            this.valueTypes[index] = valueType != null ? valueType : STRING;
+        }
+        block = new Value[this.valueTypes.length][];
+        try {
+            if (input.readInt() != MAGIC) {
+                throw new InputException("Input is not in columnar format");
+            }
+            byte version = input.readByte();
+            if (version != VERSION) {
+                throw new InputException(format("Columnar format version %d is not supported", version));
+            }
+            int columns = readVarInt(input);
+            if (columns != this.valueTypes.length) {
+                throw new InputException(
+                        format("Input has %d columns, while %d columns are expected", columns, this.valueTypes.length));
+            }
+        } catch (IOException exception) {
+            throw new InputException(exception);
+        }
+    }
+
+    @Override
+    public Value[] readValues() {
+        if (row == rows && !readBlock()) {
+            return null;
+        }
+        Value[] values = new Value[block.length];
+        for (int index = 0; index < block.length; index++) {
+            values[index] = block[index][row];
+        }
+        row++;
+        return values;
+    }
+
+    protected boolean readBlock() {
+        if (end) {
+            return false;
+        }
+        try {
+            rows = input.readInt();
+            row = 0;
+            if (rows == 0) {
+                end = true;
+                return false;
+            }
+            for (int index = 0; index < block.length; index++) {
+                if (block[index] == null || block[index].length < rows) {
+                    block[index] = new Value[rows];
+                }
+                readColumn(block[index], valueTypes[index]);
+            }
+            return true;
+        } catch (IOException exception) {
+            throw new InputException(exception);
+        }
+    }
+
+    protected void readColumn(Value[] column, ValueType valueType) throws IOException {
+        byte encoding = input.readByte();
+        BitSet nulls = fromByteArray(readBytes());
+        switch (encoding) {
+        case ENCODING_LONG:
+            long base = input.readLong();
+            int width = input.readUnsignedByte();
+            for (int index = 0; index < rows; index++) {
+                column[index] = nulls.get(index) ? string(null)
+                        : string(Long.toString(base + readFixed(input, width)));
+            }
+            break;
+        case ENCODING_DICTIONARY:
+            Value[] dictionary = new Value[readVarInt(input)];
+            for (int index = 0; index < dictionary.length; index++) {
+                dictionary[index] = string(new String(readBytes(), UTF_8));
+            }
+            int codeWidth = input.readUnsignedByte();
+            for (int index = 0; index < rows; index++) {
+                column[index] = nulls.get(index) ? string(null) : dictionary[(int) readFixed(input, codeWidth)];
+            }
+            break;
+        case ENCODING_PLAIN:
+            for (int index = 0; index < rows; index++) {
+                if (valueType == STRING) {
+                    column[index] = string(nulls.get(index) ? null : new String(readBytes(), UTF_8));
+                } else {
+                    column[index] = binary(nulls.get(index) ? null : readBytes());
+                }
+            }
+            break;
+        default:
+            throw new InputException(format("Unknown columnar encoding %d", encoding));
+        }
+    }
+
+    protected byte[] readBytes() throws IOException {
+        byte[] bytes = new byte[readVarInt(input)];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    @Override
+    public void readEnd() {
+    }
+
+    @Override
+    public void close() {
+        if (input != null) {
+            try {
+                input.close();
+            } catch (IOException exception) {
+                throw new InputException(exception);
+            }
+            input = null;
+        }
+    }
+}
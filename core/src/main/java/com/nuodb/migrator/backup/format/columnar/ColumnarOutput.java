@@ -0,0 +1,309 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.columnar;
+
+import com.nuodb.migrator.backup.Column;
+import com.nuodb.migrator.backup.format.OutputBase;
+import com.nuodb.migrator.backup.format.OutputException;
+import com.nuodb.migrator.backup.format.value.MutableValue;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueType;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.nuodb.migrator.backup.format.columnar.ColumnarUtils.getWidth;
+import static com.nuodb.migrator.backup.format.columnar.ColumnarUtils.parseLong;
+import static com.nuodb.migrator.backup.format.columnar.ColumnarUtils.writeFixed;
+import static com.nuodb.migrator.backup.format.columnar.ColumnarUtils.writeVarInt;
+import static com.nuodb.migrator.backup.format.utils.BitSetUtils.toByteArray;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static java.lang.Integer.parseInt;
+import static java.nio.charset.Charset.forName;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Buffers rows column by column and writes them as a block once the block is
+ * full or the output ends.
+ */
+public class ColumnarOutput extends OutputBase implements ColumnarFormat {
+
+    private static final Charset UTF_8 = forName("UTF-8");
+
+    private DataOutputStream output;
+    private ColumnBlock[] columnBlocks;
+    private int blockSize;
+    private int rows;
+
+    @Override
+    public String getFormat() {
+        return TYPE;
+    }
+
+    @Override
+    protected void init(OutputStream outputStream) {
+        output = new DataOutputStream(outputStream);
+    }
+
+    @Override
+    protected void init(Writer writer) {
+        throw new OutputException("Columnar format requires output stream");
+    }
+
+    @Override
+    public void writeStart() {
+        blockSize = getBlockSize();
+        Collection<Column> columns = getRowSet().getColumns();
+        columnBlocks = new ColumnBlock[columns.size()];
+        int index = 0;
+        for (Column column : columns) {
+            ValueType valueType = column.getValueType();
+            columnBlocks[index++] = new ColumnBlock(valueType != null ? valueType : STRING, blockSize);
+        }
+        try {
+            output.writeInt(MAGIC);
+            output.writeByte(VERSION);
+            writeVarInt(output, columnBlocks.length);
+        } catch (IOException exception) {
+            throw new OutputException(exception);
+        }
+    }
+
+    @Override
+    public void writeValues(Value[] values) {
+        for (int index = 0; index < values.length; index++) {
+            columnBlocks[index].add(rows, values[index]);
+        }
+        if (++rows == blockSize) {
+            writeBlock();
+        }
+    }
+
+    protected void writeBlock() {
+        try {
+            output.writeInt(rows);
+            for (ColumnBlock columnBlock : columnBlocks) {
+                columnBlock.write(output);
+                columnBlock.clear();
+            }
+            rows = 0;
+        } catch (IOException exception) {
+            throw new OutputException(exception);
+        }
+    }
+
+    @Override
+    public void writeEnd() {
+        if (rows > 0) {
+            writeBlock();
+        }
+        try {
+            output.writeInt(0);
+            output.flush();
+        } catch (IOException exception) {
+            throw new OutputException(exception);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException exception) {
+                throw new OutputException(exception);
+            }
+            output = null;
+        }
+    }
+
+    protected int getBlockSize() {
+        String blockSize = (String) getAttribute(ATTRIBUTE_BLOCK_SIZE);
+        return isEmpty(blockSize) ? BLOCK_SIZE : parseInt(blockSize);
+    }
+
+    /**
+     * Non null values of a column buffered for the current block. Values of a
+     * string column are kept as longs while every value is a canonical long.
+     */
+    static class ColumnBlock {
+
+        private final ValueType valueType;
+        private final BitSet nulls = new BitSet();
+        private final long[] parsed = new long[1];
+        private long[] longs;
+        private String[] strings;
+        private byte[][] bytes;
+        private boolean numeric = true;
+        private int count;
+
+        public ColumnBlock(ValueType valueType, int blockSize) {
+            this.valueType = valueType;
+            if (valueType == STRING) {
+                longs = new long[blockSize];
+                strings = new String[blockSize];
+            } else {
+                bytes = new byte[blockSize][];
+            }
+        }
+
+        public void add(int row, Value value) {
+            if (value.isNull()) {
+                nulls.set(row);
+            } else if (valueType == STRING) {
+                CharSequence chars = value instanceof MutableValue ? ((MutableValue) value).asCharSequence()
+                        : value.asString();
+                if (numeric && parseLong(chars, parsed)) {
+                    longs[count++] = parsed[0];
+                } else {
+                    if (numeric) {
+                        for (int index = 0; index < count; index++) {
+                            strings[index] = Long.toString(longs[index]);
+                        }
+                        numeric = false;
+                    }
+                    strings[count++] = chars.toString();
+                }
+            } else {
+                bytes[count++] = value.asBytes();
+            }
+        }
+
+        public void write(DataOutputStream output) throws IOException {
+            Map<String, Integer> dictionary = null;
+            byte encoding = ENCODING_PLAIN;
+            if (valueType == STRING && count > 0) {
+                if (numeric) {
+                    encoding = ENCODING_LONG;
+                } else if ((dictionary = createDictionary()) != null) {
+                    encoding = ENCODING_DICTIONARY;
+                }
+            }
+            output.writeByte(encoding);
+            byte[] nullBytes = toByteArray(nulls);
+            writeVarInt(output, nullBytes.length);
+            output.write(nullBytes);
+            switch (encoding) {
+            case ENCODING_LONG:
+                writeLongs(output);
+                break;
+            case ENCODING_DICTIONARY:
+                writeDictionary(output, dictionary);
+                break;
+            default:
+                writePlain(output);
+                break;
+            }
+        }
+
+        /**
+         * Maps distinct values to their codes, if there are at most half as
+         * many distinct values as values
+         *
+         * @return dictionary or null if the column is not worth encoding as a
+         *         dictionary
+         */
+        protected Map<String, Integer> createDictionary() {
+            int maxSize = Math.min(count / 2, MAX_DICTIONARY_SIZE);
+            Map<String, Integer> dictionary = newLinkedHashMap();
+            for (int index = 0; index < count; index++) {
+                if (!dictionary.containsKey(strings[index])) {
+                    if (dictionary.size() == maxSize) {
+                        return null;
+                    }
+                    dictionary.put(strings[index], dictionary.size());
+                }
+            }
+            return dictionary;
+        }
+
+        protected void writeLongs(DataOutputStream output) throws IOException {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int index = 0; index < count; index++) {
+                min = Math.min(min, longs[index]);
+                max = Math.max(max, longs[index]);
+            }
+            long range = max - min;
+            long base = range < 0 ? 0 : min;
+            int width = getWidth(range);
+            output.writeLong(base);
+            output.writeByte(width);
+            for (int index = 0; index < count; index++) {
+                writeFixed(output, longs[index] - base, width);
+            }
+        }
+
+        protected void writeDictionary(DataOutputStream output, Map<String, Integer> dictionary)
+                throws IOException {
+            writeVarInt(output, dictionary.size());
+            for (String value : dictionary.keySet()) {
+                writeBytes(output, value.getBytes(UTF_8));
+            }
+            int width = getWidth(dictionary.size() - 1);
+            output.writeByte(width);
+            for (int index = 0; index < count; index++) {
+                writeFixed(output, dictionary.get(strings[index]), width);
+            }
+        }
+
+        protected void writePlain(DataOutputStream output) throws IOException {
+            for (int index = 0; index < count; index++) {
+                writeBytes(output, valueType == STRING ? strings[index].getBytes(UTF_8) : bytes[index]);
+            }
+        }
+
+        protected void writeBytes(DataOutputStream output, byte[] value) throws IOException {
+            writeVarInt(output, value.length);
+            output.write(value);
+        }
+
+        public void clear() {
+            nulls.clear();
+            numeric = true;
+            if (strings != null) {
+                for (int index = 0; index < count; index++) {
+                    strings[index] = null;
+                }
+            }
+            if (bytes != null) {
+                for (int index = 0; index < count; index++) {
+                    bytes[index] = null;
+                }
+            }
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.columnar;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Variable and fixed width primitives shared by columnar input and output
+ */
+class ColumnarUtils {
+
+    private ColumnarUtils() {
+    }
+
+    static void writeVarInt(DataOutput output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    static int readVarInt(DataInput input) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = input.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    static void writeFixed(DataOutput output, long value, int width) throws IOException {
+        switch (width) {
+        case 1:
+            output.writeByte((int) value);
+            break;
+        case 2:
+            output.writeShort((int) value);
+            break;
+        case 4:
+            output.writeInt((int) value);
+            break;
+        default:
+            output.writeLong(value);
+            break;
+        }
+    }
+
+    static long readFixed(DataInput input, int width) throws IOException {
+        switch (width) {
+        case 1:
+            return input.readUnsignedByte();
+        case 2:
+            return input.readUnsignedShort();
+        case 4:
+            return input.readInt() & 0xFFFFFFFFL;
+        default:
+            return input.readLong();
+        }
+    }
+
+    /**
+     * Fixed width in bytes enough to hold unsigned values up to a given bound
+     */
+    static int getWidth(long max) {
+        if (max < 0) {
+            return 8;
+        } else if (max <= 0xFFL) {
+            return 1;
+        } else if (max <= 0xFFFFL) {
+            return 2;
+        } else if (max <= 0xFFFFFFFFL) {
+            return 4;
+        } else {
+            return 8;
+        }
+    }
+
+    /**
+     * Parses chars as a long only if the long renders back to exactly the same
+     * chars, so that encoding a string column as numbers is lossless
+     *
+     * @param chars
+     *            chars to parse
+     * @param result
+     *            single element array receiving the parsed value
+     * @return true if chars are the canonical form of a long
+     */
+    static boolean parseLong(CharSequence chars, long[] result) {
+        int length = chars.length();
+        if (length == 0 || length > 20) {
+            return false;
+        }
+        int index = 0;
+        boolean negative = chars.charAt(0) == '-';
+        if (negative) {
+            if (length == 1) {
+                return false;
+            }
+            index++;
+        }
+        if (chars.charAt(index) == '0' && (length > index + 1 || negative)) {
+            return false;
+        }
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long value = 0;
+        for (; index < length; index++) {
+            int digit = chars.charAt(index) - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            if (value < limit / 10) {
+                return false;
+            }
+            value *= 10;
+            if (value < limit + digit) {
+                return false;
+            }
+            value -= digit;
+        }
+        result[0] = negative ? value : -value;
+        return true;
+    }
+}
@@ -29,11 +29,13 @@ package com.nuodb.migrator.backup.format.csv;
 
 import com.nuodb.migrator.backup.format.InputBase;
 import com.nuodb.migrator.backup.format.InputException;
+import com.nuodb.migrator.backup.format.SplittableInput;
 import com.nuodb.migrator.backup.format.value.Value;
 import com.nuodb.migrator.backup.format.value.ValueType;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
@@ -41,23 +43,29 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
 import java.util.Iterator;
 import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
+import static com.nuodb.migrator.backup.format.value.ChunkRange.END;
 import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.*;
 import static java.lang.String.valueOf;
+import static java.nio.charset.Charset.forName;
+import static org.apache.commons.io.IOUtils.skipFully;
 
 /**
  * @author Sergey Bushik
  */
-public class CsvInput extends InputBase implements CsvFormat {
+public class CsvInput extends InputBase implements CsvFormat, SplittableInput {
 
     private String doubleQuote;
     private Iterator<CSVRecord> iterator;
     private CSVParser parser;
+    private long start;
+    private long end = END;
 
     @Override
     public String getFormat() {
@@ -67,12 +75,48 @@ public class CsvInput extends InputBase implements CsvFormat {
     @Override
     protected void init(InputStream inputStream) {
         try {
-            init(new InputStreamReader(getInputStream(), (String) getAttribute(ATTRIBUTE_ENCODING, ENCODING)));
+            init(new InputStreamReader(openRange(getInputStream()), getEncoding()));
         } catch (UnsupportedEncodingException exception) {
             throw new InputException(exception);
         }
     }
 
+    protected InputStream openRange(InputStream inputStream) {
+        try {
+            if (start > 0) {
+                skipFully(inputStream, start);
+            }
+        } catch (IOException exception) {
+            throw new InputException(exception);
+        }
+        return end != END ? new BoundedInputStream(inputStream, end - start) : inputStream;
+    }
+
+    @Override
+    public long[] split(InputStream inputStream, long length, int ranges) {
+        CsvFormatBuilder builder = new CsvFormatBuilder(this);
+        builder.build();
+        Charset charset = forName(getEncoding());
+        if (ranges < 2 || !CsvSplitter.isSplittable(builder, charset)) {
+            return new long[] { 0, length };
+        }
+        try {
+            return new CsvSplitter(builder, charset).split(inputStream, length, ranges);
+        } catch (IOException exception) {
+            throw new InputException(exception);
+        }
+    }
+
+    @Override
+    public void setRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    protected String getEncoding() {
+        return (String) getAttribute(ATTRIBUTE_ENCODING, ENCODING);
+    }
+
     @Override
     protected void init(Reader reader) {
         CsvFormatBuilder builder = new CsvFormatBuilder(this);
@@ -88,9 +132,13 @@ public class CsvInput extends InputBase implements CsvFormat {
         }
     }
 
+    /**
+     * Skips header record, which is present in the range starting the chunk
+     * only
+     */
     @Override
     public void readStart() {
-        if (iterator.hasNext()) {
+        if (start == 0 && iterator.hasNext()) {
             iterator.next();
         }
     }
@@ -30,7 +30,9 @@ package com.nuodb.migrator.backup.format.csv;
 import com.nuodb.migrator.backup.Column;
 import com.nuodb.migrator.backup.format.OutputBase;
 import com.nuodb.migrator.backup.format.OutputException;
+import com.nuodb.migrator.backup.format.value.MutableValue;
 import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueType;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 
@@ -40,7 +42,6 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.Collection;
 
-import static com.google.common.collect.Iterables.get;
 import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
 import static java.lang.String.valueOf;
 import static java.nio.charset.Charset.forName;
@@ -53,6 +54,7 @@ public class CsvOutput extends OutputBase implements CsvFormat {
 
     private String doubleQuote;
     private CSVPrinter csvPrinter;
+    private ValueType[] valueTypes;
 
     @Override
     public String getFormat() {
@@ -91,29 +93,45 @@ public class CsvOutput extends OutputBase implements CsvFormat {
     @Override
     public void writeValues(Value[] values) {
         try {
-            String[] record = new String[values.length];
-            Collection<Column> columns = getRowSet().getColumns();
+            ValueType[] valueTypes = getValueTypes();
             for (int i = 0; i < values.length; i++) {
-                String value = null;
-                switch (get(columns, i).getValueType()) {
+                CharSequence value = null;
+                switch (valueTypes[i]) {
                 case BINARY:
                     value = BASE64.encode(values[i].asBytes());
                     break;
                 case STRING:
-                    value = values[i].asString();
+                    value = values[i] instanceof MutableValue ? ((MutableValue) values[i]).asCharSequence()
+                            : values[i].asString();
                     break;
                 }
                 if (value != null && value.length() == 0) {
                     value = doubleQuote;
                 }
-                record[i] = value;
+                csvPrinter.print(value);
             }
-            csvPrinter.printRecord(record);
+            csvPrinter.println();
         } catch (IOException exception) {
             throw new OutputException(exception);
         }
     }
 
+    /**
+     * Value types of the columns are resolved once, rather than for every
+     * written cell
+     */
+    protected ValueType[] getValueTypes() {
+        if (valueTypes == null) {
+            Collection<Column> columns = getRowSet().getColumns();
+            valueTypes = new ValueType[columns.size()];
+            int index = 0;
+            for (Column column : columns) {
+                valueTypes[index++] = column.getValueType();
+            }
+        }
+        return valueTypes;
+    }
+
     @Override
     public void writeEnd() {
         try {
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.csv;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.String.valueOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.io.IOUtils.skipFully;
+
+/**
+ * Finds record boundaries in a csv stream without parsing it. A boundary is
+ * the end of the line separator, which is neither escaped nor enclosed in
+ * quotes. Without quoting line breaks in values are always escaped, so the
+ * splitter seeks directly to the nominal offsets, while with quoting enabled
+ * the content is scanned sequentially to keep track of the quoted state.
+ * <p/>
+ * The quoted state at an arbitrary offset can not be told from a bounded
+ * window around it: a quoted value may hold line separators and doubled
+ * quotes, so the same bytes read as valid records both inside and outside of
+ * quotes, and a guessed boundary would silently split a record. The scan only
+ * matches bytes without decoding or parsing them, and it runs only for chunks
+ * dumped with csv.quoting enabled, which is off by default.
+ */
+class CsvSplitter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int NONE = -1;
+
+    private final byte[] lineSeparator;
+    private final int escape;
+    private final int quote;
+
+    private long position;
+    private boolean escaped;
+    private boolean quoted;
+    private int matched;
+
+    CsvSplitter(CsvFormatBuilder builder, Charset charset) {
+        this.lineSeparator = builder.getLineSeparator().getBytes(charset);
+        this.escape = builder.getEscape() != null ? toByte(builder.getEscape(), charset) : NONE;
+        this.quote = builder.isQuoting() ? toByte(builder.getQuote(), charset) : NONE;
+    }
+
+    /**
+     * Byte level scanning is supported for single byte charsets and for UTF-8,
+     * where bytes of multi byte characters never clash with the special
+     * single byte characters.
+     *
+     * @param builder
+     *            built csv format
+     * @param charset
+     *            encoding of the stream
+     * @return true if stream in this encoding can be split
+     */
+    static boolean isSplittable(CsvFormatBuilder builder, Charset charset) {
+        if (!(UTF_8.equals(charset) || charset.newEncoder().maxBytesPerChar() == 1)) {
+            return false;
+        }
+        return (builder.getEscape() == null || valueOf(builder.getEscape()).getBytes(charset).length == 1)
+                && (!builder.isQuoting() || valueOf(builder.getQuote()).getBytes(charset).length == 1);
+    }
+
+    long[] split(InputStream inputStream, long length, int ranges) throws IOException {
+        List<Long> offsets = newArrayList();
+        offsets.add(0L);
+        InputStream input = new BufferedInputStream(inputStream, BUFFER_SIZE);
+        for (int range = 1; range < ranges; range++) {
+            long offset = length * range / ranges;
+            if (offset <= offsets.get(offsets.size() - 1)) {
+                continue;
+            }
+            if (quote == NONE && position < offset) {
+                seek(input, offset);
+            }
+            long boundary;
+            do {
+                boundary = nextBoundary(input);
+            } while (boundary != NONE && boundary < offset);
+            if (boundary == NONE || boundary >= length) {
+                break;
+            }
+            offsets.add(boundary);
+        }
+        offsets.add(length);
+        long[] split = new long[offsets.size()];
+        for (int index = 0; index < split.length; index++) {
+            split[index] = offsets.get(index);
+        }
+        return split;
+    }
+
+    /**
+     * Skips to the given offset and consumes bytes till the first byte which is
+     * not an escape, as the escape state of the bytes following the offset is
+     * not known.
+     */
+    protected void seek(InputStream input, long offset) throws IOException {
+        skipFully(input, offset - position);
+        position = offset;
+        int value;
+        while ((value = input.read()) != NONE) {
+            position++;
+            if (value != escape) {
+                break;
+            }
+        }
+        escaped = false;
+        matched = 0;
+    }
+
+    protected long nextBoundary(InputStream input) throws IOException {
+        int value;
+        while ((value = input.read()) != NONE) {
+            position++;
+            if (escaped) {
+                escaped = false;
+                matched = 0;
+            } else if (value == escape) {
+                escaped = true;
+                matched = 0;
+            } else if (value == quote) {
+                quoted = !quoted;
+                matched = 0;
+            } else if (!quoted) {
+                if (value == (lineSeparator[matched] & 0xFF)) {
+                    matched++;
+                } else {
+                    matched = value == (lineSeparator[0] & 0xFF) ? 1 : 0;
+                }
+                if (matched == lineSeparator.length) {
+                    matched = 0;
+                    return position;
+                }
+            }
+        }
+        return NONE;
+    }
+
+    private static int toByte(Character character, Charset charset) {
+        return valueOf(character).getBytes(charset)[0] & 0xFF;
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.Math.max;
+
+/**
+ * Thread safe cursor handing out whole chunks or record aligned ranges of
+ * chunks of a row set, so that each of the concurrent readers owns and parses
+ * the ranges it has taken exclusively.
+ */
+public class ChunkCursor {
+
+    private final List<ChunkRange> chunkRanges;
+    private final AtomicInteger index = new AtomicInteger();
+
+    public ChunkCursor(RowSet rowSet) {
+        List<ChunkRange> chunkRanges = newArrayList();
+        for (Chunk chunk : rowSet.getChunks()) {
+            chunkRanges.add(new ChunkRange(chunk));
+        }
+        this.chunkRanges = chunkRanges;
+    }
+
+    public ChunkCursor(Collection<ChunkRange> chunkRanges) {
+        this.chunkRanges = newArrayList(chunkRanges);
+    }
+
+    /**
+     * Takes next chunk range which was not yet taken by any of the readers
+     *
+     * @return next chunk range or null if all ranges are taken
+     */
+    public ChunkRange next() {
+        int next = index.getAndIncrement();
+        return next < chunkRanges.size() ? chunkRanges.get(next) : null;
+    }
+
+    /**
+     * Number of chunk ranges not yet taken by any of the readers
+     */
+    public int getRemaining() {
+        return max(chunkRanges.size() - index.get(), 0);
+    }
+
+    public int getChunkRanges() {
+        return chunkRanges.size();
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.utils.ObjectUtils;
+
+/**
+ * Range of bytes of a chunk aligned to the record boundaries, which is read
+ * independently from the other ranges of the same chunk. A range with no end
+ * covers the whole chunk.
+ */
+public class ChunkRange {
+
+    public static final long END = -1L;
+
+    private final Chunk chunk;
+    private final int index;
+    private final long start;
+    private final long end;
+
+    public ChunkRange(Chunk chunk) {
+        this(chunk, 0, 0L, END);
+    }
+
+    public ChunkRange(Chunk chunk, int index, long start, long end) {
+        this.chunk = chunk;
+        this.index = index;
+        this.start = start;
+        this.end = end;
+    }
+
+    public Chunk getChunk() {
+        return chunk;
+    }
+
+    /**
+     * Index of this range in the chunk, the first range starting at 0 offset
+     * has index 0
+     *
+     * @return range index
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public boolean isWhole() {
+        return start == 0L && end == END;
+    }
+
+    @Override
+    public String toString() {
+        return ObjectUtils.toString(this);
+    }
+}
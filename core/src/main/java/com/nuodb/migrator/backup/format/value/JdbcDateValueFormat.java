@@ -33,11 +33,14 @@ import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
 
 import java.sql.Date;
 import java.sql.SQLException;
-import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Map;
 
+import static com.nuodb.migrator.backup.format.value.TemporalCodec.DATE;
+import static com.nuodb.migrator.backup.format.value.TemporalCodec.YEAR;
+import static com.nuodb.migrator.backup.format.value.TemporalCodec.formatDate;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.STRING_NULL;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
 import static java.lang.String.format;
@@ -46,11 +49,18 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 /**
  * @author Sergey Bushik
  */
-public class JdbcDateValueFormat extends ValueFormatBase<Date> {
+public class JdbcDateValueFormat extends ValueFormatBase<Date> implements StatefulValueFormat<Date> {
 
     private static final String YEAR_TYPE = "YEAR";
 
-    private static final DateFormat YEAR_FORMAT = new SimpleDateFormat("yyyy");
+    private static final TemporalCodec[] CODECS = { DATE, YEAR };
+
+    private volatile TemporalCodec codec;
+
+    @Override
+    public ValueFormat<Date> newValueFormat() {
+        return new JdbcDateValueFormat();
+    }
 
     @Override
     protected Value doGetValue(JdbcValueAccess<Date> access, Map<String, Object> options) throws SQLException {
@@ -58,20 +68,56 @@ public class JdbcDateValueFormat extends ValueFormatBase<Date> {
         if (date == null) {
             return STRING_NULL;
         } else if (JdbcTypeDesc.equals(access.getField().getTypeName(), YEAR_TYPE)) {
-            return string(YEAR_FORMAT.format(date));
+            return string(new SimpleDateFormat("yyyy").format(date));
         } else {
             return string(date.toString());
         }
     }
 
+    @Override
+    protected void doGetValue(JdbcValueAccess<Date> access, Map<String, Object> options, MutableValue value)
+            throws SQLException {
+        Date date = access.getValue(options);
+        if (date == null) {
+            value.setNull(STRING);
+        } else if (JdbcTypeDesc.equals(access.getField().getTypeName(), YEAR_TYPE)) {
+            value.setString(new SimpleDateFormat("yyyy").format(date));
+        } else {
+            formatDate(date, value.setChars());
+        }
+    }
+
     @Override
     protected void doSetValue(Value value, JdbcValueAccess<Date> access, Map<String, Object> options)
             throws SQLException {
-        if (!(doSetValueAsDate(access, value, options) || doSetValueAsYear(access, value, options))) {
+        CharSequence chars = value instanceof MutableValue ? ((MutableValue) value).asCharSequence()
+                : value.asString();
+        java.util.Date date = !isEmpty(chars) ? parse(chars) : null;
+        if (date != null) {
+            access.setValue(date, options);
+        } else if (!(doSetValueAsDate(access, value, options) || doSetValueAsYear(access, value, options))) {
             throw new ValueFormatException(format("Value %s is not a date nor year", value));
         }
     }
 
+    /**
+     * Parses chars with the codec detected for the column, detects the codec
+     * again if the value doesn't match the detected one
+     */
+    protected java.util.Date parse(CharSequence chars) {
+        TemporalCodec codec = this.codec;
+        java.util.Date date = codec != null ? codec.parse(chars) : null;
+        if (date == null) {
+            for (TemporalCodec candidate : CODECS) {
+                if (candidate != codec && (date = candidate.parse(chars)) != null) {
+                    this.codec = candidate;
+                    break;
+                }
+            }
+        }
+        return date;
+    }
+
     protected boolean doSetValueAsDate(JdbcValueAccess<Date> jdbcValueAccess, Value variant,
             Map<String, Object> valueAccessOptions) throws SQLException {
         try {
@@ -87,7 +133,7 @@ public class JdbcDateValueFormat extends ValueFormatBase<Date> {
             Map<String, Object> valueAccessOptions) throws SQLException {
         try {
             final String value = variant.asString();
-            jdbcValueAccess.setValue(YEAR_FORMAT.parse(value), valueAccessOptions);
+            jdbcValueAccess.setValue(new SimpleDateFormat("yyyy").parse(value), valueAccessOptions);
             return true;
         } catch (ParseException e) {
             return false;
@@ -33,21 +33,37 @@ import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
 import java.sql.Date;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Map;
 
+import static com.nuodb.migrator.backup.format.value.TemporalCodec.DATE;
+import static com.nuodb.migrator.backup.format.value.TemporalCodec.TIMESTAMP;
+import static com.nuodb.migrator.backup.format.value.TemporalCodec.YEAR;
+import static com.nuodb.migrator.backup.format.value.TemporalCodec.formatTimestamp;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
 import static java.lang.String.format;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 /**
+ * Parses timestamps, dates & years with the codec detected from the first
+ * values of the column, falling back to {@link Timestamp#valueOf(String)},
+ * {@link Date#valueOf(String)} & year format for the values not matching any
+ * of the codecs
+ *
  * @author Sergey Bushik
  */
-public class JdbcTimestampValueFormat extends ValueFormatBase<Timestamp> {
+public class JdbcTimestampValueFormat extends ValueFormatBase<Timestamp> implements StatefulValueFormat<Timestamp> {
+
+    private static final TemporalCodec[] CODECS = { TIMESTAMP, DATE, YEAR };
 
-    private static final DateFormat YEAR_FORMAT = new SimpleDateFormat("yyyy");
+    private volatile TemporalCodec codec;
+
+    @Override
+    public ValueFormat<Timestamp> newValueFormat() {
+        return new JdbcTimestampValueFormat();
+    }
 
     @Override
     protected Value doGetValue(JdbcValueAccess<Timestamp> access, Map<String, Object> options) throws SQLException {
@@ -55,15 +71,53 @@ public class JdbcTimestampValueFormat extends ValueFormatBase<Timestamp> {
         return string(timestamp != null ? timestamp.toString() : null);
     }
 
+    @Override
+    protected void doGetValue(JdbcValueAccess<Timestamp> access, Map<String, Object> options, MutableValue value)
+            throws SQLException {
+        Timestamp timestamp = access.getValue(options);
+        if (timestamp != null) {
+            formatTimestamp(timestamp, value.setChars());
+        } else {
+            value.setNull(STRING);
+        }
+    }
+
     @Override
     protected void doSetValue(Value value, JdbcValueAccess<Timestamp> access, Map<String, Object> options)
             throws SQLException {
-        if (!(doSetValueAsTimestamp(value, access, options) || doSetValueAsDate(value, access, options)
+        CharSequence chars = value instanceof MutableValue ? ((MutableValue) value).asCharSequence()
+                : value.asString();
+        java.util.Date date = !isEmpty(chars) ? parse(chars) : null;
+        if (date != null) {
+            access.setValue(date, options);
+        } else if (!(doSetValueAsTimestamp(value, access, options) || doSetValueAsDate(value, access, options)
                 || doSetValueAsYear(value, access, options))) {
             throw new ValueFormatException(format("Value %s is not a timestamp, date nor year", value));
         }
     }
 
+    /**
+     * Parses chars with the codec detected for the column, detects the codec
+     * again if the value doesn't match the detected one
+     *
+     * @param chars
+     *            chars to parse
+     * @return parsed value or null if none of the codecs matches
+     */
+    protected java.util.Date parse(CharSequence chars) {
+        TemporalCodec codec = this.codec;
+        java.util.Date date = codec != null ? codec.parse(chars) : null;
+        if (date == null) {
+            for (TemporalCodec candidate : CODECS) {
+                if (candidate != codec && (date = candidate.parse(chars)) != null) {
+                    this.codec = candidate;
+                    break;
+                }
+            }
+        }
+        return date;
+    }
+
     protected boolean doSetValueAsTimestamp(Value variant, JdbcValueAccess<Timestamp> access,
             Map<String, Object> options) throws SQLException {
         try {
@@ -90,7 +144,7 @@ public class JdbcTimestampValueFormat extends ValueFormatBase<Timestamp> {
             throws SQLException {
         try {
             String value = variant.asString();
-            access.setValue(YEAR_FORMAT.parse(value), options);
+            access.setValue(new SimpleDateFormat("yyyy").parse(value), options);
             return true;
         } catch (ParseException e) {
             return false;
@@ -101,4 +155,4 @@ public class JdbcTimestampValueFormat extends ValueFormatBase<Timestamp> {
     public ValueType getValueType(Field field) {
         return ValueType.STRING;
     }
-}
\ No newline at end of file
+}
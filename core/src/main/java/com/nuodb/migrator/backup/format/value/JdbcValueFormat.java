@@ -52,6 +52,12 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
  */
 public class JdbcValueFormat extends ValueFormatBase<Object> {
 
+    /**
+     * Option telling that blob & clob values are fetched as streams rather than
+     * read into memory
+     */
+    public static final String LOB_STREAMING = "LOB_STREAMING";
+
     @Override
     protected Value doGetValue(JdbcValueAccess<Object> access, Map<String, Object> options) throws Exception {
         Object result;
@@ -121,9 +127,68 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
         return value;
     }
 
+    @Override
+    protected void doGetValue(JdbcValueAccess<Object> access, Map<String, Object> options, MutableValue value)
+            throws Exception {
+        switch (access.getField().getTypeCode()) {
+        case Types.BIT:
+        case Types.TINYINT:
+        case Types.SMALLINT:
+        case Types.INTEGER:
+        case Types.BIGINT:
+        case Types.FLOAT:
+        case Types.REAL:
+        case Types.DOUBLE:
+        case Types.NUMERIC:
+        case Types.DECIMAL:
+            value.setNumber(access.getValue(options));
+            break;
+        case Types.BOOLEAN:
+            Object result = access.getValue(options);
+            value.setString(result != null ? result.toString() : null);
+            break;
+        case Types.CHAR:
+        case Types.VARCHAR:
+        case Types.LONGVARCHAR:
+        case Types.NVARCHAR:
+        case Types.LONGNVARCHAR:
+        case Types.NCHAR:
+        case Types.SQLXML:
+            value.setString(access.getValue(String.class, options));
+            break;
+        case Types.CLOB:
+        case Types.NCLOB:
+            if (isLobStreaming(options)) {
+                value.setReader(access.getValue(Reader.class, options));
+            } else {
+                value.setString(access.getValue(String.class, options));
+            }
+            break;
+        case Types.BINARY:
+        case Types.VARBINARY:
+        case Types.LONGVARBINARY:
+            value.setBytes(access.getValue(byte[].class, options));
+            break;
+        case Types.BLOB:
+            if (isLobStreaming(options)) {
+                value.setInputStream(access.getValue(InputStream.class, options));
+            } else {
+                value.setBytes(access.getValue(byte[].class, options));
+            }
+            break;
+        default:
+            value.setValue(doGetValue(access, options));
+            break;
+        }
+    }
+
     @Override
     protected void doSetValue(Value value, JdbcValueAccess<Object> access, Map<String, Object> options)
             throws Exception {
+        if (value instanceof StreamValue && ((StreamValue) value).isStream()) {
+            setStream((StreamValue) value, access, options);
+            return;
+        }
         Field field = access.getField();
         final String result = value.asString();
         switch (field.getTypeCode()) {
@@ -194,6 +259,148 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
         }
     }
 
+    /**
+     * Binds streamed value as a binary stream or a character stream depending
+     * on the value type, so that the value is not read into memory
+     */
+    protected void setStream(StreamValue value, JdbcValueAccess<Object> access, Map<String, Object> options)
+            throws Exception {
+        if (value.getValueType() == BINARY) {
+            access.setValue(value.asInputStream(), options);
+        } else {
+            access.setValue(value.asReader(), options);
+        }
+    }
+
+    /**
+     * Resolves the branch of {@link #doGetValue(JdbcValueAccess, Map, MutableValue)}
+     * & {@link #doSetValue(Value, JdbcValueAccess, Map)} by the type code of the
+     * column once, so that getting or setting a value does not switch on the
+     * type code per row. Types which are rarely used are handled by the generic
+     * accessor calling the value format. Subclasses overriding the get or set
+     * value methods have to override this method as well.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public ValueAccessor createValueAccessor(ValueHandle valueHandle) {
+        ValueAccessor valueAccessor;
+        switch (valueHandle.getTypeCode()) {
+        case Types.BIT:
+            valueAccessor = new NumberValueAccessor(valueHandle) {
+                @Override
+                protected Object parse(String value) {
+                    return Boolean.parseBoolean(value);
+                }
+            };
+            break;
+        case Types.TINYINT:
+        case Types.SMALLINT:
+            valueAccessor = new NumberValueAccessor(valueHandle) {
+                @Override
+                protected Object parse(String value) {
+                    return Short.parseShort(value);
+                }
+            };
+            break;
+        case Types.INTEGER:
+            valueAccessor = new NumberValueAccessor(valueHandle) {
+                @Override
+                protected Object parse(String value) {
+                    return Integer.parseInt(value);
+                }
+            };
+            break;
+        case Types.BIGINT:
+            valueAccessor = new NumberValueAccessor(valueHandle) {
+                @Override
+                protected Object parse(String value) {
+                    return Long.parseLong(value);
+                }
+            };
+            break;
+        case Types.FLOAT:
+        case Types.REAL:
+            valueAccessor = new NumberValueAccessor(valueHandle) {
+                @Override
+                protected Object parse(String value) {
+                    return Float.parseFloat(value);
+                }
+            };
+            break;
+        case Types.DOUBLE:
+            valueAccessor = new NumberValueAccessor(valueHandle) {
+                @Override
+                protected Object parse(String value) {
+                    return Double.parseDouble(value);
+                }
+            };
+            break;
+        case Types.NUMERIC:
+        case Types.DECIMAL:
+            valueAccessor = new NumberValueAccessor(valueHandle) {
+                @Override
+                protected Object parse(String value) {
+                    return new BigDecimal(value);
+                }
+            };
+            break;
+        case Types.BOOLEAN:
+            valueAccessor = new JdbcValueAccessor(valueHandle) {
+                @Override
+                protected void doGetValue(MutableValue value) throws Exception {
+                    Object result = access.getValue(options);
+                    value.setString(result != null ? result.toString() : null);
+                }
+
+                @Override
+                protected void doSetValue(Value value) throws Exception {
+                    String result = value.asString();
+                    access.setValue(!isEmpty(result) ? Boolean.parseBoolean(result) : null, options);
+                }
+            };
+            break;
+        case Types.CHAR:
+        case Types.VARCHAR:
+        case Types.LONGVARCHAR:
+        case Types.NVARCHAR:
+        case Types.LONGNVARCHAR:
+        case Types.NCHAR:
+        case Types.CLOB:
+        case Types.NCLOB:
+            valueAccessor = isLobStreaming(valueHandle.getJdbcValueAccessOptions())
+                    ? new ReaderValueAccessor(valueHandle) : new StringValueAccessor(valueHandle);
+            break;
+        case Types.BINARY:
+        case Types.VARBINARY:
+        case Types.LONGVARBINARY:
+            valueAccessor = new JdbcValueAccessor(valueHandle) {
+                @Override
+                protected void doGetValue(MutableValue value) throws Exception {
+                    value.setBytes((byte[]) access.getValue(byte[].class, options));
+                }
+
+                @Override
+                protected void doSetValue(Value value) throws Exception {
+                    String result = value.asString();
+                    access.setValue(!isEmpty(result) ? result : null, options);
+                }
+            };
+            break;
+        case Types.BLOB:
+            valueAccessor = isLobStreaming(valueHandle.getJdbcValueAccessOptions())
+                    ? new InputStreamValueAccessor(valueHandle) : new BytesValueAccessor(valueHandle);
+            break;
+        default:
+            valueAccessor = super.createValueAccessor(valueHandle);
+            break;
+        }
+        return valueAccessor;
+    }
+
+    public static boolean isLobStreaming(Map<String, Object> options) {
+        return options != null && Boolean.TRUE.equals(options.get(LOB_STREAMING));
+    }
+
     protected byte[] write(Object object) throws IOException {
         if (object == null) {
             return null;
@@ -225,6 +432,130 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
         }
     }
 
+    /**
+     * Accessor reporting errors & binding streamed values the same way as the
+     * value format does
+     */
+    @SuppressWarnings("unchecked")
+    protected abstract class JdbcValueAccessor extends ValueAccessor {
+
+        protected JdbcValueAccessor(ValueHandle valueHandle) {
+            super(valueHandle);
+        }
+
+        @Override
+        public Value getValue(MutableValue value) {
+            try {
+                doGetValue(value);
+            } catch (ValueFormatException exception) {
+                throw exception;
+            } catch (Throwable cause) {
+                value.setValue(onGetValueError(access, cause));
+            }
+            return value;
+        }
+
+        protected abstract void doGetValue(MutableValue value) throws Exception;
+
+        @Override
+        public void setValue(Value value) {
+            try {
+                if (value instanceof StreamValue && ((StreamValue) value).isStream()) {
+                    setStream((StreamValue) value, access, options);
+                } else {
+                    doSetValue(value);
+                }
+            } catch (ValueFormatException exception) {
+                throw exception;
+            } catch (Throwable cause) {
+                onSetValueError(access, cause);
+            }
+        }
+
+        protected abstract void doSetValue(Value value) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected abstract class NumberValueAccessor extends JdbcValueAccessor {
+
+        protected NumberValueAccessor(ValueHandle valueHandle) {
+            super(valueHandle);
+        }
+
+        @Override
+        protected void doGetValue(MutableValue value) throws Exception {
+            value.setNumber(access.getValue(options));
+        }
+
+        @Override
+        protected void doSetValue(Value value) throws Exception {
+            String result = value.asString();
+            access.setValue(!isEmpty(result) ? parse(result) : null, options);
+        }
+
+        protected abstract Object parse(String value);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected class StringValueAccessor extends JdbcValueAccessor {
+
+        protected StringValueAccessor(ValueHandle valueHandle) {
+            super(valueHandle);
+        }
+
+        @Override
+        protected void doGetValue(MutableValue value) throws Exception {
+            value.setString((String) access.getValue(String.class, options));
+        }
+
+        @Override
+        protected void doSetValue(Value value) throws Exception {
+            access.setValue(value.asString(), options);
+        }
+    }
+
+    protected class ReaderValueAccessor extends StringValueAccessor {
+
+        protected ReaderValueAccessor(ValueHandle valueHandle) {
+            super(valueHandle);
+        }
+
+        @Override
+        protected void doGetValue(MutableValue value) throws Exception {
+            value.setReader((Reader) access.getValue(Reader.class, options));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected class BytesValueAccessor extends JdbcValueAccessor {
+
+        protected BytesValueAccessor(ValueHandle valueHandle) {
+            super(valueHandle);
+        }
+
+        @Override
+        protected void doGetValue(MutableValue value) throws Exception {
+            value.setBytes((byte[]) access.getValue(byte[].class, options));
+        }
+
+        @Override
+        protected void doSetValue(Value value) throws Exception {
+            access.setValue(value.asBytes(), options);
+        }
+    }
+
+    protected class InputStreamValueAccessor extends BytesValueAccessor {
+
+        protected InputStreamValueAccessor(ValueHandle valueHandle) {
+            super(valueHandle);
+        }
+
+        @Override
+        protected void doGetValue(MutableValue value) throws Exception {
+            value.setInputStream((InputStream) access.getValue(InputStream.class, options));
+        }
+    }
+
     @Override
     public ValueType getValueType(Field field) {
         ValueType valueType;
@@ -44,6 +44,12 @@ public abstract class LazyInitValueFormatBase<T> extends ValueFormatBase<T> {
         return super.getValue(access, options);
     }
 
+    @Override
+    public Value getValue(JdbcValueAccess<T> access, Map<String, Object> options, MutableValue value) {
+        lazyInit();
+        return super.getValue(access, options, value);
+    }
+
     @Override
     public void setValue(Value value, JdbcValueAccess<T> access, Map<String, Object> options) {
         lazyInit();
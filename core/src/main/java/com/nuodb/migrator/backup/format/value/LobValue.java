@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+import com.nuodb.migrator.backup.BackupOps;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Large object written to the lob file of a chunk, which row holds a reference
+ * to the object in the form of {@code offset:length} rather than the object
+ * itself. Content is read from the lob file only when the value is bound to a
+ * statement, the file is opened lazily on the first read & is closed once the
+ * object is read, so that batched rows don't hold open files. Character
+ * objects are stored encoded in UTF-8.
+ */
+public class LobValue implements StreamValue {
+
+    private static final char SEPARATOR = ':';
+
+    private final transient BackupOps backupOps;
+    private final String lobs;
+    private final long offset;
+    private final long length;
+    private final ValueType valueType;
+
+    public LobValue(BackupOps backupOps, String lobs, String reference, ValueType valueType) {
+        int index = reference.indexOf(SEPARATOR);
+        if (index < 0) {
+            throw new ValueFormatException(format("Invalid lob reference %s to lob file %s", reference, lobs));
+        }
+        this.backupOps = backupOps;
+        this.lobs = lobs;
+        this.offset = parseLong(reference.substring(0, index));
+        this.length = parseLong(reference.substring(index + 1));
+        this.valueType = valueType;
+    }
+
+    public static String reference(long offset, long length) {
+        return String.valueOf(offset) + SEPARATOR + length;
+    }
+
+    public String getLobs() {
+        return lobs;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Length of the object in the lob file in bytes
+     *
+     * @return length in bytes
+     */
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public boolean isStream() {
+        return true;
+    }
+
+    @Override
+    public InputStream asInputStream() {
+        return new LobInputStream();
+    }
+
+    @Override
+    public Reader asReader() {
+        return new InputStreamReader(asInputStream(), UTF_8);
+    }
+
+    @Override
+    public boolean isNull() {
+        return false;
+    }
+
+    /**
+     * Reads the whole object into memory, which is used only by value formats
+     * not binding values as streams
+     */
+    @Override
+    public String asString() {
+        try {
+            return CharStreams.toString(asReader());
+        } catch (IOException exception) {
+            throw new ValueFormatException(exception);
+        }
+    }
+
+    @Override
+    public byte[] asBytes() {
+        try {
+            return ByteStreams.toByteArray(asInputStream());
+        } catch (IOException exception) {
+            throw new ValueFormatException(exception);
+        }
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return valueType;
+    }
+
+    @Override
+    public String toString() {
+        return "Lob{" + lobs + ", " + reference(offset, length) + '}';
+    }
+
+    /**
+     * Stream of the object opening the lob file on the first read and closing
+     * it on the end of the object
+     */
+    class LobInputStream extends FilterInputStream {
+
+        private boolean closed;
+
+        public LobInputStream() {
+            super(null);
+        }
+
+        protected boolean open() throws IOException {
+            if (in == null && !closed) {
+                InputStream input = backupOps.openInput(lobs);
+                try {
+                    ByteStreams.skipFully(input, offset);
+                } catch (IOException exception) {
+                    input.close();
+                    throw exception;
+                }
+                in = ByteStreams.limit(input, length);
+            }
+            return in != null;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = open() ? in.read() : -1;
+            if (read < 0) {
+                close();
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = open() ? in.read(buffer, offset, length) : -1;
+            if (read < 0) {
+                close();
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            return open() ? in.skip(count) : 0;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in != null ? in.available() : 0;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            if (in != null) {
+                in.close();
+                in = null;
+            }
+        }
+    }
+}
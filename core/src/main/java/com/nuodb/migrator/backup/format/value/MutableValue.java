@@ -0,0 +1,290 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Value holder reused across rows, which is refilled for every row instead of
+ * allocating a new value per cell. Integral numbers and temporal values are
+ * rendered into a reused char buffer, so that outputs writing
+ * {@link #asCharSequence()} don't create a string per value. A string view of
+ * the buffer is created only if {@link #asString()} is called. Large objects
+ * can be held as a stream or a reader, which are valid only until the result
+ * set advances.
+ */
+public class MutableValue implements StreamValue {
+
+    private ValueType valueType = STRING;
+    private StringBuilder chars = new StringBuilder(20);
+    private boolean buffered;
+    private String string;
+    private byte[] bytes;
+    private transient InputStream inputStream;
+    private transient Reader reader;
+
+    public MutableValue() {
+    }
+
+    public MutableValue(ValueType valueType) {
+        setNull(valueType);
+    }
+
+    public void setNull(ValueType valueType) {
+        this.valueType = valueType != null ? valueType : STRING;
+        this.buffered = false;
+        this.string = null;
+        this.bytes = null;
+        this.inputStream = null;
+        this.reader = null;
+    }
+
+    public void setString(String string) {
+        this.valueType = STRING;
+        this.buffered = false;
+        this.string = string;
+        this.bytes = null;
+        this.inputStream = null;
+        this.reader = null;
+    }
+
+    public void setBytes(byte[] bytes) {
+        this.valueType = BINARY;
+        this.buffered = false;
+        this.string = null;
+        this.bytes = bytes;
+        this.inputStream = null;
+        this.reader = null;
+    }
+
+    public void setLong(long value) {
+        this.valueType = STRING;
+        this.buffered = true;
+        this.string = null;
+        this.bytes = null;
+        this.inputStream = null;
+        this.reader = null;
+        chars.setLength(0);
+        chars.append(value);
+    }
+
+    /**
+     * Clears the reused char buffer and backs the value with it, the caller
+     * appends chars of the value to the returned buffer
+     *
+     * @return cleared char buffer
+     */
+    public StringBuilder setChars() {
+        this.valueType = STRING;
+        this.buffered = true;
+        this.string = null;
+        this.bytes = null;
+        this.inputStream = null;
+        this.reader = null;
+        chars.setLength(0);
+        return chars;
+    }
+
+    /**
+     * Backs binary value with a stream, which is read once by the consumer of
+     * the value
+     *
+     * @param inputStream
+     *            stream of the value or null
+     */
+    public void setInputStream(InputStream inputStream) {
+        setNull(BINARY);
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * Backs character value with a reader, which is read once by the consumer
+     * of the value
+     *
+     * @param reader
+     *            reader of the value or null
+     */
+    public void setReader(Reader reader) {
+        setNull(STRING);
+        this.reader = reader;
+    }
+
+    /**
+     * Renders integral numbers through {@link #setLong(long)}, other numbers
+     * through their string form
+     *
+     * @param number
+     *            number to render or null
+     */
+    public void setNumber(Object number) {
+        if (number instanceof Integer || number instanceof Long || number instanceof Short
+                || number instanceof Byte) {
+            setLong(((Number) number).longValue());
+        } else {
+            setString(number != null ? number.toString() : null);
+        }
+    }
+
+    /**
+     * Copies state of a given value into this holder
+     *
+     * @param value
+     *            value to copy
+     */
+    public void setValue(Value value) {
+        if (value instanceof MutableValue) {
+            MutableValue mutableValue = (MutableValue) value;
+            this.valueType = mutableValue.valueType;
+            this.buffered = mutableValue.buffered;
+            this.string = mutableValue.string;
+            this.bytes = mutableValue.bytes;
+            this.inputStream = mutableValue.inputStream;
+            this.reader = mutableValue.reader;
+            chars.setLength(0);
+            chars.append(mutableValue.chars);
+        } else if (value == null) {
+            setNull(STRING);
+        } else if (value.getValueType() == BINARY) {
+            setBytes(value.asBytes());
+        } else {
+            setString(value.asString());
+        }
+    }
+
+    /**
+     * Char view of the value, which for buffered values is backed by the reused
+     * buffer and is valid only until the holder is refilled
+     *
+     * @return chars of the value or null
+     */
+    public CharSequence asCharSequence() {
+        if (buffered) {
+            return chars;
+        } else if (string != null) {
+            return string;
+        } else {
+            return bytes != null ? asString() : null;
+        }
+    }
+
+    @Override
+    public boolean isNull() {
+        return !buffered && string == null && bytes == null && inputStream == null && reader == null;
+    }
+
+    @Override
+    public boolean isStream() {
+        return inputStream != null || reader != null;
+    }
+
+    @Override
+    public InputStream asInputStream() {
+        if (inputStream != null) {
+            return inputStream;
+        }
+        byte[] bytes = asBytes();
+        return bytes != null ? new ByteArrayInputStream(bytes) : null;
+    }
+
+    @Override
+    public Reader asReader() {
+        if (reader != null) {
+            return reader;
+        }
+        String string = asString();
+        return string != null ? new StringReader(string) : null;
+    }
+
+    /**
+     * Reads streamed value into memory, which is done only if the value is
+     * accessed as a string or bytes
+     */
+    protected void readStream() {
+        try {
+            if (inputStream != null) {
+                bytes = ByteStreams.toByteArray(inputStream);
+                inputStream.close();
+                inputStream = null;
+            } else if (reader != null) {
+                string = CharStreams.toString(reader);
+                reader.close();
+                reader = null;
+            }
+        } catch (IOException exception) {
+            throw new ValueFormatException(exception);
+        }
+    }
+
+    @Override
+    public String asString() {
+        if (isStream()) {
+            readStream();
+        }
+        if (string == null) {
+            if (buffered) {
+                string = chars.toString();
+            } else if (bytes != null) {
+                string = new String(bytes, UTF_8);
+            }
+        }
+        return string;
+    }
+
+    @Override
+    public byte[] asBytes() {
+        if (isStream()) {
+            readStream();
+        }
+        if (bytes == null) {
+            String string = asString();
+            bytes = string != null ? string.getBytes(UTF_8) : null;
+        }
+        return bytes;
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return valueType;
+    }
+
+    @Override
+    public String toString() {
+        return "Mutable{" + valueType + ", '" + asCharSequence() + "'}";
+    }
+}
@@ -37,22 +37,56 @@ public class Row {
     private Chunk chunk;
     private Value[] values;
     private long number;
+    private int range;
 
     public Row(Chunk chunk, Value[] values, long number) {
+        this(chunk, values, number, 0);
+    }
+
+    public Row(Chunk chunk, Value[] values, long number, int range) {
         this.chunk = chunk;
         this.values = values;
         this.number = number;
+        this.range = range;
     }
 
     public Chunk getChunk() {
         return chunk;
     }
 
+    public void setChunk(Chunk chunk) {
+        this.chunk = chunk;
+    }
+
     public Value[] getValues() {
         return values;
     }
 
+    public void setValues(Value[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Number of the row in the chunk or in the chunk range if the chunk is read
+     * in ranges
+     *
+     * @return row number starting from 0
+     */
     public long getNumber() {
         return number;
     }
+
+    public void setNumber(long number) {
+        this.number = number;
+    }
+
+    /**
+     * Index of the chunk range the row is read from, 0 if the chunk is read as
+     * a whole
+     *
+     * @return chunk range index
+     */
+    public int getRange() {
+        return range;
+    }
 }
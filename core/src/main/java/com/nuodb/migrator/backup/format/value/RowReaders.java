@@ -32,10 +32,13 @@ import com.nuodb.migrator.backup.Chunk;
 import com.nuodb.migrator.backup.RowSet;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.Input;
+import com.nuodb.migrator.backup.format.InputException;
+import com.nuodb.migrator.backup.format.SplittableInput;
 
-import java.util.Iterator;
 import java.util.Map;
 
+import static com.nuodb.migrator.backup.codec.Codecs.decode;
+import static java.lang.String.format;
 import static org.apache.commons.io.IOUtils.closeQuietly;
 
 /**
@@ -45,7 +48,30 @@ public class RowReaders {
 
     public static RowReader newSequentialRowReader(RowSet rowSet, BackupOps backupOps, FormatFactory formatFactory,
             Map<String, Object> formatAttributes) {
-        return new SequentialRowReader(rowSet, backupOps, formatFactory, formatAttributes);
+        return new SequentialRowReader(rowSet, new ChunkCursor(rowSet), backupOps, formatFactory, formatAttributes);
+    }
+
+    /**
+     * Creates a reader which parses chunks or chunk ranges taken from the shared
+     * chunk cursor, so that a number of partitioned readers created over the same
+     * cursor read the row set concurrently without contending on a single
+     * input.
+     *
+     * @param rowSet
+     *            row set to read
+     * @param chunkCursor
+     *            cursor shared by all partitioned readers of the row set
+     * @param backupOps
+     *            backup ops to open chunk input streams with
+     * @param formatFactory
+     *            format factory creating chunk inputs
+     * @param formatAttributes
+     *            format attributes
+     * @return row reader owning the chunk ranges it reads
+     */
+    public static RowReader newPartitionedRowReader(RowSet rowSet, ChunkCursor chunkCursor, BackupOps backupOps,
+            FormatFactory formatFactory, Map<String, Object> formatAttributes) {
+        return new SequentialRowReader(rowSet, chunkCursor, backupOps, formatFactory, formatAttributes);
     }
 
     public static RowReader newSynchronizedRowReader(RowReader rowReader) {
@@ -59,19 +85,20 @@ public class RowReaders {
     static class SequentialRowReader implements RowReader {
 
         private final RowSet rowSet;
+        private final ChunkCursor chunkCursor;
         private final BackupOps backupOps;
         private final FormatFactory formatFactory;
         private final Map<String, Object> formatAttributes;
 
-        private Iterator<Chunk> chunks;
-        private Chunk chunk;
+        private ChunkRange chunkRange;
         private Input input;
         private Row row;
         private volatile long number;
 
-        SequentialRowReader(RowSet rowSet, BackupOps backupOps, FormatFactory formatFactory,
+        SequentialRowReader(RowSet rowSet, ChunkCursor chunkCursor, BackupOps backupOps, FormatFactory formatFactory,
                 Map<String, Object> formatAttributes) {
             this.rowSet = rowSet;
+            this.chunkCursor = chunkCursor;
             this.backupOps = backupOps;
             this.formatFactory = formatFactory;
             this.formatAttributes = formatAttributes;
@@ -80,9 +107,16 @@ public class RowReaders {
         @Override
         public Row readRow() {
             initChunk();
-            initInput();
-            initRowValues();
-            return row;
+            while (chunkRange != null) {
+                initInput();
+                initRowValues();
+                if (row != null) {
+                    return row;
+                }
+                // chunk is exhausted, continue with the next one
+                initChunk();
+            }
+            return row = null;
         }
 
         @Override
@@ -94,18 +128,23 @@ public class RowReaders {
         }
 
         protected void initChunk() {
-            if (chunks == null) {
-                chunks = rowSet.getChunks().iterator();
-            }
-            if (chunks.hasNext() && chunk == null) {
-                chunk = chunks.next();
+            if (chunkRange == null) {
+                chunkRange = chunkCursor.next();
             }
         }
 
         protected void initInput() {
-            if (chunk != null && input == null) {
+            if (chunkRange != null && input == null) {
                 input = formatFactory.createInput(rowSet.getBackup().getFormat(), formatAttributes);
-                input.setInputStream(backupOps.openInput(chunk.getName()));
+                if (!chunkRange.isWhole()) {
+                    if (!(input instanceof SplittableInput)) {
+                        throw new InputException(
+                                format("Format %s does not support reading chunk ranges", input.getFormat()));
+                    }
+                    ((SplittableInput) input).setRange(chunkRange.getStart(), chunkRange.getEnd());
+                }
+                Chunk chunk = chunkRange.getChunk();
+                input.setInputStream(decode(chunk, backupOps.openInput(chunk.getName())));
                 input.setRowSet(rowSet);
                 input.init();
                 input.readStart();
@@ -114,6 +153,7 @@ public class RowReaders {
         }
 
         protected void initRowValues() {
+            ChunkRange chunkRange = this.chunkRange;
             Value[] values = null;
             if (input != null) {
                 try {
@@ -123,11 +163,11 @@ public class RowReaders {
                         input.readEnd();
                         input.close();
                         input = null;
-                        chunk = null;
+                        this.chunkRange = null;
                     }
                 }
             }
-            row = values != null ? new Row(chunk, values, number++) : null;
+            row = values != null ? new Row(chunkRange.getChunk(), values, number++, chunkRange.getIndex()) : null;
         }
     }
 
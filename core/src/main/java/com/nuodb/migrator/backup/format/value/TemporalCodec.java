@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+
+/**
+ * Parses temporal values directly from their chars, returning null instead of
+ * throwing an exception if the chars don't match the pattern of the codec, and
+ * formats timestamps & dates into a reused char buffer. Codecs are stateless
+ * and are shared between threads.
+ */
+@SuppressWarnings("deprecation")
+public abstract class TemporalCodec {
+
+    /**
+     * yyyy-[m]m-[d]d hh:mm:ss[.f...] as accepted by {@link Timestamp#valueOf}
+     */
+    public static final TemporalCodec TIMESTAMP = new DateTimeCodec(true);
+
+    /**
+     * yyyy-[m]m-[d]d as accepted by {@link Date#valueOf}
+     */
+    public static final TemporalCodec DATE = new DateTimeCodec(false);
+
+    /**
+     * yyyy
+     */
+    public static final TemporalCodec YEAR = new YearCodec();
+
+    private static final int[] POWERS_OF_TEN = { 1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000,
+            1000000000 };
+
+    /**
+     * Parses the chars
+     *
+     * @param value
+     *            chars to parse
+     * @return parsed value or null if the chars don't match the pattern
+     */
+    public abstract java.util.Date parse(CharSequence value);
+
+    /**
+     * Appends the timestamp in the format of {@link Timestamp#toString()}
+     *
+     * @param timestamp
+     *            timestamp to format
+     * @param chars
+     *            buffer to append to
+     */
+    public static void formatTimestamp(Timestamp timestamp, StringBuilder chars) {
+        int year = timestamp.getYear() + 1900;
+        if (year < 1 || year > 9999) {
+            chars.append(timestamp.toString());
+            return;
+        }
+        appendDate(chars, year, timestamp.getMonth() + 1, timestamp.getDate());
+        chars.append(' ');
+        appendDigits(chars, timestamp.getHours(), 2);
+        chars.append(':');
+        appendDigits(chars, timestamp.getMinutes(), 2);
+        chars.append(':');
+        appendDigits(chars, timestamp.getSeconds(), 2);
+        chars.append('.');
+        int nanos = timestamp.getNanos();
+        if (nanos == 0) {
+            chars.append('0');
+        } else {
+            int digits = 9;
+            while (nanos % 10 == 0) {
+                nanos /= 10;
+                digits--;
+            }
+            appendDigits(chars, nanos, digits);
+        }
+    }
+
+    /**
+     * Appends the date in the format of {@link Date#toString()}
+     *
+     * @param date
+     *            date to format
+     * @param chars
+     *            buffer to append to
+     */
+    public static void formatDate(java.util.Date date, StringBuilder chars) {
+        int year = date.getYear() + 1900;
+        if (year < 1 || year > 9999) {
+            chars.append(new Date(date.getTime()).toString());
+            return;
+        }
+        appendDate(chars, year, date.getMonth() + 1, date.getDate());
+    }
+
+    private static void appendDate(StringBuilder chars, int year, int month, int day) {
+        appendDigits(chars, year, 4);
+        chars.append('-');
+        appendDigits(chars, month, 2);
+        chars.append('-');
+        appendDigits(chars, day, 2);
+    }
+
+    private static void appendDigits(StringBuilder chars, int value, int digits) {
+        for (int digit = digits - 1; digit >= 0; digit--) {
+            chars.append((char) ('0' + value / POWERS_OF_TEN[digit] % 10));
+        }
+    }
+
+    /**
+     * Finds the end of the digits starting at the given index
+     *
+     * @return index of the first non digit char, at most from + max
+     */
+    protected static int scanDigits(CharSequence value, int from, int max) {
+        int to = Math.min(value.length(), from + max);
+        int index = from;
+        while (index < to && isDigit(value.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    protected static int toInt(CharSequence value, int from, int to) {
+        int result = 0;
+        for (int index = from; index < to; index++) {
+            result = result * 10 + value.charAt(index) - '0';
+        }
+        return result;
+    }
+
+    protected static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    protected static boolean isChar(CharSequence value, int index, char c) {
+        return index < value.length() && value.charAt(index) == c;
+    }
+
+    static class DateTimeCodec extends TemporalCodec {
+
+        private final boolean time;
+
+        public DateTimeCodec(boolean time) {
+            this.time = time;
+        }
+
+        @Override
+        public java.util.Date parse(CharSequence value) {
+            int index = scanDigits(value, 0, 4);
+            if (index != 4 || !isChar(value, index, '-')) {
+                return null;
+            }
+            int year = toInt(value, 0, 4);
+            int from = index + 1;
+            index = scanDigits(value, from, 2);
+            if (index == from || !isChar(value, index, '-')) {
+                return null;
+            }
+            int month = toInt(value, from, index);
+            from = index + 1;
+            index = scanDigits(value, from, 2);
+            if (index == from) {
+                return null;
+            }
+            int day = toInt(value, from, index);
+            if (month < 1 || month > 12 || day < 1 || day > 31) {
+                return null;
+            }
+            if (!time) {
+                return index == value.length() ? new Date(year - 1900, month - 1, day) : null;
+            }
+            if (!isChar(value, index, ' ') || value.length() < index + 9 || value.charAt(index + 3) != ':'
+                    || value.charAt(index + 6) != ':') {
+                return null;
+            }
+            from = index + 1;
+            if (scanDigits(value, from, 2) != from + 2 || scanDigits(value, from + 3, 2) != from + 5
+                    || scanDigits(value, from + 6, 2) != from + 8) {
+                return null;
+            }
+            int hour = toInt(value, from, from + 2);
+            int minute = toInt(value, from + 3, from + 5);
+            int second = toInt(value, from + 6, from + 8);
+            if (hour > 23 || minute > 59 || second > 59) {
+                return null;
+            }
+            index = from + 8;
+            int nanos = 0;
+            if (isChar(value, index, '.')) {
+                from = index + 1;
+                index = scanDigits(value, from, 9);
+                if (index == from) {
+                    return null;
+                }
+                nanos = toInt(value, from, index) * POWERS_OF_TEN[9 - (index - from)];
+            }
+            return index == value.length()
+                    ? new Timestamp(year - 1900, month - 1, day, hour, minute, second, nanos)
+                    : null;
+        }
+    }
+
+    static class YearCodec extends TemporalCodec {
+
+        @Override
+        public java.util.Date parse(CharSequence value) {
+            return value.length() == 4 && scanDigits(value, 0, 4) == 4
+                    ? new java.util.Date(toInt(value, 0, 4) - 1900, 0, 1)
+                    : null;
+        }
+    }
+}
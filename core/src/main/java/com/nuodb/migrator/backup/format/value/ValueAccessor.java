@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
+
+import java.util.Map;
+
+/**
+ * Gets & sets values of a single column. Created by the value format once the
+ * value handle is built, so that decisions depending on the column only, such
+ * as the jdbc type code or whether large objects are streamed, are taken once
+ * per column rather than for every value.
+ */
+public abstract class ValueAccessor {
+
+    protected final ValueHandle valueHandle;
+    protected final JdbcValueAccess access;
+    protected final Map<String, Object> options;
+
+    protected ValueAccessor(ValueHandle valueHandle) {
+        this.valueHandle = valueHandle;
+        this.access = valueHandle.getJdbcValueAccess();
+        this.options = valueHandle.getJdbcValueAccessOptions();
+    }
+
+    /**
+     * Gets value of the column into a given holder, which is reused by the
+     * caller across rows
+     *
+     * @param value
+     *            holder to fill in
+     * @return filled in holder
+     * @throws ValueFormatException
+     *             if value can't be got
+     */
+    public abstract Value getValue(MutableValue value) throws ValueFormatException;
+
+    public abstract void setValue(Value value) throws ValueFormatException;
+
+    public ValueHandle getValueHandle() {
+        return valueHandle;
+    }
+}
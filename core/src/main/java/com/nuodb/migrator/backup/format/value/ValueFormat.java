@@ -39,7 +39,33 @@ public interface ValueFormat<T> {
 
     Value getValue(JdbcValueAccess<T> access, Map<String, Object> options) throws ValueFormatException;
 
+    /**
+     * Gets value into a given holder, which is reused by the caller across rows
+     *
+     * @param access
+     *            access to the jdbc value
+     * @param options
+     *            access options
+     * @param value
+     *            holder to fill in
+     * @return filled in holder
+     * @throws ValueFormatException
+     *             if value can't be got
+     */
+    Value getValue(JdbcValueAccess<T> access, Map<String, Object> options, MutableValue value)
+            throws ValueFormatException;
+
     void setValue(Value value, JdbcValueAccess<T> access, Map<String, Object> options) throws ValueFormatException;
 
     ValueType getValueType(Field field);
+
+    /**
+     * Creates accessor getting & setting values of the column through its jdbc
+     * value access, called once the value handle is built
+     *
+     * @param valueHandle
+     *            value handle of the column
+     * @return value accessor of the column
+     */
+    ValueAccessor createValueAccessor(ValueHandle valueHandle);
 }
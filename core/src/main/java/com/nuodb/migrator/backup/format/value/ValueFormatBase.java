@@ -57,6 +57,28 @@ public abstract class ValueFormatBase<T> implements ValueFormat<T> {
 
     protected abstract Value doGetValue(JdbcValueAccess<T> access, Map<String, Object> options) throws Throwable;
 
+    @Override
+    public Value getValue(JdbcValueAccess<T> access, Map<String, Object> options, MutableValue value) {
+        try {
+            doGetValue(access, options, value);
+        } catch (ValueFormatException exception) {
+            throw exception;
+        } catch (Throwable cause) {
+            value.setValue(onGetValueError(access, cause));
+        }
+        return value;
+    }
+
+    /**
+     * Fills in the holder from a value created by
+     * {@link #doGetValue(JdbcValueAccess, Map)}, formats override it to skip
+     * allocation of intermediate values
+     */
+    protected void doGetValue(JdbcValueAccess<T> access, Map<String, Object> options, MutableValue value)
+            throws Throwable {
+        value.setValue(doGetValue(access, options));
+    }
+
     protected Value onGetValueError(JdbcValueAccess access, Throwable cause) {
         throw new ValueFormatException(format("Can't get %s %s column value", getColumnName(access.getField()),
                 access.getField().getTypeName()), cause);
@@ -81,6 +103,27 @@ public abstract class ValueFormatBase<T> implements ValueFormat<T> {
                 access.getField().getTypeName()), cause);
     }
 
+    /**
+     * Creates accessor delegating to the value format, formats override it to
+     * specialize accessors by the column
+     */
+    @Override
+    public ValueAccessor createValueAccessor(ValueHandle valueHandle) {
+        return new ValueAccessor(valueHandle) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Value getValue(MutableValue value) {
+                return ValueFormatBase.this.getValue(access, options, value);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void setValue(Value value) {
+                ValueFormatBase.this.setValue(value, access, options);
+            }
+        };
+    }
+
     protected String getColumnName(Field field) {
         if (field instanceof Column) {
             Column column = (Column) field;
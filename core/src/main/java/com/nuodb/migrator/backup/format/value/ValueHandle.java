@@ -52,4 +52,8 @@ public interface ValueHandle extends Field {
     Map<String, Object> getJdbcValueAccessOptions();
 
     void setJdbcValueAccessOptions(Map<String, Object> jdbcValueAccessOptions);
+
+    ValueAccessor getValueAccessor();
+
+    void setValueAccessor(ValueAccessor valueAccessor);
 }
@@ -39,4 +39,12 @@ public interface ValueHandleList extends FieldList<ValueHandle> {
     ValueHandle get(String column);
 
     ValueHandle set(int index, ValueHandle column);
+
+    /**
+     * Value accessors of the handles in the order of the list, which callers
+     * keep to walk by index for every row
+     *
+     * @return array of value accessors
+     */
+    ValueAccessor[] getValueAccessors();
 }
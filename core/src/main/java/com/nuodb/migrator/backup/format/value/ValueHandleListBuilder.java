@@ -44,6 +44,7 @@ import java.util.Map;
 import java.util.TimeZone;
 
 import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.backup.format.value.JdbcValueFormat.LOB_STREAMING;
 import static com.nuodb.migrator.jdbc.type.jdbc2.JdbcDateValueBase.TIMEZONE;
 
 /**
@@ -59,6 +60,8 @@ public abstract class ValueHandleListBuilder {
 
     private ValueFormatRegistry valueFormatRegistry;
 
+    private boolean lobStreaming;
+
     public static ValueHandleListBuilder newBuilder(final Connection connection, final ResultSet resultSet) {
         return new ValueHandleListBuilder() {
             private int column = 1;
@@ -72,8 +75,18 @@ public abstract class ValueHandleListBuilder {
     }
 
     public static ValueHandleListBuilder newBuilder(final Connection connection, final PreparedStatement statement) {
+        return newBuilder(connection, statement, 0);
+    }
+
+    /**
+     * Creates builder binding values to the parameters of the statement
+     * starting after the given offset, such as to the parameters of a
+     * particular row of a multi row insert
+     */
+    public static ValueHandleListBuilder newBuilder(final Connection connection, final PreparedStatement statement,
+            final int offset) {
         return new ValueHandleListBuilder() {
-            private int column = 1;
+            private int column = offset + 1;
 
             @Override
             protected JdbcValueAccess buildJdbcValueAccess(ValueHandle valueHandle) {
@@ -111,6 +124,7 @@ public abstract class ValueHandleListBuilder {
         initValueType(valueHandle);
         initJdbcValueAccess(valueHandle);
         initJdbcValueAccessOptions(valueHandle);
+        initValueAccessor(valueHandle);
     }
 
     protected void initValueFormat(ValueHandle valueHandle) {
@@ -118,12 +132,22 @@ public abstract class ValueHandleListBuilder {
     }
 
     protected ValueFormat buildValueFormat(ValueHandle valueHandle) {
-        return getValueFormatRegistry()
+        ValueFormat valueFormat = getValueFormatRegistry()
                 .getValueFormat(new JdbcTypeDesc(valueHandle.getTypeCode(), valueHandle.getTypeName()));
+        return valueFormat instanceof StatefulValueFormat ? ((StatefulValueFormat) valueFormat).newValueFormat()
+                : valueFormat;
     }
 
+    /**
+     * Resolves value type with the value format already set on the handle, so
+     * that the format is looked up in the registry once per handle
+     */
     protected void initValueType(ValueHandle valueHandle) {
-        valueHandle.setValueType(buildValueFormat(valueHandle).getValueType(valueHandle));
+        ValueFormat valueFormat = valueHandle.getValueFormat();
+        if (valueFormat == null) {
+            valueFormat = buildValueFormat(valueHandle);
+        }
+        valueHandle.setValueType(valueFormat.getValueType(valueHandle));
     }
 
     protected void initJdbcValueAccess(ValueHandle valueHandle) {
@@ -147,11 +171,27 @@ public abstract class ValueHandleListBuilder {
                 jdbcValueAccessOptions.put(TIMEZONE, getTimeZone());
             }
             break;
+        case Types.BLOB:
+        case Types.CLOB:
+        case Types.NCLOB:
+            if (isLobStreaming()) {
+                jdbcValueAccessOptions = newHashMap();
+                jdbcValueAccessOptions.put(LOB_STREAMING, true);
+            }
+            break;
         default:
         }
         return jdbcValueAccessOptions;
     }
 
+    /**
+     * Creates value accessor of the handle once its value format, jdbc value
+     * access & access options are resolved
+     */
+    protected void initValueAccessor(ValueHandle valueHandle) {
+        valueHandle.setValueAccessor(valueHandle.getValueFormat().createValueAccessor(valueHandle));
+    }
+
     public Dialect getDialect() {
         return dialect;
     }
@@ -188,12 +228,29 @@ public abstract class ValueHandleListBuilder {
         return this;
     }
 
+    public boolean isLobStreaming() {
+        return lobStreaming;
+    }
+
+    /**
+     * Fetches blob & clob values as streams instead of reading them into memory
+     *
+     * @param lobStreaming
+     *            true to stream large objects
+     * @return this builder
+     */
+    public ValueHandleListBuilder withLobStreaming(boolean lobStreaming) {
+        this.lobStreaming = lobStreaming;
+        return this;
+    }
+
     private static class SimpleValueHandle extends SimpleField implements ValueHandle {
 
         private ValueType valueType;
         private ValueFormat valueFormat;
         private JdbcValueAccess jdbcValueAccess;
         private Map<String, Object> jdbcValueAccessOptions;
+        private ValueAccessor valueAccessor;
 
         public SimpleValueHandle(Field field) {
             super(field);
@@ -238,8 +295,28 @@ public abstract class ValueHandleListBuilder {
         public void setJdbcValueAccessOptions(Map<String, Object> jdbcValueAccessOptions) {
             this.jdbcValueAccessOptions = jdbcValueAccessOptions;
         }
+
+        @Override
+        public ValueAccessor getValueAccessor() {
+            return valueAccessor;
+        }
+
+        @Override
+        public void setValueAccessor(ValueAccessor valueAccessor) {
+            this.valueAccessor = valueAccessor;
+        }
     }
 
     private static class SimpleValueHandleList extends SimpleFieldList<ValueHandle> implements ValueHandleList {
+
+        @Override
+        public ValueAccessor[] getValueAccessors() {
+            ValueAccessor[] valueAccessors = new ValueAccessor[size()];
+            int index = 0;
+            for (ValueHandle valueHandle : this) {
+                valueAccessors[index++] = valueHandle.getValueAccessor();
+            }
+            return valueAccessors;
+        }
     }
 }
@@ -32,6 +32,7 @@ import java.util.List;
 
 import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
 import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * @author Sergey Bushik
@@ -56,6 +57,37 @@ public class ValueUtils {
         }
     }
 
+    /**
+     * Approximates size of the values in bytes taking a character for a byte,
+     * streamed values are counted only if their length is known
+     *
+     * @param values
+     *            values of a row
+     * @return total length of the values
+     */
+    public static long getLength(Value[] values) {
+        long length = 0;
+        for (Value value : values) {
+            if (value == null || value.isNull()) {
+                continue;
+            }
+            if (value instanceof StreamValue && ((StreamValue) value).isStream()) {
+                if (value instanceof LobValue) {
+                    length += ((LobValue) value).getLength();
+                }
+                continue;
+            }
+            if (value.getValueType() == BINARY) {
+                length += value.asBytes().length;
+            } else if (value instanceof MutableValue) {
+                length += ((MutableValue) value).asCharSequence().length();
+            } else {
+                length += value.asString().length();
+            }
+        }
+        return length;
+    }
+
     public static Value binary(byte[] value) {
         return value == null ? BINARY_NULL : new BinaryValue(value);
     }
@@ -74,7 +106,7 @@ public class ValueUtils {
 
         @Override
         public String asString() {
-            return value != null ? new String(value) : null;
+            return value != null ? new String(value, UTF_8) : null;
         }
 
         @Override
@@ -133,7 +165,7 @@ public class ValueUtils {
 
         @Override
         public byte[] asBytes() {
-            return value != null ? value.getBytes() : null;
+            return value != null ? value.getBytes(UTF_8) : null;
         }
 
         @Override
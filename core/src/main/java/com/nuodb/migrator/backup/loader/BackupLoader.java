@@ -31,7 +31,10 @@ import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.nuodb.migrator.MigratorException;
 import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupException;
+import com.nuodb.migrator.backup.BackupJournal;
 import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.Chunk;
 import com.nuodb.migrator.backup.Column;
 import com.nuodb.migrator.backup.RowSet;
 import com.nuodb.migrator.backup.TableRowSet;
@@ -77,6 +80,7 @@ import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
 import com.nuodb.migrator.jdbc.session.Work;
 import com.nuodb.migrator.jdbc.type.JdbcTypeNameMap;
+import com.nuodb.migrator.metrics.MetricRegistry;
 import com.nuodb.migrator.spec.ConnectionSpec;
 import com.nuodb.migrator.spec.JdbcTypeSpec;
 import com.nuodb.migrator.spec.MetaDataSpec;
@@ -96,6 +100,7 @@ import static com.google.common.collect.Iterables.*;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newHashSet;
+import static com.nuodb.migrator.backup.BackupJournal.LOAD_JOURNAL;
 import static com.nuodb.migrator.context.ContextUtils.createService;
 import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
 import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.NUODB;
@@ -123,11 +128,24 @@ public class BackupLoader {
 
     public static final Collection<MigrationMode> MIGRATION_MODES = newHashSet(MigrationMode.values());
     public static final int THREADS = getRuntime().availableProcessors();
+    public static final int INSERT_ROWS = 1;
+
+    /**
+     * Constraints are loaded with a half of the worker threads by default
+     */
+    public static final int CONSTRAINT_THREADS = 0;
+
+    /**
+     * Load journal key recording completion of schema scripts
+     */
+    protected static final String SCHEMA_LOADED = "schema";
 
     protected final transient Logger logger = getLogger(getClass());
 
     private CommitStrategy commitStrategy;
+    private int constraintThreads = CONSTRAINT_THREADS;
     private Database database;
+    private boolean deferConstraints;
     private DialectResolver dialectResolver;
     private ExecutorService executorService;
     private FormatFactory formatFactory;
@@ -138,8 +156,11 @@ public class BackupLoader {
     private IdentifierQuoting identifierQuoting;
     private IdentifierNormalizer identifierNormalizer;
     private InsertTypeFactory insertTypeFactory;
+    private int insertRows = INSERT_ROWS;
     private InspectionManager inspectionManager;
     private Parallelizer parallelizer = new TableLevelParallelizer();
+    private boolean resume;
+    private MetricRegistry metricRegistry;
     private MetaDataSpec metaDataSpec;
     private Collection<MigrationMode> migrationModes = MIGRATION_MODES;
     private PrioritySet<NamingStrategy> namingStrategies;
@@ -168,7 +189,7 @@ public class BackupLoader {
         return backupOps;
     }
 
-    protected Backup load(BackupOps backupOps, Map context) throws Exception {
+    public Backup load(BackupOps backupOps, Map context) throws Exception {
         return load(createBackupLoaderManager(backupOps, context));
     }
 
@@ -189,19 +210,47 @@ public class BackupLoader {
         backupLoaderContext.setFormatAttributes(getFormatAttributes());
         backupLoaderContext.setFormatFactory(getFormatFactory());
         backupLoaderContext.setInsertTypeFactory(getInsertTypeFactory());
+        backupLoaderContext.setInsertRows(getInsertRows());
         backupLoaderContext.setMigrationModes(getMigrationModes());
         backupLoaderContext.setParallelizer(getParallelizer());
         backupLoaderContext.setRowSetMapper(getRowSetMapper());
         backupLoaderContext.setSourceTables(getSourceTables(backupLoaderContext));
         backupLoaderContext.setTimeZone(getTimeZone());
+        backupLoaderContext.setMetricRegistry(getMetricRegistry());
         openSourceSession(backupLoaderContext);
         openTargetSession(backupLoaderContext);
         if (backupLoaderContext.isLoadSchema()) {
             backupLoaderContext.setLoadConstraints(createLoadConstraints(backupLoaderContext));
         }
+        backupLoaderContext.setBackupJournal(openBackupJournal(backupOps));
         return backupLoaderContext;
     }
 
+    /**
+     * Opens load journal alongside the backup catalog, which is read first if
+     * the load is resumed. Load proceeds without checkpoints if a new journal
+     * can't be opened, i.e. backup is on a read only file system.
+     *
+     * @param backupOps
+     *            backup ops to open journal with
+     * @return opened journal or null
+     */
+    protected BackupJournal openBackupJournal(BackupOps backupOps) {
+        BackupJournal backupJournal = new BackupJournal(backupOps, LOAD_JOURNAL);
+        try {
+            backupJournal.open(isResume());
+            return backupJournal;
+        } catch (BackupException exception) {
+            if (isResume()) {
+                throw exception;
+            }
+            if (logger.isWarnEnabled()) {
+                logger.warn(format("Can't open %s journal, load won't be resumable", LOAD_JOURNAL), exception);
+            }
+            return null;
+        }
+    }
+
     /**
      * Returns a filtered list of source tables to load depending on the
      * requested source table names and their patterns or all source tables if
@@ -233,7 +282,9 @@ public class BackupLoader {
         backupLoaderManager.setBackupLoaderContext(backupLoaderContext);
         // add listener after load constraints is created
         if (backupLoaderManager.isLoadSchema()) {
-            backupLoaderManager.addListener(new LoadConstraintListener(this, backupLoaderManager));
+            LoadConstraintScheduler loadConstraintScheduler = new LoadConstraintScheduler(this, backupLoaderManager);
+            backupLoaderContext.setLoadConstraintScheduler(loadConstraintScheduler);
+            backupLoaderManager.addListener(loadConstraintScheduler);
         }
         for (BackupLoaderListener listener : getListeners()) {
             backupLoaderManager.addListener(listener);
@@ -378,6 +429,15 @@ public class BackupLoader {
 
     protected void loadSchema(BackupLoaderManager backupLoaderManager) throws Exception {
         BackupLoaderContext backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
+        BackupJournal backupJournal = backupLoaderContext.getBackupJournal();
+        if (backupJournal != null && backupJournal.isDone(SCHEMA_LOADED)) {
+            // recreating schema would drop rows loaded by the previous run
+            if (logger.isDebugEnabled()) {
+                logger.debug("Schema is loaded by a previous run");
+            }
+            backupLoaderManager.loadSchemaDone();
+            return;
+        }
         ScriptGeneratorManager scriptGeneratorManager = backupLoaderContext.getScriptGeneratorManager();
         Collection<MetaDataType> objectTypes = getObjectTypes();
         ScriptExporter scriptExporter = createScriptExporter(backupLoaderContext);
@@ -405,6 +465,9 @@ public class BackupLoader {
             closeQuietly(scriptExporter);
             scriptGeneratorManager.setObjectTypes(objectTypes);
         }
+        if (backupJournal != null) {
+            backupJournal.done(SCHEMA_LOADED);
+        }
         backupLoaderManager.loadSchemaDone();
     }
 
@@ -442,11 +505,16 @@ public class BackupLoader {
         backupLoaderContext
                 .setDatabase(database != null ? database : openDatabase(backupLoaderContext.getTargetSession()));
         initLoadTables(backupLoaderContext);
-        executeWork(new LoadTablesWork(backupLoaderManager), backupLoaderManager);
+        executeWork(createLoadTablesWork(backupLoaderManager), backupLoaderManager);
+    }
+
+    protected LoadTablesWork createLoadTablesWork(BackupLoaderManager backupLoaderManager) {
+        return new LoadTablesWork(backupLoaderManager);
     }
 
     /**
-     * Load constraints for source tables without row sets
+     * Starts constraint scheduler, which loads constraints of source tables
+     * without row sets straight away and the rest as their tables are loaded
      *
      * @param backupLoaderManager
      *            to manage this load
@@ -454,25 +522,7 @@ public class BackupLoader {
      *             if constraints loading caused error
      */
     protected void loadConstraints(BackupLoaderManager backupLoaderManager) throws Exception {
-        BackupLoaderContext backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
-        LoadConstraints loadConstraints = backupLoaderContext.getLoadConstraints();
-        LoadConstraints loadConstraintsNow = new LoadConstraints(
-                loadConstraints.getLoadConstraints(INDEX, PRIMARY_KEY));
-        LoadTables loadTables = backupLoaderContext.getLoadTables();
-        if (!isEmpty(loadTables)) {
-            for (LoadTable loadTable : loadTables) {
-                Table table = getTable(loadTable, backupLoaderContext);
-                if (table != null) {
-                    loadConstraintsNow.getLoadConstraints().removeAll(table);
-                }
-            }
-        }
-        for (LoadConstraint loadConstraint : loadConstraintsNow) {
-            loadConstraint(loadConstraint, backupLoaderManager);
-        }
-        if (isEmpty(loadConstraints)) {
-            backupLoaderManager.loadConstraintsDone();
-        }
+        backupLoaderManager.getBackupLoaderContext().getLoadConstraintScheduler().start();
     }
 
     protected void loadConstraint(LoadConstraint loadConstraint, BackupLoaderManager backupLoaderManager) {
@@ -480,15 +530,6 @@ public class BackupLoader {
         executeWork(work, backupLoaderManager);
     }
 
-    protected void loadConstraints(Collection<LoadConstraint> loadConstraints,
-            BackupLoaderManager backupLoaderManager) {
-        if (!isEmpty(loadConstraints)) {
-            for (LoadConstraint loadConstraint : loadConstraints) {
-                loadConstraint(loadConstraint, backupLoaderManager);
-            }
-        }
-    }
-
     protected LoadConstraints createLoadConstraints(BackupLoaderContext backupLoaderContext) {
         LoadConstraints loadConstraints = new LoadConstraints();
         boolean loadIndex = contains(getObjectTypes(), INDEX);
@@ -568,8 +609,12 @@ public class BackupLoader {
     protected void initLoadTables(BackupLoaderContext backupLoaderContext) {
         LoadTables loadTables = createLoadTables(backupLoaderContext);
         backupLoaderContext.setLoadTables(loadTables);
+        MetricRegistry metricRegistry = backupLoaderContext.getMetricRegistry();
         for (LoadTable loadTable : loadTables) {
             loadTable.setThreads(backupLoaderContext.getParallelizer().getThreads(loadTable, backupLoaderContext));
+            if (metricRegistry != null) {
+                metricRegistry.addExpectedRows(loadTable.getRowSet().getRowCount());
+            }
         }
     }
 
@@ -579,6 +624,9 @@ public class BackupLoader {
         Backup backup = backupLoaderContext.getBackup();
         Database database = backup.getDatabase();
         for (RowSet rowSet : backup.getRowSets()) {
+            if (isResume()) {
+                resumeRowSet(rowSet, backupLoaderContext);
+            }
             if (isEmpty(rowSet.getChunks())) {
                 continue;
             }
@@ -605,6 +653,35 @@ public class BackupLoader {
         return loadTables;
     }
 
+    /**
+     * Removes chunks fully loaded by the previous runs from the row set, rows
+     * of a partially loaded chunk are skipped by the table loader
+     *
+     * @param rowSet
+     *            row set to resume
+     * @param backupLoaderContext
+     *            backup loader context
+     */
+    protected void resumeRowSet(RowSet rowSet, BackupLoaderContext backupLoaderContext) {
+        BackupJournal backupJournal = backupLoaderContext.getBackupJournal();
+        if (backupJournal == null) {
+            return;
+        }
+        Collection<Chunk> chunks = newArrayList();
+        for (Chunk chunk : rowSet.getChunks()) {
+            if (!backupJournal.isChunkLoaded(chunk)) {
+                chunks.add(chunk);
+            }
+        }
+        if (chunks.size() < rowSet.getChunks().size()) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(format("Skipping %d of %d chunk(s) of %s loaded by a previous run",
+                        rowSet.getChunks().size() - chunks.size(), rowSet.getChunks().size(), rowSet.getName()));
+            }
+            rowSet.setChunks(chunks);
+        }
+    }
+
     protected void executeWork(final Work work, final BackupLoaderManager backupLoaderManager) {
         final BackupLoaderContext backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
         ForkJoinPool executor = (ForkJoinPool) backupLoaderContext.getExecutorService();
@@ -698,6 +775,22 @@ public class BackupLoader {
         this.dialectResolver = dialectResolver;
     }
 
+    public int getConstraintThreads() {
+        return constraintThreads;
+    }
+
+    public void setConstraintThreads(int constraintThreads) {
+        this.constraintThreads = constraintThreads;
+    }
+
+    public boolean isDeferConstraints() {
+        return deferConstraints;
+    }
+
+    public void setDeferConstraints(boolean deferConstraints) {
+        this.deferConstraints = deferConstraints;
+    }
+
     public ExecutorService getExecutorService() {
         return executorService;
     }
@@ -770,6 +863,14 @@ public class BackupLoader {
         this.insertTypeFactory = insertTypeFactory;
     }
 
+    public int getInsertRows() {
+        return insertRows;
+    }
+
+    public void setInsertRows(int insertRows) {
+        this.insertRows = insertRows;
+    }
+
     public InspectionManager getInspectionManager() {
         return inspectionManager;
     }
@@ -778,6 +879,22 @@ public class BackupLoader {
         this.inspectionManager = inspectionManager;
     }
 
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    public MetricRegistry getMetricRegistry() {
+        return metricRegistry;
+    }
+
+    public void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
     public Parallelizer getParallelizer() {
         return parallelizer;
     }
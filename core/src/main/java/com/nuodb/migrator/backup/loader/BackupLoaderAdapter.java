@@ -39,10 +39,10 @@ public class BackupLoaderAdapter extends WorkAdapter implements BackupLoaderList
     }
 
     @Override
-    public void onLoadRow(LoadRowEvent event) {
+    public void onLoadEnd(LoadChunkEvent event) {
     }
 
     @Override
-    public void onLoadEnd(LoadChunkEvent event) {
+    public void onLoadBatch(LoadBatchEvent event) {
     }
 }
@@ -28,6 +28,8 @@
 package com.nuodb.migrator.backup.loader;
 
 import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupJournal;
+import com.nuodb.migrator.metrics.MetricRegistry;
 import com.nuodb.migrator.backup.BackupOps;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
@@ -67,6 +69,14 @@ public interface BackupLoaderContext {
 
     void setBackupOpsContext(Map backupOpsContext);
 
+    MetricRegistry getMetricRegistry();
+
+    void setMetricRegistry(MetricRegistry metricRegistry);
+
+    BackupJournal getBackupJournal();
+
+    void setBackupJournal(BackupJournal backupJournal);
+
     CommitStrategy getCommitStrategy();
 
     void setCommitStrategy(CommitStrategy commitStrategy);
@@ -95,10 +105,18 @@ public interface BackupLoaderContext {
 
     void setInsertTypeFactory(InsertTypeFactory insertTypeFactory);
 
+    int getInsertRows();
+
+    void setInsertRows(int insertRows);
+
     LoadConstraints getLoadConstraints();
 
     void setLoadConstraints(LoadConstraints loadConstraints);
 
+    LoadConstraintScheduler getLoadConstraintScheduler();
+
+    void setLoadConstraintScheduler(LoadConstraintScheduler loadConstraintScheduler);
+
     LoadTables getLoadTables();
 
     void setLoadTables(LoadTables loadTables);
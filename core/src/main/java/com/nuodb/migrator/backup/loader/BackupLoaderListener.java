@@ -30,13 +30,16 @@ package com.nuodb.migrator.backup.loader;
 import com.nuodb.migrator.jdbc.session.WorkListener;
 
 /**
+ * Listener of chunk & batch events of the table loaders, listeners requiring
+ * an event per row implement {@link LoadRowListener}
+ *
  * @author Sergey Bushik
  */
 public interface BackupLoaderListener extends WorkListener {
 
     void onLoadStart(LoadChunkEvent event);
 
-    void onLoadRow(LoadRowEvent event);
-
     void onLoadEnd(LoadChunkEvent event);
+
+    void onLoadBatch(LoadBatchEvent event);
 }
@@ -27,6 +27,7 @@
  */
 package com.nuodb.migrator.backup.loader;
 
+import com.nuodb.migrator.backup.Chunk;
 import com.nuodb.migrator.backup.format.value.Row;
 import com.nuodb.migrator.jdbc.session.Work;
 import com.nuodb.migrator.jdbc.session.WorkManager;
@@ -50,9 +51,51 @@ public interface BackupLoaderManager extends WorkManager<BackupLoaderListener> {
 
     void loadSchemaDone();
 
-    void beforeLoadRow(Work work, LoadTable loadTable, Row row);
+    /**
+     * Called once the work reads the first row of a chunk, the chunk is
+     * started by the first of the works reading its rows
+     */
+    void loadStart(Work work, LoadTable loadTable, Chunk chunk);
 
-    void afterLoadRow(Work work, LoadTable loadTable, Row row);
+    /**
+     * Called once the work is done with the rows of a chunk, either moving to
+     * the next chunk or running out of rows. The chunk is ended once all of
+     * its rows are read by the works sharing the chunk or its ranges.
+     *
+     * @param rows
+     *            number of rows of the chunk read by the work, including the
+     *            rows skipped as loaded by a previous run
+     */
+    void loadEnd(Work work, LoadTable loadTable, Chunk chunk, long rows);
+
+    /**
+     * Tells if any of the listeners requires an event per row, checked once
+     * by the work before loading rows
+     *
+     * @return true if {@link #loadRow(Work, LoadTable, Row)} should be called
+     */
+    boolean isLoadRow();
+
+    void loadRow(Work work, LoadTable loadTable, Row row);
+
+    /**
+     * Called once the batch is executed and committed
+     *
+     * @param rowsFrom
+     *            number of rows committed by the work before the batch
+     * @param rowsTo
+     *            number of rows committed by the work including the batch
+     * @param bytes
+     *            approximate size of the batch in bytes
+     * @param duration
+     *            batch execution & commit time in nanoseconds
+     * @param batchSize
+     *            size of the next batch
+     */
+    void loadBatch(Work work, LoadTable loadTable, long rowsFrom, long rowsTo, long bytes, long duration,
+            long batchSize);
+
+    void loadChunk(Work work, LoadTable loadTable, Chunk chunk, long rows);
 
     BackupLoaderContext getBackupLoaderContext();
 
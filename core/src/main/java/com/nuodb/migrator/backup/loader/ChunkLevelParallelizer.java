@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.google.common.collect.MapMaker;
+import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.BackupJournal;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.codec.SplittableCodec;
+import com.nuodb.migrator.backup.format.Input;
+import com.nuodb.migrator.backup.format.SplittableInput;
+import com.nuodb.migrator.backup.format.value.ChunkCursor;
+import com.nuodb.migrator.backup.format.value.ChunkRange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.backup.codec.Codecs.NONE;
+import static com.nuodb.migrator.backup.codec.Codecs.decode;
+import static com.nuodb.migrator.backup.codec.Codecs.getCodec;
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Forking on row level where each of the workers owns and parses whole chunks
+ * of the loaded row set rather than sharing a single synchronized reader, so
+ * that reading and decoding of the chunks scales with the number of workers.
+ * If there are less chunks than workers and the format supports it, chunks
+ * are further split into record aligned byte ranges of at least
+ * min.range.size bytes. The number of workers per table is capped by the
+ * number of chunk ranges in its row set.
+ */
+public class ChunkLevelParallelizer extends RowLevelParallelizer {
+
+    public static final String ATTRIBUTE_MIN_RANGE_SIZE = "min.range.size";
+    public static final long MIN_RANGE_SIZE = 32L * 1024L * 1024L;
+
+    private static final Long UNKNOWN_LENGTH = -1L;
+
+    private long minRangeSize = MIN_RANGE_SIZE;
+    private final ConcurrentMap<Chunk, Long> lengths = new MapMaker().weakKeys().makeMap();
+
+    @Override
+    public void setAttributes(Map<String, Object> attributes) {
+        super.setAttributes(attributes);
+        Object minRangeSizeValue = attributes.get(ATTRIBUTE_MIN_RANGE_SIZE);
+        if (minRangeSizeValue instanceof String && !isEmpty((String) minRangeSizeValue)) {
+            setMinRangeSize(parseLong((String) minRangeSizeValue));
+        }
+    }
+
+    @Override
+    public int getThreads(LoadTable loadTable, BackupLoaderContext backupLoaderContext) {
+        boolean splittable = isSplittable(loadTable, backupLoaderContext);
+        long chunkRanges = 0;
+        for (Chunk chunk : loadTable.getRowSet().getChunks()) {
+            chunkRanges += splittable && isSplittable(chunk)
+                    ? getMaxChunkRanges(chunk, getLength(chunk, backupLoaderContext), backupLoaderContext)
+                    : 1;
+        }
+        return (int) min(super.getThreads(loadTable, backupLoaderContext), max(chunkRanges, 1));
+    }
+
+    /**
+     * Creates cursor shared by the workers loading the table. Chunks are split
+     * into ranges only if there are less chunks than workers.
+     *
+     * @param loadTable
+     *            table to load
+     * @param backupLoaderContext
+     *            backup loader context
+     * @return chunk cursor
+     */
+    public ChunkCursor createChunkCursor(LoadTable loadTable, BackupLoaderContext backupLoaderContext) {
+        RowSet rowSet = loadTable.getRowSet();
+        Collection<Chunk> chunks = rowSet.getChunks();
+        int threads = getReaders(loadTable, backupLoaderContext);
+        if (chunks.size() >= threads || !isSplittable(loadTable, backupLoaderContext)) {
+            return new ChunkCursor(rowSet);
+        }
+        BackupOps backupOps = backupLoaderContext.getBackupOps();
+        int rangesPerChunk = (threads + chunks.size() - 1) / chunks.size();
+        List<ChunkRange> chunkRanges = newArrayList();
+        for (Chunk chunk : chunks) {
+            Long length = isSplittable(chunk) ? getLength(chunk, backupLoaderContext) : null;
+            // chunk of unknown size is read as a whole
+            int ranges = length != null
+                    ? (int) min(rangesPerChunk, getMaxChunkRanges(chunk, length, backupLoaderContext))
+                    : 1;
+            if (ranges > 1) {
+                SplittableInput input = (SplittableInput) createInput(loadTable, backupLoaderContext);
+                InputStream inputStream = decode(chunk, backupOps.openInput(chunk.getName()));
+                try {
+                    long[] offsets = input.split(inputStream, length, ranges);
+                    for (int range = 0; range < offsets.length - 1; range++) {
+                        chunkRanges.add(new ChunkRange(chunk, range, offsets[range], offsets[range + 1]));
+                    }
+                } finally {
+                    closeQuietly(inputStream);
+                }
+            } else {
+                chunkRanges.add(new ChunkRange(chunk));
+            }
+        }
+        return new ChunkCursor(chunkRanges);
+    }
+
+    /**
+     * Number of concurrent readers the chunks of the table are split for
+     */
+    protected int getReaders(LoadTable loadTable, BackupLoaderContext backupLoaderContext) {
+        return loadTable.getThreads();
+    }
+
+    /**
+     * Decoded length of the chunk, resolved once per chunk as decoding a
+     * compressed chunk reads all of its block headers
+     *
+     * @return decoded length or null if the size of the chunk is not known
+     */
+    protected Long getLength(Chunk chunk, BackupLoaderContext backupLoaderContext) {
+        Long length = lengths.get(chunk);
+        if (length == null) {
+            length = getLength(chunk, (SplittableCodec) getCodec(chunk), backupLoaderContext.getBackupOps());
+            lengths.put(chunk, length != null ? length : UNKNOWN_LENGTH);
+        }
+        return UNKNOWN_LENGTH.equals(length) ? null : length;
+    }
+
+    /**
+     * Decoded length of the chunk, which is the length of the chunk file if
+     * the chunk is not compressed
+     *
+     * @return decoded length or null if the size of the chunk is not known
+     */
+    protected Long getLength(Chunk chunk, SplittableCodec codec, BackupOps backupOps) {
+        Long size = chunk.getSize(backupOps);
+        if (size == null || codec == NONE) {
+            return size;
+        }
+        InputStream inputStream = backupOps.openInput(chunk.getName());
+        try {
+            return codec.getLength(inputStream, size);
+        } catch (IOException exception) {
+            throw new BackupLoaderException(format("Can't get decoded length of chunk %s", chunk.getName()),
+                    exception);
+        } finally {
+            closeQuietly(inputStream);
+        }
+    }
+
+    protected boolean isSplittable(Chunk chunk) {
+        return getCodec(chunk) instanceof SplittableCodec;
+    }
+
+    protected long getMaxChunkRanges(Chunk chunk, Long length, BackupLoaderContext backupLoaderContext) {
+        BackupJournal backupJournal = backupLoaderContext.getBackupJournal();
+        if (backupJournal != null && backupJournal.getLoadedRows(chunk) > 0) {
+            // partially loaded chunk is read as a whole to skip loaded rows
+            return 1;
+        }
+        // ranges are sized on the decoded length, as that's what the readers parse
+        return length != null ? max(length / minRangeSize, 1) : 1;
+    }
+
+    protected boolean isSplittable(LoadTable loadTable, BackupLoaderContext backupLoaderContext) {
+        return minRangeSize > 0 && createInput(loadTable, backupLoaderContext) instanceof SplittableInput;
+    }
+
+    protected Input createInput(LoadTable loadTable, BackupLoaderContext backupLoaderContext) {
+        return backupLoaderContext.getFormatFactory().createInput(loadTable.getRowSet().getBackup().getFormat(),
+                backupLoaderContext.getFormatAttributes());
+    }
+
+    public long getMinRangeSize() {
+        return minRangeSize;
+    }
+
+    public void setMinRangeSize(long minRangeSize) {
+        this.minRangeSize = minRangeSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        if (!super.equals(o))
+            return false;
+
+        ChunkLevelParallelizer that = (ChunkLevelParallelizer) o;
+
+        if (minRangeSize != that.minRangeSize)
+            return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + (int) (minRangeSize ^ (minRangeSize >>> 32));
+        return result;
+    }
+}
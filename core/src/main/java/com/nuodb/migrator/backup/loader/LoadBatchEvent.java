@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.jdbc.session.Work;
+import com.nuodb.migrator.jdbc.session.WorkEvent;
+
+/**
+ * Batch of rows executed and committed by a table loader along with the batch
+ * size chosen for the next batch. Rows of the batch are numbered from 0 in the
+ * order they are committed by the work, rows from inclusive to rows to
+ * exclusive.
+ */
+public class LoadBatchEvent extends WorkEvent {
+
+    private LoadTable loadTable;
+    private long rowsFrom;
+    private long rowsTo;
+    private long bytes;
+    private long duration;
+    private long batchSize;
+
+    public LoadBatchEvent(Work work, LoadTable loadTable, long rowsFrom, long rowsTo, long bytes, long duration,
+            long batchSize) {
+        super(work);
+        this.loadTable = loadTable;
+        this.rowsFrom = rowsFrom;
+        this.rowsTo = rowsTo;
+        this.bytes = bytes;
+        this.duration = duration;
+        this.batchSize = batchSize;
+    }
+
+    public LoadTable getLoadTable() {
+        return loadTable;
+    }
+
+    public long getRowsFrom() {
+        return rowsFrom;
+    }
+
+    public long getRowsTo() {
+        return rowsTo;
+    }
+
+    public long getRows() {
+        return rowsTo - rowsFrom;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return time spent executing and committing the batch in nanoseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    public long getBatchSize() {
+        return batchSize;
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.google.common.collect.Multimap;
+import com.nuodb.migrator.jdbc.metadata.Constraint;
+import com.nuodb.migrator.jdbc.metadata.ForeignKey;
+import com.nuodb.migrator.jdbc.metadata.Index;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.session.Work;
+import com.nuodb.migrator.jdbc.session.WorkEvent;
+import org.slf4j.Logger;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.collect.ArrayListMultimap.create;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.FOREIGN_KEY;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.INDEX;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.PRIMARY_KEY;
+import static com.nuodb.migrator.utils.Collections.isEmpty;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+import static java.util.Collections.sort;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Schedules load of constraints with its own bounded concurrency, so that
+ * constraint builds don't take over worker threads from the tables still being
+ * loaded. Constraints of a table become ready once its rows are loaded, or
+ * once all tables are loaded if constraints are deferred. Ready constraints
+ * are started in order of primary keys, unique indexes, secondary indexes and
+ * foreign keys, where foreign key waits for primary keys & indexes of both
+ * referencing and referenced tables.
+ */
+public class LoadConstraintScheduler extends BackupLoaderAdapter {
+
+    protected final transient Logger logger = getLogger(getClass());
+
+    private final BackupLoader backupLoader;
+    private final BackupLoaderManager backupLoaderManager;
+    private final int threads;
+    private final boolean deferConstraints;
+    /**
+     * Constraints awaiting to be started ordered by their rank
+     */
+    private final List<LoadConstraint> loadConstraints;
+    /**
+     * Primary keys & indexes not loaded yet
+     */
+    private final Multimap<Table, LoadConstraint> loadIndexes;
+    private final Set<Table> loadTables = newHashSet();
+    private final Set<Table> loadedTables = newHashSet();
+    private boolean loadDataDone;
+    private boolean started;
+    private boolean done;
+    private int running;
+    private int remaining;
+
+    public LoadConstraintScheduler(BackupLoader backupLoader, BackupLoaderManager backupLoaderManager) {
+        this.backupLoader = backupLoader;
+        this.backupLoaderManager = backupLoaderManager;
+        int constraintThreads = backupLoader.getConstraintThreads();
+        this.threads = constraintThreads > 0 ? constraintThreads : max(1, backupLoader.getThreads() / 2);
+        this.deferConstraints = backupLoader.isDeferConstraints();
+
+        LoadConstraints loadConstraints = backupLoaderManager.getBackupLoaderContext().getLoadConstraints();
+        this.loadConstraints = newArrayList(loadConstraints);
+        sort(this.loadConstraints, new Comparator<LoadConstraint>() {
+            @Override
+            public int compare(LoadConstraint loadConstraint1, LoadConstraint loadConstraint2) {
+                return getRank(loadConstraint1) - getRank(loadConstraint2);
+            }
+        });
+        this.loadIndexes = create(loadConstraints.getLoadConstraints(INDEX, PRIMARY_KEY));
+        this.loadDataDone = !backupLoaderManager.isLoadData();
+        this.remaining = this.loadConstraints.size();
+    }
+
+    /**
+     * Ranks constraint by its type, lower ranks are started first
+     *
+     * @param loadConstraint
+     *            to rank
+     * @return 0 for primary key, 1 for unique index, 2 for secondary index &
+     *         3 for foreign key
+     */
+    protected int getRank(LoadConstraint loadConstraint) {
+        Constraint constraint = loadConstraint.getConstraint();
+        if (constraint.getObjectType() == PRIMARY_KEY) {
+            return 0;
+        } else if (constraint.getObjectType() == FOREIGN_KEY) {
+            return 3;
+        } else {
+            Collection<Index> indexes = loadConstraint instanceof LoadIndexes
+                    ? ((LoadIndexes) loadConstraint).getIndexes()
+                    : newArrayList((Index) constraint);
+            for (Index index : indexes) {
+                if (!index.isUnique()) {
+                    return 2;
+                }
+            }
+            return 1;
+        }
+    }
+
+    /**
+     * Starts scheduling once tables to load are known, constraints of tables
+     * without row sets are ready straight away
+     */
+    public synchronized void start() {
+        LoadTables loadTables = backupLoaderManager.getBackupLoaderContext().getLoadTables();
+        if (!isEmpty(loadTables)) {
+            for (LoadTable loadTable : loadTables) {
+                Table table = backupLoader.getTable(loadTable, backupLoaderManager.getBackupLoaderContext());
+                if (table != null && !loadedTables.contains(table)) {
+                    this.loadTables.add(table);
+                }
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Scheduling %d constraint(s) with %d thread(s)%s", remaining, threads,
+                    deferConstraints ? " after data is loaded" : ""));
+        }
+        started = true;
+        schedule();
+    }
+
+    @Override
+    public synchronized void onExecuteEnd(WorkEvent event) {
+        Work work = event.getWork();
+        if (work instanceof LoadTableWork) {
+            LoadTable loadTable = ((LoadTableWork) work).getLoadTable();
+            Table table = backupLoader.getTable(loadTable, backupLoaderManager.getBackupLoaderContext());
+            if (table != null) {
+                loadedTables.add(table);
+                loadTables.remove(table);
+            }
+        } else if (work instanceof LoadTablesWork) {
+            loadDataDone = true;
+        } else if (work instanceof LoadConstraintWork) {
+            LoadConstraintWork loadConstraintWork = (LoadConstraintWork) work;
+            LoadConstraint loadConstraint = loadConstraintWork.getLoadConstraint();
+            loadIndexes.remove(loadConstraint.getTable(), loadConstraint);
+            running--;
+            remaining--;
+            if (logger.isInfoEnabled() && loadConstraintWork.getDuration() > 0) {
+                logger.info(format("%s in %d ms", loadConstraintWork.getName(),
+                        NANOSECONDS.toMillis(loadConstraintWork.getDuration())));
+            }
+        }
+        schedule();
+    }
+
+    /**
+     * Starts ready constraints in order of their rank while there are free
+     * constraint threads and signals completion once all constraints are loaded
+     */
+    protected void schedule() {
+        if (!started || done) {
+            return;
+        }
+        Iterator<LoadConstraint> iterator = loadConstraints.iterator();
+        while (running < threads && iterator.hasNext()) {
+            LoadConstraint loadConstraint = iterator.next();
+            if (isReady(loadConstraint)) {
+                iterator.remove();
+                running++;
+                backupLoader.loadConstraint(loadConstraint, backupLoaderManager);
+            }
+        }
+        if (remaining == 0) {
+            done = true;
+            backupLoaderManager.loadConstraintsDone();
+        }
+    }
+
+    protected boolean isReady(LoadConstraint loadConstraint) {
+        if (deferConstraints && !loadDataDone) {
+            return false;
+        }
+        Constraint constraint = loadConstraint.getConstraint();
+        if (constraint instanceof ForeignKey) {
+            ForeignKey foreignKey = (ForeignKey) constraint;
+            return isReady(foreignKey.getForeignTable()) && isReady(foreignKey.getPrimaryTable());
+        } else {
+            return !loadTables.contains(loadConstraint.getTable());
+        }
+    }
+
+    /**
+     * Referenced table is ready when its rows, primary key & indexes are loaded
+     *
+     * @param table
+     *            referenced by a foreign key
+     * @return true if foreign key can be created
+     */
+    protected boolean isReady(Table table) {
+        return table == null || (!loadTables.contains(table) && !loadIndexes.containsKey(table));
+    }
+}
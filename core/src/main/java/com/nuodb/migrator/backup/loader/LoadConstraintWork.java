@@ -28,6 +28,7 @@
 package com.nuodb.migrator.backup.loader;
 
 import com.google.common.base.Function;
+import com.nuodb.migrator.backup.BackupJournal;
 import com.nuodb.migrator.jdbc.metadata.Constraint;
 import com.nuodb.migrator.jdbc.metadata.Index;
 import com.nuodb.migrator.jdbc.metadata.Schema;
@@ -49,6 +50,7 @@ import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
 import static com.nuodb.migrator.jdbc.metadata.generator.ScriptGeneratorUtils.*;
 import static com.nuodb.migrator.utils.Collections.isEmpty;
 import static com.nuodb.migrator.utils.ReflectionUtils.getClassName;
+import static java.lang.System.nanoTime;
 import static org.apache.commons.lang3.StringUtils.join;
 
 /**
@@ -62,6 +64,7 @@ public class LoadConstraintWork extends WorkBase {
     private BackupLoaderManager backupLoaderManager;
     private BackupLoaderContext backupLoaderContext;
     private ScriptExporter scriptExporter;
+    private long duration;
 
     public LoadConstraintWork(LoadConstraint loadConstraint, BackupLoaderManager backupLoaderManager) {
         this.loadConstraint = loadConstraint;
@@ -111,7 +114,13 @@ public class LoadConstraintWork extends WorkBase {
 
     @Override
     public void execute() throws Exception {
+        BackupJournal backupJournal = backupLoaderContext.getBackupJournal();
+        String name = getName();
+        if (backupJournal != null && backupJournal.isDone(name)) {
+            return;
+        }
         if (backupLoaderManager.canExecute(this)) {
+            long start = nanoTime();
             ScriptGeneratorManager scriptGeneratorManager = backupLoaderContext.getScriptGeneratorManager();
             Schema schema = getLoadConstraint().getTable().getSchema();
             scriptExporter.exportScript(getUseSchema(schema, scriptGeneratorManager));
@@ -124,6 +133,10 @@ public class LoadConstraintWork extends WorkBase {
             }
             scriptExporter.exportScripts(scripts);
             getSession().getConnection().commit();
+            duration = nanoTime() - start;
+            if (backupJournal != null) {
+                backupJournal.done(name);
+            }
         }
     }
 
@@ -136,4 +149,13 @@ public class LoadConstraintWork extends WorkBase {
     public LoadConstraint getLoadConstraint() {
         return loadConstraint;
     }
+
+    /**
+     * Time spent building the constraint
+     *
+     * @return duration in nanoseconds or 0 if the constraint was not built
+     */
+    public long getDuration() {
+        return duration;
+    }
 }
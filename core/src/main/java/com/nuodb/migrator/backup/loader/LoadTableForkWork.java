@@ -28,28 +28,45 @@
 package com.nuodb.migrator.backup.loader;
 
 import com.google.common.base.Function;
+import com.nuodb.migrator.backup.BackupJournal;
+import com.nuodb.migrator.backup.Chunk;
 import com.nuodb.migrator.backup.Column;
+import com.nuodb.migrator.backup.format.value.LobValue;
 import com.nuodb.migrator.backup.format.value.Row;
 import com.nuodb.migrator.backup.format.value.RowReader;
 import com.nuodb.migrator.backup.format.value.Value;
-import com.nuodb.migrator.backup.format.value.ValueHandle;
+import com.nuodb.migrator.backup.format.value.ValueAccessor;
 import com.nuodb.migrator.backup.format.value.ValueHandleList;
 import com.nuodb.migrator.backup.format.value.ValueHandleListBuilder;
+import com.nuodb.migrator.jdbc.commit.BatchCommitExecutor;
+import com.nuodb.migrator.jdbc.commit.BatchCommitListener;
 import com.nuodb.migrator.jdbc.commit.BatchCommitStrategy;
 import com.nuodb.migrator.jdbc.commit.CommitExecutor;
 import com.nuodb.migrator.jdbc.commit.CommitStrategy;
 import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.query.InsertQuery;
+import com.nuodb.migrator.jdbc.query.Query;
 import com.nuodb.migrator.jdbc.session.WorkForkJoinTaskBase;
+import com.nuodb.migrator.metrics.Histogram;
+import com.nuodb.migrator.metrics.MetricRegistry;
+import com.nuodb.migrator.metrics.RowCounters;
 import org.slf4j.Logger;
 
 import java.sql.PreparedStatement;
+import java.util.List;
 
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.backup.BackupMessages.LOAD_TABLE_FORK_WORK;
 import static com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.newBuilder;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.getLength;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
 import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static com.nuodb.migrator.metrics.Metrics.*;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.System.nanoTime;
+import static java.lang.Thread.currentThread;
 import static org.slf4j.LoggerFactory.getLogger;
 import com.nuodb.migrator.globalStore.GlobalStore;
 
@@ -61,6 +78,12 @@ import com.nuodb.migrator.globalStore.GlobalStore;
 @SuppressWarnings("all")
 public class LoadTableForkWork extends WorkForkJoinTaskBase {
 
+    /**
+     * Maximum number of parameters bound to a single multi row insert, which
+     * fits the limits of the most drivers
+     */
+    public static final int MAX_PARAMETERS = 32767;
+
     private transient Logger logger = getLogger(getClass());
 
     private LoadTable loadTable;
@@ -70,8 +93,31 @@ public class LoadTableForkWork extends WorkForkJoinTaskBase {
     private BackupLoaderContext backupLoaderContext;
     private PreparedStatement statement;
     private CommitExecutor commitExecutor;
-    private ValueHandleList valueHandleList;
+    private ValueAccessor[] valueAccessors;
+    private int insertRows;
+    private Row[] rows;
+    private int slot;
+    private ValueAccessor[][] slotValueAccessors;
+    private PreparedStatement tailStatement;
+    private CommitExecutor tailCommitExecutor;
+    private ValueAccessor[] tailValueAccessors;
     private CommitExecutor commitAlter; // MIG-178
+    private BackupJournal backupJournal;
+    private Chunk skipChunk;
+    private long skipRows;
+    private Chunk executeChunk;
+    private long executeRows;
+    private boolean loadRow;
+    private Chunk readChunk;
+    private long readChunkRows;
+    private List<ChunkBoundary> chunkBoundaries;
+    private long loadedRows;
+    private RowCounters rowCounters;
+    private Histogram decodeHistogram;
+    private Histogram bindHistogram;
+    private Histogram executeBatchHistogram;
+    private Histogram commitHistogram;
+    private Column[] lobs;
 
     public LoadTableForkWork(LoadTable loadTable, RowReader rowReader, int thread,
             BackupLoaderManager backupLoaderManager) {
@@ -90,30 +136,135 @@ public class LoadTableForkWork extends WorkForkJoinTaskBase {
     @Override
     protected void init() throws Exception {
         backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
-        statement = getSession().getConnection().prepareStatement(loadTable.getQuery().toString());
+        backupJournal = backupLoaderContext.getBackupJournal();
+        Query query = loadTable.getQuery();
+        insertRows = getInsertRows(query);
+        if (insertRows > 1) {
+            query = createInsertQuery((InsertQuery) query, insertRows);
+            rows = new Row[insertRows];
+            slotValueAccessors = new ValueAccessor[insertRows][];
+            chunkBoundaries = newArrayList();
+        }
+        statement = getSession().getConnection().prepareStatement(query.toString());
+        commitExecutor = createCommitExecutor(statement, query);
+        loadRow = backupLoaderManager.isLoadRow();
+        initLobs();
+        initMetrics();
+    }
+
+    /**
+     * Finds columns which values are references to large objects in the lob
+     * files of the chunks
+     */
+    protected void initLobs() {
+        Column[] columns = loadTable.getRowSet().getColumns().toArray(new Column[0]);
+        for (Column column : columns) {
+            if (column.isLob()) {
+                lobs = columns;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Resolves counters & histograms once per work, so that the row loop does
+     * not look them up
+     */
+    protected void initMetrics() {
+        MetricRegistry metricRegistry = backupLoaderContext.getMetricRegistry();
+        if (metricRegistry == null) {
+            return;
+        }
+        rowCounters = new RowCounters(metricRegistry, LOAD_ROWS, LOAD_BYTES, loadTable.getRowSet().getName(),
+                currentThread().getName());
+        decodeHistogram = metricRegistry.getHistogram(LOAD_DECODE);
+        bindHistogram = metricRegistry.getHistogram(LOAD_BIND);
+        executeBatchHistogram = metricRegistry.getHistogram(LOAD_EXECUTE_BATCH);
+        commitHistogram = metricRegistry.getHistogram(LOAD_COMMIT);
+    }
+
+    /**
+     * Number of rows to bind to a single insert statement, more than 1 only if
+     * the rows are inserted with INSERT statement and the target dialect
+     * supports multi row inserts
+     */
+    protected int getInsertRows(Query query) {
+        int insertRows = backupLoaderContext.getInsertRows();
+        if (insertRows > 1 && query instanceof InsertQuery && getSession().getDialect().supportsMultiRowInsert()) {
+            int columns = ((InsertQuery) query).getColumns().size();
+            return columns > 0 ? min(insertRows, max(MAX_PARAMETERS / columns, 1)) : 1;
+        }
+        return 1;
+    }
+
+    protected InsertQuery createInsertQuery(InsertQuery query, int rows) {
+        InsertQuery insertQuery = new InsertQuery();
+        insertQuery.setInsertType(query.getInsertType());
+        insertQuery.setQualifyNames(query.isQualifyNames());
+        insertQuery.setDialect(query.getDialect());
+        insertQuery.setInto(query.getInto());
+        insertQuery.setColumns(query.getColumns());
+        insertQuery.setRows(rows);
+        return insertQuery;
+    }
+
+    protected CommitExecutor createCommitExecutor(PreparedStatement statement, Query query) {
         CommitStrategy commitStrategy = backupLoaderContext.getCommitStrategy() != null
                 ? backupLoaderContext.getCommitStrategy()
                 : new BatchCommitStrategy();
-        commitExecutor = commitStrategy.createCommitExecutor(statement, loadTable.getQuery());
+        CommitExecutor commitExecutor = commitStrategy.createCommitExecutor(statement, query);
+        if (commitExecutor instanceof BatchCommitExecutor) {
+            ((BatchCommitExecutor) commitExecutor).setBatchCommitListener(new BatchCommitListener() {
+                @Override
+                public void onBatchCommit(BatchCommitExecutor commitExecutor, long rows, long bytes, long duration) {
+                    if (rowCounters != null) {
+                        rowCounters.add(rows, bytes);
+                        executeBatchHistogram.record(commitExecutor.getExecuteBatchDuration());
+                        commitHistogram.record(commitExecutor.getCommitDuration());
+                    }
+                    long rowsFrom = loadedRows;
+                    loadedRows += rows;
+                    backupLoaderManager.loadBatch(LoadTableForkWork.this, loadTable, rowsFrom, loadedRows, bytes,
+                            duration, commitExecutor.getBatchSize());
+                    loadChunks();
+                }
+            });
+        }
+        return commitExecutor;
     }
 
     @Override
     public void execute() throws Exception {
         try {
             Row row;
-            while ((row = rowReader.readRow()) != null && backupLoaderManager.canExecute(this)) {
-                backupLoaderManager.beforeLoadRow(this, loadTable, row);
-                int index = 0;
-                Value[] values = row.getValues();
-                initValueHandleList();
-                for (ValueHandle valueHandle : valueHandleList) {
-                    valueHandle.getValueFormat().setValue(values[index++], valueHandle.getJdbcValueAccess(),
-                            valueHandle.getJdbcValueAccessOptions());
+            while ((row = readRow()) != null && backupLoaderManager.canExecute(this)) {
+                if (row.getChunk() != readChunk) {
+                    readChunk(row.getChunk());
+                }
+                readChunkRows++;
+                if (isLoaded(row)) {
+                    continue;
+                }
+                if (insertRows > 1) {
+                    rows[slot++] = row;
+                    if (slot == insertRows) {
+                        executeRows();
+                    }
+                } else {
+                    initValueAccessors();
+                    setValues(commitExecutor, valueAccessors, row.getValues());
+                    setExecuteRow(row);
+                    execute(commitExecutor, 1);
+                    if (loadRow) {
+                        backupLoaderManager.loadRow(this, loadTable, row);
+                    }
                 }
-                commitExecutor.execute();
-                backupLoaderManager.afterLoadRow(this, loadTable, row);
             }
             commitExecutor.finish();
+            if (slot > 0) {
+                executeTail();
+            }
+            readChunk(null);
             // added to alter the table after loading the data
             try {
                 // added gen always fix
@@ -143,27 +294,236 @@ public class LoadTableForkWork extends WorkForkJoinTaskBase {
         }
     }
 
-    protected void initValueHandleList() {
-        if (valueHandleList == null) {
-            ValueHandleListBuilder builder = newBuilder(getSession().getConnection(), statement);
-            builder.withDialect(getSession().getDialect());
-            builder.withFields(
-                    newArrayList(transform(loadTable.getRowSet().getColumns(), new Function<Column, Field>() {
-                        @Override
-                        public Field apply(Column column) {
-                            return loadTable.getTable().getColumn(column.getName());
-                        }
-                    })));
-            builder.withTimeZone(backupLoaderContext.getTimeZone());
-            builder.withValueFormatRegistry(backupLoaderContext.getValueFormatRegistry());
-            valueHandleList = builder.build();
+    /**
+     * Reads next row from the chunks, time spent decoding the row is recorded
+     * if metrics are collected
+     */
+    protected Row readRow() {
+        Row row;
+        if (decodeHistogram == null) {
+            row = rowReader.readRow();
+        } else {
+            long start = nanoTime();
+            row = rowReader.readRow();
+            decodeHistogram.record(nanoTime() - start);
+        }
+        if (row != null && lobs != null) {
+            readLobs(row);
+        }
+        return row;
+    }
+
+    /**
+     * Replaces lob references of the row with values streaming large objects
+     * from the lob file of the row chunk when the values are bound
+     */
+    protected void readLobs(Row row) {
+        Value[] values = row.getValues();
+        String chunkLobs = row.getChunk() != null ? row.getChunk().getLobs() : null;
+        if (chunkLobs == null) {
+            return;
+        }
+        for (int index = 0; index < lobs.length; index++) {
+            Value value = values[index];
+            if (lobs[index].isLob() && value != null && !value.isNull()) {
+                values[index] = new LobValue(backupLoaderContext.getBackupOps(), chunkLobs, value.asString(),
+                        lobs[index].getValueType());
+            }
+        }
+    }
+
+    /**
+     * Binds the buffered rows to the row slots of the multi row insert and adds
+     * the statement to the batch
+     */
+    protected void executeRows() throws Exception {
+        for (int index = 0; index < slot; index++) {
+            if (slotValueAccessors[index] == null) {
+                slotValueAccessors[index] = createValueAccessors(statement, index * getColumnCount());
+            }
+            setValues(commitExecutor, slotValueAccessors[index], rows[index].getValues());
+        }
+        setExecuteRow(rows[slot - 1]);
+        execute(commitExecutor, slot);
+        afterLoadRows();
+    }
+
+    /**
+     * Inserts rows buffered at the end of a chunk or of the load, which do not
+     * fill all row slots of the multi row insert, one by one using single row
+     * tail statement
+     */
+    protected void executeTail() throws Exception {
+        if (tailStatement == null) {
+            Query query = loadTable.getQuery();
+            tailStatement = getSession().getConnection().prepareStatement(query.toString());
+            tailCommitExecutor = createCommitExecutor(tailStatement, query);
+            tailValueAccessors = createValueAccessors(tailStatement, 0);
+        }
+        for (int index = 0; index < slot; index++) {
+            setValues(tailCommitExecutor, tailValueAccessors, rows[index].getValues());
+            setExecuteRow(rows[index]);
+            execute(tailCommitExecutor, 1);
+        }
+        tailCommitExecutor.finish();
+        afterLoadRows();
+    }
+
+    /**
+     * Raises row events for the loaded rows along with the chunk boundaries
+     * passed while the rows were buffered, in the order the rows were read
+     */
+    protected void afterLoadRows() {
+        int boundary = 0;
+        for (int index = 0; index < slot; index++) {
+            for (; boundary < chunkBoundaries.size() && chunkBoundaries.get(boundary).slot == index; boundary++) {
+                loadChunk(chunkBoundaries.get(boundary));
+            }
+            if (loadRow) {
+                backupLoaderManager.loadRow(this, loadTable, rows[index]);
+            }
+            rows[index] = null;
+        }
+        for (; boundary < chunkBoundaries.size(); boundary++) {
+            loadChunk(chunkBoundaries.get(boundary));
+        }
+        chunkBoundaries.clear();
+        slot = 0;
+    }
+
+    /**
+     * Ends the chunk the work was reading rows from and starts the next one,
+     * so that chunk boundaries are detected by comparing chunk references
+     * rather than checked by the manager for every row. If rows are buffered
+     * for the multi row insert the boundary is raised once the buffered rows
+     * are loaded, so the rows are neither flushed nor committed at chunk
+     * boundaries.
+     *
+     * @param chunk
+     *            next chunk or null if there are no more rows
+     */
+    protected void readChunk(Chunk chunk) {
+        ChunkBoundary chunkBoundary = new ChunkBoundary(slot, readChunk, readChunkRows, chunk);
+        if (slot > 0) {
+            chunkBoundaries.add(chunkBoundary);
+        } else {
+            loadChunk(chunkBoundary);
+        }
+        readChunk = chunk;
+        readChunkRows = 0;
+    }
+
+    protected void loadChunk(ChunkBoundary chunkBoundary) {
+        if (chunkBoundary.chunk != null) {
+            backupLoaderManager.loadEnd(this, loadTable, chunkBoundary.chunk, chunkBoundary.rows);
+        }
+        if (chunkBoundary.nextChunk != null) {
+            backupLoaderManager.loadStart(this, loadTable, chunkBoundary.nextChunk);
+        }
+    }
+
+    /**
+     * Tells if the row is committed by a previous run according to the load
+     * journal, a partially loaded chunk is read as a whole so that row numbers
+     * are counted from the start of the chunk
+     */
+    protected boolean isLoaded(Row row) {
+        if (backupJournal == null) {
+            return false;
+        }
+        if (row.getChunk() != skipChunk) {
+            skipChunk = row.getChunk();
+            skipRows = backupJournal.getLoadedRows(skipChunk);
         }
+        return row.getNumber() < skipRows;
+    }
+
+    protected void setExecuteRow(Row row) {
+        executeChunk = row.getChunk();
+        executeRows = row.getNumber() + 1;
+    }
+
+    /**
+     * Records rows committed by the batch in the load journal. Rows are read
+     * in the order of the row set chunks if the table is loaded by a single
+     * thread, so the chunks preceding the chunk of the last committed row are
+     * loaded in full. Tables loaded by multiple threads or by work stealing
+     * parallelizer, which may add threads and read chunk ranges, are recorded
+     * once all of the threads are done.
+     */
+    protected void loadChunks() {
+        if (executeChunk == null || loadTable.getThreads() > 1
+                || backupLoaderContext.getParallelizer() instanceof WorkStealingParallelizer) {
+            return;
+        }
+        for (Chunk chunk : loadTable.getRowSet().getChunks()) {
+            if (chunk == executeChunk) {
+                break;
+            }
+            backupLoaderManager.loadChunk(this, loadTable, chunk, chunk.getRowCount());
+        }
+        backupLoaderManager.loadChunk(this, loadTable, executeChunk, executeRows);
+    }
+
+    protected void setValues(CommitExecutor commitExecutor, ValueAccessor[] valueAccessors, Value[] values)
+            throws Exception {
+        long start = bindHistogram != null ? nanoTime() : 0;
+        for (int index = 0; index < valueAccessors.length; index++) {
+            valueAccessors[index].setValue(values[index]);
+        }
+        if (bindHistogram != null) {
+            bindHistogram.record(nanoTime() - start);
+        }
+        if (commitExecutor instanceof BatchCommitExecutor) {
+            ((BatchCommitExecutor) commitExecutor).addBytes(getLength(values));
+        }
+    }
+
+    protected void execute(CommitExecutor commitExecutor, int rows) throws Exception {
+        if (commitExecutor instanceof BatchCommitExecutor) {
+            ((BatchCommitExecutor) commitExecutor).execute(rows);
+        } else {
+            commitExecutor.execute();
+            if (rowCounters != null) {
+                rowCounters.add(rows, 0);
+            }
+        }
+    }
+
+    protected int getColumnCount() {
+        return loadTable.getRowSet().getColumns().size();
+    }
+
+    protected void initValueAccessors() {
+        if (valueAccessors == null) {
+            valueAccessors = createValueAccessors(statement, 0);
+        }
+    }
+
+    protected ValueAccessor[] createValueAccessors(PreparedStatement statement, int offset) {
+        return createValueHandleList(statement, offset).getValueAccessors();
+    }
+
+    protected ValueHandleList createValueHandleList(PreparedStatement statement, int offset) {
+        ValueHandleListBuilder builder = newBuilder(getSession().getConnection(), statement, offset);
+        builder.withDialect(getSession().getDialect());
+        builder.withFields(
+                newArrayList(transform(loadTable.getRowSet().getColumns(), new Function<Column, Field>() {
+                    @Override
+                    public Field apply(Column column) {
+                        return loadTable.getTable().getColumn(column.getName());
+                    }
+                })));
+        builder.withTimeZone(backupLoaderContext.getTimeZone());
+        builder.withValueFormatRegistry(backupLoaderContext.getValueFormatRegistry());
+        return builder.build();
     }
 
     @Override
     public void close() throws Exception {
         super.close();
         closeQuietly(statement);
+        closeQuietly(tailStatement);
     }
 
     public int getThread() {
@@ -173,4 +533,29 @@ public class LoadTableForkWork extends WorkForkJoinTaskBase {
     public LoadTable getLoadTable() {
         return loadTable;
     }
+
+    /**
+     * Boundary between the chunks read by the work
+     */
+    static class ChunkBoundary {
+
+        /**
+         * Slot of the first buffered row of the next chunk
+         */
+        final int slot;
+        final Chunk chunk;
+        /**
+         * Rows of the ended chunk read by the work, including the rows
+         * skipped as loaded by a previous run
+         */
+        final long rows;
+        final Chunk nextChunk;
+
+        ChunkBoundary(int slot, Chunk chunk, long rows, Chunk nextChunk) {
+            this.slot = slot;
+            this.chunk = chunk;
+            this.rows = rows;
+            this.nextChunk = nextChunk;
+        }
+    }
 }
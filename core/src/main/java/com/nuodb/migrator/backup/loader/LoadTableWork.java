@@ -27,14 +27,18 @@
  */
 package com.nuodb.migrator.backup.loader;
 
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.format.value.ChunkCursor;
 import com.nuodb.migrator.backup.format.value.RowReader;
 import com.nuodb.migrator.jdbc.session.WorkForkJoinTaskBase;
 import org.slf4j.Logger;
 
 import java.util.Collection;
+import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.backup.BackupMessages.LOAD_TABLE_WORK;
+import static com.nuodb.migrator.backup.format.value.RowReaders.newPartitionedRowReader;
 import static com.nuodb.migrator.backup.format.value.RowReaders.newSequentialRowReader;
 import static com.nuodb.migrator.backup.format.value.RowReaders.newSynchronizedRowReader;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
@@ -53,7 +57,11 @@ public class LoadTableWork extends WorkForkJoinTaskBase {
 
     private LoadTable loadTable;
     private BackupLoaderManager backupLoaderManager;
-    private RowReader rowReader;
+    private List<RowReader> rowReaders = newArrayList();
+    private final Object stealLock = new Object();
+    private volatile ChunkCursor chunkCursor;
+    private Collection<LoadTableForkWork> stolenForkWorks = newArrayList();
+    private boolean stealDone;
 
     public LoadTableWork(LoadTable loadTable, BackupLoaderManager backupLoaderManager) {
         super(backupLoaderManager, backupLoaderManager.getBackupLoaderContext().getTargetSession());
@@ -66,22 +74,46 @@ public class LoadTableWork extends WorkForkJoinTaskBase {
         return getMessage(LOAD_TABLE_WORK, loadTable.getRowSet().getName());
     }
 
+    /**
+     * Creates row readers for the fork works, either a single synchronized
+     * reader shared by all of the threads or a partitioned reader per thread
+     * owning whole chunks or chunk ranges if chunk level parallelization is
+     * requested. Work stealing parallelizer creates partitioned reader over
+     * a cursor, which is shared with the readers of the stolen fork works.
+     */
     @Override
     protected void init() throws Exception {
         BackupLoaderContext backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
-        RowReader rowReader = newSequentialRowReader(loadTable.getRowSet(), backupLoaderContext.getBackupOps(),
-                backupLoaderContext.getFormatFactory(), backupLoaderContext.getFormatAttributes());
         int threads = loadTable.getThreads();
-        if (threads > 1) {
-            rowReader = newSynchronizedRowReader(rowReader);
+        Parallelizer parallelizer = backupLoaderContext.getParallelizer();
+        if (parallelizer instanceof WorkStealingParallelizer) {
+            ChunkCursor chunkCursor = ((WorkStealingParallelizer) parallelizer).createChunkCursor(loadTable,
+                    backupLoaderContext);
+            synchronized (stealLock) {
+                rowReaders.add(createPartitionedRowReader(chunkCursor));
+            }
+            this.chunkCursor = chunkCursor;
+        } else if (threads > 1 && parallelizer instanceof ChunkLevelParallelizer) {
+            ChunkCursor chunkCursor = ((ChunkLevelParallelizer) parallelizer).createChunkCursor(loadTable,
+                    backupLoaderContext);
+            for (int thread = 0; thread < threads; thread++) {
+                rowReaders.add(createPartitionedRowReader(chunkCursor));
+            }
+        } else {
+            RowReader rowReader = newSequentialRowReader(loadTable.getRowSet(), backupLoaderContext.getBackupOps(),
+                    backupLoaderContext.getFormatFactory(), backupLoaderContext.getFormatAttributes());
+            if (threads > 1) {
+                rowReader = newSynchronizedRowReader(rowReader);
+            }
+            rowReaders.add(rowReader);
         }
-        this.rowReader = rowReader;
     }
 
     @Override
     public void execute() throws Exception {
         Collection<LoadTableForkWork> loadTableForkWorks = newArrayList();
         for (int thread = 0; thread < loadTable.getThreads(); thread++) {
+            RowReader rowReader = rowReaders.get(rowReaders.size() > 1 ? thread : 0);
             LoadTableForkWork loadTableForkWork = new LoadTableForkWork(loadTable, rowReader, thread,
                     backupLoaderManager);
             loadTableForkWork.fork();
@@ -90,12 +122,67 @@ public class LoadTableWork extends WorkForkJoinTaskBase {
         for (LoadTableForkWork loadTableForkWork : loadTableForkWorks) {
             loadTableForkWork.join();
         }
+        Collection<LoadTableForkWork> stolenForkWorks;
+        synchronized (stealLock) {
+            stealDone = true;
+            stolenForkWorks = newArrayList(this.stolenForkWorks);
+        }
+        for (LoadTableForkWork stolenForkWork : stolenForkWorks) {
+            stolenForkWork.join();
+        }
+        if (backupLoaderManager.canExecute(this)) {
+            // all of the chunks are committed once every fork work is done
+            for (Chunk chunk : loadTable.getRowSet().getChunks()) {
+                backupLoaderManager.loadChunk(this, loadTable, chunk, chunk.getRowCount());
+            }
+        }
+    }
+
+    protected RowReader createPartitionedRowReader(ChunkCursor chunkCursor) {
+        BackupLoaderContext backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
+        return newPartitionedRowReader(loadTable.getRowSet(), chunkCursor, backupLoaderContext.getBackupOps(),
+                backupLoaderContext.getFormatFactory(), backupLoaderContext.getFormatAttributes());
+    }
+
+    /**
+     * Number of chunk ranges left for stealing
+     *
+     * @return 0 if the table is not loaded with work stealing parallelizer or
+     *         all of its chunks are taken
+     */
+    public int getStealableChunks() {
+        synchronized (stealLock) {
+            return chunkCursor != null && !stealDone ? chunkCursor.getRemaining() : 0;
+        }
+    }
+
+    /**
+     * Creates fork work reading chunks not yet taken by the running fork
+     * works, which is executed by the idle thread and joined before the table
+     * is completed
+     *
+     * @return stolen fork work or null if there is nothing left to steal
+     */
+    public LoadTableForkWork steal() {
+        synchronized (stealLock) {
+            if (getStealableChunks() == 0) {
+                return null;
+            }
+            RowReader rowReader = createPartitionedRowReader(chunkCursor);
+            rowReaders.add(rowReader);
+            LoadTableForkWork stolenForkWork = new LoadTableForkWork(loadTable, rowReader,
+                    loadTable.getThreads() + stolenForkWorks.size(), backupLoaderManager);
+            stolenForkWorks.add(stolenForkWork);
+            return stolenForkWork;
+        }
     }
 
     @Override
     public void close() throws Exception {
         super.close();
-        closeQuietly(rowReader);
+        for (RowReader rowReader : rowReaders) {
+            closeQuietly(rowReader);
+        }
     }
 
     public LoadTable getLoadTable() {
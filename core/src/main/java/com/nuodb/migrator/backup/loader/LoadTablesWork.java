@@ -27,21 +27,38 @@
  */
 package com.nuodb.migrator.backup.loader;
 
+import com.nuodb.migrator.backup.BackupOps;
 import com.nuodb.migrator.jdbc.session.WorkRunnableBase;
-import com.nuodb.migrator.utils.concurrent.ForkJoinTask;
+import com.nuodb.migrator.utils.concurrent.ForkJoinPool;
+import com.nuodb.migrator.utils.concurrent.RecursiveAction;
 
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
 import static com.nuodb.migrator.backup.BackupMessages.LOAD_TABLES_WORK;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
+import static java.util.Collections.sort;
 
 /**
+ * Loads tables largest first, so that the largest tables don't dominate the
+ * tail of the load. With work stealing parallelizer tables are taken from the
+ * queue by a fixed number of slots, one per worker thread, and the slots left
+ * without tables steal chunks of the tables still being loaded.
+ *
  * @author Sergey Bushik
  */
 public class LoadTablesWork extends WorkRunnableBase {
 
     private BackupLoaderManager backupLoaderManager;
+    private Queue<LoadTableWork> queuedLoadTableWorks;
+    private Collection<LoadTableWork> runningLoadTableWorks;
 
     public LoadTablesWork(BackupLoaderManager backupLoaderManager) {
         super(backupLoaderManager, backupLoaderManager.getBackupLoaderContext().getTargetSession());
@@ -55,16 +72,121 @@ public class LoadTablesWork extends WorkRunnableBase {
 
     @Override
     public void execute() throws Exception {
-        LoadTables loadTables = backupLoaderManager.getBackupLoaderContext().getLoadTables();
-        Collection<LoadTableWork> loadTableWorks = newArrayList();
-        for (LoadTable loadTable : loadTables) {
-            LoadTableWork loadTableWork = new LoadTableWork(loadTable, backupLoaderManager);
-            loadTableWork.fork();
-            loadTableWorks.add(loadTableWork);
-        }
-        for (LoadTableWork loadTableWork : loadTableWorks) {
-            loadTableWork.join();
+        BackupLoaderContext backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
+        List<LoadTableWork> loadTableWorks = newArrayList();
+        for (LoadTable loadTable : getLoadTables(backupLoaderContext)) {
+            loadTableWorks.add(new LoadTableWork(loadTable, backupLoaderManager));
         }
+        execute(loadTableWorks, backupLoaderContext);
         backupLoaderManager.loadDataDone();
     }
+
+    protected void execute(List<LoadTableWork> loadTableWorks, BackupLoaderContext backupLoaderContext) {
+        if (backupLoaderContext.getParallelizer() instanceof WorkStealingParallelizer) {
+            executeWorkStealing(loadTableWorks, backupLoaderContext);
+        } else {
+            // forked in order are taken from the head of the queue by the idle
+            // threads, while the largest one is executed by joining thread
+            for (LoadTableWork loadTableWork : loadTableWorks) {
+                loadTableWork.fork();
+            }
+            for (LoadTableWork loadTableWork : loadTableWorks) {
+                loadTableWork.join();
+            }
+        }
+    }
+
+    /**
+     * Orders tables by the size of their row sets descending
+     *
+     * @param backupLoaderContext
+     *            backup loader context
+     * @return tables to load, largest first
+     */
+    protected List<LoadTable> getLoadTables(BackupLoaderContext backupLoaderContext) {
+        BackupOps backupOps = backupLoaderContext.getBackupOps();
+        final Map<LoadTable, Long> sizes = newHashMap();
+        List<LoadTable> loadTables = newArrayList();
+        for (LoadTable loadTable : backupLoaderContext.getLoadTables()) {
+            Long size = loadTable.getRowSet().getSize(backupOps);
+            sizes.put(loadTable, size != null ? size : 0L);
+            loadTables.add(loadTable);
+        }
+        sort(loadTables, new Comparator<LoadTable>() {
+            @Override
+            public int compare(LoadTable loadTable1, LoadTable loadTable2) {
+                return sizes.get(loadTable2).compareTo(sizes.get(loadTable1));
+            }
+        });
+        return loadTables;
+    }
+
+    protected void executeWorkStealing(Collection<LoadTableWork> loadTableWorks,
+            BackupLoaderContext backupLoaderContext) {
+        queuedLoadTableWorks = new ConcurrentLinkedQueue<LoadTableWork>(loadTableWorks);
+        runningLoadTableWorks = new CopyOnWriteArrayList<LoadTableWork>();
+        int slots = ((ForkJoinPool) backupLoaderContext.getExecutorService()).getParallelism();
+        Collection<LoadTablesSlot> loadTablesSlots = newArrayList();
+        for (int slot = 0; slot < slots; slot++) {
+            LoadTablesSlot loadTablesSlot = new LoadTablesSlot();
+            loadTablesSlot.fork();
+            loadTablesSlots.add(loadTablesSlot);
+        }
+        for (LoadTablesSlot loadTablesSlot : loadTablesSlots) {
+            loadTablesSlot.join();
+        }
+    }
+
+    /**
+     * Steals from the running table with the most chunks left
+     *
+     * @param runningLoadTableWorks
+     *            tables being loaded
+     * @return stolen fork work or null if none of the running tables has
+     *         chunks left
+     */
+    protected LoadTableForkWork steal(Collection<LoadTableWork> runningLoadTableWorks) {
+        while (true) {
+            LoadTableWork victim = null;
+            int victimChunks = 0;
+            for (LoadTableWork loadTableWork : runningLoadTableWorks) {
+                int chunks = loadTableWork.getStealableChunks();
+                if (chunks > victimChunks) {
+                    victim = loadTableWork;
+                    victimChunks = chunks;
+                }
+            }
+            if (victim == null) {
+                return null;
+            }
+            LoadTableForkWork loadTableForkWork = victim.steal();
+            if (loadTableForkWork != null) {
+                return loadTableForkWork;
+            }
+        }
+    }
+
+    /**
+     * Loads queued tables one by one and then steals chunks of the running
+     * tables until there is nothing left to steal
+     */
+    class LoadTablesSlot extends RecursiveAction {
+
+        @Override
+        protected void compute() {
+            LoadTableWork loadTableWork;
+            while ((loadTableWork = queuedLoadTableWorks.poll()) != null) {
+                runningLoadTableWorks.add(loadTableWork);
+                try {
+                    loadTableWork.invoke();
+                } finally {
+                    runningLoadTableWorks.remove(loadTableWork);
+                }
+            }
+            LoadTableForkWork loadTableForkWork;
+            while ((loadTableForkWork = steal(runningLoadTableWorks)) != null) {
+                loadTableForkWork.invoke();
+            }
+        }
+    }
 }
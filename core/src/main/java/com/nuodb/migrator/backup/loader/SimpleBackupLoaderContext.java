@@ -28,6 +28,8 @@
 package com.nuodb.migrator.backup.loader;
 
 import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupJournal;
+import com.nuodb.migrator.metrics.MetricRegistry;
 import com.nuodb.migrator.backup.BackupOps;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
@@ -62,13 +64,17 @@ public class SimpleBackupLoaderContext implements BackupLoaderContext {
     private Backup backup;
     private BackupOps backupOps;
     private Map backupOpsContext;
+    private MetricRegistry metricRegistry;
+    private BackupJournal backupJournal;
     private CommitStrategy commitStrategy;
     private Database database;
     private ExecutorService executorService;
     private FormatFactory formatFactory;
     private Map<String, Object> formatAttributes;
     private InsertTypeFactory insertTypeFactory;
+    private int insertRows = 1;
     private LoadConstraints loadConstraints;
+    private LoadConstraintScheduler loadConstraintScheduler;
     private LoadTables loadTables;
     private Parallelizer parallelizer;
     private Collection<MigrationMode> migrationModes;
@@ -125,6 +131,26 @@ public class SimpleBackupLoaderContext implements BackupLoaderContext {
         this.backupOpsContext = backupOpsContext;
     }
 
+    @Override
+    public MetricRegistry getMetricRegistry() {
+        return metricRegistry;
+    }
+
+    @Override
+    public void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    @Override
+    public BackupJournal getBackupJournal() {
+        return backupJournal;
+    }
+
+    @Override
+    public void setBackupJournal(BackupJournal backupJournal) {
+        this.backupJournal = backupJournal;
+    }
+
     @Override
     public CommitStrategy getCommitStrategy() {
         return commitStrategy;
@@ -195,6 +221,16 @@ public class SimpleBackupLoaderContext implements BackupLoaderContext {
         this.insertTypeFactory = insertTypeFactory;
     }
 
+    @Override
+    public int getInsertRows() {
+        return insertRows;
+    }
+
+    @Override
+    public void setInsertRows(int insertRows) {
+        this.insertRows = insertRows;
+    }
+
     @Override
     public LoadConstraints getLoadConstraints() {
         return loadConstraints;
@@ -205,6 +241,16 @@ public class SimpleBackupLoaderContext implements BackupLoaderContext {
         this.loadConstraints = loadConstraints;
     }
 
+    @Override
+    public LoadConstraintScheduler getLoadConstraintScheduler() {
+        return loadConstraintScheduler;
+    }
+
+    @Override
+    public void setLoadConstraintScheduler(LoadConstraintScheduler loadConstraintScheduler) {
+        this.loadConstraintScheduler = loadConstraintScheduler;
+    }
+
     @Override
     public LoadTables getLoadTables() {
         return loadTables;
@@ -27,17 +27,21 @@
  */
 package com.nuodb.migrator.backup.loader;
 
+import com.nuodb.migrator.backup.BackupJournal;
 import com.nuodb.migrator.backup.Chunk;
 import com.nuodb.migrator.backup.format.value.Row;
 import com.nuodb.migrator.jdbc.session.SimpleWorkManager;
 import com.nuodb.migrator.jdbc.session.Work;
 
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
+import static com.google.common.collect.Maps.newIdentityHashMap;
 import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
 import static com.nuodb.migrator.utils.ValidationUtils.isNotNull;
 import static java.lang.Long.MAX_VALUE;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -47,23 +51,34 @@ public class SimpleBackupLoaderManager extends SimpleWorkManager<BackupLoaderLis
 
     private BackupLoaderSync backupLoaderSync;
     private BackupLoaderContext backupLoaderContext;
+    /**
+     * Rows left to read from the started chunks, ended chunks are kept with no
+     * rows left, so that they are neither started nor ended again
+     */
+    private final Map<Chunk, Long> chunkRows = newIdentityHashMap();
 
     @Override
     public boolean canExecute(Work work) {
         return getFailures().isEmpty();
     }
 
+    /**
+     * Starts the chunk once, when the first of the works sharing the chunk or
+     * its ranges reads a row of it
+     */
     @Override
-    public void beforeLoadRow(Work work, LoadTable loadTable, Row row) {
-        Chunk chunk = row.getChunk();
-        long number = row.getNumber();
-        if (number == 0) {
-            if (logger.isTraceEnabled()) {
-                logger.trace(format("Loading %d rows from %s chunk", chunk.getRowCount(), chunk.getName()));
-            }
-            if (hasListeners()) {
-                onStartChunk(new LoadChunkEvent(work, loadTable, row.getChunk()));
+    public void loadStart(Work work, LoadTable loadTable, Chunk chunk) {
+        synchronized (chunkRows) {
+            if (chunkRows.containsKey(chunk)) {
+                return;
             }
+            chunkRows.put(chunk, chunk.getRowCount());
+        }
+        if (logger.isTraceEnabled()) {
+            logger.trace(format("Loading %d rows from %s chunk", chunk.getRowCount(), chunk.getName()));
+        }
+        if (hasListeners()) {
+            onStartChunk(new LoadChunkEvent(work, loadTable, chunk));
         }
     }
 
@@ -73,21 +88,75 @@ public class SimpleBackupLoaderManager extends SimpleWorkManager<BackupLoaderLis
         }
     }
 
+    /**
+     * Ends the chunk once, when the works are done with all of its rows
+     */
     @Override
-    public void afterLoadRow(Work work, LoadTable loadTable, Row row) {
-        Chunk chunk = row.getChunk();
-        long number = row.getNumber();
-        if (number == chunk.getRowSet().getRowCount()) {
-            if (logger.isTraceEnabled()) {
-                logger.trace(format("Rows from %s chunk loaded", chunk.getName()));
+    public void loadEnd(Work work, LoadTable loadTable, Chunk chunk, long rows) {
+        synchronized (chunkRows) {
+            Long leftRows = chunkRows.get(chunk);
+            if (leftRows == null || leftRows <= 0) {
+                return;
             }
-            if (hasListeners()) {
-                onEndChunk(new LoadChunkEvent(work, loadTable, row.getChunk()));
+            chunkRows.put(chunk, leftRows - rows);
+            if (leftRows - rows > 0) {
+                return;
             }
         }
+        if (logger.isTraceEnabled()) {
+            logger.trace(format("Rows from %s chunk loaded", chunk.getName()));
+        }
+        if (hasListeners()) {
+            onEndChunk(new LoadChunkEvent(work, loadTable, chunk));
+        }
+    }
+
+    @Override
+    public boolean isLoadRow() {
+        for (BackupLoaderListener listener : getListeners()) {
+            if (listener instanceof LoadRowListener) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void loadRow(Work work, LoadTable loadTable, Row row) {
         onLoadRow(new LoadRowEvent(work, loadTable, row));
     }
 
+    @Override
+    public void loadBatch(Work work, LoadTable loadTable, long rowsFrom, long rowsTo, long bytes, long duration,
+            long batchSize) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(format("Committed %d rows of %d bytes into %s in %d ms, next batch size is %d",
+                    rowsTo - rowsFrom, bytes, loadTable.getTable().getQualifiedName(null),
+                    NANOSECONDS.toMillis(duration), batchSize));
+        }
+        if (hasListeners()) {
+            onLoadBatch(new LoadBatchEvent(work, loadTable, rowsFrom, rowsTo, bytes, duration, batchSize));
+        }
+    }
+
+    /**
+     * Records number of rows of the chunk committed to the target table in the
+     * load journal, so that a resumed load skips them
+     */
+    @Override
+    public void loadChunk(Work work, LoadTable loadTable, Chunk chunk, long rows) {
+        BackupJournal backupJournal = backupLoaderContext.getBackupJournal();
+        if (backupJournal != null) {
+            backupJournal.loadChunk(chunk, rows);
+        }
+    }
+
+    protected void onLoadBatch(LoadBatchEvent loadBatchEvent) {
+        for (BackupLoaderListener listener : getListeners()) {
+            listener.onLoadBatch(loadBatchEvent);
+        }
+    }
+
     protected void onEndChunk(LoadChunkEvent loadChunkEvent) {
         for (BackupLoaderListener listener : getListeners()) {
             listener.onLoadEnd(loadChunkEvent);
@@ -96,7 +165,9 @@ public class SimpleBackupLoaderManager extends SimpleWorkManager<BackupLoaderLis
 
     protected void onLoadRow(LoadRowEvent event) {
         for (BackupLoaderListener listener : getListeners()) {
-            listener.onLoadRow(event);
+            if (listener instanceof LoadRowListener) {
+                ((LoadRowListener) listener).onLoadRow(event);
+            }
         }
     }
 
@@ -170,6 +241,10 @@ public class SimpleBackupLoaderManager extends SimpleWorkManager<BackupLoaderLis
             closeQuietly(backupLoaderContext.getSourceSession());
             closeQuietly(backupLoaderContext.getTargetSession());
             closeQuietly(backupLoaderContext.getScriptExporter());
+            BackupJournal backupJournal = backupLoaderContext.getBackupJournal();
+            if (backupJournal != null) {
+                backupJournal.close();
+            }
         }
         super.close();
     }
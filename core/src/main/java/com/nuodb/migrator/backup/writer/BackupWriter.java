@@ -29,6 +29,8 @@ package com.nuodb.migrator.backup.writer;
 
 import com.nuodb.migrator.MigratorException;
 import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupException;
+import com.nuodb.migrator.backup.BackupJournal;
 import com.nuodb.migrator.backup.BackupOps;
 import com.nuodb.migrator.backup.QueryRowSet;
 import com.nuodb.migrator.backup.TableRowSet;
@@ -52,7 +54,9 @@ import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
 import com.nuodb.migrator.jdbc.session.Work;
+import com.nuodb.migrator.metrics.MetricRegistry;
 import com.nuodb.migrator.jdbc.split.QuerySplitter;
+import com.nuodb.migrator.jdbc.split.RowCountStrategy;
 import com.nuodb.migrator.spec.ConnectionSpec;
 import com.nuodb.migrator.spec.MetaDataSpec;
 import com.nuodb.migrator.spec.MigrationMode;
@@ -69,16 +73,19 @@ import java.util.concurrent.ExecutorService;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newHashSet;
+import static com.nuodb.migrator.backup.BackupJournal.DUMP_JOURNAL;
 import static com.nuodb.migrator.backup.XmlMetaDataHandlerBase.INSPECTION_SCOPE;
 import static com.nuodb.migrator.backup.XmlMetaDataHandlerBase.META_DATA_SPEC;
 import static com.nuodb.migrator.context.ContextUtils.createService;
 import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static com.nuodb.migrator.jdbc.dialect.RowCountType.APPROX;
 import static com.nuodb.migrator.jdbc.dialect.RowCountType.EXACT;
 import static com.nuodb.migrator.jdbc.metadata.Identifier.valueOf;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataType.DATABASE;
 import static com.nuodb.migrator.jdbc.query.Queries.newQuery;
 import static com.nuodb.migrator.jdbc.split.QuerySplitters.*;
 import static com.nuodb.migrator.jdbc.split.RowCountStrategies.newCachingStrategy;
+import static com.nuodb.migrator.jdbc.split.RowCountStrategies.newFallbackStrategy;
 import static com.nuodb.migrator.jdbc.split.RowCountStrategies.newHandlerStrategy;
 import static com.nuodb.migrator.utils.Collections.isEmpty;
 import static java.lang.Runtime.getRuntime;
@@ -108,7 +115,12 @@ public class BackupWriter {
     private MetaDataSpec metaDataSpec;
     private Collection<MigrationMode> migrationModes = MIGRATION_MODES;
     private QueryLimit queryLimit;
+    private int pipelineSize;
+    private int maxWriteQueries;
+    private boolean lobStreaming;
     private Collection<QuerySpec> querySpecs;
+    private boolean resume;
+    private MetricRegistry metricRegistry;
     private ConnectionSpec sourceSpec;
     private SessionFactory sourceSessionFactory;
     private TimeZone timeZone;
@@ -217,7 +229,7 @@ public class BackupWriter {
         return write(createBackupOps(path), context);
     }
 
-    protected Backup write(BackupOps backupOps, Map context) throws Exception {
+    public Backup write(BackupOps backupOps, Map context) throws Exception {
         return write(createBackupWriterManager((BackupOps) backupOps, (Map) context));
     }
 
@@ -240,11 +252,41 @@ public class BackupWriter {
         backupWriterContext.setFormatFactory(getFormatFactory());
         backupWriterContext.setMigrationModes(getMigrationModes());
         backupWriterContext.setThreads(getThreads());
+        backupWriterContext.setPipelineSize(getPipelineSize());
+        backupWriterContext.setMaxWriteQueries(getMaxWriteQueries());
+        backupWriterContext.setLobStreaming(isLobStreaming());
         backupWriterContext.setTimeZone(getTimeZone());
+        backupWriterContext.setMetricRegistry(getMetricRegistry());
         openSourceSession(backupWriterContext);
+        backupWriterContext.setBackupJournal(openBackupJournal(backupOps));
         return backupWriterContext;
     }
 
+    /**
+     * Opens dump journal alongside the backup catalog, which is read first if
+     * the dump is resumed. Dump proceeds without checkpoints if a new journal
+     * can't be opened.
+     *
+     * @param backupOps
+     *            backup ops to open journal with
+     * @return opened journal or null
+     */
+    protected BackupJournal openBackupJournal(BackupOps backupOps) {
+        BackupJournal backupJournal = new BackupJournal(backupOps, DUMP_JOURNAL);
+        try {
+            backupJournal.open(isResume());
+            return backupJournal;
+        } catch (BackupException exception) {
+            if (isResume()) {
+                throw exception;
+            }
+            if (logger.isWarnEnabled()) {
+                logger.warn(format("Can't open %s journal, dump won't be resumable", DUMP_JOURNAL), exception);
+            }
+            return null;
+        }
+    }
+
     protected InspectionScope getInspectionScope() {
         return new TableInspectionScope(sourceSpec.getCatalog(), sourceSpec.getSchema(), getTableTypes());
     }
@@ -400,7 +442,12 @@ public class BackupWriter {
         QuerySplitter querySplitter;
         Query query = newQuery(table, columns, filter);
         Dialect dialect = table.getDatabase().getDialect();
-        if (queryLimit != null && supportsLimitSplitter(dialect, table, filter)) {
+        RowCountStrategy rowCountStrategy = createRowCountStrategy(dialect, table, filter);
+        if (rowCountStrategy != null && supportsKeyRangeSplitter(table, queryLimit)) {
+            querySplitter = newKeyRangeSplitter(dialect, rowCountStrategy, table, columns, filter, queryLimit);
+        } else if (queryLimit != null && supportsAdaptiveLimitSplitter(dialect, table, filter)) {
+            querySplitter = newAdaptiveLimitSplitter(dialect, rowCountStrategy, query, queryLimit);
+        } else if (queryLimit != null && supportsLimitSplitter(dialect, table, filter)) {
             querySplitter = newLimitSplitter(dialect,
                     newCachingStrategy(newHandlerStrategy(dialect.createRowCountHandler(table, null, filter, EXACT))),
                     query, queryLimit);
@@ -410,6 +457,28 @@ public class BackupWriter {
         return querySplitter;
     }
 
+    /**
+     * Prefers row count estimated from catalog statistics, which is free of a
+     * table scan, over the exact row count, which is counted only if the
+     * estimate is unknown
+     *
+     * @return caching row count strategy or null if the dialect can't count
+     *         rows of the table
+     */
+    protected RowCountStrategy createRowCountStrategy(Dialect dialect, Table table, String filter) {
+        RowCountStrategy rowCountStrategy = null;
+        if (dialect.supportsRowCount(table, null, filter, EXACT)) {
+            rowCountStrategy = newHandlerStrategy(dialect.createRowCountHandler(table, null, filter, EXACT));
+        }
+        if (dialect.supportsRowCount(table, null, filter, APPROX)) {
+            RowCountStrategy approxStrategy = newHandlerStrategy(
+                    dialect.createRowCountHandler(table, null, filter, APPROX));
+            rowCountStrategy = rowCountStrategy != null ? newFallbackStrategy(approxStrategy, rowCountStrategy)
+                    : approxStrategy;
+        }
+        return rowCountStrategy != null ? newCachingStrategy(rowCountStrategy) : null;
+    }
+
     protected Collection<MetaDataType> getObjectTypes() {
         final MetaDataSpec metaDataSpec = getMetaDataSpec();
         return metaDataSpec != null ? metaDataSpec.getObjectTypes() : null;
@@ -505,6 +574,53 @@ public class BackupWriter {
         this.queryLimit = queryLimit;
     }
 
+    public int getPipelineSize() {
+        return pipelineSize;
+    }
+
+    public void setPipelineSize(int pipelineSize) {
+        this.pipelineSize = pipelineSize;
+    }
+
+    public int getMaxWriteQueries() {
+        return maxWriteQueries;
+    }
+
+    /**
+     * Limits number of write queries written at a time, such as to the number
+     * of consumers of the rows streamed by the queries
+     *
+     * @param maxWriteQueries
+     *            maximum number of queries written at a time, 0 for no limit
+     */
+    public void setMaxWriteQueries(int maxWriteQueries) {
+        this.maxWriteQueries = maxWriteQueries;
+    }
+
+    public boolean isLobStreaming() {
+        return lobStreaming;
+    }
+
+    public void setLobStreaming(boolean lobStreaming) {
+        this.lobStreaming = lobStreaming;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    public MetricRegistry getMetricRegistry() {
+        return metricRegistry;
+    }
+
+    public void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
     public Collection<QuerySpec> getQuerySpecs() {
         return querySpecs;
     }
@@ -38,10 +38,6 @@ public class BackupWriterAdapter extends WorkAdapter implements BackupWriterList
     public void onWriteStart(WriteChunkEvent event) {
     }
 
-    @Override
-    public void onWriteRow(WriteRowEvent event) {
-    }
-
     @Override
     public void onWriteEnd(WriteChunkEvent event) {
     }
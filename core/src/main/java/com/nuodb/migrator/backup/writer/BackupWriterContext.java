@@ -28,6 +28,8 @@
 package com.nuodb.migrator.backup.writer;
 
 import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupJournal;
+import com.nuodb.migrator.metrics.MetricRegistry;
 import com.nuodb.migrator.backup.BackupOps;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
@@ -62,6 +64,14 @@ public interface BackupWriterContext {
 
     void setBackupOpsContext(Map backupOpsContext);
 
+    MetricRegistry getMetricRegistry();
+
+    void setMetricRegistry(MetricRegistry metricRegistry);
+
+    BackupJournal getBackupJournal();
+
+    void setBackupJournal(BackupJournal backupJournal);
+
     Database getDatabase();
 
     void setDatabase(Database database);
@@ -102,6 +112,30 @@ public interface BackupWriterContext {
 
     void setThreads(int threads);
 
+    int getPipelineSize();
+
+    void setPipelineSize(int pipelineSize);
+
+    /**
+     * Number of write queries written at a time, further planned queries wait
+     * for a written one to end
+     *
+     * @return maximum number of queries written at a time or 0 if unlimited
+     */
+    int getMaxWriteQueries();
+
+    void setMaxWriteQueries(int maxWriteQueries);
+
+    /**
+     * Tells if blob & clob values are streamed to lob files of the backup
+     * instead of being read into memory and written inline
+     *
+     * @return true if large objects are streamed
+     */
+    boolean isLobStreaming();
+
+    void setLobStreaming(boolean lobStreaming);
+
     ValueFormatRegistry getValueFormatRegistry();
 
     void setValueFormatRegistry(ValueFormatRegistry valueFormatRegistry);
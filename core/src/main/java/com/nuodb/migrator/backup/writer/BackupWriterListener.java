@@ -30,6 +30,9 @@ package com.nuodb.migrator.backup.writer;
 import com.nuodb.migrator.jdbc.session.WorkListener;
 
 /**
+ * Listener of row set & chunk events of the query writers, listeners requiring
+ * an event per row implement {@link WriteRowListener}
+ *
  * @author Sergey Bushik
  */
 public interface BackupWriterListener extends WorkListener {
@@ -42,14 +45,6 @@ public interface BackupWriterListener extends WorkListener {
      */
     void onWriteStart(WriteChunkEvent event);
 
-    /**
-     * Triggered for each exported row
-     *
-     * @param event
-     *            containing details about row set and chunk written
-     */
-    void onWriteRow(WriteRowEvent event);
-
     /**
      * Triggered when row set export is completed
      *
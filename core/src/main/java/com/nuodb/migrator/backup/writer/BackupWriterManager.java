@@ -32,6 +32,8 @@ import com.nuodb.migrator.backup.format.value.Row;
 import com.nuodb.migrator.jdbc.session.Work;
 import com.nuodb.migrator.jdbc.session.WorkManager;
 
+import java.util.concurrent.Future;
+
 /**
  * @author Sergey Bushik
  */
@@ -53,12 +55,55 @@ public interface BackupWriterManager extends WorkManager<BackupWriterListener> {
 
     void writeStart(Work work, WriteQuery writeQuery, Chunk chunk);
 
+    /**
+     * Tells if any of the listeners requires an event per row, checked once
+     * by the work before writing rows
+     *
+     * @return true if {@link #writeRow(Work, WriteQuery, Row)} should be
+     *         called
+     */
+    boolean isWriteRow();
+
     void writeRow(Work work, WriteQuery writeQuery, Row row);
 
     void writeEnd(Work work, WriteQuery writeQuery);
 
     void writeEnd(Work work, WriteQuery writeQuery, Chunk chunk);
 
+    /**
+     * Notifies that a write query is started, before any of its splits is
+     * written
+     *
+     * @param work
+     *            work scheduling splits of the query
+     * @param writeQuery
+     *            started query
+     */
+    void writeQueryStart(Work work, WriteQuery writeQuery);
+
+    /**
+     * Notifies that all of the splits of a write query are written
+     *
+     * @param work
+     *            work scheduling splits of the query
+     * @param writeQuery
+     *            written query
+     */
+    void writeQueryEnd(Work work, WriteQuery writeQuery);
+
+    /**
+     * Runs write stage of a pipelined work on the bounded executor of the
+     * write stages
+     *
+     * @param work
+     *            pipelined work
+     * @param writeStage
+     *            write stage draining rows fetched by the work
+     * @return future of the write stage or null if all write stage threads are
+     *         busy, in which case the work writes its rows sequentially
+     */
+    Future<?> executeWriteStage(Work work, Runnable writeStage);
+
     BackupWriterContext getBackupWriterContext();
 
     void setBackupWriterContext(BackupWriterContext backupWriterContext);
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.writer;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+import com.google.common.io.CountingOutputStream;
+import com.nuodb.migrator.backup.BackupOps;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+
+import static com.nuodb.migrator.backup.format.value.LobValue.reference;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Appends large objects of a query split to the split lob file as they are
+ * fetched, each object is copied through a fixed buffer & is replaced in the
+ * chunk row with a reference to its offset & length in the lob file. The lob
+ * file is opened on the first object written.
+ */
+public class LobOutput implements Closeable {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final BackupOps backupOps;
+    private final String name;
+    private CountingOutputStream output;
+    private Writer writer;
+
+    public LobOutput(BackupOps backupOps, String name) {
+        this.backupOps = backupOps;
+        this.name = name;
+    }
+
+    /**
+     * Copies binary object to the lob file and closes the stream
+     *
+     * @param input
+     *            stream of the object
+     * @return reference to the object in the lob file
+     * @throws IOException
+     *             if reading or writing of the object failed
+     */
+    public String write(InputStream input) throws IOException {
+        open();
+        long offset = output.getCount();
+        try {
+            ByteStreams.copy(input, output);
+        } finally {
+            closeQuietly(input);
+        }
+        return reference(offset, output.getCount() - offset);
+    }
+
+    /**
+     * Copies character object encoded in UTF-8 to the lob file and closes the
+     * reader
+     *
+     * @param reader
+     *            reader of the object
+     * @return reference to the object in the lob file
+     * @throws IOException
+     *             if reading or writing of the object failed
+     */
+    public String write(Reader reader) throws IOException {
+        open();
+        long offset = output.getCount();
+        try {
+            CharStreams.copy(reader, writer);
+            writer.flush();
+        } finally {
+            closeQuietly(reader);
+        }
+        return reference(offset, output.getCount() - offset);
+    }
+
+    protected void open() {
+        if (output == null) {
+            output = new CountingOutputStream(new BufferedOutputStream(backupOps.openOutput(name), BUFFER_SIZE));
+            writer = new OutputStreamWriter(output, UTF_8);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
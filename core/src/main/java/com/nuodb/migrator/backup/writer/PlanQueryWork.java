@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.writer;
+
+import com.nuodb.migrator.jdbc.session.WorkRunnableBase;
+import com.nuodb.migrator.jdbc.split.QuerySplit;
+import com.nuodb.migrator.jdbc.split.QuerySplitter;
+
+import java.sql.Connection;
+import java.util.Collection;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.backup.BackupMessages.PLAN_QUERY_WORK;
+import static com.nuodb.migrator.context.ContextUtils.getMessage;
+
+/**
+ * Plans splits of a single write query on a connection of its own, so that row
+ * counting and split enumeration of different tables run in parallel, and hands
+ * the planned splits over to the scheduler as soon as the query is planned.
+ */
+public class PlanQueryWork extends WorkRunnableBase {
+
+    private final WriteQuery writeQuery;
+    private final WriteQueriesWork writeQueriesWork;
+    private final BackupWriterManager backupWriterManager;
+
+    public PlanQueryWork(WriteQuery writeQuery, WriteQueriesWork writeQueriesWork,
+            BackupWriterManager backupWriterManager) {
+        super(backupWriterManager, backupWriterManager.getBackupWriterContext().getSourceSessionFactory());
+        this.writeQuery = writeQuery;
+        this.writeQueriesWork = writeQueriesWork;
+        this.backupWriterManager = backupWriterManager;
+    }
+
+    @Override
+    public String getName() {
+        return getMessage(PLAN_QUERY_WORK, writeQuery instanceof WriteTable
+                ? ((WriteTable) writeQuery).getTable().getQualifiedName(null)
+                : writeQuery.getQuerySplitter().getQuery());
+    }
+
+    @Override
+    public void execute() throws Exception {
+        Connection connection = getSession().getConnection();
+        Collection<WriteQueryWork> writeQueryWorks = newArrayList();
+        QuerySplitter querySplitter = writeQuery.getQuerySplitter();
+        synchronized (querySplitter) {
+            while (backupWriterManager.canExecute(this) && querySplitter.hasNextQuerySplit(connection)) {
+                QuerySplit querySplit = querySplitter.getNextQuerySplit(connection);
+                boolean hasNextQuerySplit = querySplitter.hasNextQuerySplit(connection);
+                writeQueryWorks.add(new WriteQueryWork(writeQuery, querySplit, hasNextQuerySplit,
+                        backupWriterManager));
+            }
+        }
+        writeQueriesWork.schedule(writeQuery, writeQueryWorks);
+    }
+
+    public WriteQuery getWriteQuery() {
+        return writeQuery;
+    }
+}
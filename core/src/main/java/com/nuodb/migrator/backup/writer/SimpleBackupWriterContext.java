@@ -28,6 +28,8 @@
 package com.nuodb.migrator.backup.writer;
 
 import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupJournal;
+import com.nuodb.migrator.metrics.MetricRegistry;
 import com.nuodb.migrator.backup.BackupOps;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
@@ -57,6 +59,8 @@ public class SimpleBackupWriterContext implements BackupWriterContext {
     private Backup backup;
     private BackupOps backupOps;
     private Map backupOpsContext;
+    private MetricRegistry metricRegistry;
+    private BackupJournal backupJournal;
     private Database database;
     private ExecutorService executorService;
     private String format;
@@ -67,6 +71,9 @@ public class SimpleBackupWriterContext implements BackupWriterContext {
     private SessionFactory sourceSessionFactory;
     private TimeZone timeZone;
     private int threads;
+    private int pipelineSize;
+    private int maxWriteQueries;
+    private boolean lobStreaming;
     private ValueFormatRegistry valueFormatRegistry;
     private Collection<WriteQuery> writeQueries;
 
@@ -110,6 +117,26 @@ public class SimpleBackupWriterContext implements BackupWriterContext {
         this.backupOpsContext = backupOpsContext;
     }
 
+    @Override
+    public MetricRegistry getMetricRegistry() {
+        return metricRegistry;
+    }
+
+    @Override
+    public void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    @Override
+    public BackupJournal getBackupJournal() {
+        return backupJournal;
+    }
+
+    @Override
+    public void setBackupJournal(BackupJournal backupJournal) {
+        this.backupJournal = backupJournal;
+    }
+
     @Override
     public Database getDatabase() {
         return database;
@@ -209,6 +236,36 @@ public class SimpleBackupWriterContext implements BackupWriterContext {
         this.threads = threads;
     }
 
+    @Override
+    public int getPipelineSize() {
+        return pipelineSize;
+    }
+
+    @Override
+    public void setPipelineSize(int pipelineSize) {
+        this.pipelineSize = pipelineSize;
+    }
+
+    @Override
+    public int getMaxWriteQueries() {
+        return maxWriteQueries;
+    }
+
+    @Override
+    public void setMaxWriteQueries(int maxWriteQueries) {
+        this.maxWriteQueries = maxWriteQueries;
+    }
+
+    @Override
+    public boolean isLobStreaming() {
+        return lobStreaming;
+    }
+
+    @Override
+    public void setLobStreaming(boolean lobStreaming) {
+        this.lobStreaming = lobStreaming;
+    }
+
     @Override
     public ValueFormatRegistry getValueFormatRegistry() {
         return valueFormatRegistry;
@@ -31,6 +31,8 @@ import com.google.common.base.Supplier;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.nuodb.migrator.backup.BackupJournal;
 import com.nuodb.migrator.backup.Chunk;
 import com.nuodb.migrator.backup.RowSet;
 import com.nuodb.migrator.backup.format.value.Row;
@@ -41,6 +43,10 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Multimaps.newSetMultimap;
@@ -48,6 +54,8 @@ import static com.google.common.collect.Multimaps.synchronizedSetMultimap;
 import static com.google.common.collect.Sets.newTreeSet;
 import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
 import static java.lang.Long.MAX_VALUE;
+import static java.lang.Math.max;
+import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -56,9 +64,12 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 @SuppressWarnings("all")
 public class SimpleBackupWriterManager extends SimpleWorkManager<BackupWriterListener> implements BackupWriterManager {
 
+    private static final long WRITE_STAGE_KEEP_ALIVE = 60L;
+
     private BackupWriterSync backupWriterSync;
     private BackupWriterContext backupWriterContext;
     private Multimap<WriteQuery, WriteQueryWork> writeQueries;
+    private ThreadPoolExecutor writeStageExecutor;
 
     public SimpleBackupWriterManager() {
         this.writeQueries = synchronizedSetMultimap(newSetMultimap(
@@ -83,7 +94,12 @@ public class SimpleBackupWriterManager extends SimpleWorkManager<BackupWriterLis
 
     @Override
     public void writeStart(Work work, WriteQuery writeQuery) {
-        writeQueries.put(writeQuery, (WriteQueryWork) work);
+        WriteQueryWork writeQueryWork = (WriteQueryWork) work;
+        writeQueries.put(writeQuery, writeQueryWork);
+        BackupJournal backupJournal = backupWriterContext.getBackupJournal();
+        if (backupJournal != null && !writeQueryWork.isResumed()) {
+            backupJournal.startSplit(writeQueryWork.getSplitName(), writeQueryWork.getQuerySplit().getBounds());
+        }
         if (hasListeners()) {
             onWriteStart(new WriteChunkEvent(work, writeQuery));
         }
@@ -103,20 +119,34 @@ public class SimpleBackupWriterManager extends SimpleWorkManager<BackupWriterLis
     }
 
     @Override
-    public void writeRow(Work work, WriteQuery writeQuery, Row row) {
-        if (hasListeners()) {
-            onWriteRow(new WriteRowEvent(work, writeQuery, row));
+    public boolean isWriteRow() {
+        for (BackupWriterListener listener : getListeners()) {
+            if (listener instanceof WriteRowListener) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    @Override
+    public void writeRow(Work work, WriteQuery writeQuery, Row row) {
+        onWriteRow(new WriteRowEvent(work, writeQuery, row));
     }
 
     protected void onWriteRow(WriteRowEvent event) {
         for (BackupWriterListener listener : getListeners()) {
-            listener.onWriteRow(event);
+            if (listener instanceof WriteRowListener) {
+                ((WriteRowListener) listener).onWriteRow(event);
+            }
         }
     }
 
     @Override
     public void writeEnd(Work work, WriteQuery writeQuery, Chunk chunk) {
+        BackupJournal backupJournal = backupWriterContext.getBackupJournal();
+        if (backupJournal != null) {
+            backupJournal.writeChunk(((WriteQueryWork) work).getSplitName(), chunk);
+        }
         if (hasListeners()) {
             onWriteEnd(new WriteChunkEvent(work, writeQuery, chunk));
         }
@@ -133,6 +163,12 @@ public class SimpleBackupWriterManager extends SimpleWorkManager<BackupWriterLis
             }
             rowSet.setChunks(chunks);
         }
+        BackupJournal backupJournal = backupWriterContext.getBackupJournal();
+        WriteQueryWork writeQueryWork = (WriteQueryWork) work;
+        if (backupJournal != null && !writeQueryWork.isResumed() && canExecute(work)) {
+            backupJournal.completeSplit(writeQueryWork.getSplitName(), writeQueryWork.getQuerySplit().getBounds(),
+                    rowSet.getColumns());
+        }
         if (hasListeners()) {
             onWriteEnd(new WriteChunkEvent(work, writeQuery));
         }
@@ -144,6 +180,65 @@ public class SimpleBackupWriterManager extends SimpleWorkManager<BackupWriterLis
         }
     }
 
+    @Override
+    public void writeQueryStart(Work work, WriteQuery writeQuery) {
+        if (hasListeners()) {
+            onWriteQueryStart(new WriteChunkEvent(work, writeQuery));
+        }
+    }
+
+    protected void onWriteQueryStart(WriteChunkEvent event) {
+        for (BackupWriterListener listener : getListeners()) {
+            if (listener instanceof WriteQueryListener) {
+                ((WriteQueryListener) listener).onWriteQueryStart(event);
+            }
+        }
+    }
+
+    @Override
+    public void writeQueryEnd(Work work, WriteQuery writeQuery) {
+        if (hasListeners()) {
+            onWriteQueryEnd(new WriteChunkEvent(work, writeQuery));
+        }
+    }
+
+    protected void onWriteQueryEnd(WriteChunkEvent event) {
+        for (BackupWriterListener listener : getListeners()) {
+            if (listener instanceof WriteQueryListener) {
+                ((WriteQueryListener) listener).onWriteQueryEnd(event);
+            }
+        }
+    }
+
+    /**
+     * Write stages run on a pool of at most as many threads as there are
+     * writer threads. The pool has no queue, a write stage is rejected when
+     * all of the threads are busy.
+     */
+    @Override
+    public Future<?> executeWriteStage(Work work, Runnable writeStage) {
+        try {
+            return getWriteStageExecutor().submit(writeStage);
+        } catch (RejectedExecutionException exception) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(format("All write stage threads are busy, %s work is written sequentially",
+                        work.getName()));
+            }
+            return null;
+        }
+    }
+
+    protected synchronized ThreadPoolExecutor getWriteStageExecutor() {
+        if (writeStageExecutor == null) {
+            int threads = max(backupWriterContext.getThreads(), 1);
+            writeStageExecutor = new ThreadPoolExecutor(threads, threads, WRITE_STAGE_KEEP_ALIVE, SECONDS,
+                    new SynchronousQueue<Runnable>(),
+                    new ThreadFactoryBuilder().setNameFormat("write-stage-%d").setDaemon(true).build());
+            writeStageExecutor.allowCoreThreadTimeOut(true);
+        }
+        return writeStageExecutor;
+    }
+
     @Override
     protected void failure(Work work, Throwable failure) {
         try {
@@ -205,7 +300,16 @@ public class SimpleBackupWriterManager extends SimpleWorkManager<BackupWriterLis
                     logger.trace("Executor termination interrupted", exception);
                 }
             }
+            synchronized (this) {
+                if (writeStageExecutor != null) {
+                    writeStageExecutor.shutdown();
+                }
+            }
             closeQuietly(backupWriterContext.getSourceSession());
+            BackupJournal backupJournal = backupWriterContext.getBackupJournal();
+            if (backupJournal != null) {
+                backupJournal.close();
+            }
         }
         super.close();
     }
@@ -28,24 +28,71 @@
 package com.nuodb.migrator.backup.writer;
 
 import com.nuodb.migrator.backup.Backup;
-import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.WorkRunnableBase;
-import com.nuodb.migrator.jdbc.split.QuerySplit;
+import com.nuodb.migrator.jdbc.split.AdaptiveLimitQuerySplitter;
 import com.nuodb.migrator.jdbc.split.QuerySplitter;
+import com.nuodb.migrator.utils.concurrent.Phaser;
+import com.nuodb.migrator.utils.concurrent.RecursiveAction;
 
-import java.sql.Connection;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.google.common.collect.Sets.newHashSet;
 import static com.nuodb.migrator.backup.BackupMessages.WRITE_QUERIES_WORK;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
 
 /**
+ * Plans every write query with a {@link PlanQueryWork} of its own forked into
+ * the pool and schedules the planned splits as soon as each query is planned.
+ * A forked split takes the pending split of the largest query planned so far,
+ * where queries are weighted by the number of their splits, so that the big
+ * tables start first and the tail of the dump is short. Once the planning and
+ * all of the planned splits of a query are done the writer manager is told that
+ * the query is written.
+ * <p/>
+ * If the number of queries written at a time is limited a planned query waits
+ * for a written one to end before it's started, the heaviest waiting query is
+ * started first. A query planned without splits is started and ended at once.
+ *
  * @author Sergey Bushik
  */
 public class WriteQueriesWork extends WorkRunnableBase {
 
     private final BackupWriterManager backupWriterManager;
+    private final Queue<ScheduledWrite> scheduledWrites = new PriorityQueue<ScheduledWrite>(11,
+            new Comparator<ScheduledWrite>() {
+                @Override
+                public int compare(ScheduledWrite write1, ScheduledWrite write2) {
+                    int compare = write1.weight > write2.weight ? -1 : write1.weight < write2.weight ? 1 : 0;
+                    return compare != 0 ? compare : write1.sequence < write2.sequence ? -1 : 1;
+                }
+            });
+    private final Map<WriteQuery, Integer> weights = newHashMap();
+    /**
+     * Started queries with splits, which are yet to be written
+     */
+    private final Set<WriteQuery> writingQueries = newHashSet();
+    /**
+     * Planned queries waiting to be started and their splits
+     */
+    private final Map<WriteQuery, Collection<WriteQueryWork>> waitingQueries = newLinkedHashMap();
+    /**
+     * Plannings and splits of a write query which are yet to be done
+     */
+    private final Map<WriteQuery, Integer> pendingWrites = newHashMap();
+    /**
+     * Forked tasks arrive as a single party once the last of them is done
+     */
+    private final Phaser phaser = new Phaser(2);
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private long sequence;
 
     public WriteQueriesWork(BackupWriterManager backupWriterManager) {
         super(backupWriterManager, backupWriterManager.getBackupWriterContext().getSourceSession());
@@ -61,25 +108,241 @@ public class WriteQueriesWork extends WorkRunnableBase {
     public void execute() throws Exception {
         BackupWriterContext backupWriterContext = backupWriterManager.getBackupWriterContext();
         Backup backup = backupWriterContext.getBackup();
-        Session session = backupWriterContext.getSourceSession();
-        Connection connection = session.getConnection();
-        Collection<WriteQueryWork> writeQueryWorks = newArrayList();
-
         for (WriteQuery writeQuery : backupWriterContext.getWriteQueries()) {
             backup.addRowSet(writeQuery.getRowSet());
-            QuerySplitter querySplitter = writeQuery.getQuerySplitter();
-            while (writeQuery.getQuerySplitter().hasNextQuerySplit(session.getConnection())) {
-                QuerySplit nextQuerySplit = querySplitter.getNextQuerySplit(connection);
-                boolean hasNextQuerySplit = querySplitter.hasNextQuerySplit(connection);
-                WriteQueryWork writeQueryWork = new WriteQueryWork(writeQuery, nextQuerySplit, hasNextQuerySplit,
-                        backupWriterManager);
-                writeQueryWork.fork();
-                writeQueryWorks.add(writeQueryWork);
-            }
         }
-        for (WriteQueryWork writeQueryWork : writeQueryWorks) {
-            writeQueryWork.join();
+        try {
+            for (WriteQuery writeQuery : backupWriterContext.getWriteQueries()) {
+                plan(writeQuery);
+            }
+        } finally {
+            done();
         }
+        phaser.arriveAndAwaitAdvance();
         backupWriterManager.writeDataDone();
     }
+
+    protected void plan(WriteQuery writeQuery) {
+        addPendingWrites(writeQuery, 1);
+        fork(new PlanQueryWork(writeQuery, this, backupWriterManager));
+    }
+
+    /**
+     * Starts a planned query or puts it to wait if the limit of queries written
+     * at a time is reached
+     *
+     * @param writeQuery
+     *            planned write query
+     * @param writeQueryWorks
+     *            splits of the write query
+     */
+    protected void schedule(WriteQuery writeQuery, Collection<WriteQueryWork> writeQueryWorks) {
+        addPendingWrites(writeQuery, writeQueryWorks.size());
+        boolean start = false;
+        boolean wait = false;
+        synchronized (scheduledWrites) {
+            // splits of a query extending its plan are scheduled straight away
+            if (!writingQueries.contains(writeQuery)) {
+                if (writeQueryWorks.isEmpty()) {
+                    start = true;
+                } else if (canStart()) {
+                    writingQueries.add(writeQuery);
+                    start = true;
+                } else {
+                    waitingQueries.put(writeQuery, writeQueryWorks);
+                    wait = true;
+                }
+            }
+        }
+        if (start) {
+            writeQueryStart(writeQuery);
+        }
+        if (!wait) {
+            scheduleSplits(writeQuery, writeQueryWorks);
+        }
+        // planning is done
+        writeDone(writeQuery);
+    }
+
+    /**
+     * Tells if one more query can be started, called under the lock of the
+     * scheduled writes
+     */
+    protected boolean canStart() {
+        int maxWriteQueries = backupWriterManager.getBackupWriterContext().getMaxWriteQueries();
+        return maxWriteQueries <= 0 || writingQueries.size() < maxWriteQueries;
+    }
+
+    /**
+     * Queues splits of a started query and forks a task per split, which
+     * writes the heaviest split pending at the time the task runs
+     */
+    protected void scheduleSplits(WriteQuery writeQuery, Collection<WriteQueryWork> writeQueryWorks) {
+        if (writeQueryWorks.isEmpty()) {
+            return;
+        }
+        synchronized (scheduledWrites) {
+            Integer weight = weights.get(writeQuery);
+            weight = (weight != null ? weight : 0) + writeQueryWorks.size();
+            weights.put(writeQuery, weight);
+            for (WriteQueryWork writeQueryWork : writeQueryWorks) {
+                scheduledWrites.add(new ScheduledWrite(writeQueryWork, weight, sequence++));
+            }
+        }
+        for (int i = 0; i < writeQueryWorks.size(); i++) {
+            fork(new Runnable() {
+                @Override
+                public void run() {
+                    ScheduledWrite scheduledWrite;
+                    synchronized (scheduledWrites) {
+                        scheduledWrite = scheduledWrites.poll();
+                    }
+                    if (scheduledWrite != null) {
+                        write(scheduledWrite.writeQueryWork);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes a split and reports its row count to an adaptive splitter, which
+     * may extend the plan of the query past the row count estimate or skip the
+     * splits planned past the end of the rows
+     */
+    protected void write(WriteQueryWork writeQueryWork) {
+        try {
+            writeSplit(writeQueryWork);
+        } finally {
+            writeDone(writeQueryWork.getWriteQuery());
+        }
+    }
+
+    protected void writeSplit(WriteQueryWork writeQueryWork) {
+        WriteQuery writeQuery = writeQueryWork.getWriteQuery();
+        QuerySplitter querySplitter = writeQuery.getQuerySplitter();
+        if (querySplitter instanceof AdaptiveLimitQuerySplitter) {
+            synchronized (querySplitter) {
+                if (((AdaptiveLimitQuerySplitter) querySplitter).isQuerySplitSkipped(writeQueryWork.getQuerySplit())) {
+                    return;
+                }
+            }
+        }
+        writeQueryWork.invoke();
+        if (querySplitter instanceof AdaptiveLimitQuerySplitter) {
+            boolean extended;
+            synchronized (querySplitter) {
+                extended = ((AdaptiveLimitQuerySplitter) querySplitter)
+                        .querySplitDone(writeQueryWork.getQuerySplit(), writeQueryWork.getRowCount());
+            }
+            if (extended && backupWriterManager.canExecute(this)) {
+                plan(writeQuery);
+            }
+        }
+    }
+
+    protected void addPendingWrites(WriteQuery writeQuery, int count) {
+        synchronized (pendingWrites) {
+            Integer pending = pendingWrites.get(writeQuery);
+            pendingWrites.put(writeQuery, (pending != null ? pending : 0) + count);
+        }
+    }
+
+    /**
+     * Marks planning or a split of a query done, the writer manager is notified
+     * after the last one, unless the work is stopped by a failure
+     *
+     * @param writeQuery
+     *            query planned or written
+     */
+    protected void writeDone(WriteQuery writeQuery) {
+        int pending;
+        synchronized (pendingWrites) {
+            pending = pendingWrites.get(writeQuery) - 1;
+            if (pending == 0) {
+                pendingWrites.remove(writeQuery);
+            } else {
+                pendingWrites.put(writeQuery, pending);
+            }
+        }
+        if (pending != 0) {
+            return;
+        }
+        Map<WriteQuery, Collection<WriteQueryWork>> startedQueries = newLinkedHashMap();
+        synchronized (scheduledWrites) {
+            writingQueries.remove(writeQuery);
+            while (!waitingQueries.isEmpty() && canStart()) {
+                WriteQuery waitingQuery = getHeaviestWaitingQuery();
+                writingQueries.add(waitingQuery);
+                startedQueries.put(waitingQuery, waitingQueries.remove(waitingQuery));
+            }
+        }
+        if (backupWriterManager.canExecute(this)) {
+            backupWriterManager.writeQueryEnd(this, writeQuery);
+        }
+        for (Map.Entry<WriteQuery, Collection<WriteQueryWork>> startedQuery : startedQueries.entrySet()) {
+            writeQueryStart(startedQuery.getKey());
+            scheduleSplits(startedQuery.getKey(), startedQuery.getValue());
+        }
+    }
+
+    /**
+     * Waiting query with the most splits, the earliest planned one of the
+     * equally heavy queries
+     */
+    protected WriteQuery getHeaviestWaitingQuery() {
+        WriteQuery heaviestQuery = null;
+        int heaviestSplits = -1;
+        for (Map.Entry<WriteQuery, Collection<WriteQueryWork>> waitingQuery : waitingQueries.entrySet()) {
+            if (waitingQuery.getValue().size() > heaviestSplits) {
+                heaviestQuery = waitingQuery.getKey();
+                heaviestSplits = waitingQuery.getValue().size();
+            }
+        }
+        return heaviestQuery;
+    }
+
+    protected void writeQueryStart(WriteQuery writeQuery) {
+        if (backupWriterManager.canExecute(this)) {
+            backupWriterManager.writeQueryStart(this, writeQuery);
+        }
+    }
+
+    /**
+     * Forks a runnable into the pool. Tasks are forked either by the work
+     * itself or by other forked tasks while they are still pending, so the
+     * pending count drops to zero only once everything is done.
+     */
+    protected void fork(final Runnable runnable) {
+        pending.incrementAndGet();
+        new RecursiveAction() {
+            @Override
+            protected void compute() {
+                try {
+                    runnable.run();
+                } finally {
+                    done();
+                }
+            }
+        }.fork();
+    }
+
+    protected void done() {
+        if (pending.decrementAndGet() == 0) {
+            phaser.arrive();
+        }
+    }
+
+    static class ScheduledWrite {
+
+        private final WriteQueryWork writeQueryWork;
+        private final int weight;
+        private final long sequence;
+
+        public ScheduledWrite(WriteQueryWork writeQueryWork, int weight, long sequence) {
+            this.writeQueryWork = writeQueryWork;
+            this.weight = weight;
+            this.sequence = sequence;
+        }
+    }
 }
@@ -27,43 +27,72 @@
  */
 package com.nuodb.migrator.backup.writer;
 
+import com.nuodb.migrator.backup.BackupJournal;
 import com.nuodb.migrator.backup.Chunk;
 import com.nuodb.migrator.backup.Column;
 import com.nuodb.migrator.backup.QueryRowSet;
 import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.codec.Codec;
 import com.nuodb.migrator.backup.format.Output;
+import com.nuodb.migrator.backup.format.value.MutableValue;
 import com.nuodb.migrator.backup.format.value.Row;
 import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueAccessor;
 import com.nuodb.migrator.backup.format.value.ValueHandle;
 import com.nuodb.migrator.backup.format.value.ValueHandleList;
+import com.nuodb.migrator.backup.format.value.ValueType;
 import com.nuodb.migrator.jdbc.dialect.Dialect;
 import com.nuodb.migrator.jdbc.dialect.FetchMode;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.model.Field;
 import com.nuodb.migrator.jdbc.query.StatementCallback;
 import com.nuodb.migrator.jdbc.session.WorkForkJoinTaskBase;
+import com.nuodb.migrator.jdbc.split.AdaptiveLimitQuerySplitter;
 import com.nuodb.migrator.jdbc.split.QuerySplit;
+import com.nuodb.migrator.metrics.Histogram;
+import com.nuodb.migrator.metrics.MetricRegistry;
+import com.nuodb.migrator.metrics.RowCounters;
+import com.nuodb.migrator.metrics.TimedOutputStream;
 import com.nuodb.migrator.utils.ObjectUtils;
+import com.nuodb.migrator.utils.concurrent.RingBuffer;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
 
+import java.io.OutputStream;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.indexOf;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.backup.BackupMessages.WRITE_QUERY_WORK;
+import static com.nuodb.migrator.backup.format.value.JdbcValueFormat.isLobStreaming;
 import static com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.newBuilder;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.getLength;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
 import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static com.nuodb.migrator.backup.codec.Codecs.NONE;
+import static com.nuodb.migrator.backup.codec.Codecs.createCodec;
+import static com.nuodb.migrator.backup.codec.Codecs.encode;
 import static com.nuodb.migrator.jdbc.model.FieldFactory.newFieldList;
 import static com.nuodb.migrator.utils.Collections.isEmpty;
 import static com.nuodb.migrator.utils.Predicates.equalTo;
 import static com.nuodb.migrator.utils.Predicates.instanceOf;
+import static com.nuodb.migrator.metrics.Metrics.*;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.lang.Thread.currentThread;
 import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.apache.commons.lang3.StringUtils.lowerCase;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Work executed by a thread, which exports table rows to a row set. Row set is
@@ -75,7 +104,9 @@ import static org.apache.commons.lang3.StringUtils.lowerCase;
 public class WriteQueryWork extends WorkForkJoinTaskBase {
 
     private static final String QUERY = "query";
+    private static final String LOBS = "lob";
 
+    private transient Logger logger = getLogger(getClass());
     private final BackupWriterManager backupWriterManager;
     private final WriteQuery writeQuery;
     private final QuerySplit querySplit;
@@ -86,6 +117,24 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
     private Collection<Chunk> chunks;
     private BackupWriterContext backupWriterContext;
     private ValueHandleList valueHandleList;
+    private ValueAccessor[] valueAccessors;
+    private RingBuffer<Value[]> ringBuffer;
+    private Chunk chunk;
+    private boolean writeRow;
+    private Row row;
+    private Codec codec;
+    private boolean resumed;
+    private RowCounters rowCounters;
+    private Histogram fetchHistogram;
+    private Histogram encodeHistogram;
+    private Histogram writeHistogram;
+    private LongAdder fetchStalls;
+    private Histogram fetchStallHistogram;
+    private LongAdder writeStalls;
+    private Histogram writeStallHistogram;
+    private long fetchTime;
+    private boolean[] lobs;
+    private LobOutput lobOutput;
 
     public WriteQueryWork(WriteQuery writeQuery, QuerySplit querySplit, boolean hasNextQuerySplit,
             BackupWriterManager backupWriterManager) {
@@ -104,6 +153,10 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
     @Override
     public void init() throws Exception {
         backupWriterContext = backupWriterManager.getBackupWriterContext();
+        writeRow = backupWriterManager.isWriteRow();
+        if (resume()) {
+            return;
+        }
 
         final Dialect dialect = getSession().getDialect();
         resultSet = querySplit.getResultSet(getSession().getConnection(), new StatementCallback() {
@@ -119,65 +172,362 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
 
         valueHandleList = newBuilder(getSession().getConnection(), resultSet).withDialect(dialect).withFields(fields)
                 .withTimeZone(backupWriterContext.getTimeZone())
-                .withValueFormatRegistry(backupWriterContext.getValueFormatRegistry()).build();
+                .withValueFormatRegistry(backupWriterContext.getValueFormatRegistry())
+                .withLobStreaming(backupWriterContext.isLobStreaming()).build();
+        valueAccessors = valueHandleList.getValueAccessors();
 
         RowSet rowSet = writeQuery.getRowSet();
         if (isEmpty(rowSet.getColumns())) {
             Collection<Column> columns = newArrayList();
             for (ValueHandle valueHandle : valueHandleList) {
-                columns.add(new Column(valueHandle.getName(), valueHandle.getValueType()));
+                Column column = new Column(valueHandle.getName(), valueHandle.getValueType());
+                column.setLob(isLobStreaming(valueHandle.getJdbcValueAccessOptions()));
+                columns.add(column);
             }
             rowSet.setColumns(columns);
         }
         rowSet.setName(getRowSetName());
+        initLobs();
 
         output = backupWriterContext.getFormatFactory().createOutput(backupWriterContext.getFormat(),
                 backupWriterContext.getFormatAttributes());
         output.setRowSet(rowSet);
+        codec = createCodec(backupWriterContext.getFormatAttributes());
 
         chunks = newArrayList();
+        initMetrics();
+    }
+
+    /**
+     * Marks columns which large objects are streamed to the lob file of the
+     * split, the lob file is created only if there are such columns
+     */
+    protected void initLobs() {
+        lobs = new boolean[valueHandleList.size()];
+        int index = 0;
+        for (ValueHandle valueHandle : valueHandleList) {
+            boolean lob = isLobStreaming(valueHandle.getJdbcValueAccessOptions());
+            if (lob && lobOutput == null) {
+                lobOutput = new LobOutput(backupWriterContext.getBackupOps(), getLobsName());
+            }
+            lobs[index++] = lob;
+        }
+    }
+
+    /**
+     * Resolves counters & histograms once per work, so that the row loop does
+     * not look them up. Rows are counted against the thread fetching them.
+     */
+    protected void initMetrics() {
+        MetricRegistry metricRegistry = backupWriterContext.getMetricRegistry();
+        if (metricRegistry == null) {
+            return;
+        }
+        rowCounters = new RowCounters(metricRegistry, DUMP_ROWS, DUMP_BYTES, getRowSetName(),
+                currentThread().getName());
+        fetchHistogram = metricRegistry.getHistogram(DUMP_FETCH);
+        encodeHistogram = metricRegistry.getHistogram(DUMP_ENCODE);
+        writeHistogram = metricRegistry.getHistogram(DUMP_WRITE);
+        fetchStalls = metricRegistry.getCounter(DUMP_FETCH_STALLS, TABLE, getRowSetName());
+        fetchStallHistogram = metricRegistry.getHistogram(DUMP_FETCH_STALL);
+        writeStalls = metricRegistry.getCounter(DUMP_WRITE_STALLS, TABLE, getRowSetName());
+        writeStallHistogram = metricRegistry.getHistogram(DUMP_WRITE_STALL);
+    }
+
+    /**
+     * Restores chunks & row set columns of the split completed by a previous
+     * run from the dump journal, in which case the split is not queried again.
+     * The split is dumped again if the previous run planned it with other
+     * bounds, e.g. as the row count or the key range of the table changed, so
+     * that the same split name never stands for different rows.
+     *
+     * @return true if the split is resumed from the journal
+     */
+    protected boolean resume() {
+        BackupJournal backupJournal = backupWriterContext.getBackupJournal();
+        String splitName = getSplitName();
+        Collection<Chunk> chunks = backupJournal != null ? backupJournal.getChunks(splitName) : null;
+        if (chunks == null) {
+            return false;
+        }
+        String bounds = getQuerySplit().getBounds();
+        String journalBounds = backupJournal.getBounds(splitName);
+        if (!ObjectUtils.equals(bounds, journalBounds)) {
+            if (logger.isWarnEnabled()) {
+                logger.warn(format("Split %s is dumped again, as its bounds %s differ from %s of a previous run",
+                        splitName, bounds, journalBounds));
+            }
+            return false;
+        }
+        RowSet rowSet = writeQuery.getRowSet();
+        if (isEmpty(rowSet.getColumns())) {
+            rowSet.setColumns(newArrayList(backupJournal.getColumns(splitName)));
+        }
+        rowSet.setName(getRowSetName());
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Split %s is resumed with %d chunk(s) written by a previous run", splitName,
+                    chunks.size()));
+        }
+        this.chunks = chunks;
+        this.resumed = true;
+        return true;
     }
 
     @Override
     public void execute() throws Exception {
         backupWriterManager.writeStart(this, writeQuery);
+        if (!resumed) {
+            int pipelineSize = backupWriterContext.getPipelineSize();
+            if (pipelineSize > 0) {
+                executePipelined(pipelineSize);
+            } else {
+                executeSequential();
+            }
+            if (lobOutput != null) {
+                lobOutput.close();
+            }
+        }
+        backupWriterManager.writeEnd(this, writeQuery);
+    }
+
+    /**
+     * Fetches, converts and writes rows one by one on the work thread
+     *
+     * @throws Exception
+     *             if reading or writing of a row failed
+     */
+    protected void executeSequential() throws Exception {
         ResultSet resultSet = getResultSet();
-        Output output = getOutput();
-        Chunk chunk = null;
-        long number = 0;
-        Value[] values = new Value[valueHandleList.size()];
-        while (backupWriterManager.canExecute(this) && resultSet.next()) {
-            if (chunk == null) {
-                writeStart(chunk = addChunk());
+        Value[] values = createValues();
+        while (backupWriterManager.canExecute(this) && next(resultSet)) {
+            getValues(values);
+            writeValues(values);
+        }
+        writeEnd();
+    }
+
+    /**
+     * Fetches and converts rows on the work thread into the slots of a bounded
+     * ring, while a write stage running on the write stage executor of the
+     * manager drains the ring into the output, so that fetching from the
+     * source overlaps with encoding and disk writes. If all write stage threads
+     * are busy rows are written sequentially.
+     *
+     * @param pipelineSize
+     *            number of row slots in the ring
+     * @throws Exception
+     *             if reading or writing of a row failed
+     */
+    protected void executePipelined(int pipelineSize) throws Exception {
+        Value[][] slots = new Value[pipelineSize][];
+        for (int slot = 0; slot < pipelineSize; slot++) {
+            slots[slot] = createValues();
+        }
+        RingBuffer<Value[]> ringBuffer = new RingBuffer<Value[]>(slots);
+        WriteStage writeStage = new WriteStage(ringBuffer);
+        Future<?> writeFuture = backupWriterManager.executeWriteStage(this, writeStage);
+        if (writeFuture == null) {
+            executeSequential();
+            return;
+        }
+        this.ringBuffer = ringBuffer;
+        try {
+            ResultSet resultSet = getResultSet();
+            Value[] values;
+            while (backupWriterManager.canExecute(this) && next(resultSet)
+                    && (values = ringBuffer.claim()) != null) {
+                getValues(values);
+                ringBuffer.publish();
             }
-            if (!output.canWrite()) {
-                writeEnd(chunk);
-                writeStart(chunk = addChunk());
+            ringBuffer.close();
+        } catch (Throwable failure) {
+            ringBuffer.abort();
+            throw failure instanceof Exception ? (Exception) failure : new BackupWriterException(failure);
+        } finally {
+            awaitWriteStage(writeFuture);
+            addStalls(ringBuffer);
+        }
+        Throwable failure = writeStage.getFailure();
+        if (failure != null) {
+            throw failure instanceof Exception ? (Exception) failure : new BackupWriterException(failure);
+        }
+    }
+
+    protected void awaitWriteStage(Future<?> writeFuture) throws InterruptedException {
+        try {
+            writeFuture.get();
+        } catch (ExecutionException exception) {
+            // write stage keeps its failure, which is rethrown by the work
+            if (logger.isTraceEnabled()) {
+                logger.trace(format("%s write stage failed", getName()), exception.getCause());
             }
-            Row row = new Row(chunk, values, number);
-            int index = 0;
-            for (ValueHandle valueHandle : valueHandleList) {
-                values[index++] = valueHandle.getValueFormat().getValue(valueHandle.getJdbcValueAccess(),
-                        valueHandle.getJdbcValueAccessOptions());
+        }
+    }
+
+    /**
+     * Reports fetch & write stalls of the ring to the metric registry
+     */
+    protected void addStalls(RingBuffer<Value[]> ringBuffer) {
+        if (fetchStalls != null) {
+            fetchStalls.add(ringBuffer.getProducerStalls());
+            fetchStallHistogram.record(ringBuffer.getProducerStallTime());
+            writeStalls.add(ringBuffer.getConsumerStalls());
+            writeStallHistogram.record(ringBuffer.getConsumerStallTime());
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("%s fetch stalled %d time(s) for %d ms, write stalled %d time(s) for %d ms",
+                    getName(), ringBuffer.getProducerStalls(), NANOSECONDS.toMillis(ringBuffer.getProducerStallTime()),
+                    ringBuffer.getConsumerStalls(), NANOSECONDS.toMillis(ringBuffer.getConsumerStallTime())));
+        }
+    }
+
+    /**
+     * Creates a value holder per column, which are refilled for every row
+     *
+     * @return array of reusable values
+     */
+    protected Value[] createValues() {
+        Value[] values = new Value[valueHandleList.size()];
+        int index = 0;
+        for (ValueHandle valueHandle : valueHandleList) {
+            values[index++] = new MutableValue(valueHandle.getValueType());
+        }
+        return values;
+    }
+
+    /**
+     * Advances the result set, time spent is added to the fetch time of the
+     * row if metrics are collected
+     */
+    protected boolean next(ResultSet resultSet) throws SQLException {
+        if (fetchHistogram == null) {
+            return resultSet.next();
+        }
+        long start = nanoTime();
+        boolean next = resultSet.next();
+        fetchTime = nanoTime() - start;
+        return next;
+    }
+
+    /**
+     * Gets values of the current row, streamed large objects are copied to the
+     * lob file before the result set advances & are replaced with references
+     */
+    protected void getValues(Value[] values) throws Exception {
+        long start = fetchHistogram != null ? nanoTime() : 0;
+        for (int index = 0; index < valueAccessors.length; index++) {
+            MutableValue value = (MutableValue) values[index];
+            valueAccessors[index].getValue(value);
+            if (lobs[index] && value.isStream()) {
+                writeLob(value);
             }
+        }
+        if (fetchHistogram != null) {
+            fetchHistogram.record(fetchTime + nanoTime() - start);
+        }
+    }
+
+    protected void writeLob(MutableValue value) throws Exception {
+        ValueType valueType = value.getValueType();
+        String reference = valueType == BINARY ? lobOutput.write(value.asInputStream())
+                : lobOutput.write(value.asReader());
+        value.setString(reference);
+    }
+
+    protected void writeValues(Value[] values) throws Exception {
+        if (chunk == null) {
+            writeStart(chunk = addChunk());
+        }
+        if (!output.canWrite()) {
+            writeEnd(chunk);
+            writeStart(chunk = addChunk());
+        }
+        if (encodeHistogram != null) {
+            long start = nanoTime();
+            output.writeValues(values);
+            encodeHistogram.record(nanoTime() - start);
+            rowCounters.add(1, getLength(values));
+        } else {
             output.writeValues(values);
-            chunk.incrementRowCount();
-            backupWriterManager.writeRow(this, writeQuery, row);
         }
+        chunk.incrementRowCount();
+        if (writeRow) {
+            backupWriterManager.writeRow(this, writeQuery, getRow(values));
+        }
+    }
+
+    /**
+     * Row passed to the listeners is reused, so listeners should copy out what
+     * they need to keep beyond the event
+     */
+    protected Row getRow(Value[] values) {
+        if (row == null) {
+            row = new Row(chunk, values, chunk.getRowCount() - 1);
+        } else {
+            row.setChunk(chunk);
+            row.setValues(values);
+            row.setNumber(chunk.getRowCount() - 1);
+        }
+        return row;
+    }
+
+    protected void writeEnd() throws Exception {
         if (chunk != null) {
             writeEnd(chunk);
         }
-        backupWriterManager.writeEnd(this, writeQuery);
+    }
+
+    /**
+     * Drains the ring into the output on the writer thread
+     */
+    class WriteStage implements Runnable {
+
+        private final RingBuffer<Value[]> ringBuffer;
+        private volatile Throwable failure;
+
+        public WriteStage(RingBuffer<Value[]> ringBuffer) {
+            this.ringBuffer = ringBuffer;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Value[] values;
+                while ((values = ringBuffer.take()) != null) {
+                    writeValues(values);
+                    ringBuffer.release();
+                }
+                if (ringBuffer.isAborted()) {
+                    output.close();
+                } else {
+                    writeEnd();
+                }
+            } catch (Throwable failure) {
+                this.failure = failure;
+                ringBuffer.abort();
+            }
+        }
+
+        public Throwable getFailure() {
+            return failure;
+        }
     }
 
     @Override
     public void close() throws Exception {
         super.close();
         closeQuietly(resultSet);
+        if (lobOutput != null) {
+            IOUtils.closeQuietly(lobOutput);
+        }
     }
 
     protected void writeStart(Chunk chunk) throws Exception {
-        output.setOutputStream(backupWriterContext.getBackupOps().openOutput(chunk.getName()));
+        OutputStream outputStream = backupWriterContext.getBackupOps().openOutput(chunk.getName());
+        if (writeHistogram != null) {
+            outputStream = new TimedOutputStream(outputStream, writeHistogram);
+        }
+        output.setOutputStream(encode(codec, outputStream));
         output.init();
         output.writeStart();
         backupWriterManager.writeStart(this, writeQuery, chunk);
@@ -198,22 +548,60 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
     protected Chunk createChunk(int chunkIndex) {
         Chunk chunk = new Chunk();
         chunk.setName(getChunkName(chunkIndex));
+        if (codec != NONE) {
+            chunk.setCodec(codec.getName());
+        }
+        if (lobOutput != null) {
+            chunk.setLobs(lobOutput.getName());
+        }
         return chunk;
     }
 
     protected String getChunkName(int chunkIndex) {
-        Collection names = newArrayList(getRowSetName());
-        int splitIndex = getQuerySplit().getSplitIndex();
-        if (splitIndex != 0 || isHasNextQuerySplit()) {
-            names.add(splitIndex + 1);
-        }
+        Collection names = newArrayList(getSplitName());
         if (chunkIndex > 0) {
             names.add(chunkIndex + 1);
         }
         names.add(backupWriterContext.getFormat());
+        if (codec.getExtension() != null) {
+            names.add(codec.getExtension());
+        }
+        return lowerCase(StringUtils.join(names, "."));
+    }
+
+    /**
+     * Name of the lob file large objects of the split are streamed to
+     *
+     * @return lob file name
+     */
+    protected String getLobsName() {
+        return lowerCase(StringUtils.join(asList(getSplitName(), LOBS), "."));
+    }
+
+    /**
+     * Name of the split, which prefixes names of the split chunks and keys
+     * split records in the dump journal
+     *
+     * @return split name
+     */
+    public String getSplitName() {
+        Collection names = newArrayList(getRowSetName());
+        int splitIndex = getQuerySplit().getSplitIndex();
+        if (splitIndex != 0 || isHasNextQuerySplit() || isSplitExtensible()) {
+            names.add(splitIndex + 1);
+        }
         return lowerCase(StringUtils.join(names, "."));
     }
 
+    /**
+     * Splits of an adaptive splitter are always numbered, as the plan may be
+     * extended after the first split is named. Otherwise the rotated chunks of
+     * an unnumbered first split would collide with the chunks of the next one.
+     */
+    protected boolean isSplitExtensible() {
+        return writeQuery.getQuerySplitter() instanceof AdaptiveLimitQuerySplitter;
+    }
+
     protected String getRowSetName() {
         String rowSetName;
         if (writeQuery instanceof WriteTable) {
@@ -232,6 +620,16 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
         return writeQuery;
     }
 
+    /**
+     * Split completed by a previous run, which chunks are restored from the
+     * dump journal
+     *
+     * @return true if the split is resumed
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+
     public QuerySplit getQuerySplit() {
         return querySplit;
     }
@@ -252,6 +650,31 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
         return chunks;
     }
 
+    /**
+     * Number of rows written by this work across all of its chunks
+     *
+     * @return row count
+     */
+    public long getRowCount() {
+        long rowCount = 0;
+        if (chunks != null) {
+            for (Chunk chunk : chunks) {
+                rowCount += chunk.getRowCount();
+            }
+        }
+        return rowCount;
+    }
+
+    /**
+     * Ring buffer of the pipelined execution exposing fetch and write stall
+     * counters, null if rows are written sequentially
+     *
+     * @return ring buffer or null
+     */
+    public RingBuffer<Value[]> getRingBuffer() {
+        return ringBuffer;
+    }
+
     @Override
     public String toString() {
         return ObjectUtils.toString(this, asList("writeQuery", "querySplit", "hasNextQuerySplit"));
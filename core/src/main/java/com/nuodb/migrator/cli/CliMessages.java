@@ -105,10 +105,29 @@ public interface CliMessages {
     final String PARALLELIZER_ARGUMENT_NAME = "com.nuodb.migrator.parallelizer.argument.name";
     final String PARALLELIZER_ATTRIBUTES_OPTION_DESCRIPTION = "com.nuodb.migrator.parallelizer.attributes.option.description";
     final String PARALLELIZER_ATTRIBUTES_ARGUMENT_NAME = "com.nuodb.migrator.parallelizer.attributes.argument.name";
+    final String CONSTRAINT_THREADS_OPTION_DESCRIPTION = "com.nuodb.migrator.constraint.threads.option.description";
+    final String CONSTRAINT_THREADS_ARGUMENT_NAME = "com.nuodb.migrator.constraint.threads.argument.name";
+    final String DEFER_CONSTRAINTS_OPTION_DESCRIPTION = "com.nuodb.migrator.defer.constraints.option.description";
 
     final String QUERY_LIMIT_OPTION_DESCRIPTION = "com.nuodb.migrator.query.limit.option.description";
     final String QUERY_LIMIT_ARGUMENT_NAME = "com.nuodb.migrator.query.limit.argument.name";
 
+    final String PIPELINE_SIZE_OPTION_DESCRIPTION = "com.nuodb.migrator.pipeline.size.option.description";
+    final String PIPELINE_SIZE_ARGUMENT_NAME = "com.nuodb.migrator.pipeline.size.argument.name";
+
+    final String LOB_STREAMING_OPTION_DESCRIPTION = "com.nuodb.migrator.lob.streaming.option.description";
+
+    final String MIGRATE_GROUP_NAME = "com.nuodb.migrator.migrate.group.name";
+    final String QUEUE_SIZE_OPTION_DESCRIPTION = "com.nuodb.migrator.queue.size.option.description";
+    final String QUEUE_SIZE_ARGUMENT_NAME = "com.nuodb.migrator.queue.size.argument.name";
+
+    final String RESUME_OPTION_DESCRIPTION = "com.nuodb.migrator.resume.option.description";
+
+    final String METRICS_INTERVAL_OPTION_DESCRIPTION = "com.nuodb.migrator.metrics.interval.option.description";
+    final String METRICS_INTERVAL_ARGUMENT_NAME = "com.nuodb.migrator.metrics.interval.argument.name";
+    final String METRICS_OUTPUT_OPTION_DESCRIPTION = "com.nuodb.migrator.metrics.output.option.description";
+    final String METRICS_OUTPUT_ARGUMENT_NAME = "com.nuodb.migrator.metrics.output.argument.name";
+
     final String LOAD_GROUP_NAME = "com.nuodb.migrator.load.group.name";
     final String TARGET_GROUP_NAME = "com.nuodb.migrator.target.group.name";
     final String TARGET_DRIVER_OPTION_DESCRIPTION = "com.nuodb.migrator.target.driver.option.description";
@@ -180,4 +199,6 @@ public interface CliMessages {
     final String INSERT_TYPE_GROUP_NAME = "com.nuodb.migrator.insert.type.group.name";
     final String TABLE_REPLACE_OPTION_DESCRIPTION = "com.nuodb.migrator.table.replace.option.description";
     final String TABLE_INSERT_OPTION_DESCRIPTION = "com.nuodb.migrator.table.insert.option.description";
+    final String INSERT_ROWS_OPTION_DESCRIPTION = "com.nuodb.migrator.insert.rows.option.description";
+    final String INSERT_ROWS_ARGUMENT_NAME = "com.nuodb.migrator.insert.rows.argument.name";
 }
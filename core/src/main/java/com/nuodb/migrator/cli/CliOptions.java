@@ -58,6 +58,7 @@ public interface CliOptions {
     final String DUMP = "dump";
     final String LOAD = "load";
     final String SCHEMA = "schema";
+    final String MIGRATE = "migrate";
 
     final String SOURCE_DRIVER = "source.driver";
     final String SOURCE_URL = "source.url";
@@ -83,12 +84,24 @@ public interface CliOptions {
     final String TABLE_TYPE = "table.type";
     final String TABLE_INSERT = "table.*.insert";
     final String TABLE_REPLACE = "table.*.replace";
+    final String INSERT_ROWS = "insert.rows";
 
     final String THREADS = "threads";
     final String THREADS_SHORT = "t";
 
     final String QUERY_LIMIT = "query.limit";
 
+    final String PIPELINE_SIZE = "pipeline.size";
+
+    final String LOB_STREAMING = "lob.streaming";
+
+    final String QUEUE_SIZE = "queue.size";
+
+    final String RESUME = "resume";
+
+    final String METRICS_INTERVAL = "metrics.interval";
+    final String METRICS_OUTPUT = "metrics.output";
+
     final String QUERY = "query";
 
     final String TARGET_DRIVER = "target.driver";
@@ -107,6 +120,8 @@ public interface CliOptions {
     final String PARALLELIZER = "parallelizer";
     final String PARALLELIZER_ATTRIBUTES = "parallelizer.*";
     final String PARALLELIZER_SHORT = "p";
+    final String CONSTRAINT_THREADS = "constraint.threads";
+    final String DEFER_CONSTRAINTS = "defer.constraints";
 
     final String INPUT = "input.*";
     final String INPUT_PATH = "input.path";
@@ -28,9 +28,11 @@
 package com.nuodb.migrator.cli.run;
 
 import com.google.common.collect.Maps;
+import com.nuodb.migrator.backup.loader.ChunkLevelParallelizer;
 import com.nuodb.migrator.backup.loader.Parallelizer;
 import com.nuodb.migrator.backup.loader.RowLevelParallelizer;
 import com.nuodb.migrator.backup.loader.TableLevelParallelizer;
+import com.nuodb.migrator.backup.loader.WorkStealingParallelizer;
 import com.nuodb.migrator.cli.parse.Option;
 import com.nuodb.migrator.cli.parse.OptionSet;
 import com.nuodb.migrator.cli.parse.option.GroupBuilder;
@@ -44,7 +46,9 @@ import java.util.TreeMap;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
 import static com.nuodb.migrator.utils.Priority.LOW;
 import static com.nuodb.migrator.utils.ReflectionUtils.newInstance;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static java.lang.Integer.MAX_VALUE;
+import static java.lang.Integer.parseInt;
 import static java.lang.String.CASE_INSENSITIVE_ORDER;
 
 /**
@@ -54,6 +58,8 @@ public class CliLoadJob extends CliJob<LoadJobSpec> {
 
     public static final String PARALLELIZER_TABLE_LEVEL = "table.level";
     public static final String PARALLELIZER_ROW_LEVEL = "row.level";
+    public static final String PARALLELIZER_CHUNK_LEVEL = "chunk.level";
+    public static final String PARALLELIZER_WORK_STEALING = "work.stealing";
 
     public CliLoadJob() {
         super(LOAD);
@@ -97,24 +103,6 @@ public class CliLoadJob extends CliJob<LoadJobSpec> {
         return group.build();
     }
 
-    protected Option createInsertTypeGroup() {
-        GroupBuilder group = newGroupBuilder().withName(getMessage(INSERT_TYPE_GROUP_NAME));
-
-        Option replace = newBasicOptionBuilder().withName(REPLACE).withAlias(REPLACE_SHORT, OptionFormat.SHORT)
-                .withDescription(getMessage(REPLACE_OPTION_DESCRIPTION)).build();
-        group.withOption(replace);
-
-        Option replaceType = newRegexOptionBuilder().withName(TABLE_REPLACE)
-                .withDescription(getMessage(TABLE_REPLACE_OPTION_DESCRIPTION)).withRegex(TABLE_REPLACE, 1, LOW).build();
-        group.withOption(replaceType);
-
-        Option insertType = newRegexOptionBuilder().withName(TABLE_INSERT)
-                .withDescription(getMessage(TABLE_INSERT_OPTION_DESCRIPTION)).withRegex(TABLE_INSERT, 1, LOW).build();
-        group.withOption(insertType);
-
-        return group.build();
-    }
-
     @Override
     protected void createExecutorGroup(GroupBuilder group) {
         super.createExecutorGroup(group);
@@ -135,6 +123,17 @@ public class CliLoadJob extends CliJob<LoadJobSpec> {
                         .withOptionFormat(optionFormat).withMinimum(1).withMaximum(MAX_VALUE).build())
                 .build();
         group.withOption(parallelizerAttributes);
+
+        Option constraintThreads = newBasicOptionBuilder().withName(CONSTRAINT_THREADS)
+                .withDescription(getMessage(CONSTRAINT_THREADS_OPTION_DESCRIPTION))
+                .withArgument(newArgumentBuilder().withName(getMessage(CONSTRAINT_THREADS_ARGUMENT_NAME)).build())
+                .build();
+        group.withOption(constraintThreads);
+
+        Option deferConstraints = newBasicOptionBuilder().withName(DEFER_CONSTRAINTS)
+                .withDescription(getMessage(DEFER_CONSTRAINTS_OPTION_DESCRIPTION)).build();
+        group.withOption(deferConstraints);
+        group.withOption(createResumeOption());
     }
 
     protected void parseDataMigrationGroup(OptionSet optionSet, LoadJobSpec jobSpec) {
@@ -154,6 +153,8 @@ public class CliLoadJob extends CliJob<LoadJobSpec> {
             tableInsertTypes.put(table, InsertType.REPLACE);
         }
         loadJobSpec.setTableInsertTypes(tableInsertTypes);
+        String insertRows = (String) optionSet.getValue(INSERT_ROWS);
+        loadJobSpec.setInsertRows(!isEmpty(insertRows) ? parseInt(insertRows) : null);
     }
 
     protected void parseExecutorGroup(OptionSet optionSet, LoadJobSpec jobSpec) {
@@ -166,12 +167,19 @@ public class CliLoadJob extends CliJob<LoadJobSpec> {
         parallelizer.setAttributes(parseAttributes(optionSet.<String>getValues(PARALLELIZER_ATTRIBUTES),
                 optionSet.getOption(PARALLELIZER_ATTRIBUTES)));
         jobSpec.setParallelizer(parallelizer);
+        String constraintThreads = (String) optionSet.getValue(CONSTRAINT_THREADS);
+        jobSpec.setConstraintThreads(!isEmpty(constraintThreads) ? parseInt(constraintThreads) : null);
+        jobSpec.setDeferConstraints(optionSet.hasOption(DEFER_CONSTRAINTS));
+        jobSpec.setResume(optionSet.hasOption(RESUME));
+        jobSpec.setMetricsSpec(parseMetricsOptions(optionSet, this));
     }
 
     protected Map<String, Parallelizer> createParallelizerMapping() {
         Map<String, Parallelizer> parallelizerMapping = new TreeMap<String, Parallelizer>(CASE_INSENSITIVE_ORDER);
         parallelizerMapping.put(PARALLELIZER_TABLE_LEVEL, new TableLevelParallelizer());
         parallelizerMapping.put(PARALLELIZER_ROW_LEVEL, new RowLevelParallelizer());
+        parallelizerMapping.put(PARALLELIZER_CHUNK_LEVEL, new ChunkLevelParallelizer());
+        parallelizerMapping.put(PARALLELIZER_WORK_STEALING, new WorkStealingParallelizer());
         return parallelizerMapping;
     }
 }
\ No newline at end of file
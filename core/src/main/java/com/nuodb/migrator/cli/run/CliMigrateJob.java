@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.cli.run;
+
+import com.nuodb.migrator.cli.parse.Option;
+import com.nuodb.migrator.cli.parse.OptionSet;
+import com.nuodb.migrator.cli.parse.option.GroupBuilder;
+import com.nuodb.migrator.jdbc.query.InsertType;
+import com.nuodb.migrator.spec.MigrateJobSpec;
+import com.nuodb.migrator.spec.ResourceSpec;
+
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.context.ContextUtils.getMessage;
+import static java.lang.Integer.parseInt;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * An implementation of {@link CliRunAdapter} which assembles migrate spec
+ * streaming schema & data from a source database to a target database.
+ */
+public class CliMigrateJob extends CliJob<MigrateJobSpec> {
+
+    public CliMigrateJob() {
+        super(MIGRATE);
+    }
+
+    @Override
+    protected Option createOption() {
+        GroupBuilder group = newGroupBuilder().withName(getMessage(MIGRATE_GROUP_NAME)).withRequired(true);
+        group.withOption(createSourceGroup());
+        group.withOption(createTargetGroup());
+        group.withOption(createOutputGroup());
+        group.withOption(createMigrationModeGroup());
+        group.withOption(createDataMigrationGroup());
+        group.withOption(createSchemaMigrationGroup());
+        group.withOption(createExecutorGroup());
+        return group.build();
+    }
+
+    @Override
+    protected void bind(OptionSet optionSet) {
+        MigrateJobSpec jobSpec = new MigrateJobSpec();
+        jobSpec.setSourceSpec(parseSourceGroup(optionSet, this));
+        jobSpec.setTargetSpec(parseTargetGroup(optionSet, this));
+        jobSpec.setOutputSpec(parseOutputGroup(optionSet, this));
+        jobSpec.setMigrationModes(parseMigrationModeGroup(optionSet, this));
+        parseDataMigrationGroup(optionSet, jobSpec);
+        parseSchemaMigrationGroup(optionSet, jobSpec, this);
+        jobSpec.setThreads(parseThreadsOption(optionSet, this));
+        jobSpec.setMetricsSpec(parseMetricsOptions(optionSet, this));
+        setJobSpec(jobSpec);
+    }
+
+    @Override
+    public void execute(Map<Object, Object> context) {
+        getMigrator().execute(getJobSpec(), context);
+    }
+
+    protected Option createDataMigrationGroup() {
+        GroupBuilder group = newGroupBuilder().withName(getMessage(DATA_MIGRATION_GROUP_NAME));
+        group.withOption(createMetaDataFilterManagerGroup());
+        group.withOption(createCommitGroup());
+        group.withOption(createInsertTypeGroup());
+        group.withOption(createTimeZoneOption());
+        group.withOption(createQueryLimitOption());
+        group.withOption(createPipelineSizeOption());
+        group.withOption(createQueueSizeOption());
+        return group.build();
+    }
+
+    protected Option createQueueSizeOption() {
+        return newBasicOptionBuilder().withName(QUEUE_SIZE).withDescription(getMessage(QUEUE_SIZE_OPTION_DESCRIPTION))
+                .withArgument(newArgumentBuilder().withName(getMessage(QUEUE_SIZE_ARGUMENT_NAME)).build()).build();
+    }
+
+    /**
+     * Rows are teed to a backup only if output path is given
+     */
+    @Override
+    protected ResourceSpec parseOutputGroup(OptionSet optionSet, Option option) {
+        return optionSet.hasOption(OUTPUT_PATH) ? super.parseOutputGroup(optionSet, option) : null;
+    }
+
+    protected void parseDataMigrationGroup(OptionSet optionSet, MigrateJobSpec jobSpec) {
+        jobSpec.setMetaDataFilterManager(parseMetaDataFilterManagerGroup(optionSet, this));
+        jobSpec.setCommitStrategy(parseCommitGroup(optionSet, this));
+        jobSpec.setTimeZone(parseTimeZoneOption(optionSet, this));
+        jobSpec.setQueryLimit(parseQueryLimitOption(optionSet, this));
+        jobSpec.setPipelineSize(parsePipelineSizeOption(optionSet, this));
+        String queueSize = (String) optionSet.getValue(QUEUE_SIZE);
+        jobSpec.setQueueSize(!isEmpty(queueSize) ? parseInt(queueSize) : null);
+        parseInsertTypeGroup(optionSet, jobSpec);
+    }
+
+    protected void parseInsertTypeGroup(OptionSet optionSet, MigrateJobSpec jobSpec) {
+        jobSpec.setInsertType(optionSet.hasOption(REPLACE) ? InsertType.REPLACE : InsertType.INSERT);
+        Map<String, InsertType> tableInsertTypes = newHashMap();
+        for (String table : optionSet.<String>getValues(TABLE_INSERT)) {
+            tableInsertTypes.put(table, InsertType.INSERT);
+        }
+        for (String table : optionSet.<String>getValues(TABLE_REPLACE)) {
+            tableInsertTypes.put(table, InsertType.REPLACE);
+        }
+        jobSpec.setTableInsertTypes(tableInsertTypes);
+        String insertRows = (String) optionSet.getValue(INSERT_ROWS);
+        jobSpec.setInsertRows(!isEmpty(insertRows) ? parseInt(insertRows) : null);
+    }
+}
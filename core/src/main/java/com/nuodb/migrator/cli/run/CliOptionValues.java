@@ -29,6 +29,7 @@ package com.nuodb.migrator.cli.run;
 
 import com.nuodb.migrator.cli.parse.Option;
 import com.nuodb.migrator.cli.parse.OptionException;
+import com.nuodb.migrator.jdbc.commit.AdaptiveBatchCommitStrategy;
 import com.nuodb.migrator.jdbc.commit.BatchCommitStrategy;
 import com.nuodb.migrator.jdbc.commit.CommitStrategy;
 import com.nuodb.migrator.jdbc.commit.SingleCommitStrategy;
@@ -97,6 +98,7 @@ public class CliOptionValues {
      */
     public static final String COMMIT_STRATEGY_SINGLE = "single";
     public static final String COMMIT_STRATEGY_BATCH = "batch";
+    public static final String COMMIT_STRATEGY_ADAPTIVE = "adaptive";
 
     private CliOptionValues() {
     }
@@ -164,6 +166,7 @@ public class CliOptionValues {
         Map<String, CommitStrategy> commitStrategyMapping = new TreeMap<String, CommitStrategy>(CASE_INSENSITIVE_ORDER);
         commitStrategyMapping.put(COMMIT_STRATEGY_SINGLE, new SingleCommitStrategy());
         commitStrategyMapping.put(COMMIT_STRATEGY_BATCH, new BatchCommitStrategy());
+        commitStrategyMapping.put(COMMIT_STRATEGY_ADAPTIVE, new AdaptiveBatchCommitStrategy());
         return commitStrategyMapping;
     }
 }
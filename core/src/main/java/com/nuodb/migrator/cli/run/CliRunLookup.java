@@ -43,6 +43,7 @@ public class CliRunLookup {
         add(new CliDumpJob());
         add(new CliLoadJob());
         add(new CliSchemaJob());
+        add(new CliMigrateJob());
     }
 
     public CliRun get(String name) {
@@ -64,9 +64,11 @@ import com.nuodb.migrator.jdbc.metadata.generator.SequenceQualifyNamingStrategy;
 import com.nuodb.migrator.jdbc.metadata.generator.TriggerAutoNamingStrategy;
 import com.nuodb.migrator.jdbc.metadata.generator.TriggerHashNamingStrategy;
 import com.nuodb.migrator.jdbc.metadata.generator.TriggerQualifyNamingStrategy;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.jdbc.type.JdbcTypeCodes;
 import com.nuodb.migrator.spec.DriverConnectionSpec;
 import com.nuodb.migrator.spec.JdbcTypeSpec;
+import com.nuodb.migrator.spec.MetricsSpec;
 import com.nuodb.migrator.spec.MigrationMode;
 import com.nuodb.migrator.spec.ResourceSpec;
 import com.nuodb.migrator.spec.ScriptGeneratorJobSpecBase;
@@ -285,6 +287,60 @@ public class CliRunSupport extends CliSupport {
                 .build();
     }
 
+    protected Option createInsertTypeGroup() {
+        GroupBuilder group = newGroupBuilder().withName(getMessage(INSERT_TYPE_GROUP_NAME));
+
+        Option replace = newBasicOptionBuilder().withName(REPLACE).withAlias(REPLACE_SHORT, OptionFormat.SHORT)
+                .withDescription(getMessage(REPLACE_OPTION_DESCRIPTION)).build();
+        group.withOption(replace);
+
+        Option replaceType = newRegexOptionBuilder().withName(TABLE_REPLACE)
+                .withDescription(getMessage(TABLE_REPLACE_OPTION_DESCRIPTION)).withRegex(TABLE_REPLACE, 1, LOW).build();
+        group.withOption(replaceType);
+
+        Option insertType = newRegexOptionBuilder().withName(TABLE_INSERT)
+                .withDescription(getMessage(TABLE_INSERT_OPTION_DESCRIPTION)).withRegex(TABLE_INSERT, 1, LOW).build();
+        group.withOption(insertType);
+
+        Option insertRows = newBasicOptionBuilder().withName(INSERT_ROWS)
+                .withDescription(getMessage(INSERT_ROWS_OPTION_DESCRIPTION))
+                .withArgument(newArgumentBuilder().withName(getMessage(INSERT_ROWS_ARGUMENT_NAME)).build()).build();
+        group.withOption(insertRows);
+
+        return group.build();
+    }
+
+    protected Option createQueryLimitOption() {
+        return newBasicOptionBuilder().withName(QUERY_LIMIT).withDescription(getMessage(QUERY_LIMIT_OPTION_DESCRIPTION))
+                .withArgument(newArgumentBuilder().withName(getMessage(QUERY_LIMIT_ARGUMENT_NAME)).build()).build();
+    }
+
+    protected Option createPipelineSizeOption() {
+        return newBasicOptionBuilder().withName(PIPELINE_SIZE)
+                .withDescription(getMessage(PIPELINE_SIZE_OPTION_DESCRIPTION))
+                .withArgument(newArgumentBuilder().withName(getMessage(PIPELINE_SIZE_ARGUMENT_NAME)).build()).build();
+    }
+
+    protected Option createLobStreamingOption() {
+        return newBasicOptionBuilder().withName(LOB_STREAMING)
+                .withDescription(getMessage(LOB_STREAMING_OPTION_DESCRIPTION)).build();
+    }
+
+    protected Option createResumeOption() {
+        return newBasicOptionBuilder().withName(RESUME).withDescription(getMessage(RESUME_OPTION_DESCRIPTION))
+                .build();
+    }
+
+    protected QueryLimit parseQueryLimitOption(OptionSet optionSet, Option option) {
+        String queryLimitValue = (String) optionSet.getValue(QUERY_LIMIT);
+        return !StringUtils.isEmpty(queryLimitValue) ? new QueryLimit(parseLong(queryLimitValue)) : null;
+    }
+
+    protected Integer parsePipelineSizeOption(OptionSet optionSet, Option option) {
+        String pipelineSizeValue = (String) optionSet.getValue(PIPELINE_SIZE);
+        return !StringUtils.isEmpty(pipelineSizeValue) ? parseInt(pipelineSizeValue) : null;
+    }
+
     protected Group createTargetGroup() {
         GroupBuilder group = newGroupBuilder().withName(getMessage(TARGET_GROUP_NAME));
 
@@ -518,6 +574,34 @@ public class CliRunSupport extends CliSupport {
                 .withDescription(getMessage(THREADS_OPTION_DESCRIPTION))
                 .withArgument(newArgumentBuilder().withName(getMessage(THREADS_ARGUMENT_NAME)).build()).build();
         group.withOption(threads);
+
+        Option metricsInterval = newBasicOptionBuilder().withName(METRICS_INTERVAL)
+                .withDescription(getMessage(METRICS_INTERVAL_OPTION_DESCRIPTION))
+                .withArgument(newArgumentBuilder().withName(getMessage(METRICS_INTERVAL_ARGUMENT_NAME)).build())
+                .build();
+        group.withOption(metricsInterval);
+
+        Option metricsOutput = newBasicOptionBuilder().withName(METRICS_OUTPUT)
+                .withDescription(getMessage(METRICS_OUTPUT_OPTION_DESCRIPTION))
+                .withArgument(newArgumentBuilder().withName(getMessage(METRICS_OUTPUT_ARGUMENT_NAME)).build()).build();
+        group.withOption(metricsOutput);
+    }
+
+    /**
+     * Metrics are collected if either metrics interval or metrics output is
+     * given
+     *
+     * @return metrics spec or null if metrics are not collected
+     */
+    protected MetricsSpec parseMetricsOptions(OptionSet optionSet, Option option) {
+        if (!optionSet.hasOption(METRICS_INTERVAL) && !optionSet.hasOption(METRICS_OUTPUT)) {
+            return null;
+        }
+        MetricsSpec metricsSpec = new MetricsSpec();
+        String metricsInterval = (String) optionSet.getValue(METRICS_INTERVAL);
+        metricsSpec.setInterval(!StringUtils.isEmpty(metricsInterval) ? parseInt(metricsInterval) : null);
+        metricsSpec.setOutput((String) optionSet.getValue(METRICS_OUTPUT));
+        return metricsSpec;
     }
 
     protected MetaDataFilterManager parseMetaDataFilterManagerGroup(OptionSet optionSet, Option option) {
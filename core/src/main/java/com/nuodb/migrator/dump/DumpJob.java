@@ -33,9 +33,12 @@ import com.nuodb.migrator.backup.writer.BackupWriterListener;
 import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
 import com.nuodb.migrator.job.HasServicesJobBase;
+import com.nuodb.migrator.metrics.MetricRegistry;
+import com.nuodb.migrator.metrics.ProgressReporter;
 import com.nuodb.migrator.spec.ConnectionSpec;
 import com.nuodb.migrator.spec.DumpJobSpec;
 import com.nuodb.migrator.spec.MetaDataSpec;
+import com.nuodb.migrator.spec.MetricsSpec;
 import com.nuodb.migrator.spec.MigrationMode;
 import com.nuodb.migrator.spec.QuerySpec;
 import com.nuodb.migrator.spec.ResourceSpec;
@@ -48,7 +51,10 @@ import static com.nuodb.migrator.backup.writer.BackupWriter.THREADS;
 import static com.nuodb.migrator.jdbc.session.SessionFactories.newSessionFactory;
 import static com.nuodb.migrator.jdbc.session.SessionObservers.newSessionTimeZoneSetter;
 import static com.nuodb.migrator.jdbc.session.SessionObservers.newTransactionIsolationSetter;
+import static com.nuodb.migrator.metrics.Metrics.DUMP_BYTES;
+import static com.nuodb.migrator.metrics.Metrics.DUMP_ROWS;
 import static java.sql.Connection.*;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * @author Sergey Bushik
@@ -57,6 +63,7 @@ import static java.sql.Connection.*;
 public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
 
     private BackupWriter backupWriter;
+    private ProgressReporter progressReporter;
 
     public DumpJob() {
     }
@@ -80,15 +87,39 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
         backupWriter.setMetaDataSpec(getMetaDataSpec());
         backupWriter.setMigrationModes(getMigrationModes());
         backupWriter.setQueryLimit(getQueryLimit());
+        backupWriter.setPipelineSize(getPipelineSize() != null ? getPipelineSize() : 0);
+        backupWriter.setLobStreaming(isLobStreaming());
         backupWriter.setQuerySpecs(getQuerySpecs());
+        backupWriter.setResume(isResume());
         backupWriter.setSourceSpec(getSourceSpec());
         backupWriter.setSourceSessionFactory(createSourceSessionFactory());
         backupWriter.setTimeZone(getTimeZone());
         backupWriter.setThreads(getThreads() != null ? getThreads() : THREADS);
         backupWriter.setValueFormatRegistryResolver(createValueFormatRegistryResolver());
+        if (getMetricsSpec() != null) {
+            MetricRegistry metricRegistry = new MetricRegistry();
+            backupWriter.setMetricRegistry(metricRegistry);
+            setProgressReporter(createProgressReporter(metricRegistry));
+        }
         setBackupWriter(backupWriter);
     }
 
+    /**
+     * Creates progress reporter of the metrics collected by the job
+     *
+     * @param metricRegistry
+     *            registry of the job metrics
+     * @return progress reporter
+     */
+    protected ProgressReporter createProgressReporter(MetricRegistry metricRegistry) {
+        MetricsSpec metricsSpec = getMetricsSpec();
+        ProgressReporter progressReporter = new ProgressReporter(metricRegistry, DUMP_ROWS, DUMP_BYTES);
+        Integer interval = metricsSpec.getInterval();
+        progressReporter.setInterval(interval != null ? SECONDS.toMillis(interval) : 0);
+        progressReporter.setOutput(metricsSpec.getOutput());
+        return progressReporter;
+    }
+
     protected SessionFactory createSourceSessionFactory() {
         SessionFactory sessionFactory = newSessionFactory(
                 createConnectionProviderFactory().createConnectionProvider(getSourceSpec()), createDialectResolver());
@@ -102,6 +133,10 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
 
     @Override
     public void execute() throws Exception {
+        ProgressReporter progressReporter = getProgressReporter();
+        if (progressReporter != null) {
+            progressReporter.start();
+        }
         try {
             BackupWriter backupWriter = getBackupWriter();
             backupWriter.write(getPath());
@@ -109,6 +144,10 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
             throw exception;
         } catch (Exception exception) {
             throw new DumpException(exception);
+        } finally {
+            if (progressReporter != null) {
+                progressReporter.close();
+            }
         }
     }
 
@@ -124,6 +163,14 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
         this.backupWriter = backupWriter;
     }
 
+    public ProgressReporter getProgressReporter() {
+        return progressReporter;
+    }
+
+    public void setProgressReporter(ProgressReporter progressReporter) {
+        this.progressReporter = progressReporter;
+    }
+
     protected Collection<BackupWriterListener> getListeners() {
         return getJobSpec().getListeners();
     }
@@ -156,6 +203,22 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
         return getJobSpec().getQueryLimit();
     }
 
+    public Integer getPipelineSize() {
+        return getJobSpec().getPipelineSize();
+    }
+
+    public boolean isLobStreaming() {
+        return getJobSpec().isLobStreaming();
+    }
+
+    public boolean isResume() {
+        return getJobSpec().isResume();
+    }
+
+    protected MetricsSpec getMetricsSpec() {
+        return getJobSpec().getMetricsSpec();
+    }
+
     protected Collection<QuerySpec> getQuerySpecs() {
         return getJobSpec().getQuerySpecs();
     }
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.commit;
+
+import com.nuodb.migrator.jdbc.query.Query;
+
+import java.sql.PreparedStatement;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Resizes batches after every commit toward the target commit duration. The
+ * size is scaled by the ratio of the target duration to the measured one, at
+ * most doubled or halved per batch, ignoring deviations within 10% of the
+ * target, then capped by the bytes limit using the average row size of the
+ * last batch and kept within the min and max batch sizes.
+ */
+public class AdaptiveBatchCommitExecutor extends BatchCommitExecutor {
+
+    private static final double MAX_FACTOR = 2;
+    private static final double TOLERANCE = 0.1;
+
+    private final long minBatchSize;
+    private final long maxBatchSize;
+    private final long maxBatchBytes;
+    private final long batchDuration;
+
+    /**
+     * @param batchDuration
+     *            target duration of executeBatch() and commit() in
+     *            milliseconds
+     */
+    public AdaptiveBatchCommitExecutor(PreparedStatement statement, Query query, long batchSize, long minBatchSize,
+            long maxBatchSize, long maxBatchBytes, long batchDuration) {
+        super(statement, query, min(max(batchSize, minBatchSize), maxBatchSize));
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchBytes = maxBatchBytes;
+        this.batchDuration = MILLISECONDS.toNanos(batchDuration);
+    }
+
+    @Override
+    protected void onBatchCommit(long rows, long bytes, long duration, boolean full) {
+        setBatchSize(getNextBatchSize(rows, bytes, duration, full));
+        super.onBatchCommit(rows, bytes, duration, full);
+    }
+
+    protected long getNextBatchSize(long rows, long bytes, long duration, boolean full) {
+        long batchSize = getBatchSize();
+        // the last batch of a chunk is partial and tells nothing about the rate
+        if (!full) {
+            return batchSize;
+        }
+        double factor = duration > 0 ? (double) batchDuration / duration : MAX_FACTOR;
+        if (Math.abs(factor - 1) > TOLERANCE) {
+            batchSize = (long) (batchSize * min(max(factor, 1 / MAX_FACTOR), MAX_FACTOR));
+        }
+        if (maxBatchBytes > 0 && bytes > 0) {
+            batchSize = min(batchSize, maxBatchBytes / max(bytes / rows, 1));
+        }
+        return min(max(batchSize, minBatchSize), maxBatchSize);
+    }
+
+    public long getMinBatchSize() {
+        return minBatchSize;
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public long getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+}
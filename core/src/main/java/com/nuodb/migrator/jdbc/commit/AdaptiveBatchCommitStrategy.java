@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.commit;
+
+import com.nuodb.migrator.jdbc.query.Query;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Map;
+
+import static com.nuodb.migrator.utils.ValidationUtils.instanceOf;
+import static java.lang.Long.parseLong;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Batch commit strategy which starts with the batch size and grows or shrinks
+ * it per table loader toward the target commit duration, see
+ * {@link AdaptiveBatchCommitExecutor}
+ */
+public class AdaptiveBatchCommitStrategy extends BatchCommitStrategy {
+
+    public static final String ATTRIBUTE_MIN_BATCH_SIZE = "batch.min.size";
+    public static final String ATTRIBUTE_MAX_BATCH_SIZE = "batch.max.size";
+    public static final String ATTRIBUTE_MAX_BATCH_BYTES = "batch.max.bytes";
+    public static final String ATTRIBUTE_BATCH_DURATION = "batch.duration";
+
+    public static final long MIN_BATCH_SIZE = 100;
+    public static final long MAX_BATCH_SIZE = 100000;
+    public static final long MAX_BATCH_BYTES = 16 * 1024 * 1024;
+    public static final long BATCH_DURATION = 1000;
+
+    private long minBatchSize = MIN_BATCH_SIZE;
+    private long maxBatchSize = MAX_BATCH_SIZE;
+    private long maxBatchBytes = MAX_BATCH_BYTES;
+    private long batchDuration = BATCH_DURATION;
+
+    @Override
+    public void setAttributes(Map<String, Object> attributes) {
+        super.setAttributes(attributes);
+        Long minBatchSize = getLong(attributes, ATTRIBUTE_MIN_BATCH_SIZE);
+        if (minBatchSize != null) {
+            setMinBatchSize(minBatchSize);
+        }
+        Long maxBatchSize = getLong(attributes, ATTRIBUTE_MAX_BATCH_SIZE);
+        if (maxBatchSize != null) {
+            setMaxBatchSize(maxBatchSize);
+        }
+        Long maxBatchBytes = getLong(attributes, ATTRIBUTE_MAX_BATCH_BYTES);
+        if (maxBatchBytes != null) {
+            setMaxBatchBytes(maxBatchBytes);
+        }
+        Long batchDuration = getLong(attributes, ATTRIBUTE_BATCH_DURATION);
+        if (batchDuration != null) {
+            setBatchDuration(batchDuration);
+        }
+    }
+
+    protected static Long getLong(Map<String, Object> attributes, String attribute) {
+        Object value = attributes.get(attribute);
+        return value instanceof String && !isEmpty((String) value) ? parseLong((String) value) : null;
+    }
+
+    @Override
+    public CommitExecutor createCommitExecutor(Statement statement, Query query) {
+        instanceOf(statement, PreparedStatement.class);
+        return new AdaptiveBatchCommitExecutor((PreparedStatement) statement, query, getBatchSize(),
+                getMinBatchSize(), getMaxBatchSize(), getMaxBatchBytes(), getBatchDuration());
+    }
+
+    public long getMinBatchSize() {
+        return minBatchSize;
+    }
+
+    public void setMinBatchSize(long minBatchSize) {
+        this.minBatchSize = minBatchSize;
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(long maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public long getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    public void setMaxBatchBytes(long maxBatchBytes) {
+        this.maxBatchBytes = maxBatchBytes;
+    }
+
+    public long getBatchDuration() {
+        return batchDuration;
+    }
+
+    public void setBatchDuration(long batchDuration) {
+        this.batchDuration = batchDuration;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        if (!super.equals(o))
+            return false;
+
+        AdaptiveBatchCommitStrategy that = (AdaptiveBatchCommitStrategy) o;
+
+        if (minBatchSize != that.minBatchSize)
+            return false;
+        if (maxBatchSize != that.maxBatchSize)
+            return false;
+        if (maxBatchBytes != that.maxBatchBytes)
+            return false;
+        if (batchDuration != that.batchDuration)
+            return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + (int) (minBatchSize ^ (minBatchSize >>> 32));
+        result = 31 * result + (int) (maxBatchSize ^ (maxBatchSize >>> 32));
+        result = 31 * result + (int) (maxBatchBytes ^ (maxBatchBytes >>> 32));
+        result = 31 * result + (int) (batchDuration ^ (batchDuration >>> 32));
+        return result;
+    }
+}
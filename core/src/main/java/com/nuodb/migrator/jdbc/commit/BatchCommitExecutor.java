@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.commit;
+
+import com.nuodb.migrator.jdbc.query.Query;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * Adds rows to a batch and executes and commits the batch once it exceeds the
+ * batch size, timing executeBatch() and commit() of each batch
+ */
+public class BatchCommitExecutor extends CommitExecutorBase<PreparedStatement> {
+
+    private long batchSize;
+    private long batches;
+    private long bytes;
+    private long executeBatchDuration;
+    private long commitDuration;
+    private BatchCommitListener batchCommitListener;
+
+    public BatchCommitExecutor(PreparedStatement statement, Query query, long batchSize) {
+        super(statement, query);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        return execute(1);
+    }
+
+    /**
+     * Adds statement binding the given number of rows to the batch, such as a
+     * multi row insert, counting each of the rows towards the batch size
+     *
+     * @param rows
+     *            number of rows bound to the statement
+     * @return true if the batch was executed and committed
+     * @throws SQLException
+     */
+    public boolean execute(int rows) throws SQLException {
+        statement.addBatch();
+        batches += rows;
+        if (batches > batchSize) {
+            executeBatch(true);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public void finish() throws SQLException {
+        if (batches > 0) {
+            executeBatch(false);
+        }
+    }
+
+    /**
+     * Accounts size of the row being added to the batch, for the strategies
+     * limiting batches by bytes and for the listeners
+     *
+     * @param bytes
+     *            approximate row size in bytes
+     */
+    public void addBytes(long bytes) {
+        this.bytes += bytes;
+    }
+
+    /**
+     * @param full
+     *            true if the batch exceeded the batch size, false if it's the
+     *            remainder executed on finish
+     */
+    protected void executeBatch(boolean full) throws SQLException {
+        long start = nanoTime();
+        statement.executeBatch();
+        long executed = nanoTime();
+        statement.getConnection().commit();
+        long end = nanoTime();
+        executeBatchDuration = executed - start;
+        commitDuration = end - executed;
+        long duration = end - start;
+        long rows = batches;
+        long bytes = this.bytes;
+        batches = 0;
+        this.bytes = 0;
+        onBatchCommit(rows, bytes, duration, full);
+    }
+
+    protected void onBatchCommit(long rows, long bytes, long duration, boolean full) {
+        if (batchCommitListener != null) {
+            batchCommitListener.onBatchCommit(this, rows, bytes, duration);
+        }
+    }
+
+    /**
+     * Time in nanoseconds spent in executeBatch() of the last batch
+     *
+     * @return duration of the last batch execution
+     */
+    public long getExecuteBatchDuration() {
+        return executeBatchDuration;
+    }
+
+    /**
+     * Time in nanoseconds spent in commit() of the last batch
+     *
+     * @return duration of the last batch commit
+     */
+    public long getCommitDuration() {
+        return commitDuration;
+    }
+
+    public long getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(long batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public BatchCommitListener getBatchCommitListener() {
+        return batchCommitListener;
+    }
+
+    public void setBatchCommitListener(BatchCommitListener batchCommitListener) {
+        this.batchCommitListener = batchCommitListener;
+    }
+}
@@ -30,7 +30,6 @@ package com.nuodb.migrator.jdbc.commit;
 import com.nuodb.migrator.jdbc.query.Query;
 import com.nuodb.migrator.utils.ObjectUtils;
 
-import java.sql.SQLException;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.util.Map;
@@ -61,36 +60,7 @@ public class BatchCommitStrategy implements CommitStrategy {
     @Override
     public CommitExecutor createCommitExecutor(Statement statement, Query query) {
         instanceOf(statement, PreparedStatement.class);
-        return new CommitExecutorBase<PreparedStatement>((PreparedStatement) statement, query) {
-
-            private long batches;
-            private long batchSize = getBatchSize();
-
-            @Override
-            public boolean execute() throws SQLException {
-                statement.addBatch();
-                batches++;
-                if (batches > batchSize) {
-                    executeBatch();
-                    return true;
-                } else {
-                    return false;
-                }
-            }
-
-            @Override
-            public void finish() throws SQLException {
-                if (batches > 0) {
-                    executeBatch();
-                }
-            }
-
-            protected void executeBatch() throws SQLException {
-                statement.executeBatch();
-                statement.getConnection().commit();
-                batches = 0;
-            }
-        };
+        return new BatchCommitExecutor((PreparedStatement) statement, query, getBatchSize());
     }
 
     public long getBatchSize() {
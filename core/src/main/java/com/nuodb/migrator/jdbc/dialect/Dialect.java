@@ -91,6 +91,12 @@ public interface Dialect {
 
     boolean supportsLimitParameters();
 
+    /**
+     * Whether INSERT ... VALUES (...), (...) statements with a list of rows are
+     * supported
+     */
+    boolean supportsMultiRowInsert();
+
     boolean supportsCatalogs();
 
     boolean supportsSchemas();
@@ -258,6 +258,11 @@ public class MySQLDialect extends SimpleDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsMultiRowInsert() {
+        return true;
+    }
+
     @Override
     public boolean supportsCatalogs() {
         return true;
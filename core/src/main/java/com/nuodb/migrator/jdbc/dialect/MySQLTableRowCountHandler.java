@@ -31,6 +31,7 @@ import com.nuodb.migrator.jdbc.metadata.Column;
 import com.nuodb.migrator.jdbc.metadata.Index;
 import com.nuodb.migrator.jdbc.metadata.PrimaryKey;
 import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -77,10 +78,25 @@ public class MySQLTableRowCountHandler extends SimpleTableRowCountHandler {
         return new TableRowCountQuery(table, column, filter, query, EXACT);
     }
 
+    /**
+     * Reads table rows estimate maintained by the storage engine from
+     * INFORMATION_SCHEMA.TABLES, which is free of any scan, or explains the
+     * select query if a column or a filter is given
+     */
     @Override
     protected TableRowCountQuery createApproxRowCountQuery() {
         Table table = getTable();
         Column column = getColumn();
+        if (column == null && getFilter() == null) {
+            SelectQuery query = new SelectQuery();
+            query.setDialect(getDialect());
+            query.from("INFORMATION_SCHEMA.TABLES");
+            query.column("TABLE_ROWS");
+            query.where("TABLE_SCHEMA=" + (table.getCatalog() != null && table.getCatalog().getName() != null
+                    ? "'" + table.getCatalog().getName() + "'" : "DATABASE()"));
+            query.where("TABLE_NAME='" + table.getName() + "'");
+            return new TableRowCountQuery(table, null, null, query, APPROX);
+        }
         PrimaryKey primaryKey = table.getPrimaryKey();
         if (column == null && primaryKey != null && size(primaryKey.getColumns()) > 0) {
             column = get(primaryKey.getColumns(), 0);
@@ -111,7 +127,15 @@ public class MySQLTableRowCountHandler extends SimpleTableRowCountHandler {
             rowCount = resultSet.next() ? resultSet.getLong(1) : null;
             break;
         case APPROX:
-            rowCount = resultSet.next() ? resultSet.getLong("ROWS") : null;
+            if (rowCountQuery.getQuery() instanceof ExplainQuery) {
+                rowCount = resultSet.next() ? resultSet.getLong("ROWS") : null;
+            } else {
+                // InnoDB reports zero TABLE_ROWS until the statistics are collected, so zero tells nothing
+                rowCount = resultSet.next() ? resultSet.getLong(1) : null;
+                if (rowCount != null && rowCount <= 0) {
+                    rowCount = null;
+                }
+            }
         }
         return rowCount;
     }
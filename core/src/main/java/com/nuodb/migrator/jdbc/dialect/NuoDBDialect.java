@@ -417,6 +417,11 @@ public class NuoDBDialect extends SimpleDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsMultiRowInsert() {
+        return true;
+    }
+
     @Override
     public boolean supportsSchemas() {
         return true;
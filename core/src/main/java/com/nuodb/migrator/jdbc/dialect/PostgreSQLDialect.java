@@ -179,6 +179,11 @@ public class PostgreSQLDialect extends SimpleDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsMultiRowInsert() {
+        return true;
+    }
+
     @Override
     public boolean supportsCatalogs() {
         return true;
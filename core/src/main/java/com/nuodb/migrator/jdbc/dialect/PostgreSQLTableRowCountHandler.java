@@ -55,11 +55,26 @@ public class PostgreSQLTableRowCountHandler extends SimpleTableRowCountHandler {
         super(dialect, table, column, filter, rowCountType);
     }
 
+    /**
+     * Reads planner estimate of live tuples from PG_CLASS.RELTUPLES, which is
+     * free of any scan, or explains the select query if a column or a filter is
+     * given
+     */
     @Override
     protected TableRowCountQuery createApproxRowCountQuery() {
         Table table = getTable();
         PrimaryKey primaryKey = table.getPrimaryKey();
         Column column = getColumn();
+        if (column == null && getFilter() == null) {
+            SelectQuery query = new SelectQuery();
+            query.setDialect(getDialect());
+            query.column("CAST(C.RELTUPLES AS BIGINT)");
+            query.from("PG_CATALOG.PG_CLASS AS C");
+            query.innerJoin("PG_CATALOG.PG_NAMESPACE AS N", "C.RELNAMESPACE=N.OID");
+            query.where("N.NSPNAME='" + table.getSchema().getName() + "'");
+            query.where("C.RELNAME='" + table.getName() + "'");
+            return new TableRowCountQuery(table, null, null, query, APPROX);
+        }
         if (column == null && primaryKey != null && size(primaryKey.getColumns()) > 0) {
             column = get(primaryKey.getColumns(), 0);
         }
@@ -86,6 +101,14 @@ public class PostgreSQLTableRowCountHandler extends SimpleTableRowCountHandler {
         Long rowCount = null;
         switch (rowCountQuery.getRowCountType()) {
         case APPROX:
+            if (!(rowCountQuery.getQuery() instanceof ExplainQuery)) {
+                // RELTUPLES is -1 for a table which has never been analyzed, the row count is unknown then
+                rowCount = resultSet.next() ? resultSet.getLong(1) : null;
+                if (rowCount != null && rowCount < 0) {
+                    rowCount = null;
+                }
+                break;
+            }
             while (rowCount == null && resultSet.next()) {
                 Matcher matcher = EXPLAIN_QUERY_ROW_COUNT.matcher(resultSet.getString(1));
                 if (matcher.find()) {
@@ -35,6 +35,12 @@ import java.sql.SQLException;
  */
 public interface RowCountHandler {
 
+    /**
+     * Row count returned if it can't be told, such as an estimate read from the
+     * statistics, which were never collected
+     */
+    long UNKNOWN_ROW_COUNT = -1;
+
     Dialect getDialect();
 
     RowCountType getRowCountType();
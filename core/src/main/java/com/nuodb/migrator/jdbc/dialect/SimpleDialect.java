@@ -475,6 +475,11 @@ public class SimpleDialect extends SimpleServiceResolverAware<Dialect> implement
         return false;
     }
 
+    @Override
+    public boolean supportsMultiRowInsert() {
+        return false;
+    }
+
     @Override
     public boolean supportsCatalogs() {
         return false;
@@ -94,7 +94,7 @@ public class SimpleRowCountHandler implements RowCountHandler {
                 rowCount.setValue(getRowCount(statement, rowCountQuery));
             }
         });
-        return rowCount.getValue();
+        return rowCount.getValue() != null ? rowCount.getValue() : UNKNOWN_ROW_COUNT;
     }
 
     protected Long getRowCount(Statement statement, RowCountQuery rowCountQuery) throws SQLException {
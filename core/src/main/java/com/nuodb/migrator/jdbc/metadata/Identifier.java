@@ -27,16 +27,42 @@
  */
 package com.nuodb.migrator.jdbc.metadata;
 
+import com.google.common.collect.MapMaker;
+
 import java.io.Serializable;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Case insensitive name of a metadata object. Identifiers are canonical: equal
+ * values map to a single instance held by a pool as long as the instance is
+ * referenced, so that a model of many tables & columns shares identifiers, and
+ * the case folded hash is computed once per instance.
+ */
 public class Identifier implements Comparable<Identifier>, Serializable {
 
+    private static final ConcurrentMap<String, Identifier> IDENTIFIERS = new MapMaker().weakValues().makeMap();
+
     public static final Identifier EMPTY = Identifier.valueOf(null);
 
-    private String value;
+    private final String value;
+    private final int hash;
 
     protected Identifier(String value) {
         this.value = value;
+        this.hash = value != null ? hash(value) : 0;
+    }
+
+    /**
+     * Hashes the value folding case of every char the same way as
+     * {@link String#equalsIgnoreCase(String)} does, independently of the
+     * default locale, so that identifiers equal ignoring case share the hash
+     */
+    private static int hash(String value) {
+        int hash = 0;
+        for (int index = 0; index < value.length(); index++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(value.charAt(index)));
+        }
+        return hash;
     }
 
     public String value() {
@@ -55,7 +81,26 @@ public class Identifier implements Comparable<Identifier>, Serializable {
                 || (value.startsWith("[") && value.endsWith("]"))) {
             value = value.substring(1, value.length() - 1);
         }
-        return new Identifier(value);
+        return intern(value);
+    }
+
+    private static Identifier intern(String value) {
+        Identifier identifier = IDENTIFIERS.get(value);
+        if (identifier == null) {
+            Identifier newIdentifier = new Identifier(value);
+            identifier = IDENTIFIERS.putIfAbsent(value, newIdentifier);
+            if (identifier == null) {
+                identifier = newIdentifier;
+            }
+        }
+        return identifier;
+    }
+
+    /**
+     * Replaces deserialized identifier with the canonical one
+     */
+    protected Object readResolve() {
+        return value != null && getClass() == Identifier.class ? intern(value) : this;
     }
 
     @Override
@@ -70,6 +115,8 @@ public class Identifier implements Comparable<Identifier>, Serializable {
         if (o == null || getClass() != o.getClass())
             return false;
         Identifier identifier = (Identifier) o;
+        if (hash != identifier.hash)
+            return false;
         if (value != null ? !value.equalsIgnoreCase(identifier.value) : identifier.value != null)
             return false;
         return true;
@@ -77,7 +124,7 @@ public class Identifier implements Comparable<Identifier>, Serializable {
 
     @Override
     public int hashCode() {
-        return value != null ? value.toLowerCase().hashCode() : 0;
+        return hash;
     }
 
     @Override
@@ -34,6 +34,13 @@ import com.nuodb.migrator.jdbc.metadata.ReferenceAction;
 import com.nuodb.migrator.jdbc.metadata.ReferenceActionMap;
 import com.nuodb.migrator.jdbc.metadata.Table;
 
+import static java.lang.String.format;
+import static java.sql.DatabaseMetaData.importedKeyCascade;
+import static java.sql.DatabaseMetaData.importedKeyNoAction;
+import static java.sql.DatabaseMetaData.importedKeyRestrict;
+import static java.sql.DatabaseMetaData.importedKeySetDefault;
+import static java.sql.DatabaseMetaData.importedKeySetNull;
+
 /**
  * @author Sergey Bushik
  */
@@ -59,6 +66,32 @@ public abstract class ForeignKeyInspectorBase extends TableInspectorBase<Table,
         return referenceActionMap.get(value);
     }
 
+    /**
+     * Rows of a bulk scope are filtered by the foreign table, as foreign keys
+     * are inspected for the tables declaring them
+     */
+    @Override
+    protected String getTableNameColumn() {
+        return "FKTABLE_NAME";
+    }
+
+    /**
+     * Maps referential action named by the SQL standard, such as the rules of
+     * INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS, to the value returned by
+     * {@link java.sql.DatabaseMetaData#getImportedKeys(String, String, String)}
+     *
+     * @param column
+     *            column holding the referential action
+     * @param alias
+     *            alias of the mapped column
+     * @return select list item
+     */
+    protected static String getReferenceAction(String column, String alias) {
+        return format("CASE %1$s WHEN 'CASCADE' THEN %2$d WHEN 'RESTRICT' THEN %3$d WHEN 'SET NULL' THEN %4$d "
+                + "WHEN 'SET DEFAULT' THEN %5$d ELSE %6$d END AS %7$s", column, importedKeyCascade,
+                importedKeyRestrict, importedKeySetNull, importedKeySetDefault, importedKeyNoAction, alias);
+    }
+
     @Override
     public ReferenceActionMap getReferenceActionMap() {
         return referenceActionMap;
@@ -92,10 +92,14 @@ public class InspectionManager {
         primaryKeyInspector.register(MYSQL, new MySQLPrimaryKeyInspector());
         primaryKeyInspector.register(NUODB, new NuoDBPrimaryKeyInspector());
         primaryKeyInspector.register(ORACLE, new OraclePrimaryKeyInspector());
+        primaryKeyInspector.register(MSSQL_SERVER, new MSSQLServerPrimaryKeyInspector());
         addInspector(primaryKeyInspector);
 
         InspectorResolver foreignKeyInspector = new InspectorResolver(FOREIGN_KEY, new SimpleForeignKeyInspector());
+        foreignKeyInspector.register(MYSQL, new MySQLForeignKeyInspector());
         foreignKeyInspector.register(NUODB, new NuoDBForeignKeyInspector());
+        foreignKeyInspector.register(ORACLE, new OracleForeignKeyInspector());
+        foreignKeyInspector.register(MSSQL_SERVER, new MSSQLServerForeignKeyInspector());
         addInspector(foreignKeyInspector);
 
         InspectorResolver columnInspector = new InspectorResolver(COLUMN, new SimpleColumnInspector());
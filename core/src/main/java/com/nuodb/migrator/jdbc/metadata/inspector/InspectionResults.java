@@ -49,6 +49,20 @@ public interface InspectionResults {
 
     <M extends Identifiable> M getObject(MetaDataType objectType, Identifier identifier);
 
+    /**
+     * Looks up object of the type by its identifier within the parent, such as
+     * a table of a schema or a column of a table
+     *
+     * @param objectType
+     *            type of the object
+     * @param parent
+     *            object owning the one looked up
+     * @param identifier
+     *            identifier of the object
+     * @return object found or null
+     */
+    <M extends Identifiable> M getObject(MetaDataType objectType, MetaData parent, Identifier identifier);
+
     <M extends MetaData> Collection<M> getObjects(MetaDataType objectType);
 
     Collection<? extends MetaData> getObjects();
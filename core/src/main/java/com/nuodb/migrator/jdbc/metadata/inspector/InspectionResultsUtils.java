@@ -28,13 +28,19 @@
 package com.nuodb.migrator.jdbc.metadata.inspector;
 
 import com.nuodb.migrator.jdbc.metadata.Catalog;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.ConstraintBase;
 import com.nuodb.migrator.jdbc.metadata.Database;
 import com.nuodb.migrator.jdbc.metadata.Identifier;
+import com.nuodb.migrator.jdbc.metadata.MetaData;
 import com.nuodb.migrator.jdbc.metadata.Schema;
+import com.nuodb.migrator.jdbc.metadata.Sequence;
 import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.metadata.UserDefinedType;
 
 import static com.nuodb.migrator.jdbc.metadata.Identifier.valueOf;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataType.DATABASE;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.TABLE;
 
 /**
  * @author Sergey Bushik
@@ -92,19 +98,56 @@ public class InspectionResultsUtils {
         return addTable(results, catalogName, schemaName, tableName, true);
     }
 
+    /**
+     * Resolves table through the index of the results scoped by schemas, as
+     * inspectors call it for every row of columns, indexes & keys, & adds the
+     * table to the schema if it is not there yet
+     */
     public static Table addTable(InspectionResults results, String catalogName, String schemaName, String tableName,
             boolean addObject) {
         Schema schema = addSchema(results, catalogName, schemaName, addObject);
-        Table table;
         Identifier tableId = valueOf(tableName);
-        if (schema.hasTable(tableId)) {
-            table = schema.getTable(tableId);
-        } else {
-            table = schema.addTable(tableId);
-            if (addObject) {
-                results.addObject(table);
+        Table table = results.getObject(TABLE, schema, tableId);
+        if (table == null) {
+            if (schema.hasTable(tableId)) {
+                table = schema.getTable(tableId);
+            } else {
+                table = schema.addTable(tableId);
+                if (addObject) {
+                    results.addObject(table);
+                }
             }
         }
         return table;
     }
+
+    /**
+     * Resolves object owning the given one, such as a schema of a table or a
+     * table of a column or of a constraint
+     *
+     * @param object
+     *            to get parent of
+     * @return parent object or null for database & detached objects
+     */
+    public static MetaData getParent(MetaData object) {
+        MetaData parent;
+        if (object instanceof Column) {
+            parent = ((Column) object).getTable();
+        } else if (object instanceof ConstraintBase) {
+            parent = ((ConstraintBase) object).getTable();
+        } else if (object instanceof Table) {
+            parent = ((Table) object).getSchema();
+        } else if (object instanceof Sequence) {
+            parent = ((Sequence) object).getSchema();
+        } else if (object instanceof UserDefinedType) {
+            parent = ((UserDefinedType) object).getSchema();
+        } else if (object instanceof Schema) {
+            parent = ((Schema) object).getCatalog();
+        } else if (object instanceof Catalog) {
+            parent = ((Catalog) object).getDatabase();
+        } else {
+            parent = null;
+        }
+        return parent;
+    }
 }
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.query.ParameterizedQuery;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
+
+import java.util.Collection;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.jdbc.metadata.inspector.MSSQLServerPrimaryKeyInspector.getCatalogPrefix;
+import static java.lang.String.format;
+import static java.sql.DatabaseMetaData.importedKeyCascade;
+import static java.sql.DatabaseMetaData.importedKeyNoAction;
+import static java.sql.DatabaseMetaData.importedKeyNotDeferrable;
+import static java.sql.DatabaseMetaData.importedKeySetDefault;
+import static java.sql.DatabaseMetaData.importedKeySetNull;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Selects foreign keys of all tables of a schema from sys.foreign_keys &
+ * sys.foreign_key_columns catalog views, a single table is inspected with
+ * database metadata
+ */
+public class MSSQLServerForeignKeyInspector extends SimpleForeignKeyInspector {
+
+    @Override
+    protected Query createQuery(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope) {
+        if (!(tableInspectionScope instanceof BulkTableInspectionScope)) {
+            return null;
+        }
+        Collection<Object> parameters = newArrayList();
+        SelectQuery query = new SelectQuery();
+        if (isEmpty(tableInspectionScope.getCatalog())) {
+            query.column("db_name() as pktable_cat");
+            query.column("db_name() as fktable_cat");
+        } else {
+            query.column("? as pktable_cat");
+            query.column("? as fktable_cat");
+            parameters.add(tableInspectionScope.getCatalog());
+            parameters.add(tableInspectionScope.getCatalog());
+        }
+        query.column("primary_schemas.name as pktable_schem");
+        query.column("primary_tables.name as pktable_name");
+        query.column("primary_columns.name as pkcolumn_name");
+        query.column("foreign_schemas.name as fktable_schem");
+        query.column("foreign_tables.name as fktable_name");
+        query.column("foreign_columns.name as fkcolumn_name");
+        query.column("foreign_key_columns.constraint_column_id as key_seq");
+        query.column(getReferenceActionCode("foreign_keys.update_referential_action", "update_rule"));
+        query.column(getReferenceActionCode("foreign_keys.delete_referential_action", "delete_rule"));
+        query.column("foreign_keys.name as fk_name");
+        query.column(importedKeyNotDeferrable + " as deferrability");
+
+        String catalog = getCatalogPrefix(tableInspectionScope.getCatalog());
+        query.from(catalog + "sys.foreign_keys");
+        query.innerJoin(catalog + "sys.foreign_key_columns",
+                "foreign_key_columns.constraint_object_id=foreign_keys.object_id");
+        query.innerJoin(catalog + "sys.tables foreign_tables",
+                "foreign_tables.object_id=foreign_keys.parent_object_id");
+        query.innerJoin(catalog + "sys.schemas foreign_schemas", "foreign_schemas.schema_id=foreign_tables.schema_id");
+        query.innerJoin(catalog + "sys.columns foreign_columns",
+                "foreign_columns.object_id=foreign_key_columns.parent_object_id "
+                        + "and foreign_columns.column_id=foreign_key_columns.parent_column_id");
+        query.innerJoin(catalog + "sys.tables primary_tables",
+                "primary_tables.object_id=foreign_keys.referenced_object_id");
+        query.innerJoin(catalog + "sys.schemas primary_schemas", "primary_schemas.schema_id=primary_tables.schema_id");
+        query.innerJoin(catalog + "sys.columns primary_columns",
+                "primary_columns.object_id=foreign_key_columns.referenced_object_id "
+                        + "and primary_columns.column_id=foreign_key_columns.referenced_column_id");
+
+        if (!isEmpty(tableInspectionScope.getSchema())) {
+            query.where("foreign_schemas.name=?");
+            parameters.add(tableInspectionScope.getSchema());
+        }
+        query.orderBy("fktable_name", "fk_name", "key_seq");
+        return new ParameterizedQuery(query, parameters);
+    }
+
+    /**
+     * Maps referential action code of sys.foreign_keys to the value returned by
+     * database metadata
+     */
+    protected static String getReferenceActionCode(String column, String alias) {
+        return format("case %1$s when 1 then %2$d when 2 then %3$d when 3 then %4$d else %5$d end as %6$s", column,
+                importedKeyCascade, importedKeySetNull, importedKeySetDefault, importedKeyNoAction, alias);
+    }
+
+    @Override
+    protected boolean supportsBulkInspection(InspectionContext inspectionContext) {
+        return true;
+    }
+}
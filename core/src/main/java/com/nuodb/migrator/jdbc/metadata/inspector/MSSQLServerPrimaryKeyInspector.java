@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.query.ParameterizedQuery;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
+
+import java.util.Collection;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.apache.commons.lang3.StringUtils.replace;
+
+/**
+ * Selects primary keys of all tables of a schema from the catalog views, a
+ * single table is inspected with database metadata
+ */
+public class MSSQLServerPrimaryKeyInspector extends SimplePrimaryKeyInspector {
+
+    @Override
+    protected Query createQuery(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope) {
+        if (!(tableInspectionScope instanceof BulkTableInspectionScope)) {
+            return null;
+        }
+        Collection<Object> parameters = newArrayList();
+        SelectQuery query = new SelectQuery();
+        if (isEmpty(tableInspectionScope.getCatalog())) {
+            query.column("db_name() as table_cat");
+        } else {
+            query.column("? as table_cat");
+            parameters.add(tableInspectionScope.getCatalog());
+        }
+        query.column("schemas.name as table_schem");
+        query.column("tables.name as table_name");
+        query.column("columns.name as column_name");
+        query.column("index_columns.key_ordinal as key_seq");
+        query.column("indexes.name as pk_name");
+
+        String catalog = getCatalogPrefix(tableInspectionScope.getCatalog());
+        query.from(catalog + "sys.schemas");
+        query.innerJoin(catalog + "sys.tables", "schemas.schema_id=tables.schema_id");
+        query.innerJoin(catalog + "sys.indexes", "indexes.object_id=tables.object_id");
+        query.innerJoin(catalog + "sys.index_columns",
+                "index_columns.object_id=indexes.object_id and index_columns.index_id=indexes.index_id");
+        query.innerJoin(catalog + "sys.columns",
+                "columns.object_id=index_columns.object_id and columns.column_id=index_columns.column_id");
+
+        if (!isEmpty(tableInspectionScope.getSchema())) {
+            query.where("schemas.name=?");
+            parameters.add(tableInspectionScope.getSchema());
+        }
+        query.where("indexes.is_primary_key=1");
+        return new ParameterizedQuery(query, parameters);
+    }
+
+    /**
+     * Quotes the catalog qualifying the catalog views, so that databases named
+     * with spaces, dots or keywords are resolved
+     *
+     * @param catalog
+     *            catalog of the scope or null
+     * @return quoted catalog followed by a dot or an empty string
+     */
+    protected static String getCatalogPrefix(String catalog) {
+        return isEmpty(catalog) ? "" : ("[" + replace(catalog, "]", "]]") + "].");
+    }
+
+    @Override
+    protected boolean supportsBulkInspection(InspectionContext inspectionContext) {
+        return true;
+    }
+}
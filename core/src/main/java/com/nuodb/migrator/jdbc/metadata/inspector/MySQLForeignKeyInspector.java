@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.query.ParameterizedQuery;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
+
+import java.util.Collection;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.sql.DatabaseMetaData.importedKeyNotDeferrable;
+
+/**
+ * Selects foreign keys of all tables of a catalog from
+ * INFORMATION_SCHEMA.KEY_COLUMN_USAGE & REFERENTIAL_CONSTRAINTS, a single table
+ * is inspected with database metadata
+ */
+public class MySQLForeignKeyInspector extends SimpleForeignKeyInspector {
+
+    @Override
+    protected Query createQuery(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope) {
+        if (!(tableInspectionScope instanceof BulkTableInspectionScope)) {
+            return null;
+        }
+        SelectQuery query = new SelectQuery();
+        Collection<Object> parameters = newArrayList();
+        query.columns("K.REFERENCED_TABLE_SCHEMA AS PKTABLE_CAT", "NULL AS PKTABLE_SCHEM",
+                "K.REFERENCED_TABLE_NAME AS PKTABLE_NAME", "K.REFERENCED_COLUMN_NAME AS PKCOLUMN_NAME",
+                "K.TABLE_SCHEMA AS FKTABLE_CAT", "NULL AS FKTABLE_SCHEM", "K.TABLE_NAME AS FKTABLE_NAME",
+                "K.COLUMN_NAME AS FKCOLUMN_NAME", "K.ORDINAL_POSITION AS KEY_SEQ",
+                getReferenceAction("R.UPDATE_RULE", "UPDATE_RULE"), getReferenceAction("R.DELETE_RULE", "DELETE_RULE"),
+                "K.CONSTRAINT_NAME AS FK_NAME", importedKeyNotDeferrable + " AS DEFERRABILITY");
+        query.from("INFORMATION_SCHEMA.KEY_COLUMN_USAGE K");
+        query.innerJoin("INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS R", "R.CONSTRAINT_SCHEMA=K.CONSTRAINT_SCHEMA "
+                + "AND R.TABLE_NAME=K.TABLE_NAME AND R.CONSTRAINT_NAME=K.CONSTRAINT_NAME");
+        query.where("K.REFERENCED_TABLE_NAME IS NOT NULL");
+        String catalog = tableInspectionScope.getCatalog();
+        if (catalog != null) {
+            query.where("K.TABLE_SCHEMA=?");
+            parameters.add(catalog);
+        } else {
+            query.where("K.TABLE_SCHEMA=DATABASE()");
+        }
+        query.orderBy("FKTABLE_NAME", "FK_NAME", "KEY_SEQ");
+        return new ParameterizedQuery(query, parameters);
+    }
+
+    @Override
+    protected boolean supportsBulkInspection(InspectionContext inspectionContext) {
+        return true;
+    }
+}
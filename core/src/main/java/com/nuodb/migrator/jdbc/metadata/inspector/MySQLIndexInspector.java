@@ -91,4 +91,9 @@ public class MySQLIndexInspector extends SimpleIndexInspector {
         statisticsIndex.orderBy("INDEX_NAME", "SEQ_IN_INDEX");
         return new ParameterizedQuery(union(statisticsIndex, null), parameters);
     }
+
+    @Override
+    protected boolean supportsBulkInspection(InspectionContext inspectionContext) {
+        return true;
+    }
 }
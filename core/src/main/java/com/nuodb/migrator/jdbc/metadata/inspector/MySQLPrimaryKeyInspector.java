@@ -30,17 +30,54 @@ package com.nuodb.migrator.jdbc.metadata.inspector;
 import com.nuodb.migrator.jdbc.metadata.Identifier;
 import com.nuodb.migrator.jdbc.metadata.PrimaryKey;
 import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.ParameterizedQuery;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 
+import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
 
 public class MySQLPrimaryKeyInspector extends SimplePrimaryKeyInspector {
 
+    /**
+     * Primary keys of all tables of a catalog are selected from
+     * INFORMATION_SCHEMA.KEY_COLUMN_USAGE, a single table is inspected with
+     * database metadata
+     */
+    @Override
+    protected Query createQuery(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope) {
+        if (!(tableInspectionScope instanceof BulkTableInspectionScope)) {
+            return null;
+        }
+        SelectQuery query = new SelectQuery();
+        Collection<Object> parameters = newArrayList();
+        query.columns("K.TABLE_SCHEMA AS TABLE_CAT", "NULL AS TABLE_SCHEM", "K.TABLE_NAME", "K.COLUMN_NAME",
+                "K.ORDINAL_POSITION AS KEY_SEQ");
+        query.from("INFORMATION_SCHEMA.KEY_COLUMN_USAGE K");
+        query.where("K.CONSTRAINT_NAME='PRIMARY'");
+        String catalog = tableInspectionScope.getCatalog();
+        if (catalog != null) {
+            query.where("K.TABLE_SCHEMA=?");
+            parameters.add(catalog);
+        } else {
+            query.where("K.TABLE_SCHEMA=DATABASE()");
+        }
+        return new ParameterizedQuery(query, parameters);
+    }
+
+    @Override
+    protected boolean supportsBulkInspection(InspectionContext inspectionContext) {
+        return true;
+    }
+
     @Override
     protected void processResultSet(InspectionContext inspectionContext, ResultSet primaryKeys) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
+        Collection<PrimaryKey> objects = newArrayList();
         while (primaryKeys.next()) {
             Table table = addTable(inspectionResults, primaryKeys.getString("TABLE_CAT"),
                     primaryKeys.getString("TABLE_SCHEM"), primaryKeys.getString("TABLE_NAME"));
@@ -49,9 +86,10 @@ public class MySQLPrimaryKeyInspector extends SimplePrimaryKeyInspector {
             PrimaryKey primaryKey = table.getPrimaryKey();
             if (primaryKey == null) {
                 table.setPrimaryKey(primaryKey = new PrimaryKey(identifier));
-                inspectionResults.addObject(primaryKey);
+                objects.add(primaryKey);
             }
             primaryKey.addColumn(table.addColumn(primaryKeys.getString("COLUMN_NAME")), primaryKeys.getInt("KEY_SEQ"));
         }
+        inspectionResults.addObjects(objects);
     }
 }
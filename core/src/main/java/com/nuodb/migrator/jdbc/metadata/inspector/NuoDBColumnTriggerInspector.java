@@ -40,6 +40,7 @@ import java.util.Collection;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataType.COLUMN_TRIGGER;
+import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
 import static com.nuodb.migrator.utils.StringUtils.isEmpty;
 
 /**
@@ -77,6 +78,7 @@ public class NuoDBColumnTriggerInspector extends TableInspectorBase<Table, Table
     @Override
     protected void processResultSet(InspectionContext inspectionContext, ResultSet triggers) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
+        Collection<ColumnTrigger> objects = newArrayList();
         String TRIGGEREVENT = null;
         String TRIGGERTIME = null;
         boolean active = false;
@@ -125,7 +127,8 @@ public class NuoDBColumnTriggerInspector extends TableInspectorBase<Table, Table
                     break;
                 }
 
-                Table table = inspectionResults.getObject(MetaDataType.TABLE, triggers.getString("TABLENAME"));
+                Table table = addTable(inspectionResults, null, triggers.getString("SCHEMA"),
+                        triggers.getString("TABLENAME"));
                 ColumnTrigger columnTrigger = new ColumnTrigger();
                 String columnName = RegexUtils.getRegexGroup(TRIGGERTEXT_REG_EXPRESSION,
                         triggers.getString("TRIGGER_TEXT"), 1);
@@ -136,9 +139,10 @@ public class NuoDBColumnTriggerInspector extends TableInspectorBase<Table, Table
                 columnTrigger.setTriggerTime(TriggerTime.valueOf(TRIGGERTIME));
                 columnTrigger.setTriggerBody(getTriggerBody(triggers.getString("TRIGGER_TEXT")));
                 table.addTrigger(columnTrigger);
-                inspectionResults.addObject(columnTrigger);
+                objects.add(columnTrigger);
             }
         }
+        inspectionResults.addObjects(objects);
     }
 
     private String getTriggerBody(String tString) {
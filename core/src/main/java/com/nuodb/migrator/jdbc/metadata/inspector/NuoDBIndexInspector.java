@@ -34,7 +34,9 @@ import com.nuodb.migrator.jdbc.query.Query;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 
+import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.jdbc.metadata.Identifier.valueOf;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataType.INDEX;
 import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
@@ -56,9 +58,20 @@ public class NuoDBIndexInspector extends TableInspectorBase<Table, TableInspecti
         return NuoDBIndex.createQuery(tableInspectionScope, UNIQUE, KEY, UNIQUECONSTRAINT);
     }
 
+    @Override
+    protected boolean supportsBulkInspection(InspectionContext inspectionContext) {
+        return true;
+    }
+
+    @Override
+    protected String getTableNameColumn() {
+        return "TABLENAME";
+    }
+
     @Override
     protected void processResultSet(InspectionContext inspectionContext, ResultSet indexes) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
+        Collection<Index> objects = newArrayList();
         while (indexes.next()) {
             Table table = addTable(inspectionResults, null, indexes.getString("SCHEMA"),
                     indexes.getString("TABLENAME"));
@@ -69,10 +82,11 @@ public class NuoDBIndexInspector extends TableInspectorBase<Table, TableInspecti
                 index.setUnique(
                         indexes.getInt("INDEXTYPE") == UNIQUE || indexes.getInt("INDEXTYPE") == UNIQUECONSTRAINT);
                 index.setUniqueConstraint(indexes.getInt("INDEXTYPE") == UNIQUECONSTRAINT);
+                objects.add(index);
             }
             index.addColumn(table.addColumn(indexes.getString("FIELD")), indexes.getInt("POSITION"));
-            inspectionResults.addObject(index);
         }
+        inspectionResults.addObjects(objects);
     }
 
     @Override
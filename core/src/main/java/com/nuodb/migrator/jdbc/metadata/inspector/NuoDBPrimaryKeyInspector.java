@@ -35,7 +35,9 @@ import com.nuodb.migrator.jdbc.query.Query;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 
+import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.jdbc.metadata.Identifier.valueOf;
 import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
 import static com.nuodb.migrator.jdbc.metadata.inspector.NuoDBIndex.PRIMARY_KEY;
@@ -54,9 +56,20 @@ public class NuoDBPrimaryKeyInspector extends TableInspectorBase<Table, TableIns
         return NuoDBIndex.createQuery(tableInspectionScope, PRIMARY_KEY);
     }
 
+    @Override
+    protected boolean supportsBulkInspection(InspectionContext inspectionContext) {
+        return true;
+    }
+
+    @Override
+    protected String getTableNameColumn() {
+        return "TABLENAME";
+    }
+
     @Override
     protected void processResultSet(InspectionContext inspectionContext, ResultSet primaryKeys) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
+        Collection<PrimaryKey> objects = newArrayList();
         while (primaryKeys.next()) {
             Table table = addTable(inspectionResults, null, primaryKeys.getString("SCHEMA"),
                     primaryKeys.getString("TABLENAME"));
@@ -65,10 +78,11 @@ public class NuoDBPrimaryKeyInspector extends TableInspectorBase<Table, TableIns
             PrimaryKey primaryKey = table.getPrimaryKey();
             if (primaryKey == null) {
                 table.setPrimaryKey(primaryKey = new PrimaryKey(identifier));
+                objects.add(primaryKey);
             }
             primaryKey.addColumn(table.addColumn(primaryKeys.getString("FIELD")), primaryKeys.getInt("POSITION"));
-            inspectionResults.addObject(primaryKey);
         }
+        inspectionResults.addObjects(objects);
     }
 
     @Override
@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.query.ParameterizedQuery;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
+
+import java.util.Collection;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.utils.StringUtils.isEmpty;
+import static java.lang.String.format;
+import static java.sql.DatabaseMetaData.importedKeyCascade;
+import static java.sql.DatabaseMetaData.importedKeyInitiallyDeferred;
+import static java.sql.DatabaseMetaData.importedKeyInitiallyImmediate;
+import static java.sql.DatabaseMetaData.importedKeyNotDeferrable;
+import static java.sql.DatabaseMetaData.importedKeyRestrict;
+import static java.sql.DatabaseMetaData.importedKeySetNull;
+
+/**
+ * Selects foreign keys of all tables of a schema from ALL_CONSTRAINTS &
+ * ALL_CONS_COLUMNS, a single table is inspected with database metadata. Update
+ * rule is null as Oracle has no update actions, the same as the driver returns.
+ */
+public class OracleForeignKeyInspector extends SimpleForeignKeyInspector {
+
+    @Override
+    protected Query createQuery(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope) {
+        if (!(tableInspectionScope instanceof BulkTableInspectionScope)) {
+            return null;
+        }
+        SelectQuery query = new SelectQuery();
+        Collection<Object> parameters = newArrayList();
+        query.columns("NULL AS PKTABLE_CAT", "P.OWNER AS PKTABLE_SCHEM", "P.TABLE_NAME AS PKTABLE_NAME",
+                "PC.COLUMN_NAME AS PKCOLUMN_NAME", "NULL AS FKTABLE_CAT", "F.OWNER AS FKTABLE_SCHEM",
+                "F.TABLE_NAME AS FKTABLE_NAME", "FC.COLUMN_NAME AS FKCOLUMN_NAME", "FC.POSITION AS KEY_SEQ",
+                "NULL AS UPDATE_RULE",
+                format("DECODE(F.DELETE_RULE, 'CASCADE', %d, 'SET NULL', %d, %d) AS DELETE_RULE", importedKeyCascade,
+                        importedKeySetNull, importedKeyRestrict),
+                "F.CONSTRAINT_NAME AS FK_NAME",
+                format("DECODE(F.DEFERRABLE, 'NOT DEFERRABLE', %d, DECODE(F.DEFERRED, 'DEFERRED', %d, %d)) "
+                        + "AS DEFERRABILITY", importedKeyNotDeferrable, importedKeyInitiallyDeferred,
+                        importedKeyInitiallyImmediate));
+        query.from("ALL_CONSTRAINTS F");
+        query.join("ALL_CONS_COLUMNS FC", "FC.OWNER = F.OWNER AND FC.CONSTRAINT_NAME = F.CONSTRAINT_NAME");
+        query.join("ALL_CONSTRAINTS P", "P.OWNER = F.R_OWNER AND P.CONSTRAINT_NAME = F.R_CONSTRAINT_NAME");
+        query.join("ALL_CONS_COLUMNS PC",
+                "PC.OWNER = P.OWNER AND PC.CONSTRAINT_NAME = P.CONSTRAINT_NAME AND PC.POSITION = FC.POSITION");
+        query.where("F.CONSTRAINT_TYPE = 'R'");
+        String schema = tableInspectionScope.getSchema();
+        if (!isEmpty(schema)) {
+            query.where("F.OWNER=?");
+            parameters.add(schema);
+        } else {
+            query.where("F.OWNER=USER");
+        }
+        query.orderBy("FKTABLE_NAME", "FK_NAME", "KEY_SEQ");
+        return new ParameterizedQuery(query, parameters);
+    }
+
+    @Override
+    protected boolean supportsBulkInspection(InspectionContext inspectionContext) {
+        return true;
+    }
+}
@@ -96,6 +96,11 @@ public class OracleIndexInspector extends SimpleIndexInspector {
         return new ParameterizedQuery(union(statisticsIndex, clusteredIndex), parameters);
     }
 
+    @Override
+    protected boolean supportsBulkInspection(InspectionContext inspectionContext) {
+        return true;
+    }
+
     @Override
     protected String getExpression(InspectionContext inspectionContext, ResultSet indexes, final Index index,
             String column) throws SQLException {
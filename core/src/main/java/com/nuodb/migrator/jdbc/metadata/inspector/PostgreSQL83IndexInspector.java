@@ -81,6 +81,11 @@ public class PostgreSQL83IndexInspector extends PostgreSQLIndexInspector {
         return new ParameterizedQuery(query, parameters);
     }
 
+    @Override
+    protected boolean supportsBulkInspection(InspectionContext inspectionContext) {
+        return true;
+    }
+
     @Override
     protected void processIndex(InspectionContext inspectionContext, ResultSet indexes, Index index)
             throws SQLException {
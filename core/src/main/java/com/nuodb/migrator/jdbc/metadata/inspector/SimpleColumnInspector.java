@@ -34,7 +34,9 @@ import com.nuodb.migrator.jdbc.type.JdbcTypeDesc;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 
+import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.jdbc.metadata.DefaultValue.valueOf;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataType.COLUMN;
 import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
@@ -52,20 +54,32 @@ public class SimpleColumnInspector extends TableInspectorBase<Table, TableInspec
     @Override
     protected ResultSet openResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope)
             throws SQLException {
+        String table = tableInspectionScope.getTable();
         return inspectionContext.getConnection().getMetaData().getColumns(tableInspectionScope.getCatalog(),
-                tableInspectionScope.getSchema(), tableInspectionScope.getTable(), null);
+                tableInspectionScope.getSchema(), table != null ? table : "%", null);
+    }
+
+    /**
+     * Columns of all tables of a schema are requested with "%" table name
+     * pattern
+     */
+    @Override
+    protected boolean supportsBulkInspection(InspectionContext inspectionContext) {
+        return true;
     }
 
     @Override
     protected void processResultSet(InspectionContext inspectionContext, ResultSet columns) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
+        Collection<Column> objects = newArrayList();
         while (columns.next()) {
             Table table = addTable(inspectionResults, columns.getString("TABLE_CAT"), columns.getString("TABLE_SCHEM"),
                     columns.getString("TABLE_NAME"));
             Column column = table.addColumn(columns.getString("COLUMN_NAME"));
             processColumn(inspectionContext, columns, column);
-            inspectionResults.addObject(column);
+            objects.add(column);
         }
+        inspectionResults.addObjects(objects);
     }
 
     protected void processColumn(InspectionContext inspectionContext, ResultSet columns, Column column)
@@ -34,8 +34,10 @@ import com.nuodb.migrator.jdbc.metadata.Column;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 
 import static com.google.common.collect.Iterables.tryFind;
+import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.jdbc.metadata.Identifier.valueOf;
 import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
 import static com.nuodb.migrator.utils.StringUtils.equalsIgnoreCase;
@@ -56,6 +58,7 @@ public class SimpleForeignKeyInspector extends ForeignKeyInspectorBase {
     protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
             ResultSet foreignKeys) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
+        Collection<ForeignKey> objects = newArrayList();
         boolean fixPosition = false;
         while (foreignKeys.next()) {
             String primaryCatalogName = foreignKeys.getString("PKTABLE_CAT");
@@ -108,10 +111,11 @@ public class SimpleForeignKeyInspector extends ForeignKeyInspectorBase {
                 foreignKey.setDeleteAction(getReferentialAction(foreignKeys.getInt("DELETE_RULE")));
                 foreignKey.setDeferrability(getDeferrability(foreignKeys.getInt("DEFERRABILITY")));
                 foreignTable.addForeignKey(foreignKey);
-                inspectionResults.addObject(foreignKey);
+                objects.add(foreignKey);
             }
             foreignKey.addReference(primaryColumn, foreignColumn, position);
         }
+        inspectionResults.addObjects(objects);
     }
 
     @Override
@@ -34,7 +34,9 @@ import com.nuodb.migrator.jdbc.metadata.Table;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 
+import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.jdbc.metadata.Identifier.valueOf;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataType.INDEX;
 import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
@@ -60,6 +62,7 @@ public class SimpleIndexInspector extends TableInspectorBase<Table, TableInspect
     @Override
     protected void processResultSet(InspectionContext inspectionContext, ResultSet indexes) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
+        Collection<Index> objects = newArrayList();
         while (indexes.next()) {
             if (indexes.getShort("TYPE") == tableIndexStatistic) {
                 continue;
@@ -67,11 +70,13 @@ public class SimpleIndexInspector extends TableInspectorBase<Table, TableInspect
             Table table = addTable(inspectionResults, indexes.getString("TABLE_CAT"), indexes.getString("TABLE_SCHEM"),
                     indexes.getString("TABLE_NAME"));
             Identifier identifier = valueOf(indexes.getString("INDEX_NAME"));
-            Index index = table.hasIndex(identifier) ? table.getIndex(identifier)
-                    : table.addIndex(new Index(identifier));
+            Index index = table.getIndex(identifier);
+            if (index == null) {
+                objects.add(index = table.addIndex(new Index(identifier)));
+            }
             processIndex(inspectionContext, indexes, index);
-            inspectionResults.addObject(index);
         }
+        inspectionResults.addObjects(objects);
     }
 
     protected void processIndex(InspectionContext inspectionContext, ResultSet indexes, Index index)
@@ -27,10 +27,9 @@
  */
 package com.nuodb.migrator.jdbc.metadata.inspector;
 
-import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
-import com.google.common.collect.*;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
 import com.nuodb.migrator.jdbc.metadata.Identifiable;
 import com.nuodb.migrator.jdbc.metadata.Identifier;
 import com.nuodb.migrator.jdbc.metadata.MetaData;
@@ -38,12 +37,21 @@ import com.nuodb.migrator.jdbc.metadata.MetaDataType;
 import org.apache.commons.lang3.ObjectUtils;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newIdentityHashMap;
 import static com.google.common.collect.Multimaps.newSetMultimap;
 import static com.google.common.collect.Sets.newLinkedHashSet;
+import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.getParent;
 
 /**
+ * Keeps inspected objects by type along with an index of identifiable objects
+ * by type & identifier, so that lookups do not scan all objects of the type.
+ * Index of objects scoped by their parents is built on the first scoped lookup
+ * of the type & is kept up to date as objects of the type are added or removed.
+ *
  * @author Sergey Bushik
  */
 @SuppressWarnings("unchecked")
@@ -56,15 +64,77 @@ public class SimpleInspectionResults implements InspectionResults {
                 }
             });
 
+    private Map<MetaDataType, Map<Identifier, Identifiable>> identifiables = newHashMap();
+
+    private Map<MetaDataType, Map<MetaData, Map<Identifier, Identifiable>>> scopedIdentifiables = newHashMap();
+
     @Override
     public void addObject(MetaData object) {
-        objects.put(object.getObjectType(), object);
+        MetaDataType objectType = object.getObjectType();
+        if (objects.put(objectType, object)) {
+            addIdentifiable(getIdentifiables(objectType), object);
+            addScopedIdentifiable(scopedIdentifiables.get(objectType), object);
+        }
     }
 
     @Override
     public void addObjects(Collection<? extends MetaData> objects) {
+        MetaDataType objectType = null;
+        Set<MetaData> objectsByType = null;
+        Map<Identifier, Identifiable> identifiablesByType = null;
+        Map<MetaData, Map<Identifier, Identifiable>> identifiablesByParent = null;
         for (MetaData object : objects) {
-            addObject(object);
+            if (objectType != object.getObjectType()) {
+                objectType = object.getObjectType();
+                objectsByType = this.objects.get(objectType);
+                identifiablesByType = getIdentifiables(objectType);
+                identifiablesByParent = scopedIdentifiables.get(objectType);
+            }
+            if (objectsByType.add(object)) {
+                addIdentifiable(identifiablesByType, object);
+                addScopedIdentifiable(identifiablesByParent, object);
+            }
+        }
+    }
+
+    protected Map<Identifier, Identifiable> getIdentifiables(MetaDataType objectType) {
+        Map<Identifier, Identifiable> identifiablesByType = identifiables.get(objectType);
+        if (identifiablesByType == null) {
+            identifiables.put(objectType, identifiablesByType = newHashMap());
+        }
+        return identifiablesByType;
+    }
+
+    /**
+     * Adds object to the index scoped by parents, if the index of the object
+     * type is already built
+     */
+    protected static void addScopedIdentifiable(Map<MetaData, Map<Identifier, Identifiable>> identifiablesByParent,
+            MetaData object) {
+        if (identifiablesByParent != null) {
+            addIdentifiable(getIdentifiables(identifiablesByParent, getParent(object)), object);
+        }
+    }
+
+    protected static Map<Identifier, Identifiable> getIdentifiables(
+            Map<MetaData, Map<Identifier, Identifiable>> identifiablesByParent, MetaData parent) {
+        Map<Identifier, Identifiable> identifiables = identifiablesByParent.get(parent);
+        if (identifiables == null) {
+            identifiablesByParent.put(parent, identifiables = newHashMap());
+        }
+        return identifiables;
+    }
+
+    /**
+     * The first object added with the identifier is found by the identifier,
+     * same as the objects are iterated in the order of their addition
+     */
+    protected static void addIdentifiable(Map<Identifier, Identifiable> identifiables, MetaData object) {
+        if (object instanceof Identifiable) {
+            Identifiable identifiable = (Identifiable) object;
+            if (!identifiables.containsKey(identifiable.getIdentifier())) {
+                identifiables.put(identifiable.getIdentifier(), identifiable);
+            }
         }
     }
 
@@ -80,15 +150,23 @@ public class SimpleInspectionResults implements InspectionResults {
     }
 
     @Override
-    public <M extends Identifiable> M getObject(MetaDataType objectType, final Identifier identifier) {
-        Optional<MetaData> identifiable = Iterables.tryFind(objects.get(objectType), new Predicate<MetaData>() {
-            @Override
-            public boolean apply(MetaData object) {
-                return object instanceof Identifiable
-                        && ObjectUtils.equals(((Identifiable) object).getIdentifier(), identifier);
+    public <M extends Identifiable> M getObject(MetaDataType objectType, Identifier identifier) {
+        Map<Identifier, Identifiable> identifiablesByType = identifiables.get(objectType);
+        return identifiablesByType != null ? (M) identifiablesByType.get(identifier) : null;
+    }
+
+    @Override
+    public <M extends Identifiable> M getObject(MetaDataType objectType, MetaData parent, Identifier identifier) {
+        Map<MetaData, Map<Identifier, Identifiable>> identifiablesByParent = scopedIdentifiables.get(objectType);
+        if (identifiablesByParent == null) {
+            identifiablesByParent = newIdentityHashMap();
+            for (MetaData object : objects.get(objectType)) {
+                addScopedIdentifiable(identifiablesByParent, object);
             }
-        });
-        return identifiable.isPresent() ? (M) identifiable.get() : null;
+            scopedIdentifiables.put(objectType, identifiablesByParent);
+        }
+        Map<Identifier, Identifiable> identifiables = identifiablesByParent.get(parent);
+        return identifiables != null ? (M) identifiables.get(identifier) : null;
     }
 
     @Override
@@ -103,6 +181,48 @@ public class SimpleInspectionResults implements InspectionResults {
 
     @Override
     public void removeObject(MetaData object) {
-        objects.remove(object.getObjectType(), object);
+        MetaDataType objectType = object.getObjectType();
+        if (objects.remove(objectType, object)) {
+            if (object instanceof Identifiable) {
+                reindexIdentifiable(objectType, ((Identifiable) object).getIdentifier());
+                reindexScopedIdentifiable(objectType, getParent(object), ((Identifiable) object).getIdentifier());
+            }
+        }
+    }
+
+    /**
+     * Points the identifier to the next object having it, if any is left
+     */
+    protected void reindexIdentifiable(MetaDataType objectType, Identifier identifier) {
+        Map<Identifier, Identifiable> identifiablesByType = getIdentifiables(objectType);
+        identifiablesByType.remove(identifier);
+        for (MetaData object : objects.get(objectType)) {
+            if (object instanceof Identifiable
+                    && ObjectUtils.equals(((Identifiable) object).getIdentifier(), identifier)) {
+                identifiablesByType.put(identifier, (Identifiable) object);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Points the identifier within the parent to the next object of the parent
+     * having it, if the index scoped by parents is built
+     */
+    protected void reindexScopedIdentifiable(MetaDataType objectType, MetaData parent, Identifier identifier) {
+        Map<MetaData, Map<Identifier, Identifiable>> identifiablesByParent = scopedIdentifiables.get(objectType);
+        Map<Identifier, Identifiable> identifiables = identifiablesByParent != null
+                ? identifiablesByParent.get(parent) : null;
+        if (identifiables == null) {
+            return;
+        }
+        identifiables.remove(identifier);
+        for (MetaData object : objects.get(objectType)) {
+            if (object instanceof Identifiable && getParent(object) == parent
+                    && ObjectUtils.equals(((Identifiable) object).getIdentifier(), identifier)) {
+                identifiables.put(identifier, (Identifiable) object);
+                break;
+            }
+        }
     }
 }
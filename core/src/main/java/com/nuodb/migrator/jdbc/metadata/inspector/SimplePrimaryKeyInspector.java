@@ -33,7 +33,9 @@ import com.nuodb.migrator.jdbc.metadata.Table;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 
+import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataType.PRIMARY_KEY;
 import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
 
@@ -56,6 +58,7 @@ public class SimplePrimaryKeyInspector extends TableInspectorBase<Table, TableIn
     @Override
     protected void processResultSet(InspectionContext inspectionContext, ResultSet primaryKeys) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
+        Collection<PrimaryKey> objects = newArrayList();
         while (primaryKeys.next()) {
             Table table = addTable(inspectionResults, primaryKeys.getString("TABLE_CAT"),
                     primaryKeys.getString("TABLE_SCHEM"), primaryKeys.getString("TABLE_NAME"));
@@ -64,10 +67,11 @@ public class SimplePrimaryKeyInspector extends TableInspectorBase<Table, TableIn
             PrimaryKey primaryKey = table.getPrimaryKey();
             if (primaryKey == null) {
                 table.setPrimaryKey(primaryKey = new PrimaryKey(identifier));
-                inspectionResults.addObject(primaryKey);
+                objects.add(primaryKey);
             }
             primaryKey.addColumn(table.addColumn(primaryKeys.getString("COLUMN_NAME")), primaryKeys.getInt("KEY_SEQ"));
         }
+        inspectionResults.addObjects(objects);
     }
 
     @Override
@@ -30,6 +30,25 @@ package com.nuodb.migrator.jdbc.metadata.inspector;
 import com.nuodb.migrator.jdbc.metadata.MetaData;
 import com.nuodb.migrator.jdbc.metadata.MetaDataType;
 import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.utils.aop.AopProxy;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static com.nuodb.migrator.utils.aop.AopProxyUtils.createAopProxy;
+import static com.nuodb.migrator.utils.aop.MethodAdvisors.newMethodAdvisor;
+import static com.nuodb.migrator.utils.aop.MethodMatchers.newMethodMatcher;
+import static java.util.Arrays.asList;
 
 /**
  * @author Sergey Bushik
@@ -38,6 +57,24 @@ import com.nuodb.migrator.jdbc.metadata.Table;
 public abstract class TableInspectorBase<M extends MetaData, T extends TableInspectionScope>
         extends ManagedInspectorBase<M, T> {
 
+    /**
+     * Minimum number of tables of a schema to be inspected with a single schema
+     * wide query
+     */
+    public static final int BULK_INSPECTION_THRESHOLD = 10;
+
+    /**
+     * Minimum share of the tables of a schema in the database to be inspected
+     * with a single schema wide query, as the query reads rows of all tables of
+     * the schema
+     */
+    public static final double BULK_INSPECTION_RATIO = 0.5;
+
+    private static final String NEXT_METHOD = "next";
+
+    private int bulkInspectionThreshold = BULK_INSPECTION_THRESHOLD;
+    private double bulkInspectionRatio = BULK_INSPECTION_RATIO;
+
     public TableInspectorBase(MetaDataType objectType) {
         this(objectType, (Class<? extends T>) TableInspectionScope.class);
     }
@@ -55,6 +92,169 @@ public abstract class TableInspectorBase<M extends MetaData, T extends TableInsp
         return (T) createTableInspectionScope((Table) object);
     }
 
+    /**
+     * Inspects tables of a schema with a single query if the inspector supports
+     * schema wide queries & enough tables of the schema are inspected, the rest
+     * of the tables are inspected one by one
+     */
+    @Override
+    public void inspectObjects(InspectionContext inspectionContext, Collection<? extends M> objects)
+            throws SQLException {
+        if (supportsBulkInspection(inspectionContext)) {
+            inspectScopes(inspectionContext, createBulkInspectionScopes(inspectionContext, objects));
+        } else {
+            super.inspectObjects(inspectionContext, objects);
+        }
+    }
+
+    protected Collection<? extends T> createBulkInspectionScopes(InspectionContext inspectionContext,
+            Collection<? extends M> objects) throws SQLException {
+        Map<List<String>, Collection<M>> tablesBySchema = newLinkedHashMap();
+        Collection<T> inspectionScopes = newArrayList();
+        for (M object : objects) {
+            if (object instanceof Table) {
+                Table table = (Table) object;
+                List<String> schema = asList(table.getCatalog().getName(), table.getSchema().getName());
+                Collection<M> tables = tablesBySchema.get(schema);
+                if (tables == null) {
+                    tablesBySchema.put(schema, tables = newArrayList());
+                }
+                tables.add(object);
+            } else {
+                inspectionScopes.add(createInspectionScope(object));
+            }
+        }
+        for (Map.Entry<List<String>, Collection<M>> entry : tablesBySchema.entrySet()) {
+            List<String> schema = entry.getKey();
+            Collection<M> tables = entry.getValue();
+            if (isBulkInspection(inspectionContext, schema.get(0), schema.get(1), tables)) {
+                Collection<String> names = newArrayList();
+                for (M table : tables) {
+                    names.add(((Table) table).getName());
+                }
+                inspectionScopes.add((T) new BulkTableInspectionScope(schema.get(0), schema.get(1), names));
+            } else {
+                for (M table : tables) {
+                    inspectionScopes.add(createInspectionScope(table));
+                }
+            }
+        }
+        return inspectionScopes;
+    }
+
+    /**
+     * Tables of a schema are inspected with a single query if there are enough
+     * of them & they make up enough of the tables of their schema in the
+     * database, so that the query does not read rows of many tables to be
+     * skipped. Tables of the schema in the model are not counted, as they are
+     * only the tables selected for the inspection.
+     *
+     * @param inspectionContext
+     *            current inspection context
+     * @param catalog
+     *            catalog of the tables
+     * @param schema
+     *            schema of the tables
+     * @param tables
+     *            tables of a single schema to inspect
+     * @return true if the tables are inspected with a schema wide query
+     * @throws SQLException
+     *             on failure to count tables of the schema
+     */
+    protected boolean isBulkInspection(InspectionContext inspectionContext, String catalog, String schema,
+            Collection<M> tables) throws SQLException {
+        if (tables.size() < getBulkInspectionThreshold()) {
+            return false;
+        }
+        return tables.size() >= getTableCount(inspectionContext, catalog, schema) * getBulkInspectionRatio();
+    }
+
+    /**
+     * Counts tables, views & other relations of the schema in the database, as
+     * schema wide queries read rows of all of them
+     */
+    protected int getTableCount(InspectionContext inspectionContext, String catalog, String schema)
+            throws SQLException {
+        ResultSet tables = inspectionContext.getConnection().getMetaData().getTables(catalog, schema, null, null);
+        try {
+            int count = 0;
+            while (tables.next()) {
+                count++;
+            }
+            return count;
+        } finally {
+            closeQuietly(tables);
+        }
+    }
+
+    /**
+     * Overridden by inspectors querying objects of all tables of a schema if
+     * the table of the scope is not set
+     *
+     * @param inspectionContext
+     *            current inspection context
+     * @return true if bulk table scopes are supported
+     * @throws SQLException
+     *             on failure to resolve dialect
+     */
+    protected boolean supportsBulkInspection(InspectionContext inspectionContext) throws SQLException {
+        return false;
+    }
+
+    /**
+     * Skips rows of the tables which are not in the bulk scope
+     */
+    @Override
+    public ResultSet openResultSet(InspectionContext inspectionContext, T inspectionScope, Query query,
+            Statement statement) throws SQLException {
+        ResultSet resultSet = super.openResultSet(inspectionContext, inspectionScope, query, statement);
+        if (resultSet != null && inspectionScope instanceof BulkTableInspectionScope) {
+            resultSet = createBulkResultSet(resultSet, (BulkTableInspectionScope) inspectionScope);
+        }
+        return resultSet;
+    }
+
+    protected ResultSet createBulkResultSet(final ResultSet resultSet,
+            final BulkTableInspectionScope bulkTableInspectionScope) {
+        final String tableNameColumn = getTableNameColumn();
+        AopProxy bulkResultSet = createAopProxy(resultSet, ResultSet.class);
+        bulkResultSet.addAdvisor(newMethodAdvisor(new MethodInterceptor() {
+            @Override
+            public Object invoke(MethodInvocation invocation) throws Throwable {
+                while (resultSet.next()) {
+                    if (bulkTableInspectionScope.hasTable(resultSet.getString(tableNameColumn))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }, newMethodMatcher(ResultSet.class, NEXT_METHOD)));
+        return (ResultSet) bulkResultSet;
+    }
+
+    /**
+     * @return name of the result set column holding table name of a row
+     */
+    protected String getTableNameColumn() {
+        return "TABLE_NAME";
+    }
+
+    public int getBulkInspectionThreshold() {
+        return bulkInspectionThreshold;
+    }
+
+    public void setBulkInspectionThreshold(int bulkInspectionThreshold) {
+        this.bulkInspectionThreshold = bulkInspectionThreshold;
+    }
+
+    public double getBulkInspectionRatio() {
+        return bulkInspectionRatio;
+    }
+
+    public void setBulkInspectionRatio(double bulkInspectionRatio) {
+        this.bulkInspectionRatio = bulkInspectionRatio;
+    }
+
     @Override
     public boolean supportsScope(InspectionContext inspectionContext, InspectionScope inspectionScope) {
         return inspectionScope instanceof TableInspectionScope && supportsScope((TableInspectionScope) inspectionScope);
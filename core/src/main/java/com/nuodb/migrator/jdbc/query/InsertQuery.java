@@ -46,6 +46,7 @@ public class InsertQuery extends QueryBase {
     private Dialect dialect;
     private Table into;
     private Map<Column, String> columns = Maps.newLinkedHashMap();
+    private int rows = 1;
 
     public InsertType getInsertType() {
         return insertType;
@@ -79,6 +80,17 @@ public class InsertQuery extends QueryBase {
         this.columns = columns;
     }
 
+    /**
+     * Number of rows in the VALUES list, each row repeats column values
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    public void setRows(int rows) {
+        this.rows = rows;
+    }
+
     public void addColumn(Column column) {
         addColumn(column, "?");
     }
@@ -103,15 +115,21 @@ public class InsertQuery extends QueryBase {
                     query.append(", ");
                 }
             }
-            query.append(") VALUES (");
-            Iterator<String> values = columns.values().iterator();
-            while (values.hasNext()) {
-                query.append(values.next());
-                if (values.hasNext()) {
+            query.append(") VALUES ");
+            for (int row = 0; row < rows; row++) {
+                if (row > 0) {
                     query.append(", ");
                 }
+                query.append('(');
+                Iterator<String> values = columns.values().iterator();
+                while (values.hasNext()) {
+                    query.append(values.next());
+                    if (values.hasNext()) {
+                        query.append(", ");
+                    }
+                }
+                query.append(')');
             }
-            query.append(')');
         }
     }
 }
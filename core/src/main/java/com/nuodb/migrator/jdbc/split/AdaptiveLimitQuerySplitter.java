@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.split;
+
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.query.ParametersBinder;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static com.nuodb.migrator.jdbc.query.QueryLimitUtils.getCount;
+import static com.nuodb.migrator.jdbc.query.QueryLimitUtils.getOffset;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Limit splitter planned on an estimated row count, such as the one read from
+ * catalog statistics. Splits covering the estimate are emitted upfront, then
+ * the splitter keeps extending past the estimate for as long as the last
+ * planned split comes back full, doubling the number of extra splits each
+ * time. Unlike {@link LimitQuerySplitter} the exact row count is never
+ * required, so no counting pass stands before the first split.
+ */
+public class AdaptiveLimitQuerySplitter extends LimitQuerySplitter {
+
+    private long splits = -1;
+    private long extension = 1;
+    private long lastSplit = Long.MAX_VALUE;
+
+    protected AdaptiveLimitQuerySplitter(Dialect dialect, RowCountStrategy rowCountStrategy, Query query,
+            QueryLimit queryLimit, ParametersBinder parametersBinder) {
+        super(dialect, rowCountStrategy, query, queryLimit, parametersBinder);
+    }
+
+    @Override
+    protected boolean hasNextQuerySplit(Connection connection, int splitIndex) throws SQLException {
+        return splitIndex < getSplits(connection);
+    }
+
+    @Override
+    protected QueryLimit createQueryLimit(Connection connection, int splitIndex) throws SQLException {
+        QueryLimit queryLimit = getQueryLimit();
+        return new QueryLimit(getCount(queryLimit), splitIndex * getCount(queryLimit) + getOffset(queryLimit));
+    }
+
+    protected long getSplits(Connection connection) throws SQLException {
+        if (splits < 0) {
+            long count = getCount(getQueryLimit());
+            long rowCount = max(getRowCount(connection) - getOffset(getQueryLimit()), 0);
+            splits = count > 0 ? max(rowCount / count + (rowCount % count != 0 ? 1 : 0), 1) : 1;
+        }
+        return splits;
+    }
+
+    /**
+     * Reports number of rows read by the given split and extends the plan if
+     * the split was the last planned one and it was full, meaning that the
+     * estimate was low and more rows follow. A split coming back short marks
+     * the end of the rows, the splits planned past it are skipped.
+     *
+     * @param querySplit
+     *            completed split
+     * @param rowCount
+     *            number of rows the split returned
+     * @return true if more splits were planned
+     */
+    public boolean querySplitDone(QuerySplit querySplit, long rowCount) {
+        int splitIndex = querySplit.getSplitIndex();
+        if (rowCount < getCount(getQueryLimit())) {
+            lastSplit = min(lastSplit, splitIndex);
+            return false;
+        } else if (splitIndex == splits - 1) {
+            splits += extension;
+            extension *= 2;
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Splits past the one which came back short are not read, as the estimate
+     * was high and they would return no rows
+     *
+     * @param querySplit
+     *            split to be read
+     * @return true if the split should be skipped
+     */
+    public boolean isQuerySplitSkipped(QuerySplit querySplit) {
+        return querySplit.getSplitIndex() > lastSplit;
+    }
+}
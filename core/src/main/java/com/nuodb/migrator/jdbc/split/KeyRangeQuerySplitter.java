@@ -0,0 +1,310 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.split;
+
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.ParametersBinder;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.jdbc.query.SelectQueryBuilder;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+
+import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static com.nuodb.migrator.jdbc.query.QueryLimitUtils.getCount;
+import static java.math.BigInteger.ONE;
+import static java.math.BigInteger.valueOf;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Splits a table on the ranges of its single column integral key. The key bounds are selected once with
+ * {@code SELECT MIN(key), MAX(key)} and each split reads {@code key >= ? AND key < ?}, so a split costs an index
+ * range scan wherever it falls in the table, unlike {@link LimitQuerySplitter} where split N makes the source skip N
+ * pages of rows first.
+ * <p/>
+ * The range width is derived from the row count, so that on a dense key every split holds about query limit rows.
+ * If the row count is unknown the key is assumed to be dense and the width equals the query limit. Either way the
+ * number of splits is capped at {@link #MAX_SPLITS}, so a sparse key space never yields more splits than that.
+ */
+public class KeyRangeQuerySplitter extends QuerySplitterBase<PreparedStatement> {
+
+    public static final long MAX_SPLITS = 10000;
+
+    private final Dialect dialect;
+    private final RowCountStrategy rowCountStrategy;
+    private final Table table;
+    private final Column key;
+    private final String filter;
+    private final String rangeQuery;
+    private final String lastRangeQuery;
+
+    private boolean bounds;
+    private BigInteger minKey;
+    private BigInteger maxKey;
+    private BigInteger width;
+
+    protected KeyRangeQuerySplitter(Dialect dialect, RowCountStrategy rowCountStrategy, Table table, Column key,
+            Collection<Column> columns, String filter, QueryLimit queryLimit, ParametersBinder parametersBinder) {
+        super(createQuery(dialect, table, columns, filter, null), queryLimit, parametersBinder);
+        this.dialect = dialect;
+        this.rowCountStrategy = rowCountStrategy;
+        this.table = table;
+        this.key = key;
+        this.filter = filter;
+        String name = key.getName(dialect);
+        this.rangeQuery = createQuery(dialect, table, columns, filter,
+                name + ">=? AND " + name + "<?").toString();
+        this.lastRangeQuery = createQuery(dialect, table, columns, filter, name + ">=?").toString();
+    }
+
+    protected static Query createQuery(Dialect dialect, Table table, Collection<Column> columns, String filter,
+            String range) {
+        SelectQueryBuilder builder = new SelectQueryBuilder();
+        builder.dialect(dialect);
+        builder.from(table);
+        if (columns != null) {
+            for (Column column : columns) {
+                builder.column(column);
+            }
+        }
+        if (!isEmpty(filter)) {
+            builder.filter(getFilter(filter));
+        }
+        if (range != null) {
+            builder.filter(range);
+        }
+        return builder.build();
+    }
+
+    @Override
+    protected boolean hasNextQuerySplit(Connection connection, int splitIndex) throws SQLException {
+        initBounds(connection);
+        return splitIndex == 0 || (minKey != null && getLowerBound(splitIndex).compareTo(maxKey) <= 0);
+    }
+
+    protected void initBounds(Connection connection) throws SQLException {
+        if (bounds) {
+            return;
+        }
+        Statement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = connection.createStatement();
+            resultSet = statement.executeQuery(createBoundsQuery().toString());
+            if (resultSet.next()) {
+                minKey = toBigInteger(resultSet.getBigDecimal(1));
+                maxKey = toBigInteger(resultSet.getBigDecimal(2));
+            }
+        } finally {
+            closeQuietly(resultSet);
+            closeQuietly(statement);
+        }
+        if (minKey != null && maxKey != null) {
+            width = getWidth(minKey, maxKey, getCount(getQueryLimit()),
+                    rowCountStrategy != null ? rowCountStrategy.getRowCount(connection) : -1);
+        } else {
+            minKey = maxKey = null;
+        }
+        bounds = true;
+    }
+
+    protected Query createBoundsQuery() {
+        String name = key.getName(dialect);
+        SelectQueryBuilder builder = new SelectQueryBuilder();
+        builder.dialect(dialect);
+        builder.from(table);
+        builder.column("MIN(" + name + ")");
+        builder.column("MAX(" + name + ")");
+        if (!isEmpty(filter)) {
+            builder.filter(getFilter(filter));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Encloses user filter in parentheses, as filters are joined with AND and
+     * the filter may contain OR of its own
+     */
+    protected static String getFilter(String filter) {
+        return "(" + filter + ")";
+    }
+
+    /**
+     * Width of a key range holding about {@code count} of {@code rowCount} rows spread evenly over
+     * {@code [minKey, maxKey]}. Negative row count means the row count is unknown and the key is assumed to be dense.
+     * The width is never narrower than the one splitting the range into {@link #MAX_SPLITS}.
+     */
+    protected static BigInteger getWidth(BigInteger minKey, BigInteger maxKey, long count, long rowCount) {
+        BigInteger range = maxKey.subtract(minKey).add(ONE);
+        if (count <= 0) {
+            return range;
+        }
+        BigInteger minWidth = divide(range, MAX_SPLITS);
+        if (rowCount < 0) {
+            return valueOf(count).max(minWidth);
+        }
+        long splits = rowCount / count + (rowCount % count != 0 ? 1 : 0);
+        if (splits <= 1) {
+            return range;
+        }
+        return divide(range, splits).max(minWidth);
+    }
+
+    /**
+     * Divides range rounding up, so that the range holds at most the given number of splits
+     */
+    private static BigInteger divide(BigInteger range, long splits) {
+        BigInteger[] width = range.divideAndRemainder(valueOf(splits));
+        return width[1].signum() != 0 ? width[0].add(ONE) : width[0].max(ONE);
+    }
+
+    protected static BigInteger toBigInteger(BigDecimal value) {
+        return value != null ? value.toBigInteger() : null;
+    }
+
+    protected BigInteger getLowerBound(int splitIndex) {
+        return minKey.add(width.multiply(valueOf(splitIndex)));
+    }
+
+    protected BigInteger getUpperBound(int splitIndex) {
+        BigInteger upperBound = getLowerBound(splitIndex + 1);
+        return upperBound.compareTo(maxKey) <= 0 ? upperBound : null;
+    }
+
+    @Override
+    protected QueryLimit createQueryLimit(Connection connection, int splitIndex) throws SQLException {
+        return null;
+    }
+
+    /**
+     * Bounds of the key range read by the split, an open upper bound of the
+     * last split is left empty
+     */
+    @Override
+    protected String getBounds(QueryLimit queryLimit, int splitIndex) {
+        if (minKey == null) {
+            return null;
+        }
+        BigInteger upperBound = getUpperBound(splitIndex);
+        return getLowerBound(splitIndex) + "," + (upperBound != null ? upperBound : "");
+    }
+
+    @Override
+    public boolean isParameterized() {
+        return true;
+    }
+
+    @Override
+    protected PreparedStatement createStatement(Connection connection, QueryLimit queryLimit, int splitIndex)
+            throws SQLException {
+        return prepareStatement(connection, queryLimit, splitIndex);
+    }
+
+    @Override
+    protected PreparedStatement prepareStatement(Connection connection, QueryLimit queryLimit, int splitIndex)
+            throws SQLException {
+        ParametersBinder rangeBinder = createRangeBinder(splitIndex);
+        PreparedStatement statement = connection.prepareStatement(getQuery(splitIndex));
+        int column = 1;
+        ParametersBinder parametersBinder = getParametersBinder();
+        if (parametersBinder != null) {
+            column += parametersBinder.bindParameters(statement, column);
+        }
+        if (rangeBinder != null) {
+            column += rangeBinder.bindParameters(statement, column);
+        }
+        return statement;
+    }
+
+    protected String getQuery(int splitIndex) {
+        if (minKey == null) {
+            return getQuery().toString();
+        } else {
+            return getUpperBound(splitIndex) != null ? rangeQuery : lastRangeQuery;
+        }
+    }
+
+    protected ParametersBinder createRangeBinder(int splitIndex) {
+        if (minKey == null) {
+            return null;
+        }
+        final BigInteger lowerBound = getLowerBound(splitIndex);
+        final BigInteger upperBound = getUpperBound(splitIndex);
+        return new ParametersBinder() {
+            @Override
+            public int bindParameters(PreparedStatement statement, int column) throws SQLException {
+                bindKey(statement, column, lowerBound);
+                if (upperBound != null) {
+                    bindKey(statement, column + 1, upperBound);
+                    return 2;
+                } else {
+                    return 1;
+                }
+            }
+        };
+    }
+
+    protected void bindKey(PreparedStatement statement, int column, BigInteger value) throws SQLException {
+        if (value.bitLength() < Long.SIZE) {
+            statement.setLong(column, value.longValue());
+        } else {
+            statement.setBigDecimal(column, new BigDecimal(value));
+        }
+    }
+
+    @Override
+    protected ResultSet executeStatement(PreparedStatement statement, QueryLimit queryLimit, int splitIndex)
+            throws SQLException {
+        return statement.executeQuery();
+    }
+
+    public Dialect getDialect() {
+        return dialect;
+    }
+
+    public RowCountStrategy getRowCountStrategy() {
+        return rowCountStrategy;
+    }
+
+    public Table getTable() {
+        return table;
+    }
+
+    public Column getKey() {
+        return key;
+    }
+}
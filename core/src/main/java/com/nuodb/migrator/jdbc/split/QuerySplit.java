@@ -46,6 +46,15 @@ public interface QuerySplit {
 
     QueryLimit getQueryLimit();
 
+    /**
+     * Describes rows read by the split, such as its offset & count or its key
+     * range, so that a split dumped by a previous run is reused only if it
+     * reads the same rows
+     *
+     * @return bounds of the split or null if the split is not bounded
+     */
+    String getBounds();
+
     ResultSet getResultSet() throws SQLException;
 
     ResultSet getResultSet(Connection connection) throws SQLException;
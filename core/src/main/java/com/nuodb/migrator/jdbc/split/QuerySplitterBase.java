@@ -37,6 +37,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import static com.nuodb.migrator.jdbc.query.QueryLimitUtils.getCount;
+import static com.nuodb.migrator.jdbc.query.QueryLimitUtils.getOffset;
+
 /**
  * @author Sergey Bushik
  */
@@ -100,6 +103,7 @@ public abstract class QuerySplitterBase<S extends Statement> implements QuerySpl
 
     protected QuerySplit createQuerySplit(final Connection connection, final StatementCallback<S> callback,
             final QueryLimit queryLimit, final int splitIndex) throws SQLException {
+        final String bounds = getBounds(queryLimit, splitIndex);
         return new QuerySplit() {
             @Override
             public int getSplitIndex() {
@@ -116,6 +120,11 @@ public abstract class QuerySplitterBase<S extends Statement> implements QuerySpl
                 return queryLimit;
             }
 
+            @Override
+            public String getBounds() {
+                return bounds;
+            }
+
             @Override
             public ResultSet getResultSet() throws SQLException {
                 return getResultSet(connection);
@@ -138,6 +147,19 @@ public abstract class QuerySplitterBase<S extends Statement> implements QuerySpl
         };
     }
 
+    /**
+     * Bounds of the split limited with offset & count
+     *
+     * @param queryLimit
+     *            limit of the split
+     * @param splitIndex
+     *            index of the split
+     * @return offset & count of the split or null if the split is not limited
+     */
+    protected String getBounds(QueryLimit queryLimit, int splitIndex) {
+        return queryLimit != null ? getOffset(queryLimit) + "," + getCount(queryLimit) : null;
+    }
+
     public boolean isParameterized() {
         return parametersBinder != null;
     }
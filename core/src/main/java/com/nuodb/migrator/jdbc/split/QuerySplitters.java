@@ -28,13 +28,22 @@
 package com.nuodb.migrator.jdbc.split;
 
 import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.PrimaryKey;
 import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.query.Query;
 
+import java.sql.PreparedStatement;
 import java.sql.Statement;
+import java.sql.Types;
+import java.util.Collection;
 
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.nuodb.migrator.jdbc.dialect.RowCountType.APPROX;
 import static com.nuodb.migrator.jdbc.dialect.RowCountType.EXACT;
+import static com.nuodb.migrator.jdbc.query.QueryLimitUtils.getOffset;
+import static com.nuodb.migrator.jdbc.query.QueryLimitUtils.hasCount;
 
 /**
  * Static factories for creating query splitters.
@@ -47,11 +56,60 @@ public class QuerySplitters {
         return dialect.supportsLimitOffset() && dialect.supportsRowCount(table, null, filter, EXACT);
     }
 
+    public static boolean supportsAdaptiveLimitSplitter(Dialect dialect, Table table, String filter) {
+        return dialect.supportsLimitOffset() && dialect.supportsRowCount(table, null, filter, APPROX);
+    }
+
     public static QuerySplitter<Statement> newLimitSplitter(Dialect dialect, RowCountStrategy rowCountStrategy,
             Query query, QueryLimit queryLimit) {
         return new LimitQuerySplitter(dialect, rowCountStrategy, query, queryLimit, null);
     }
 
+    /**
+     * Creates splitter planned on the estimated row count which extends itself
+     * past the estimate, see {@link AdaptiveLimitQuerySplitter}
+     */
+    public static QuerySplitter<Statement> newAdaptiveLimitSplitter(Dialect dialect,
+            RowCountStrategy rowCountStrategy, Query query, QueryLimit queryLimit) {
+        return new AdaptiveLimitQuerySplitter(dialect, rowCountStrategy, query, queryLimit, null);
+    }
+
+    /**
+     * Key range splitting requires a primary key on a single integral column and no query offset, which has no
+     * meaning for key ranges.
+     */
+    public static boolean supportsKeyRangeSplitter(Table table, QueryLimit queryLimit) {
+        return hasCount(queryLimit) && getOffset(queryLimit) == 0 && getKeyRangeColumn(table) != null;
+    }
+
+    public static Column getKeyRangeColumn(Table table) {
+        PrimaryKey primaryKey = table.getPrimaryKey();
+        Collection<Column> columns = primaryKey != null ? primaryKey.getColumns() : null;
+        if (columns == null || columns.size() != 1) {
+            return null;
+        }
+        Column column = getOnlyElement(columns);
+        switch (column.getTypeCode()) {
+        case Types.TINYINT:
+        case Types.SMALLINT:
+        case Types.INTEGER:
+        case Types.BIGINT:
+            return column;
+        case Types.NUMERIC:
+        case Types.DECIMAL:
+            return column.getScale() != null && column.getScale() == 0 ? column : null;
+        default:
+            return null;
+        }
+    }
+
+    public static QuerySplitter<PreparedStatement> newKeyRangeSplitter(Dialect dialect,
+            RowCountStrategy rowCountStrategy, Table table, Collection<Column> columns, String filter,
+            QueryLimit queryLimit) {
+        return new KeyRangeQuerySplitter(dialect, rowCountStrategy, table, getKeyRangeColumn(table), columns, filter,
+                queryLimit, null);
+    }
+
     public static QuerySplitter<Statement> newNoLimitSplitter(Query query) {
         return new NoLimitQuerySplitter(query, null);
     }
@@ -74,6 +74,23 @@ public class RowCountStrategies {
         };
     }
 
+    /**
+     * Falls back to the second strategy, if the first one returns unknown row
+     * count, such as an estimate of a table which statistics were never
+     * collected
+     */
+    public static RowCountStrategy newFallbackStrategy(final RowCountStrategy rowCountStrategy,
+            final RowCountStrategy fallbackStrategy) {
+        return new RowCountStrategy() {
+
+            @Override
+            public long getRowCount(Connection connection) throws SQLException {
+                long rowCount = rowCountStrategy.getRowCount(connection);
+                return rowCount >= 0 ? rowCount : fallbackStrategy.getRowCount(connection);
+            }
+        };
+    }
+
     public static RowCountStrategy newHandlerStrategy(final RowCountHandler rowCountHandler) {
         return new RowCountStrategy() {
 
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.type;
+
+/**
+ * Remembers the adapter last resolved for a value class, since values of a
+ * column are requested & bound as the same class the registry is consulted only
+ * when the class changes rather than for every value
+ */
+class JdbcTypeAdapterCache {
+
+    private final JdbcTypeRegistry jdbcTypeRegistry;
+    private final Class typeClass;
+    private Entry entry;
+
+    JdbcTypeAdapterCache(JdbcTypeRegistry jdbcTypeRegistry, Class typeClass) {
+        this.jdbcTypeRegistry = jdbcTypeRegistry;
+        this.typeClass = typeClass;
+    }
+
+    JdbcTypeAdapter getJdbcTypeAdapter(Class valueClass) {
+        Entry entry = this.entry;
+        if (entry == null || entry.valueClass != valueClass) {
+            entry = new Entry(valueClass, jdbcTypeRegistry.getJdbcTypeAdapter(valueClass, typeClass));
+            this.entry = entry;
+        }
+        return entry.jdbcTypeAdapter;
+    }
+
+    /**
+     * Immutable, so that an entry written by one thread is always seen whole by
+     * another one sharing the cache
+     */
+    private static class Entry {
+
+        private final Class valueClass;
+        private final JdbcTypeAdapter jdbcTypeAdapter;
+
+        private Entry(Class valueClass, JdbcTypeAdapter jdbcTypeAdapter) {
+            this.valueClass = valueClass;
+            this.jdbcTypeAdapter = jdbcTypeAdapter;
+        }
+    }
+}
@@ -42,10 +42,12 @@ public class SimpleJdbcValueGetter<T> implements JdbcValueGetter<T> {
 
     private final JdbcTypeRegistry jdbcTypeRegistry;
     private final JdbcTypeValue<T> jdbcTypeValue;
+    private final JdbcTypeAdapterCache jdbcTypeAdapterCache;
 
     public SimpleJdbcValueGetter(JdbcTypeRegistry jdbcTypeRegistry, JdbcTypeValue<T> jdbcTypeValue) {
         this.jdbcTypeRegistry = jdbcTypeRegistry;
         this.jdbcTypeValue = jdbcTypeValue;
+        this.jdbcTypeAdapterCache = new JdbcTypeAdapterCache(jdbcTypeRegistry, jdbcTypeValue.getValueClass());
     }
 
     @Override
@@ -58,7 +60,7 @@ public class SimpleJdbcValueGetter<T> implements JdbcValueGetter<T> {
     public <X> X getValue(ResultSet resultSet, Connection connection, int columnIndex, Field field, Class<X> valueClass,
             Map<String, Object> options) throws SQLException {
         X value = (X) jdbcTypeValue.getValue(resultSet, columnIndex, field, options);
-        JdbcTypeAdapter<X> adapter = jdbcTypeRegistry.getJdbcTypeAdapter(valueClass, jdbcTypeValue.getValueClass());
+        JdbcTypeAdapter<X> adapter = jdbcTypeAdapterCache.getJdbcTypeAdapter(valueClass);
         if (adapter != null) {
             value = adapter.unwrap(value, valueClass, connection);
         }
@@ -29,6 +29,8 @@ package com.nuodb.migrator.jdbc.type;
 
 import com.nuodb.migrator.jdbc.model.Field;
 
+import java.io.InputStream;
+import java.io.Reader;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -42,17 +44,26 @@ public class SimpleJdbcValueSetter implements JdbcValueSetter {
 
     private final JdbcTypeRegistry jdbcTypeRegistry;
     private final JdbcTypeValue jdbcTypeValue;
+    private final JdbcTypeAdapterCache jdbcTypeAdapterCache;
 
     public SimpleJdbcValueSetter(JdbcTypeRegistry jdbcTypeRegistry, JdbcTypeValue jdbcTypeValue) {
         this.jdbcTypeRegistry = jdbcTypeRegistry;
         this.jdbcTypeValue = jdbcTypeValue;
+        this.jdbcTypeAdapterCache = new JdbcTypeAdapterCache(jdbcTypeRegistry, jdbcTypeValue.getValueClass());
     }
 
     @Override
     public <X> void setValue(PreparedStatement statement, Connection connection, int index, Field field, X value,
             Map<String, Object> options) throws SQLException {
-        JdbcTypeAdapter<X> adapter = jdbcTypeRegistry.getJdbcTypeAdapter(value != null ? value.getClass() : null,
-                jdbcTypeValue.getValueClass());
+        if (value instanceof InputStream) {
+            statement.setBinaryStream(index, (InputStream) value);
+            return;
+        } else if (value instanceof Reader) {
+            statement.setCharacterStream(index, (Reader) value);
+            return;
+        }
+        JdbcTypeAdapter<X> adapter = jdbcTypeAdapterCache
+                .getJdbcTypeAdapter(value != null ? value.getClass() : null);
         if (adapter != null) {
             value = adapter.wrap(value, connection);
         }
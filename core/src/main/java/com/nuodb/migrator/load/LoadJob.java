@@ -35,8 +35,11 @@ import com.nuodb.migrator.jdbc.metadata.filter.MetaDataFilterManager;
 import com.nuodb.migrator.jdbc.query.InsertType;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
 import com.nuodb.migrator.job.ScriptGeneratorJobBase;
+import com.nuodb.migrator.metrics.MetricRegistry;
+import com.nuodb.migrator.metrics.ProgressReporter;
 import com.nuodb.migrator.spec.ConnectionSpec;
 import com.nuodb.migrator.spec.LoadJobSpec;
+import com.nuodb.migrator.spec.MetricsSpec;
 import com.nuodb.migrator.spec.MigrationMode;
 import com.nuodb.migrator.spec.ResourceSpec;
 
@@ -44,9 +47,14 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.TimeZone;
 
+import static com.nuodb.migrator.backup.loader.BackupLoader.CONSTRAINT_THREADS;
+import static com.nuodb.migrator.backup.loader.BackupLoader.INSERT_ROWS;
 import static com.nuodb.migrator.backup.loader.BackupLoader.THREADS;
 import static com.nuodb.migrator.jdbc.session.SessionFactories.newSessionFactory;
 import static com.nuodb.migrator.jdbc.session.SessionObservers.newSessionTimeZoneSetter;
+import static com.nuodb.migrator.metrics.Metrics.LOAD_BYTES;
+import static com.nuodb.migrator.metrics.Metrics.LOAD_ROWS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * @author Sergey Bushik
@@ -55,6 +63,7 @@ import static com.nuodb.migrator.jdbc.session.SessionObservers.newSessionTimeZon
 public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
 
     private BackupLoader backupLoader;
+    private ProgressReporter progressReporter;
 
     public LoadJob(LoadJobSpec jobSpec) {
         super(jobSpec);
@@ -71,17 +80,21 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         backupLoader.setCommitStrategy(getCommitStrategy());
         backupLoader.setDialectResolver(createDialectResolver());
         backupLoader.setFormatAttributes(getFormatAttributes());
+        backupLoader.setConstraintThreads(getConstraintThreads() != null ? getConstraintThreads() : CONSTRAINT_THREADS);
+        backupLoader.setDeferConstraints(isDeferConstraints());
         backupLoader.setFormatFactory(createFormatFactory());
         backupLoader.setJdbcTypeSpecs(getJdbcTypeSpecs());
         backupLoader.setGroupScriptsBy(getGroupScriptsBy());
         backupLoader.setIdentifierNormalizer(getIdentifierNormalizer());
         backupLoader.setIdentifierQuoting(getIdentifierQuoting());
         backupLoader.setInsertTypeFactory(createInsertTypeMapper());
+        backupLoader.setInsertRows(getInsertRows() != null ? getInsertRows() : INSERT_ROWS);
         backupLoader.setInspectionManager(createInspectionManager());
         backupLoader.setMetaDataSpec(getMetaDataSpec());
         backupLoader.setMigrationModes(getMigrationModes());
         backupLoader.setNamingStrategies(getNamingStrategies());
         backupLoader.setParallelizer(getParallelizer());
+        backupLoader.setResume(isResume());
         backupLoader.setScriptTypes(getScriptTypes());
         backupLoader.setMetaDataFilterManager(getMetaDataFilterManager());
         backupLoader.setTargetSpec(getTargetSpec());
@@ -90,9 +103,30 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         backupLoader.setThreads(getThreads() != null ? getThreads() : THREADS);
         backupLoader.setTranslationConfig(getTranslationConfig());
         backupLoader.setValueFormatRegistryResolver(createValueFormatRegistryResolver());
+        if (getMetricsSpec() != null) {
+            MetricRegistry metricRegistry = new MetricRegistry();
+            backupLoader.setMetricRegistry(metricRegistry);
+            setProgressReporter(createProgressReporter(metricRegistry));
+        }
         setBackupLoader(backupLoader);
     }
 
+    /**
+     * Creates progress reporter of the metrics collected by the job
+     *
+     * @param metricRegistry
+     *            registry of the job metrics
+     * @return progress reporter
+     */
+    protected ProgressReporter createProgressReporter(MetricRegistry metricRegistry) {
+        MetricsSpec metricsSpec = getMetricsSpec();
+        ProgressReporter progressReporter = new ProgressReporter(metricRegistry, LOAD_ROWS, LOAD_BYTES);
+        Integer interval = metricsSpec.getInterval();
+        progressReporter.setInterval(interval != null ? SECONDS.toMillis(interval) : 0);
+        progressReporter.setOutput(metricsSpec.getOutput());
+        return progressReporter;
+    }
+
     protected InsertTypeFactory createInsertTypeMapper() {
         return new SimpleInsertTypeFactory(getInsertType(), getTableInsertTypes());
     }
@@ -106,6 +140,10 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
 
     @Override
     public void execute() throws Exception {
+        ProgressReporter progressReporter = getProgressReporter();
+        if (progressReporter != null) {
+            progressReporter.start();
+        }
         try {
             BackupLoader backupLoader = getBackupLoader();
             backupLoader.load(getPath());
@@ -113,6 +151,10 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
             throw exception;
         } catch (Exception exception) {
             throw new LoadException(exception);
+        } finally {
+            if (progressReporter != null) {
+                progressReporter.close();
+            }
         }
     }
 
@@ -128,6 +170,14 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         this.backupLoader = backupLoader;
     }
 
+    public ProgressReporter getProgressReporter() {
+        return progressReporter;
+    }
+
+    public void setProgressReporter(ProgressReporter progressReporter) {
+        this.progressReporter = progressReporter;
+    }
+
     protected Collection<BackupLoaderListener> getListeners() {
         return getJobSpec().getListeners();
     }
@@ -136,6 +186,14 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         return getJobSpec().getCommitStrategy();
     }
 
+    protected Integer getConstraintThreads() {
+        return getJobSpec().getConstraintThreads();
+    }
+
+    protected boolean isDeferConstraints() {
+        return getJobSpec().isDeferConstraints();
+    }
+
     protected Map<String, Object> getFormatAttributes() {
         return getInputSpec().getAttributes();
     }
@@ -160,6 +218,14 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         return getJobSpec().getInsertType();
     }
 
+    protected Integer getInsertRows() {
+        return getJobSpec().getInsertRows();
+    }
+
+    protected boolean isResume() {
+        return getJobSpec().isResume();
+    }
+
     protected Parallelizer getParallelizer() {
         return getJobSpec().getParallelizer();
     }
@@ -183,4 +249,8 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
     protected Integer getThreads() {
         return getJobSpec().getThreads();
     }
-}
\ No newline at end of file
+
+    protected MetricsSpec getMetricsSpec() {
+        return getJobSpec().getMetricsSpec();
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.metrics;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.System.currentTimeMillis;
+
+/**
+ * Exports metrics as a JSON document with counters and histogram summaries,
+ * durations are in nanoseconds
+ */
+public class JsonMetricsExporter implements MetricsExporter {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Override
+    public void export(MetricRegistry metricRegistry, Writer writer) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(writer);
+        generator.useDefaultPrettyPrinter();
+        generator.writeStartObject();
+        generator.writeNumberField("timestamp", currentTimeMillis());
+        generator.writeNumberField("start.time", metricRegistry.getStartTime());
+        generator.writeNumberField("expected.rows", metricRegistry.getExpectedRows());
+        generator.writeArrayFieldStart("counters");
+        for (Map.Entry<MetricName, LongAdder> counter : metricRegistry.getCounters().entrySet()) {
+            generator.writeStartObject();
+            writeName(generator, counter.getKey());
+            generator.writeNumberField("value", counter.getValue().sum());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("histograms");
+        for (Map.Entry<MetricName, Histogram> entry : metricRegistry.getHistograms().entrySet()) {
+            Histogram histogram = entry.getValue();
+            generator.writeStartObject();
+            writeName(generator, entry.getKey());
+            generator.writeNumberField("count", histogram.getCount());
+            generator.writeNumberField("sum", histogram.getSum());
+            generator.writeNumberField("max", histogram.getMax());
+            generator.writeNumberField("p50", histogram.getPercentile(0.5));
+            generator.writeNumberField("p90", histogram.getPercentile(0.9));
+            generator.writeNumberField("p99", histogram.getPercentile(0.99));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    protected void writeName(JsonGenerator generator, MetricName metricName) throws IOException {
+        generator.writeStringField("name", metricName.getName());
+        String[] labels = metricName.getLabels();
+        if (labels.length > 0) {
+            generator.writeObjectFieldStart("labels");
+            for (int label = 0; label < labels.length - 1; label += 2) {
+                generator.writeStringField(labels[label], labels[label + 1]);
+            }
+            generator.writeEndObject();
+        }
+    }
+}
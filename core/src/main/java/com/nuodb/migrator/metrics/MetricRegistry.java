@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.metrics;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.System.currentTimeMillis;
+
+/**
+ * Registry of striped counters & latency histograms collected while rows are
+ * dumped or loaded. Workers look up the metrics they update once and keep
+ * references to them, so that updating a metric is allocation & lock free.
+ */
+public class MetricRegistry {
+
+    private final ConcurrentMap<MetricName, LongAdder> counters = new ConcurrentHashMap<MetricName, LongAdder>();
+    private final ConcurrentMap<MetricName, Histogram> histograms = new ConcurrentHashMap<MetricName, Histogram>();
+    private final LongAdder expectedRows = new LongAdder();
+    private final long startTime = currentTimeMillis();
+
+    public LongAdder getCounter(String name, String... labels) {
+        MetricName metricName = new MetricName(name, labels);
+        LongAdder counter = counters.get(metricName);
+        if (counter == null) {
+            LongAdder newCounter = new LongAdder();
+            counter = counters.putIfAbsent(metricName, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+        return counter;
+    }
+
+    public Histogram getHistogram(String name, String... labels) {
+        MetricName metricName = new MetricName(name, labels);
+        Histogram histogram = histograms.get(metricName);
+        if (histogram == null) {
+            Histogram newHistogram = new Histogram();
+            histogram = histograms.putIfAbsent(metricName, newHistogram);
+            if (histogram == null) {
+                histogram = newHistogram;
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Counters sorted by their names
+     */
+    public SortedMap<MetricName, LongAdder> getCounters() {
+        return new TreeMap<MetricName, LongAdder>(counters);
+    }
+
+    /**
+     * Histograms sorted by their names
+     */
+    public SortedMap<MetricName, Histogram> getHistograms() {
+        return new TreeMap<MetricName, Histogram>(histograms);
+    }
+
+    /**
+     * Adds number of rows expected to be processed, which is used to estimate
+     * time left
+     *
+     * @param rows
+     *            number of rows
+     */
+    public void addExpectedRows(long rows) {
+        expectedRows.add(rows);
+    }
+
+    public long getExpectedRows() {
+        return expectedRows.sum();
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.metrics;
+
+/**
+ * Names of the metrics collected by dump & load
+ */
+public interface Metrics {
+
+    final String DUMP_ROWS = "dump.rows";
+    final String DUMP_BYTES = "dump.bytes";
+    final String DUMP_FETCH = "dump.fetch";
+    final String DUMP_ENCODE = "dump.encode";
+    final String DUMP_WRITE = "dump.write";
+    final String DUMP_FETCH_STALLS = "dump.fetch.stalls";
+    final String DUMP_FETCH_STALL = "dump.fetch.stall";
+    final String DUMP_WRITE_STALLS = "dump.write.stalls";
+    final String DUMP_WRITE_STALL = "dump.write.stall";
+
+    final String LOAD_ROWS = "load.rows";
+    final String LOAD_BYTES = "load.bytes";
+    final String LOAD_DECODE = "load.decode";
+    final String LOAD_BIND = "load.bind";
+    final String LOAD_EXECUTE_BATCH = "load.execute.batch";
+    final String LOAD_COMMIT = "load.commit";
+
+    final String TABLE = "table";
+    final String THREAD = "thread";
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.metrics;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.Math.max;
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.file.Files.move;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.apache.commons.io.FileUtils.byteCountToDisplaySize;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Periodically logs number of processed rows, current throughput and time
+ * left estimated from the expected number of rows, and exports metrics to a
+ * file, which is replaced atomically so that a file collector never reads a
+ * partially written snapshot. The last report & export are made on close.
+ */
+public class ProgressReporter implements Runnable, Closeable {
+
+    protected final transient Logger logger = getLogger(getClass());
+
+    private final MetricRegistry metricRegistry;
+    private final LongAdder rows;
+    private final LongAdder bytes;
+    private long interval;
+    private String output;
+    private MetricsExporter metricsExporter;
+    private ScheduledExecutorService executor;
+    private long lastTime;
+    private long lastRows;
+    private long lastBytes;
+
+    public ProgressReporter(MetricRegistry metricRegistry, String rows, String bytes) {
+        this.metricRegistry = metricRegistry;
+        this.rows = metricRegistry.getCounter(rows);
+        this.bytes = metricRegistry.getCounter(bytes);
+    }
+
+    /**
+     * Creates metrics exporter by the extension of the output file, JSON for
+     * .json files and Prometheus text format otherwise
+     *
+     * @param output
+     *            path to the file metrics are exported to
+     * @return metrics exporter
+     */
+    public static MetricsExporter createMetricsExporter(String output) {
+        return output.toLowerCase().endsWith(".json") ? new JsonMetricsExporter() : new PrometheusMetricsExporter();
+    }
+
+    public void start() {
+        lastTime = metricRegistry.getStartTime();
+        if (interval > 0) {
+            executor = newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("progress-reporter").setDaemon(true).build());
+            executor.scheduleAtFixedRate(this, interval, interval, MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void run() {
+        try {
+            report();
+            export();
+        } catch (Throwable failure) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("Progress report failed", failure);
+            }
+        }
+    }
+
+    protected void report() {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        long time = currentTimeMillis();
+        long rows = this.rows.sum();
+        long bytes = this.bytes.sum();
+        long period = max(time - lastTime, 1);
+        long elapsed = max(time - metricRegistry.getStartTime(), 1);
+        long expectedRows = metricRegistry.getExpectedRows();
+        StringBuilder report = new StringBuilder();
+        report.append(format("%d", rows));
+        if (expectedRows > 0) {
+            report.append(format(" of %d rows (%.1f%%)", expectedRows, rows * 100.0 / expectedRows));
+        } else {
+            report.append(" rows");
+        }
+        report.append(format(", %d rows/s, %s/s", (rows - lastRows) * 1000 / period,
+                byteCountToDisplaySize((bytes - lastBytes) * 1000 / period)));
+        if (expectedRows > rows && rows > 0) {
+            report.append(", ETA ").append(formatDuration((expectedRows - rows) * elapsed / rows));
+        }
+        report.append(", elapsed ").append(formatDuration(elapsed));
+        logger.info(report.toString());
+        lastTime = time;
+        lastRows = rows;
+        lastBytes = bytes;
+    }
+
+    protected String formatDuration(long duration) {
+        long seconds = duration / 1000;
+        return format("%02d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+
+    protected void export() throws IOException {
+        if (output == null) {
+            return;
+        }
+        File file = new File(output);
+        File temp = new File(file.getPath() + ".tmp");
+        Writer writer = new OutputStreamWriter(new FileOutputStream(temp), "UTF-8");
+        try {
+            getMetricsExporter().export(metricRegistry, writer);
+        } finally {
+            closeQuietly(writer);
+        }
+        move(temp.toPath(), file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        run();
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * @param interval
+     *            reporting interval in milliseconds, 0 to report on close only
+     */
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public void setOutput(String output) {
+        this.output = output;
+    }
+
+    public MetricsExporter getMetricsExporter() {
+        if (metricsExporter == null && output != null) {
+            metricsExporter = createMetricsExporter(output);
+        }
+        return metricsExporter;
+    }
+
+    public void setMetricsExporter(MetricsExporter metricsExporter) {
+        this.metricsExporter = metricsExporter;
+    }
+}
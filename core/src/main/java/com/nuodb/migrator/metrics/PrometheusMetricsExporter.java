@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.nuodb.migrator.metrics.Histogram.BUCKETS;
+import static com.nuodb.migrator.metrics.Histogram.getUpperBound;
+import static java.lang.String.format;
+import static java.util.Locale.ENGLISH;
+
+/**
+ * Exports metrics in Prometheus text exposition format, which can be picked up
+ * by node exporter textfile collector. Counters are exported as counters with
+ * _total suffix and histograms as histograms in seconds.
+ */
+public class PrometheusMetricsExporter implements MetricsExporter {
+
+    public static final String PREFIX = "nuodb_migrator_";
+
+    @Override
+    public void export(MetricRegistry metricRegistry, Writer writer) throws IOException {
+        String type = null;
+        for (Map.Entry<MetricName, LongAdder> counter : metricRegistry.getCounters().entrySet()) {
+            String name = getName(counter.getKey()) + "_total";
+            if (!name.equals(type)) {
+                writer.write(format("# TYPE %s counter\n", type = name));
+            }
+            writer.write(format("%s%s %d\n", name, getLabels(counter.getKey(), null), counter.getValue().sum()));
+        }
+        type = null;
+        for (Map.Entry<MetricName, Histogram> entry : metricRegistry.getHistograms().entrySet()) {
+            String name = getName(entry.getKey()) + "_seconds";
+            if (!name.equals(type)) {
+                writer.write(format("# TYPE %s histogram\n", type = name));
+            }
+            Histogram histogram = entry.getValue();
+            long count = 0;
+            for (int bucket = 0; bucket < BUCKETS - 1; bucket++) {
+                count += histogram.getBucketCount(bucket);
+                writer.write(format("%s_bucket%s %d\n", name,
+                        getLabels(entry.getKey(), getSeconds(getUpperBound(bucket))), count));
+            }
+            writer.write(format("%s_bucket%s %d\n", name, getLabels(entry.getKey(), "+Inf"), histogram.getCount()));
+            writer.write(format("%s_sum%s %s\n", name, getLabels(entry.getKey(), null),
+                    getSeconds(histogram.getSum())));
+            writer.write(format("%s_count%s %d\n", name, getLabels(entry.getKey(), null), histogram.getCount()));
+        }
+        writer.flush();
+    }
+
+    protected String getName(MetricName metricName) {
+        return PREFIX + metricName.getName().replace('.', '_');
+    }
+
+    protected String getLabels(MetricName metricName, String le) {
+        StringBuilder labels = new StringBuilder();
+        String[] values = metricName.getLabels();
+        for (int label = 0; label < values.length - 1; label += 2) {
+            labels.append(labels.length() == 0 ? "{" : ",");
+            labels.append(values[label]).append("=\"").append(escape(values[label + 1])).append('"');
+        }
+        if (le != null) {
+            labels.append(labels.length() == 0 ? "{" : ",");
+            labels.append("le=\"").append(le).append('"');
+        }
+        return labels.length() > 0 ? labels.append('}').toString() : "";
+    }
+
+    protected String getSeconds(long nanos) {
+        return format(ENGLISH, "%.9f", nanos / 1e9);
+    }
+
+    protected String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.nuodb.migrator.metrics.Metrics.TABLE;
+import static com.nuodb.migrator.metrics.Metrics.THREAD;
+
+/**
+ * Counts rows & bytes processed by a worker in total, per table and per
+ * thread, counters are looked up once per worker
+ */
+public class RowCounters {
+
+    private final LongAdder rows;
+    private final LongAdder tableRows;
+    private final LongAdder threadRows;
+    private final LongAdder bytes;
+    private final LongAdder tableBytes;
+    private final LongAdder threadBytes;
+
+    public RowCounters(MetricRegistry metricRegistry, String rows, String bytes, String table, String thread) {
+        this.rows = metricRegistry.getCounter(rows);
+        this.tableRows = metricRegistry.getCounter(rows, TABLE, table);
+        this.threadRows = metricRegistry.getCounter(rows, THREAD, thread);
+        this.bytes = metricRegistry.getCounter(bytes);
+        this.tableBytes = metricRegistry.getCounter(bytes, TABLE, table);
+        this.threadBytes = metricRegistry.getCounter(bytes, THREAD, thread);
+    }
+
+    public void add(long rows, long bytes) {
+        this.rows.add(rows);
+        this.tableRows.add(rows);
+        this.threadRows.add(rows);
+        if (bytes > 0) {
+            this.bytes.add(bytes);
+            this.tableBytes.add(bytes);
+            this.threadBytes.add(bytes);
+        }
+    }
+}
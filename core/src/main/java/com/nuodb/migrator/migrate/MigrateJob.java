@@ -0,0 +1,453 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.migrate;
+
+import com.nuodb.migrator.MigratorException;
+import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.TableRowSet;
+import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
+import com.nuodb.migrator.backup.loader.BackupLoader;
+import com.nuodb.migrator.backup.loader.BackupLoaderManager;
+import com.nuodb.migrator.backup.loader.LoadTablesWork;
+import com.nuodb.migrator.backup.loader.SimpleInsertTypeFactory;
+import com.nuodb.migrator.backup.loader.TableLevelParallelizer;
+import com.nuodb.migrator.backup.writer.BackupWriter;
+import com.nuodb.migrator.jdbc.commit.CommitStrategy;
+import com.nuodb.migrator.jdbc.dialect.TranslationConfig;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.Database;
+import com.nuodb.migrator.jdbc.metadata.MetaDataType;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.metadata.filter.MetaDataFilter;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionScope;
+import com.nuodb.migrator.jdbc.metadata.inspector.TableInspectionScope;
+import com.nuodb.migrator.jdbc.query.InsertType;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.jdbc.session.Session;
+import com.nuodb.migrator.jdbc.session.SessionFactory;
+import com.nuodb.migrator.job.ScriptGeneratorJobBase;
+import com.nuodb.migrator.metrics.MetricRegistry;
+import com.nuodb.migrator.metrics.ProgressReporter;
+import com.nuodb.migrator.spec.ConnectionSpec;
+import com.nuodb.migrator.spec.MetricsSpec;
+import com.nuodb.migrator.spec.MigrateJobSpec;
+import com.nuodb.migrator.spec.MigrationMode;
+import com.nuodb.migrator.spec.ResourceSpec;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.backup.loader.BackupLoader.INSERT_ROWS;
+import static com.nuodb.migrator.context.ContextUtils.createService;
+import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.DATABASE;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.TABLE;
+import static com.nuodb.migrator.jdbc.session.SessionFactories.newSessionFactory;
+import static com.nuodb.migrator.jdbc.session.SessionObservers.newSessionTimeZoneSetter;
+import static com.nuodb.migrator.jdbc.session.SessionObservers.newTransactionIsolationSetter;
+import static com.nuodb.migrator.metrics.Metrics.LOAD_BYTES;
+import static com.nuodb.migrator.metrics.Metrics.LOAD_ROWS;
+import static com.nuodb.migrator.migrate.RowQueueFormatFactory.TYPE;
+import static java.sql.Connection.*;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Migrates schema & data from a source database straight to a target
+ * database. Rows fetched by the backup writer are put to a bounded row queue
+ * per table, which the backup loader drains into the target tables once the
+ * schema is created, so that data is never written to and read back from
+ * intermediate files. If an output path is given rows are also teed to a
+ * backup in the requested format, which can be loaded later on with the load
+ * job should the migration fail.
+ */
+@SuppressWarnings("ConstantConditions")
+public class MigrateJob extends ScriptGeneratorJobBase<MigrateJobSpec> {
+
+    private BackupWriter backupWriter;
+    private BackupLoader backupLoader;
+    private RowQueues rowQueues;
+    private ProgressReporter progressReporter;
+
+    public MigrateJob() {
+    }
+
+    public MigrateJob(MigrateJobSpec jobSpec) {
+        super(jobSpec);
+    }
+
+    @Override
+    protected void init() throws Exception {
+        super.init();
+
+        RowQueues rowQueues = new RowQueues();
+        setRowQueues(rowQueues);
+        setBackupWriter(createBackupWriter(rowQueues));
+        getBackupWriter().addListener(new RowQueueListener(rowQueues));
+        setBackupLoader(createBackupLoader(rowQueues));
+        if (getMetricsSpec() != null) {
+            MetricRegistry metricRegistry = new MetricRegistry();
+            getBackupWriter().setMetricRegistry(metricRegistry);
+            getBackupLoader().setMetricRegistry(metricRegistry);
+            setProgressReporter(createProgressReporter(metricRegistry));
+        }
+    }
+
+    /**
+     * Creates progress reporter of the metrics collected by the job, progress
+     * is reported by the rows loaded to the target database
+     *
+     * @param metricRegistry
+     *            registry of the job metrics shared by the writer and the
+     *            loader
+     * @return progress reporter
+     */
+    protected ProgressReporter createProgressReporter(MetricRegistry metricRegistry) {
+        MetricsSpec metricsSpec = getMetricsSpec();
+        ProgressReporter progressReporter = new ProgressReporter(metricRegistry, LOAD_ROWS, LOAD_BYTES);
+        Integer interval = metricsSpec.getInterval();
+        progressReporter.setInterval(interval != null ? SECONDS.toMillis(interval) : 0);
+        progressReporter.setOutput(metricsSpec.getOutput());
+        return progressReporter;
+    }
+
+    protected BackupWriter createBackupWriter(RowQueues rowQueues) {
+        BackupWriter backupWriter = new BackupWriter();
+        ResourceSpec outputSpec = getOutputSpec();
+        if (outputSpec != null) {
+            backupWriter.setFormat(outputSpec.getType());
+            backupWriter.setFormatAttributes(outputSpec.getAttributes());
+            backupWriter.setFormatFactory(new RowQueueFormatFactory(rowQueues, createFormatFactory()));
+        } else {
+            backupWriter.setFormat(TYPE);
+            backupWriter.setFormatFactory(new RowQueueFormatFactory(rowQueues));
+        }
+        backupWriter.setInspectionManager(createInspectionManager());
+        backupWriter.setMetaDataSpec(getMetaDataSpec());
+        backupWriter.setMigrationModes(getMigrationModes());
+        backupWriter.setQueryLimit(getQueryLimit());
+        backupWriter.setPipelineSize(getPipelineSize() != null ? getPipelineSize() : 0);
+        backupWriter.setSourceSpec(getSourceSpec());
+        backupWriter.setSourceSessionFactory(createSourceSessionFactory());
+        backupWriter.setTimeZone(getTimeZone());
+        backupWriter.setThreads(getThreads() != null ? getThreads() : BackupWriter.THREADS);
+        // each of the tables written at a time is drained by a loader thread
+        backupWriter.setMaxWriteQueries(getLoaderThreads());
+        backupWriter.setValueFormatRegistryResolver(createValueFormatRegistryResolver());
+        return backupWriter;
+    }
+
+    /**
+     * Creates backup loader reading rows from the row queues, where each table
+     * is loaded by a single thread as the rows of a queue can't be split, in
+     * the order the writer starts the tables
+     *
+     * @param rowQueues
+     *            queues to load rows from
+     * @return backup loader
+     */
+    protected BackupLoader createBackupLoader(final RowQueues rowQueues) {
+        BackupLoader backupLoader = new BackupLoader() {
+            @Override
+            protected LoadTablesWork createLoadTablesWork(BackupLoaderManager backupLoaderManager) {
+                return new RowQueueLoadTablesWork(rowQueues, backupLoaderManager);
+            }
+        };
+        backupLoader.setCommitStrategy(getCommitStrategy());
+        backupLoader.setDialectResolver(createDialectResolver());
+        backupLoader.setFormatFactory(new RowQueueFormatFactory(rowQueues));
+        backupLoader.setJdbcTypeSpecs(getJdbcTypeSpecs());
+        backupLoader.setGroupScriptsBy(getGroupScriptsBy());
+        backupLoader.setIdentifierNormalizer(getIdentifierNormalizer());
+        backupLoader.setIdentifierQuoting(getIdentifierQuoting());
+        backupLoader.setInsertTypeFactory(new SimpleInsertTypeFactory(getInsertType(), getTableInsertTypes()));
+        backupLoader.setInsertRows(getInsertRows() != null ? getInsertRows() : INSERT_ROWS);
+        backupLoader.setInspectionManager(createInspectionManager());
+        backupLoader.setMetaDataSpec(getMetaDataSpec());
+        backupLoader.setMigrationModes(getMigrationModes());
+        backupLoader.setNamingStrategies(getNamingStrategies());
+        backupLoader.setParallelizer(new TableLevelParallelizer());
+        backupLoader.setScriptTypes(getScriptTypes());
+        backupLoader.setMetaDataFilterManager(getMetaDataFilterManager());
+        backupLoader.setTargetSpec(getTargetSpec());
+        backupLoader.setTargetSessionFactory(createTargetSessionFactory());
+        backupLoader.setTimeZone(getTimeZone());
+        backupLoader.setThreads(getLoaderThreads());
+        backupLoader.setTranslationConfig(getTranslationConfig());
+        backupLoader.setValueFormatRegistryResolver(createValueFormatRegistryResolver());
+        return backupLoader;
+    }
+
+    protected int getLoaderThreads() {
+        return getThreads() != null ? getThreads() : BackupLoader.THREADS;
+    }
+
+    protected SessionFactory createSourceSessionFactory() {
+        SessionFactory sessionFactory = newSessionFactory(
+                createConnectionProviderFactory().createConnectionProvider(getSourceSpec()), createDialectResolver());
+        if (getSourceSpec().getTransactionIsolation() == null) {
+            sessionFactory.addSessionObserver(newTransactionIsolationSetter(
+                    new int[] { TRANSACTION_SERIALIZABLE, TRANSACTION_REPEATABLE_READ, TRANSACTION_READ_COMMITTED }));
+        }
+        sessionFactory.addSessionObserver(newSessionTimeZoneSetter(getTimeZone()));
+        return sessionFactory;
+    }
+
+    protected SessionFactory createTargetSessionFactory() {
+        SessionFactory targetSessionFactory = newSessionFactory(
+                createConnectionProviderFactory().createConnectionProvider(getTargetSpec()), createDialectResolver());
+        targetSessionFactory.addSessionObserver(newSessionTimeZoneSetter(getTimeZone()));
+        return targetSessionFactory;
+    }
+
+    /**
+     * Inspects source database once for both the writer and the loader, writes
+     * rows on a separate thread and loads them on the current one. Row queue
+     * of a table is closed once the table is written, all of the queues are
+     * closed when the writer is done should any of them be left open. A failure
+     * on either side aborts the row queues, so that the other side fails
+     * rather than waits for the rows forever.
+     */
+    @Override
+    public void execute() throws Exception {
+        final RowQueues rowQueues = getRowQueues();
+        final BackupWriter backupWriter = getBackupWriter();
+        BackupLoader backupLoader = getBackupLoader();
+        Database database;
+        ValueFormatRegistry valueFormatRegistry;
+        Session session = backupWriter.getSourceSessionFactory().openSession();
+        try {
+            database = inspect(session);
+            valueFormatRegistry = createValueFormatRegistryResolver().resolve(session);
+        } finally {
+            closeQuietly(session);
+        }
+        Backup backup = createBackup(database, valueFormatRegistry, rowQueues);
+        backupWriter.setDatabase(database);
+
+        ProgressReporter progressReporter = getProgressReporter();
+        if (progressReporter != null) {
+            progressReporter.start();
+        }
+        ExecutorService executor = newSingleThreadExecutor();
+        Throwable failure = null;
+        try {
+            final BackupOps backupOps = createBackupOps();
+            Future<Backup> write = executor.submit(new Callable<Backup>() {
+                @Override
+                public Backup call() throws Exception {
+                    try {
+                        return backupWriter.write(backupOps, newHashMap());
+                    } catch (Exception exception) {
+                        rowQueues.abort(exception);
+                        throw exception;
+                    } finally {
+                        // closes queues of the tables which are not written
+                        rowQueues.close();
+                    }
+                }
+            });
+            try {
+                backupLoader.load(new RowQueueBackupOps(backup), newHashMap());
+            } catch (Throwable exception) {
+                rowQueues.abort(failure = exception);
+            } finally {
+                // rows of the tables which are not loaded are discarded
+                rowQueues.close();
+            }
+            try {
+                write.get();
+            } catch (ExecutionException exception) {
+                failure = failure == null ? exception.getCause() : failure;
+            }
+        } finally {
+            executor.shutdown();
+            if (progressReporter != null) {
+                progressReporter.close();
+            }
+        }
+        if (failure != null) {
+            throw failure instanceof MigratorException ? (MigratorException) failure : new MigrateException(failure);
+        }
+    }
+
+    protected Database inspect(Session session) throws Exception {
+        ConnectionSpec sourceSpec = getSourceSpec();
+        InspectionScope inspectionScope = new TableInspectionScope(sourceSpec.getCatalog(), sourceSpec.getSchema(),
+                getTableTypes());
+        return createInspectionManager().inspect(session.getConnection(), inspectionScope,
+                getObjectTypes().toArray(new MetaDataType[0])).getObject(DATABASE);
+    }
+
+    /**
+     * Describes rows streamed to the loader, a row set with a single chunk and
+     * a row queue per migrated table, where columns are listed in the order
+     * the writer selects them.
+     *
+     * @param database
+     *            inspected source database
+     * @param valueFormatRegistry
+     *            source value formats to resolve value types of the columns
+     * @param rowQueues
+     *            to add row queues to
+     * @return streamed backup
+     */
+    protected Backup createBackup(Database database, ValueFormatRegistry valueFormatRegistry, RowQueues rowQueues) {
+        Backup backup = new Backup(TYPE, database);
+        MetaDataFilter tableFilter = getMetaDataSpec().getMetaDataFilter(TABLE);
+        for (Table table : database.getTables()) {
+            if (tableFilter != null && !tableFilter.accepts(table)) {
+                continue;
+            }
+            RowSet rowSet = new TableRowSet(table);
+            rowSet.setName(table.getName());
+            for (Column column : table.getColumns()) {
+                rowSet.addColumn(column.getName(),
+                        valueFormatRegistry.getValueFormat(column.getJdbcTypeDesc()).getValueType(column));
+            }
+            Chunk chunk = new Chunk();
+            chunk.setName(rowSet.getName());
+            rowSet.addChunk(chunk);
+            backup.addRowSet(rowSet);
+            rowQueues.addRowQueue(new RowQueue(rowSet, getQueueSize() != null ? getQueueSize() : RowQueue.QUEUE_SIZE));
+        }
+        return backup;
+    }
+
+    protected BackupOps createBackupOps() {
+        ResourceSpec outputSpec = getOutputSpec();
+        if (outputSpec != null) {
+            BackupOps backupOps = createService(BackupOps.class);
+            backupOps.setPath(outputSpec.getPath());
+            return backupOps;
+        } else {
+            return new RowQueueBackupOps();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+    }
+
+    public BackupWriter getBackupWriter() {
+        return backupWriter;
+    }
+
+    public void setBackupWriter(BackupWriter backupWriter) {
+        this.backupWriter = backupWriter;
+    }
+
+    public BackupLoader getBackupLoader() {
+        return backupLoader;
+    }
+
+    public void setBackupLoader(BackupLoader backupLoader) {
+        this.backupLoader = backupLoader;
+    }
+
+    public RowQueues getRowQueues() {
+        return rowQueues;
+    }
+
+    public void setRowQueues(RowQueues rowQueues) {
+        this.rowQueues = rowQueues;
+    }
+
+    public ProgressReporter getProgressReporter() {
+        return progressReporter;
+    }
+
+    public void setProgressReporter(ProgressReporter progressReporter) {
+        this.progressReporter = progressReporter;
+    }
+
+    protected CommitStrategy getCommitStrategy() {
+        return getJobSpec().getCommitStrategy();
+    }
+
+    protected InsertType getInsertType() {
+        return getJobSpec().getInsertType();
+    }
+
+    protected Integer getInsertRows() {
+        return getJobSpec().getInsertRows();
+    }
+
+    protected Collection<MigrationMode> getMigrationModes() {
+        return getJobSpec().getMigrationModes();
+    }
+
+    protected ResourceSpec getOutputSpec() {
+        return getJobSpec().getOutputSpec();
+    }
+
+    protected Integer getPipelineSize() {
+        return getJobSpec().getPipelineSize();
+    }
+
+    protected QueryLimit getQueryLimit() {
+        return getJobSpec().getQueryLimit();
+    }
+
+    protected Integer getQueueSize() {
+        return getJobSpec().getQueueSize();
+    }
+
+    protected ConnectionSpec getSourceSpec() {
+        return getJobSpec().getSourceSpec();
+    }
+
+    protected Map<String, InsertType> getTableInsertTypes() {
+        return getJobSpec().getTableInsertTypes();
+    }
+
+    protected TimeZone getTimeZone() {
+        return getJobSpec().getTimeZone();
+    }
+
+    protected TranslationConfig getTranslationConfig() {
+        return getJobSpec().getTranslationConfig();
+    }
+
+    protected Integer getThreads() {
+        return getJobSpec().getThreads();
+    }
+
+    protected MetricsSpec getMetricsSpec() {
+        return getJobSpec().getMetricsSpec();
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.migrate;
+
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.value.MutableValue;
+import com.nuodb.migrator.backup.format.value.Value;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.String.format;
+import static java.lang.Thread.currentThread;
+
+/**
+ * Bounded queue of rows streamed from the writers of a source table to the
+ * loader of a target table. Both ends wait on the queue without being
+ * compensated by a spare thread of their fork join pools, so that the number
+ * of threads and of the sessions they open stays within the configured
+ * number of threads. A waiting end is always released by the other one, as
+ * the writer writes at most as many tables at a time as there are loader
+ * threads, see {@link RowQueues}.
+ * <p/>
+ * Writers put copies of the rows as the values handed to an output are reused
+ * for the next row. Closing the queue marks the end of rows, the consumer
+ * drains the rows left and then reads null. Aborting the queue discards the
+ * rows and fails both ends with the cause.
+ */
+public class RowQueue {
+
+    public static final int QUEUE_SIZE = 1000;
+
+    private final RowSet rowSet;
+    private final int queueSize;
+    private final Queue<Value[]> rows;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private boolean closed;
+    private Throwable failure;
+
+    public RowQueue(RowSet rowSet) {
+        this(rowSet, QUEUE_SIZE);
+    }
+
+    public RowQueue(RowSet rowSet, int queueSize) {
+        this.rowSet = rowSet;
+        this.queueSize = queueSize > 0 ? queueSize : QUEUE_SIZE;
+        this.rows = new ArrayDeque<Value[]>(this.queueSize);
+    }
+
+    /**
+     * Puts a copy of the row values to the queue, waiting for a free slot if
+     * the queue is full. Rows put to a closed queue are discarded.
+     *
+     * @param values
+     *            row values to put
+     */
+    public void put(Value[] values) {
+        Value[] row = copy(values);
+        lock.lock();
+        try {
+            while (!closed && failure == null && rows.size() >= queueSize) {
+                await(notFull);
+            }
+            checkFailure();
+            if (!closed) {
+                rows.add(row);
+                rowSet.incrementRowCount();
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes next row from the queue, waiting for a row if the queue is empty
+     *
+     * @return row values or null if the queue is closed and drained
+     */
+    public Value[] take() {
+        lock.lock();
+        try {
+            while (!closed && failure == null && rows.isEmpty()) {
+                await(notEmpty);
+            }
+            checkFailure();
+            Value[] row = rows.poll();
+            if (row != null) {
+                notFull.signal();
+            }
+            return row;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void abort(Throwable failure) {
+        lock.lock();
+        try {
+            if (this.failure == null) {
+                this.failure = failure;
+            }
+            rows.clear();
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    protected Value[] copy(Value[] values) {
+        Value[] row = new Value[values.length];
+        for (int index = 0; index < values.length; index++) {
+            Value value = values[index];
+            if (value instanceof MutableValue) {
+                MutableValue mutableValue = new MutableValue();
+                mutableValue.setValue(value);
+                value = mutableValue;
+            }
+            row[index] = value;
+        }
+        return row;
+    }
+
+    protected void checkFailure() {
+        if (failure != null) {
+            throw new MigrateException(format("Streaming of %s rows is aborted", rowSet.getName()), failure);
+        }
+    }
+
+    protected void await(Condition condition) {
+        try {
+            condition.await();
+        } catch (InterruptedException exception) {
+            currentThread().interrupt();
+            throw new MigrateException(format("Streaming of %s rows is interrupted", rowSet.getName()), exception);
+        }
+    }
+
+    public RowSet getRowSet() {
+        return rowSet;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+}
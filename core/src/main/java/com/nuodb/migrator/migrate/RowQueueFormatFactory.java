@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.migrate;
+
+import com.nuodb.migrator.backup.format.Format;
+import com.nuodb.migrator.backup.format.FormatFactory;
+import com.nuodb.migrator.backup.format.Input;
+import com.nuodb.migrator.backup.format.Output;
+
+import java.util.Map;
+
+/**
+ * Creates outputs putting written rows to the row queues and inputs taking
+ * loaded rows from the row queues. If a backup format factory is given outputs
+ * also tee the rows to the backup in the requested format.
+ */
+public class RowQueueFormatFactory implements FormatFactory {
+
+    public static final String TYPE = "queue";
+
+    private final RowQueues rowQueues;
+    private final FormatFactory formatFactory;
+
+    public RowQueueFormatFactory(RowQueues rowQueues) {
+        this(rowQueues, null);
+    }
+
+    public RowQueueFormatFactory(RowQueues rowQueues, FormatFactory formatFactory) {
+        this.rowQueues = rowQueues;
+        this.formatFactory = formatFactory;
+    }
+
+    @Override
+    public Input createInput(String format, Map<String, Object> attributes) {
+        return init(new RowQueueInput(rowQueues), attributes);
+    }
+
+    @Override
+    public Output createOutput(String format, Map<String, Object> attributes) {
+        Output output = formatFactory != null ? formatFactory.createOutput(format, attributes) : null;
+        return init(new RowQueueOutput(rowQueues, output), attributes);
+    }
+
+    protected <T extends Format> T init(T format, Map<String, Object> attributes) {
+        format.setAttributes(attributes);
+        return format;
+    }
+
+    public RowQueues getRowQueues() {
+        return rowQueues;
+    }
+
+    public FormatFactory getFormatFactory() {
+        return formatFactory;
+    }
+}
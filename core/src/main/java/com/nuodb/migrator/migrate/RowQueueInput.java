@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.migrate;
+
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.FormatBase;
+import com.nuodb.migrator.backup.format.Input;
+import com.nuodb.migrator.backup.format.InputException;
+import com.nuodb.migrator.backup.format.value.Value;
+
+import java.io.InputStream;
+import java.io.Reader;
+
+import static com.nuodb.migrator.migrate.RowQueueFormatFactory.TYPE;
+import static java.lang.String.format;
+
+/**
+ * Reads rows of a row set from its row queue, the reader or the stream of the
+ * input are ignored.
+ */
+public class RowQueueInput extends FormatBase implements Input {
+
+    private final RowQueues rowQueues;
+    private RowQueue rowQueue;
+
+    public RowQueueInput(RowQueues rowQueues) {
+        this.rowQueues = rowQueues;
+    }
+
+    @Override
+    public String getFormat() {
+        return TYPE;
+    }
+
+    @Override
+    public void init() {
+        RowSet rowSet = getRowSet();
+        rowQueue = rowQueues.getRowQueue(rowSet);
+        if (rowQueue == null) {
+            throw new InputException(format("Row set %s is not streamed", rowSet.getName()));
+        }
+    }
+
+    @Override
+    public void readStart() {
+    }
+
+    @Override
+    public Value[] readValues() {
+        return rowQueue.take();
+    }
+
+    @Override
+    public void readEnd() {
+    }
+
+    @Override
+    public void setReader(Reader reader) {
+    }
+
+    @Override
+    public void setInputStream(InputStream inputStream) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
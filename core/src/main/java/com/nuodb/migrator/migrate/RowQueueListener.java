@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.migrate;
+
+import com.nuodb.migrator.backup.writer.BackupWriterAdapter;
+import com.nuodb.migrator.backup.writer.WriteChunkEvent;
+import com.nuodb.migrator.backup.writer.WriteQueryListener;
+
+/**
+ * Hands row queue of a table over to the loader as the write query of the
+ * table is started and closes the queue as soon as all of the splits of the
+ * query are written, so that the loader finishes the table without waiting for
+ * the rest of the tables to be written.
+ */
+public class RowQueueListener extends BackupWriterAdapter implements WriteQueryListener {
+
+    private final RowQueues rowQueues;
+
+    public RowQueueListener(RowQueues rowQueues) {
+        this.rowQueues = rowQueues;
+    }
+
+    @Override
+    public void onWriteQueryStart(WriteChunkEvent event) {
+        RowQueue rowQueue = rowQueues.getRowQueue(event.getWriteQuery().getRowSet());
+        if (rowQueue != null) {
+            rowQueues.open(rowQueue);
+        }
+    }
+
+    @Override
+    public void onWriteQueryEnd(WriteChunkEvent event) {
+        RowQueue rowQueue = rowQueues.getRowQueue(event.getWriteQuery().getRowSet());
+        if (rowQueue != null) {
+            rowQueue.close();
+        }
+    }
+}
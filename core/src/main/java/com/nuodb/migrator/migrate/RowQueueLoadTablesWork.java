@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.migrate;
+
+import com.nuodb.migrator.backup.loader.BackupLoaderContext;
+import com.nuodb.migrator.backup.loader.BackupLoaderManager;
+import com.nuodb.migrator.backup.loader.LoadTableWork;
+import com.nuodb.migrator.backup.loader.LoadTablesWork;
+import com.nuodb.migrator.utils.concurrent.ForkJoinPool;
+import com.nuodb.migrator.utils.concurrent.RecursiveAction;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newIdentityHashMap;
+
+/**
+ * Loads tables in the order their row queues are opened by the writer with a
+ * fixed number of slots, one per worker thread, so that each of the tables
+ * written at a time is drained by a thread of its own. Rows of the tables,
+ * which are not loaded, are discarded.
+ */
+public class RowQueueLoadTablesWork extends LoadTablesWork {
+
+    private final RowQueues rowQueues;
+    private Map<RowQueue, LoadTableWork> loadTableWorks;
+
+    public RowQueueLoadTablesWork(RowQueues rowQueues, BackupLoaderManager backupLoaderManager) {
+        super(backupLoaderManager);
+        this.rowQueues = rowQueues;
+    }
+
+    @Override
+    protected void execute(List<LoadTableWork> loadTableWorks, BackupLoaderContext backupLoaderContext) {
+        this.loadTableWorks = newIdentityHashMap();
+        for (LoadTableWork loadTableWork : loadTableWorks) {
+            RowQueue rowQueue = rowQueues.getRowQueue(loadTableWork.getLoadTable().getRowSet());
+            if (rowQueue != null) {
+                this.loadTableWorks.put(rowQueue, loadTableWork);
+            }
+        }
+        int slots = ((ForkJoinPool) backupLoaderContext.getExecutorService()).getParallelism();
+        Collection<LoadTablesSlot> loadTablesSlots = newArrayList();
+        for (int slot = 0; slot < slots; slot++) {
+            LoadTablesSlot loadTablesSlot = new LoadTablesSlot();
+            loadTablesSlot.fork();
+            loadTablesSlots.add(loadTablesSlot);
+        }
+        for (LoadTablesSlot loadTablesSlot : loadTablesSlots) {
+            loadTablesSlot.join();
+        }
+    }
+
+    /**
+     * Loads tables of the opened row queues one by one until the row queues
+     * are closed
+     */
+    class LoadTablesSlot extends RecursiveAction {
+
+        @Override
+        protected void compute() {
+            RowQueue rowQueue;
+            while ((rowQueue = rowQueues.takeOpened()) != null) {
+                LoadTableWork loadTableWork = loadTableWorks.get(rowQueue);
+                if (loadTableWork != null) {
+                    loadTableWork.invoke();
+                } else {
+                    rowQueue.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.migrate;
+
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.FormatBase;
+import com.nuodb.migrator.backup.format.Output;
+import com.nuodb.migrator.backup.format.value.Value;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Map;
+
+import static com.nuodb.migrator.migrate.RowQueueFormatFactory.TYPE;
+
+/**
+ * Puts written rows to the row queue of the row set and optionally tees them
+ * to a backup output. Rows of the row sets without a queue are only teed.
+ */
+public class RowQueueOutput extends FormatBase implements Output {
+
+    private final RowQueues rowQueues;
+    private final Output output;
+    private RowQueue rowQueue;
+
+    public RowQueueOutput(RowQueues rowQueues) {
+        this(rowQueues, null);
+    }
+
+    public RowQueueOutput(RowQueues rowQueues, Output output) {
+        this.rowQueues = rowQueues;
+        this.output = output;
+    }
+
+    @Override
+    public String getFormat() {
+        return output != null ? output.getFormat() : TYPE;
+    }
+
+    @Override
+    public void setAttributes(Map<String, Object> attributes) {
+        super.setAttributes(attributes);
+        if (output != null) {
+            output.setAttributes(attributes);
+        }
+    }
+
+    @Override
+    public void setRowSet(RowSet rowSet) {
+        super.setRowSet(rowSet);
+        rowQueue = rowQueues.getRowQueue(rowSet);
+        if (output != null) {
+            output.setRowSet(rowSet);
+        }
+    }
+
+    @Override
+    public void init() {
+        if (output != null) {
+            output.init();
+        }
+    }
+
+    @Override
+    public void writeStart() {
+        if (output != null) {
+            output.writeStart();
+        }
+    }
+
+    @Override
+    public boolean canWrite() {
+        return output == null || output.canWrite();
+    }
+
+    @Override
+    public void writeValues(Value[] values) {
+        if (output != null) {
+            output.writeValues(values);
+        }
+        if (rowQueue != null) {
+            rowQueue.put(values);
+        }
+    }
+
+    @Override
+    public void writeEnd() {
+        if (output != null) {
+            output.writeEnd();
+        }
+    }
+
+    @Override
+    public Writer getWriter() {
+        return output != null ? output.getWriter() : null;
+    }
+
+    @Override
+    public void setWriter(Writer writer) {
+        if (output != null) {
+            output.setWriter(writer);
+        }
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return output != null ? output.getOutputStream() : null;
+    }
+
+    @Override
+    public void setOutputStream(OutputStream outputStream) {
+        if (output != null) {
+            output.setOutputStream(outputStream);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (output != null) {
+            output.close();
+        }
+    }
+
+    public Output getOutput() {
+        return output;
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.migrate;
+
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.TableRowSet;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.lang.Thread.currentThread;
+import static java.util.Arrays.asList;
+
+/**
+ * Row queues of the migrated tables looked up by catalog, schema & table names
+ * of a row set, so that row sets of the writer and of the loader describing
+ * the same table share a queue.
+ * <p/>
+ * The writer opens a row queue as it starts writing the table and the loader
+ * threads take the opened queues in that order, a table per thread. As the
+ * writer writes at most as many tables at a time as there are loader threads,
+ * a writer waiting on a full queue, which no loader thread has taken yet,
+ * waits for a loader thread draining a table which is already written.
+ */
+public class RowQueues implements Iterable<RowQueue> {
+
+    private final Map<List<String>, RowQueue> rowQueues = newLinkedHashMap();
+    private final Queue<RowQueue> openedQueues = new ArrayDeque<RowQueue>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition opened = lock.newCondition();
+    private boolean closed;
+    private Throwable failure;
+
+    public void addRowQueue(RowQueue rowQueue) {
+        rowQueues.put(getKey(rowQueue.getRowSet()), rowQueue);
+    }
+
+    /**
+     * Returns row queue of a table row set
+     *
+     * @param rowSet
+     *            row set to look up queue for
+     * @return row queue or null if row set is not a table row set or table is
+     *         not migrated
+     */
+    public RowQueue getRowQueue(RowSet rowSet) {
+        return rowSet instanceof TableRowSet ? rowQueues.get(getKey(rowSet)) : null;
+    }
+
+    /**
+     * Hands row queue over to the loader, queues opened after the row queues
+     * are closed are ignored
+     *
+     * @param rowQueue
+     *            row queue of the table the writer starts writing
+     */
+    public void open(RowQueue rowQueue) {
+        lock.lock();
+        try {
+            if (!closed && failure == null) {
+                openedQueues.add(rowQueue);
+                opened.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes next opened row queue, waiting for the writer to open one
+     *
+     * @return row queue or null if the row queues are closed and no opened
+     *         queue is left
+     */
+    public RowQueue takeOpened() {
+        lock.lock();
+        try {
+            while (!closed && failure == null && openedQueues.isEmpty()) {
+                try {
+                    opened.await();
+                } catch (InterruptedException exception) {
+                    currentThread().interrupt();
+                    throw new MigrateException("Waiting for row queues is interrupted", exception);
+                }
+            }
+            if (failure != null) {
+                throw new MigrateException("Streaming of rows is aborted", failure);
+            }
+            return openedQueues.poll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() {
+        for (RowQueue rowQueue : this) {
+            rowQueue.close();
+        }
+        lock.lock();
+        try {
+            closed = true;
+            opened.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void abort(Throwable failure) {
+        for (RowQueue rowQueue : this) {
+            rowQueue.abort(failure);
+        }
+        lock.lock();
+        try {
+            if (this.failure == null) {
+                this.failure = failure;
+            }
+            opened.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<RowQueue> iterator() {
+        return rowQueues.values().iterator();
+    }
+
+    protected List<String> getKey(RowSet rowSet) {
+        TableRowSet tableRowSet = (TableRowSet) rowSet;
+        return asList(tableRowSet.getCatalog(), tableRowSet.getSchema(), tableRowSet.getTable());
+    }
+}
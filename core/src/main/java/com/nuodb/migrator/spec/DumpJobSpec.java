@@ -54,6 +54,10 @@ public class DumpJobSpec extends JobSpecBase {
     private MetaDataSpec metaDataSpec = new MetaDataSpec();
     private Collection<QuerySpec> querySpecs = newArrayList();
     private QueryLimit queryLimit;
+    private Integer pipelineSize;
+    private boolean lobStreaming;
+    private boolean resume;
+    private MetricsSpec metricsSpec;
 
     public void addListener(BackupWriterListener listener) {
         listeners.add(listener);
@@ -155,6 +159,38 @@ public class DumpJobSpec extends JobSpecBase {
         this.queryLimit = queryLimit;
     }
 
+    public Integer getPipelineSize() {
+        return pipelineSize;
+    }
+
+    public void setPipelineSize(Integer pipelineSize) {
+        this.pipelineSize = pipelineSize;
+    }
+
+    public boolean isLobStreaming() {
+        return lobStreaming;
+    }
+
+    public void setLobStreaming(boolean lobStreaming) {
+        this.lobStreaming = lobStreaming;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    public MetricsSpec getMetricsSpec() {
+        return metricsSpec;
+    }
+
+    public void setMetricsSpec(MetricsSpec metricsSpec) {
+        this.metricsSpec = metricsSpec;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -174,14 +210,22 @@ public class DumpJobSpec extends JobSpecBase {
             return false;
         if (queryLimit != null ? !queryLimit.equals(that.queryLimit) : that.queryLimit != null)
             return false;
+        if (pipelineSize != null ? !pipelineSize.equals(that.pipelineSize) : that.pipelineSize != null)
+            return false;
         if (querySpecs != null ? !querySpecs.equals(that.querySpecs) : that.querySpecs != null)
             return false;
+        if (lobStreaming != that.lobStreaming)
+            return false;
+        if (resume != that.resume)
+            return false;
         if (sourceSpec != null ? !sourceSpec.equals(that.sourceSpec) : that.sourceSpec != null)
             return false;
         if (threads != null ? !threads.equals(that.threads) : that.threads != null)
             return false;
         if (timeZone != null ? !timeZone.equals(that.timeZone) : that.timeZone != null)
             return false;
+        if (metricsSpec != null ? !metricsSpec.equals(that.metricsSpec) : that.metricsSpec != null)
+            return false;
 
         return true;
     }
@@ -197,6 +241,10 @@ public class DumpJobSpec extends JobSpecBase {
         result = 31 * result + (metaDataSpec != null ? metaDataSpec.hashCode() : 0);
         result = 31 * result + (querySpecs != null ? querySpecs.hashCode() : 0);
         result = 31 * result + (queryLimit != null ? queryLimit.hashCode() : 0);
+        result = 31 * result + (pipelineSize != null ? pipelineSize.hashCode() : 0);
+        result = 31 * result + (lobStreaming ? 1 : 0);
+        result = 31 * result + (resume ? 1 : 0);
+        result = 31 * result + (metricsSpec != null ? metricsSpec.hashCode() : 0);
         return result;
     }
 }
@@ -51,11 +51,16 @@ import static com.nuodb.migrator.spec.MigrationMode.SCHEMA;
 public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
 
     private CommitStrategy commitStrategy = new BatchCommitStrategy();
+    private Integer constraintThreads;
+    private boolean deferConstraints;
     private ResourceSpec inputSpec;
     private InsertType insertType;
+    private Integer insertRows;
     private Collection<BackupLoaderListener> listeners = newArrayList();
     private Collection<MigrationMode> migrationModes = newHashSet(DATA, SCHEMA);
     private Parallelizer parallelizer = new TableLevelParallelizer();
+    private boolean resume;
+    private MetricsSpec metricsSpec;
     private Map<String, InsertType> tableInsertTypes = newHashMap();
     private ConnectionSpec targetSpec;
     private TimeZone timeZone;
@@ -69,6 +74,22 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
         this.commitStrategy = commitStrategy;
     }
 
+    public Integer getConstraintThreads() {
+        return constraintThreads;
+    }
+
+    public void setConstraintThreads(Integer constraintThreads) {
+        this.constraintThreads = constraintThreads;
+    }
+
+    public boolean isDeferConstraints() {
+        return deferConstraints;
+    }
+
+    public void setDeferConstraints(boolean deferConstraints) {
+        this.deferConstraints = deferConstraints;
+    }
+
     public ResourceSpec getInputSpec() {
         return inputSpec;
     }
@@ -85,6 +106,14 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
         this.insertType = insertType;
     }
 
+    public Integer getInsertRows() {
+        return insertRows;
+    }
+
+    public void setInsertRows(Integer insertRows) {
+        this.insertRows = insertRows;
+    }
+
     public void addListener(BackupLoaderListener listener) {
         listeners.add(listener);
     }
@@ -145,6 +174,22 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
         this.parallelizer = parallelizer;
     }
 
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    public MetricsSpec getMetricsSpec() {
+        return metricsSpec;
+    }
+
+    public void setMetricsSpec(MetricsSpec metricsSpec) {
+        this.metricsSpec = metricsSpec;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -158,12 +203,21 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
 
         if (commitStrategy != null ? !commitStrategy.equals(that.commitStrategy) : that.commitStrategy != null)
             return false;
+        if (constraintThreads != null ? !constraintThreads.equals(that.constraintThreads)
+                : that.constraintThreads != null)
+            return false;
+        if (deferConstraints != that.deferConstraints)
+            return false;
         if (inputSpec != null ? !inputSpec.equals(that.inputSpec) : that.inputSpec != null)
             return false;
         if (insertType != that.insertType)
             return false;
+        if (insertRows != null ? !insertRows.equals(that.insertRows) : that.insertRows != null)
+            return false;
         if (migrationModes != null ? !migrationModes.equals(that.migrationModes) : that.migrationModes != null)
             return false;
+        if (resume != that.resume)
+            return false;
         if (tableInsertTypes != null ? !tableInsertTypes.equals(that.tableInsertTypes) : that.tableInsertTypes != null)
             return false;
         if (targetSpec != null ? !targetSpec.equals(that.targetSpec) : that.targetSpec != null)
@@ -172,6 +226,8 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
             return false;
         if (threads != null ? !threads.equals(that.threads) : that.threads != null)
             return false;
+        if (metricsSpec != null ? !metricsSpec.equals(that.metricsSpec) : that.metricsSpec != null)
+            return false;
 
         return true;
     }
@@ -180,13 +236,18 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
     public int hashCode() {
         int result = super.hashCode();
         result = 31 * result + (commitStrategy != null ? commitStrategy.hashCode() : 0);
+        result = 31 * result + (constraintThreads != null ? constraintThreads.hashCode() : 0);
+        result = 31 * result + (deferConstraints ? 1 : 0);
         result = 31 * result + (inputSpec != null ? inputSpec.hashCode() : 0);
         result = 31 * result + (insertType != null ? insertType.hashCode() : 0);
+        result = 31 * result + (insertRows != null ? insertRows.hashCode() : 0);
         result = 31 * result + (migrationModes != null ? migrationModes.hashCode() : 0);
+        result = 31 * result + (resume ? 1 : 0);
         result = 31 * result + (tableInsertTypes != null ? tableInsertTypes.hashCode() : 0);
         result = 31 * result + (targetSpec != null ? targetSpec.hashCode() : 0);
         result = 31 * result + (timeZone != null ? timeZone.hashCode() : 0);
         result = 31 * result + (threads != null ? threads.hashCode() : 0);
+        result = 31 * result + (metricsSpec != null ? metricsSpec.hashCode() : 0);
         return result;
     }
 }
@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.spec;
+
+import com.nuodb.migrator.jdbc.commit.BatchCommitStrategy;
+import com.nuodb.migrator.jdbc.commit.CommitStrategy;
+import com.nuodb.migrator.jdbc.metadata.filter.MetaDataFilterManager;
+import com.nuodb.migrator.jdbc.query.InsertType;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.nuodb.migrator.spec.MigrationMode.DATA;
+import static com.nuodb.migrator.spec.MigrationMode.SCHEMA;
+
+/**
+ * Specifies migration of schema & data from a source database straight to a
+ * target database, where an optional output spec tees migrated rows to a
+ * backup on the file system.
+ */
+public class MigrateJobSpec extends ScriptGeneratorJobSpecBase {
+
+    private CommitStrategy commitStrategy = new BatchCommitStrategy();
+    private InsertType insertType;
+    private Integer insertRows;
+    private MetricsSpec metricsSpec;
+    private Collection<MigrationMode> migrationModes = newHashSet(DATA, SCHEMA);
+    private ResourceSpec outputSpec;
+    private Integer pipelineSize;
+    private QueryLimit queryLimit;
+    private Integer queueSize;
+    private ConnectionSpec sourceSpec;
+    private Map<String, InsertType> tableInsertTypes = newHashMap();
+    private TimeZone timeZone;
+    private Integer threads;
+
+    /**
+     * Applies table filters to both source tables being read and to the
+     * tables being loaded
+     *
+     * @param metaDataFilterManager
+     *            meta data filters
+     */
+    @Override
+    public void setMetaDataFilterManager(MetaDataFilterManager metaDataFilterManager) {
+        super.setMetaDataFilterManager(metaDataFilterManager);
+        getMetaDataSpec().setMetaDataFilterManager(metaDataFilterManager);
+    }
+
+    public CommitStrategy getCommitStrategy() {
+        return commitStrategy;
+    }
+
+    public void setCommitStrategy(CommitStrategy commitStrategy) {
+        this.commitStrategy = commitStrategy;
+    }
+
+    public InsertType getInsertType() {
+        return insertType;
+    }
+
+    public void setInsertType(InsertType insertType) {
+        this.insertType = insertType;
+    }
+
+    public Integer getInsertRows() {
+        return insertRows;
+    }
+
+    public void setInsertRows(Integer insertRows) {
+        this.insertRows = insertRows;
+    }
+
+    public Collection<MigrationMode> getMigrationModes() {
+        return migrationModes;
+    }
+
+    public void setMigrationModes(Collection<MigrationMode> migrationModes) {
+        this.migrationModes = migrationModes;
+    }
+
+    public ResourceSpec getOutputSpec() {
+        return outputSpec;
+    }
+
+    public void setOutputSpec(ResourceSpec outputSpec) {
+        this.outputSpec = outputSpec;
+    }
+
+    public Integer getPipelineSize() {
+        return pipelineSize;
+    }
+
+    public void setPipelineSize(Integer pipelineSize) {
+        this.pipelineSize = pipelineSize;
+    }
+
+    public QueryLimit getQueryLimit() {
+        return queryLimit;
+    }
+
+    public void setQueryLimit(QueryLimit queryLimit) {
+        this.queryLimit = queryLimit;
+    }
+
+    public Integer getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(Integer queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public ConnectionSpec getSourceSpec() {
+        return sourceSpec;
+    }
+
+    public void setSourceSpec(ConnectionSpec sourceSpec) {
+        this.sourceSpec = sourceSpec;
+    }
+
+    public Map<String, InsertType> getTableInsertTypes() {
+        return tableInsertTypes;
+    }
+
+    public void setTableInsertTypes(Map<String, InsertType> tableInsertTypes) {
+        this.tableInsertTypes = newHashMap(tableInsertTypes);
+    }
+
+    public TimeZone getTimeZone() {
+        return timeZone;
+    }
+
+    public void setTimeZone(TimeZone timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    public Integer getThreads() {
+        return threads;
+    }
+
+    public void setThreads(Integer threads) {
+        this.threads = threads;
+    }
+
+    public MetricsSpec getMetricsSpec() {
+        return metricsSpec;
+    }
+
+    public void setMetricsSpec(MetricsSpec metricsSpec) {
+        this.metricsSpec = metricsSpec;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        if (!super.equals(o))
+            return false;
+
+        MigrateJobSpec that = (MigrateJobSpec) o;
+
+        if (commitStrategy != null ? !commitStrategy.equals(that.commitStrategy) : that.commitStrategy != null)
+            return false;
+        if (insertType != that.insertType)
+            return false;
+        if (insertRows != null ? !insertRows.equals(that.insertRows) : that.insertRows != null)
+            return false;
+        if (migrationModes != null ? !migrationModes.equals(that.migrationModes) : that.migrationModes != null)
+            return false;
+        if (outputSpec != null ? !outputSpec.equals(that.outputSpec) : that.outputSpec != null)
+            return false;
+        if (pipelineSize != null ? !pipelineSize.equals(that.pipelineSize) : that.pipelineSize != null)
+            return false;
+        if (queryLimit != null ? !queryLimit.equals(that.queryLimit) : that.queryLimit != null)
+            return false;
+        if (queueSize != null ? !queueSize.equals(that.queueSize) : that.queueSize != null)
+            return false;
+        if (sourceSpec != null ? !sourceSpec.equals(that.sourceSpec) : that.sourceSpec != null)
+            return false;
+        if (tableInsertTypes != null ? !tableInsertTypes.equals(that.tableInsertTypes) : that.tableInsertTypes != null)
+            return false;
+        if (timeZone != null ? !timeZone.equals(that.timeZone) : that.timeZone != null)
+            return false;
+        if (threads != null ? !threads.equals(that.threads) : that.threads != null)
+            return false;
+        if (metricsSpec != null ? !metricsSpec.equals(that.metricsSpec) : that.metricsSpec != null)
+            return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + (commitStrategy != null ? commitStrategy.hashCode() : 0);
+        result = 31 * result + (insertType != null ? insertType.hashCode() : 0);
+        result = 31 * result + (insertRows != null ? insertRows.hashCode() : 0);
+        result = 31 * result + (migrationModes != null ? migrationModes.hashCode() : 0);
+        result = 31 * result + (outputSpec != null ? outputSpec.hashCode() : 0);
+        result = 31 * result + (pipelineSize != null ? pipelineSize.hashCode() : 0);
+        result = 31 * result + (queryLimit != null ? queryLimit.hashCode() : 0);
+        result = 31 * result + (queueSize != null ? queueSize.hashCode() : 0);
+        result = 31 * result + (sourceSpec != null ? sourceSpec.hashCode() : 0);
+        result = 31 * result + (tableInsertTypes != null ? tableInsertTypes.hashCode() : 0);
+        result = 31 * result + (timeZone != null ? timeZone.hashCode() : 0);
+        result = 31 * result + (threads != null ? threads.hashCode() : 0);
+        result = 31 * result + (metricsSpec != null ? metricsSpec.hashCode() : 0);
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Buffered writer appending char sequences without creating a string per
+ * appended sequence, which {@link Writer#append(CharSequence, int, int)} does
+ * by default.
+ */
+public class CharSequenceBufferedWriter extends BufferedWriter {
+
+    private final char[] chars = new char[256];
+
+    public CharSequenceBufferedWriter(Writer out, int size) {
+        super(out, size);
+    }
+
+    @Override
+    public Writer append(CharSequence sequence) throws IOException {
+        return sequence == null ? super.append(null) : append(sequence, 0, sequence.length());
+    }
+
+    @Override
+    public Writer append(CharSequence sequence, int start, int end) throws IOException {
+        if (sequence instanceof String) {
+            write((String) sequence, start, end - start);
+        } else if (sequence instanceof StringBuilder) {
+            StringBuilder builder = (StringBuilder) sequence;
+            while (start < end) {
+                int length = Math.min(end - start, chars.length);
+                builder.getChars(start, start + length, chars, 0);
+                write(chars, 0, length);
+                start += length;
+            }
+        } else {
+            super.append(sequence, start, end);
+        }
+        return this;
+    }
+}
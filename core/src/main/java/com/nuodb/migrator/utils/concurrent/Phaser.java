@@ -35,6 +35,7 @@
 
 package com.nuodb.migrator.utils.concurrent;
 
+import java.lang.reflect.Field;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
@@ -1142,7 +1143,9 @@ public class Phaser {
 
     static {
         try {
-            UNSAFE = sun.misc.Unsafe.getUnsafe();
+            Field field = sun.misc.Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            UNSAFE = (sun.misc.Unsafe) field.get(null);
             Class k = Phaser.class;
             stateOffset = UNSAFE.objectFieldOffset(k.getDeclaredField("state"));
         } catch (Exception e) {
@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.utils.concurrent;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * Bounded ring of preallocated slots passing items from a single producer to a
+ * single consumer. Producer claims a free slot, fills it in and publishes it,
+ * consumer takes the published slot, drains it and releases it back for reuse.
+ * Producer blocks while the ring is full and consumer blocks while the ring is
+ * empty, the number and the duration of the stalls are counted on both ends.
+ *
+ * @param <T>
+ *            type of the slot
+ */
+public class RingBuffer<T> {
+
+    private final T[] slots;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition notEmpty = lock.newCondition();
+
+    private long head;
+    private long tail;
+    private boolean closed;
+    private boolean aborted;
+
+    private long producerStalls;
+    private long producerStallTime;
+    private long consumerStalls;
+    private long consumerStallTime;
+
+    public RingBuffer(T[] slots) {
+        if (slots.length == 0) {
+            throw new IllegalArgumentException("Ring buffer requires at least one slot");
+        }
+        this.slots = slots;
+    }
+
+    /**
+     * Waits for a free slot to fill in by the producer
+     *
+     * @return free slot or null if the ring was aborted
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    public T claim() throws InterruptedException {
+        lock.lock();
+        try {
+            if (isFull() && !aborted) {
+                long start = nanoTime();
+                producerStalls++;
+                while (isFull() && !aborted) {
+                    notFull.await();
+                }
+                producerStallTime += nanoTime() - start;
+            }
+            return aborted ? null : slots[(int) (head % slots.length)];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes last claimed slot available to the consumer
+     */
+    public void publish() {
+        lock.lock();
+        try {
+            head++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for a published slot to drain by the consumer
+     *
+     * @return published slot or null if the ring was closed and all slots are
+     *         drained or if the ring was aborted
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    public T take() throws InterruptedException {
+        lock.lock();
+        try {
+            if (isEmpty() && !closed && !aborted) {
+                long start = nanoTime();
+                consumerStalls++;
+                while (isEmpty() && !closed && !aborted) {
+                    notEmpty.await();
+                }
+                consumerStallTime += nanoTime() - start;
+            }
+            return aborted || isEmpty() ? null : slots[(int) (tail % slots.length)];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns last taken slot back to the producer
+     */
+    public void release() {
+        lock.lock();
+        try {
+            tail++;
+            notFull.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Signals that the producer has finished, the consumer drains remaining
+     * slots
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops both ends of the ring immediately, remaining slots are discarded
+     */
+    public void abort() {
+        lock.lock();
+        try {
+            aborted = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isAborted() {
+        lock.lock();
+        try {
+            return aborted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isFull() {
+        return head - tail == slots.length;
+    }
+
+    private boolean isEmpty() {
+        return head == tail;
+    }
+
+    public int getSize() {
+        return slots.length;
+    }
+
+    /**
+     * Number of times the producer waited for the consumer to release a slot
+     */
+    public long getProducerStalls() {
+        lock.lock();
+        try {
+            return producerStalls;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Total time in nanoseconds the producer waited for a free slot
+     */
+    public long getProducerStallTime() {
+        lock.lock();
+        try {
+            return producerStallTime;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of times the consumer waited for the producer to publish a slot
+     */
+    public long getConsumerStalls() {
+        lock.lock();
+        try {
+            return consumerStalls;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Total time in nanoseconds the consumer waited for a published slot
+     */
+    public long getConsumerStallTime() {
+        lock.lock();
+        try {
+            return consumerStallTime;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
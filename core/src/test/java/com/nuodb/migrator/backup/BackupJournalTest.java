@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Collection;
+
+import static com.google.common.collect.Iterables.get;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.io.Files.createTempDir;
+import static com.nuodb.migrator.backup.BackupJournal.DUMP_JOURNAL;
+import static com.nuodb.migrator.backup.BackupJournal.LOAD_JOURNAL;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.*;
+
+public class BackupJournalTest {
+
+    private File dir;
+    private XmlBackupOps backupOps;
+
+    @BeforeMethod
+    public void setUp() {
+        dir = createTempDir();
+        backupOps = new XmlBackupOps();
+        backupOps.setPath(dir.getAbsolutePath());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testResumeDump() {
+        BackupJournal journal = new BackupJournal(backupOps, DUMP_JOURNAL);
+        journal.open(false);
+        journal.startSplit("t1", "0,10");
+        journal.writeChunk("t1", createChunk("t1.csv", 10));
+        journal.completeSplit("t1", "0,10", newArrayList(new Column("f1", STRING), new Column("f2", BINARY)));
+        journal.startSplit("t2", null);
+        journal.writeChunk("t2", createChunk("t2.csv", 5));
+        journal.close();
+
+        journal = new BackupJournal(backupOps, DUMP_JOURNAL);
+        journal.open(true);
+        assertTrue(journal.isSplitCompleted("t1"));
+        assertFalse(journal.isSplitCompleted("t2"));
+        assertNull(journal.getChunks("t2"));
+
+        Collection<Chunk> chunks = journal.getChunks("t1");
+        assertEquals(chunks.size(), 1);
+        assertEquals(get(chunks, 0).getName(), "t1.csv");
+        assertEquals((long) get(chunks, 0).getRowCount(), 10);
+
+        Collection<Column> columns = journal.getColumns("t1");
+        assertEquals(columns.size(), 2);
+        assertEquals(get(columns, 1).getName(), "f2");
+        assertEquals(get(columns, 1).getValueType(), BINARY);
+        assertEquals(journal.getBounds("t1"), "0,10");
+        assertNull(journal.getBounds("t2"));
+        journal.close();
+    }
+
+    @Test
+    public void testResumeLoad() {
+        Chunk chunk = createChunk("t1.csv", 100);
+        BackupJournal journal = new BackupJournal(backupOps, LOAD_JOURNAL);
+        journal.open(false);
+        journal.done("schema");
+        journal.loadChunk(chunk, 50);
+        journal.loadChunk(chunk, 20);
+        journal.close();
+
+        journal = new BackupJournal(backupOps, LOAD_JOURNAL);
+        journal.open(true);
+        assertTrue(journal.isDone("schema"));
+        assertEquals(journal.getLoadedRows(chunk), 50);
+        assertFalse(journal.isChunkLoaded(chunk));
+        journal.close();
+
+        journal = new BackupJournal(backupOps, LOAD_JOURNAL);
+        journal.open(false);
+        assertFalse(journal.isDone("schema"));
+        assertEquals(journal.getLoadedRows(chunk), 0);
+        journal.close();
+    }
+
+    @Test
+    public void testResumeTruncatedLine() throws Exception {
+        BackupJournal journal = new BackupJournal(backupOps, DUMP_JOURNAL);
+        journal.open(false);
+        journal.startSplit("t1", "0,10");
+        journal.writeChunk("t1", createChunk("t1.csv", 10));
+        journal.startSplit("t2", null);
+        journal.close();
+        // record cut short by a crash while the split was being completed
+        File file = new File(dir, DUMP_JOURNAL);
+        FileUtils.write(file, "completed\tt2", UTF_8, true);
+
+        journal = new BackupJournal(backupOps, DUMP_JOURNAL);
+        journal.open(true);
+        assertFalse(journal.isSplitCompleted("t2"));
+        journal.completeSplit("t1", "0,10", newArrayList(new Column("f1", STRING)));
+        journal.close();
+        assertFalse(FileUtils.readFileToString(file, UTF_8).contains("completed\tt2"));
+
+        journal = new BackupJournal(backupOps, DUMP_JOURNAL);
+        journal.open(true);
+        assertTrue(journal.isSplitCompleted("t1"));
+        assertFalse(journal.isSplitCompleted("t2"));
+        assertEquals(journal.getChunks("t1").size(), 1);
+        journal.close();
+    }
+
+    private static Chunk createChunk(String name, long rowCount) {
+        Chunk chunk = new Chunk();
+        chunk.setName(name);
+        chunk.setRowCount(rowCount);
+        return chunk;
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.codec;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.apache.commons.io.IOUtils.toByteArray;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Verifies that encoded content decodes back unchanged and that a stream
+ * decoded with the block codec skips to arbitrary offsets
+ */
+public class CodecTest {
+
+    @DataProvider(name = "codecs")
+    public Object[][] createCodecData() {
+        return new Object[][] { { new GzipCodec(1) }, { new DeflateCodec(9) }, { new BlockCodec(6, 1000) },
+                { Codecs.NONE } };
+    }
+
+    @Test(dataProvider = "codecs")
+    public void testEncodeDecode(Codec codec) throws Exception {
+        byte[] content = createContent();
+        byte[] encoded = encode(codec, content);
+        assertEquals(toByteArray(codec.decode(new ByteArrayInputStream(encoded))), content);
+    }
+
+    @Test
+    public void testSkip() throws Exception {
+        BlockCodec codec = new BlockCodec(6, 1000);
+        byte[] content = createContent();
+        byte[] encoded = encode(codec, content);
+        assertEquals(codec.getLength(new ByteArrayInputStream(encoded), encoded.length), content.length);
+        for (int offset : new int[] { 0, 1, 999, 1000, 1001, 25000, content.length - 1 }) {
+            InputStream input = codec.decode(new ByteArrayInputStream(encoded));
+            BlockCodec.skipFully(input, offset);
+            assertEquals(input.read(), content[offset] & 0xFF);
+            input.close();
+        }
+    }
+
+    @Test
+    public void testFlush() throws Exception {
+        BlockCodec codec = new BlockCodec(6, 1000);
+        byte[] content = createContent();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream output = codec.encode(bytes);
+        for (int offset = 0; offset < content.length; offset += 777) {
+            output.write(content, offset, Math.min(777, content.length - offset));
+            output.flush();
+        }
+        output.close();
+        // flushes don't cut blocks short, the encoding is the same as without flushes
+        assertEquals(bytes.toByteArray(), encode(codec, content));
+        assertEquals(toByteArray(codec.decode(new ByteArrayInputStream(bytes.toByteArray()))), content);
+    }
+
+    private static byte[] createContent() {
+        StringBuilder content = new StringBuilder();
+        for (int row = 0; row < 5000; row++) {
+            content.append(row).append(",value").append(row % 13).append('\n');
+        }
+        return content.toString().getBytes();
+    }
+
+    private static byte[] encode(Codec codec, byte[] content) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream output = codec.encode(bytes);
+        for (int offset = 0; offset < content.length; offset += 777) {
+            output.write(content, offset, Math.min(777, content.length - offset));
+        }
+        output.close();
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.columnar;
+
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.FormatFactory;
+import com.nuodb.migrator.backup.format.Input;
+import com.nuodb.migrator.backup.format.Output;
+import com.nuodb.migrator.backup.format.SimpleFormatFactory;
+import com.nuodb.migrator.backup.format.value.MutableValue;
+import com.nuodb.migrator.backup.format.value.Value;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.backup.format.columnar.ColumnarFormat.ATTRIBUTE_BLOCK_SIZE;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Verifies that rows written in columnar format are read back unchanged
+ * whichever encoding is chosen for a column block
+ */
+public class ColumnarFormatTest {
+
+    private static final int ROWS = 1000;
+
+    @Test
+    public void testReadWrite() throws Exception {
+        RowSet rowSet = new RowSet();
+        rowSet.addColumn("id", STRING);
+        rowSet.addColumn("status", STRING);
+        rowSet.addColumn("code", STRING);
+        rowSet.addColumn("data", BINARY);
+
+        List<Value[]> rows = newArrayList();
+        for (int row = 0; row < ROWS; row++) {
+            MutableValue id = new MutableValue();
+            id.setLong(row % 7 == 0 ? Long.MIN_VALUE + row : row * 1000L - 50000L);
+            Value status = string(row % 11 == 0 ? null : "status" + row % 3);
+            Value code = string(row < 500 ? String.valueOf(row) : row % 2 == 0 ? "0" + row : "-" + row);
+            Value data = binary(row % 5 == 0 ? null : new byte[] { (byte) row, (byte) (row >> 8) });
+            rows.add(new Value[] { id, status, code, data });
+        }
+
+        FormatFactory formatFactory = new SimpleFormatFactory();
+        Map<String, Object> attributes = newHashMap();
+        attributes.put(ATTRIBUTE_BLOCK_SIZE, "128");
+        Output output = formatFactory.createOutput(ColumnarFormat.TYPE, attributes);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        output.setRowSet(rowSet);
+        output.setOutputStream(bytes);
+        output.init();
+        output.writeStart();
+        for (Value[] values : rows) {
+            output.writeValues(values);
+        }
+        output.writeEnd();
+        output.close();
+
+        Input input = formatFactory.createInput(ColumnarFormat.TYPE, attributes);
+        input.setRowSet(rowSet);
+        input.setInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        input.init();
+        input.readStart();
+        for (Value[] expected : rows) {
+            Value[] values = input.readValues();
+            for (int index = 0; index < expected.length; index++) {
+                assertEquals(values[index].isNull(), expected[index].isNull());
+                if (expected[index].getValueType() == BINARY) {
+                    assertEquals(values[index].asBytes(), expected[index].asBytes());
+                } else {
+                    assertEquals(values[index].asString(), expected[index].asString());
+                }
+            }
+        }
+        assertNull(input.readValues());
+        input.readEnd();
+        input.close();
+    }
+}
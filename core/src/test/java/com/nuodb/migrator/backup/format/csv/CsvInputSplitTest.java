@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.csv;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.backup.format.csv.CsvFormat.ATTRIBUTE_ENCODING;
+import static com.nuodb.migrator.backup.format.csv.CsvFormat.ATTRIBUTE_QUOTING;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Verifies that csv content split into ranges yields the same records as the
+ * content parsed as a whole
+ */
+public class CsvInputSplitTest {
+
+    private static final String ENCODING = "UTF-8";
+
+    @DataProvider(name = "split")
+    public Object[][] createSplitData() {
+        return new Object[][] { { "false", 7 }, { "true", 7 }, { "false", 1 }, { "true", 64 } };
+    }
+
+    @Test(dataProvider = "split")
+    public void testSplit(String quoting, int ranges) throws Exception {
+        Map<String, Object> attributes = newHashMap();
+        attributes.put(ATTRIBUTE_QUOTING, quoting);
+        attributes.put(ATTRIBUTE_ENCODING, ENCODING);
+        CSVFormat format = new CsvFormatBuilder(createInput(attributes)).build();
+
+        StringWriter writer = new StringWriter();
+        CSVPrinter printer = new CSVPrinter(writer, format);
+        printer.printRecord("column1", "column2");
+        for (int record = 0; record < 1000; record++) {
+            printer.printRecord("value" + record + (record % 5 == 0 ? "x\ny|,\"q\r\n" : ""),
+                    record % 3 == 0 ? "|||" : "é" + record);
+        }
+        printer.flush();
+        byte[] bytes = writer.toString().getBytes(ENCODING);
+
+        long[] offsets = createInput(attributes).split(new ByteArrayInputStream(bytes), bytes.length, ranges);
+        assertEquals(offsets[0], 0L);
+        assertEquals(offsets[offsets.length - 1], (long) bytes.length);
+        assertTrue(offsets.length - 1 <= ranges);
+
+        List<String> records = newArrayList();
+        for (int range = 0; range < offsets.length - 1; range++) {
+            readRecords(new ByteArrayInputStream(bytes, (int) offsets[range],
+                    (int) (offsets[range + 1] - offsets[range])), format, range == 0, records);
+        }
+        List<String> expected = newArrayList();
+        readRecords(new ByteArrayInputStream(bytes), format, true, expected);
+        assertEquals(records, expected);
+    }
+
+    protected CsvInput createInput(Map<String, Object> attributes) {
+        CsvInput input = new CsvInput();
+        input.setAttributes(attributes);
+        return input;
+    }
+
+    protected void readRecords(InputStream input, CSVFormat format, boolean header, List<String> records)
+            throws Exception {
+        CSVParser parser = new CSVParser(new InputStreamReader(input, ENCODING), format);
+        try {
+            Iterator<CSVRecord> iterator = parser.iterator();
+            if (header && iterator.hasNext()) {
+                iterator.next();
+            }
+            while (iterator.hasNext()) {
+                CSVRecord record = iterator.next();
+                records.add(record.get(0) + "," + record.get(1));
+            }
+        } finally {
+            parser.close();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import org.testng.annotations.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class ChunkCursorTest {
+
+    @Test
+    public void testEmpty() {
+        ChunkCursor chunkCursor = new ChunkCursor(new RowSet());
+        assertEquals(chunkCursor.getChunkRanges(), 0);
+        assertEquals(chunkCursor.getRemaining(), 0);
+        assertNull(chunkCursor.next());
+        assertEquals(chunkCursor.getRemaining(), 0);
+    }
+
+    @Test
+    public void testNext() {
+        RowSet rowSet = createRowSet(3);
+        ChunkCursor chunkCursor = new ChunkCursor(rowSet);
+        assertEquals(chunkCursor.getChunkRanges(), 3);
+        List<Chunk> chunks = newArrayList(rowSet.getChunks());
+        for (int index = 0; index < chunks.size(); index++) {
+            assertEquals(chunkCursor.getRemaining(), chunks.size() - index);
+            ChunkRange chunkRange = chunkCursor.next();
+            assertSame(chunkRange.getChunk(), chunks.get(index));
+            assertTrue(chunkRange.isWhole());
+        }
+        // cursor is exhausted & stays exhausted on the subsequent calls
+        assertNull(chunkCursor.next());
+        assertNull(chunkCursor.next());
+        assertEquals(chunkCursor.getRemaining(), 0);
+    }
+
+    @Test
+    public void testChunkRanges() {
+        Chunk chunk = new Chunk();
+        Collection<ChunkRange> chunkRanges = newArrayList();
+        chunkRanges.add(new ChunkRange(chunk, 0, 0L, 100L));
+        chunkRanges.add(new ChunkRange(chunk, 1, 100L, ChunkRange.END));
+        ChunkCursor chunkCursor = new ChunkCursor(chunkRanges);
+
+        ChunkRange first = chunkCursor.next();
+        assertEquals(first.getIndex(), 0);
+        assertEquals(first.getEnd(), 100L);
+        ChunkRange last = chunkCursor.next();
+        assertEquals(last.getIndex(), 1);
+        assertEquals(last.getStart(), 100L);
+        assertEquals(last.getEnd(), ChunkRange.END);
+        assertNull(chunkCursor.next());
+    }
+
+    @Test
+    public void testConcurrentNext() throws Exception {
+        final int chunks = 1000;
+        final ChunkCursor chunkCursor = new ChunkCursor(createRowSet(chunks));
+        ExecutorService executor = newFixedThreadPool(8);
+        try {
+            Collection<Future<List<ChunkRange>>> futures = newArrayList();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(new Callable<List<ChunkRange>>() {
+                    @Override
+                    public List<ChunkRange> call() {
+                        List<ChunkRange> chunkRanges = newArrayList();
+                        ChunkRange chunkRange;
+                        while ((chunkRange = chunkCursor.next()) != null) {
+                            chunkRanges.add(chunkRange);
+                        }
+                        return chunkRanges;
+                    }
+                }));
+            }
+            // every chunk is taken by exactly one of the readers
+            Set<Chunk> taken = newHashSet();
+            int count = 0;
+            for (Future<List<ChunkRange>> future : futures) {
+                for (ChunkRange chunkRange : future.get()) {
+                    taken.add(chunkRange.getChunk());
+                    count++;
+                }
+            }
+            assertEquals(count, chunks);
+            assertEquals(taken.size(), chunks);
+            assertEquals(chunkCursor.getRemaining(), 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static RowSet createRowSet(int chunks) {
+        RowSet rowSet = new RowSet();
+        for (int index = 0; index < chunks; index++) {
+            Chunk chunk = new Chunk();
+            chunk.setName("chunk-" + index);
+            rowSet.addChunk(chunk);
+        }
+        return rowSet;
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+
+import static com.nuodb.migrator.backup.format.value.TemporalCodec.DATE;
+import static com.nuodb.migrator.backup.format.value.TemporalCodec.TIMESTAMP;
+import static com.nuodb.migrator.backup.format.value.TemporalCodec.YEAR;
+import static com.nuodb.migrator.backup.format.value.TemporalCodec.formatDate;
+import static com.nuodb.migrator.backup.format.value.TemporalCodec.formatTimestamp;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class TemporalCodecTest {
+
+    @DataProvider(name = "timestamps")
+    public Object[][] createTimestampData() {
+        return new Object[][] { { "2015-01-31 23:59:59.0" }, { "2015-1-2 00:00:00" }, { "1999-12-31 01:02:03.5" },
+                { "2000-02-29 12:30:45.123456789" }, { "0099-06-15 10:00:00.000100" } };
+    }
+
+    @Test(dataProvider = "timestamps")
+    public void testParseTimestamp(String value) {
+        assertEquals(TIMESTAMP.parse(value), Timestamp.valueOf(value));
+    }
+
+    @Test(dataProvider = "timestamps")
+    public void testFormatTimestamp(String value) {
+        Timestamp timestamp = Timestamp.valueOf(value);
+        StringBuilder chars = new StringBuilder();
+        formatTimestamp(timestamp, chars);
+        assertEquals(chars.toString(), timestamp.toString());
+    }
+
+    @Test
+    public void testParseDate() {
+        assertEquals(DATE.parse("2015-01-31"), Date.valueOf("2015-01-31"));
+        assertEquals(DATE.parse("2015-1-2"), Date.valueOf("2015-1-2"));
+
+        StringBuilder chars = new StringBuilder();
+        formatDate(Date.valueOf("2015-1-2"), chars);
+        assertEquals(chars.toString(), "2015-01-02");
+    }
+
+    @DataProvider(name = "mismatches")
+    public Object[][] createMismatchData() {
+        return new Object[][] { { TIMESTAMP, "2015-01-31" }, { TIMESTAMP, "2015-01-31 1:02:03" },
+                { TIMESTAMP, "2015-13-01 00:00:00" }, { TIMESTAMP, "2015-01-31 00:00:00." },
+                { TIMESTAMP, "2015-01-31 00:00:00.1234567890" }, { DATE, "2015-01-31 00:00:00" },
+                { DATE, "15-01-31" }, { YEAR, "2015-01" }, { YEAR, "abcd" } };
+    }
+
+    @Test(dataProvider = "mismatches")
+    public void testMismatch(TemporalCodec codec, String value) {
+        assertNull(codec.parse(value));
+    }
+}
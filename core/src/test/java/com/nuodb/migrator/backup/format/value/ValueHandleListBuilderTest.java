@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.model.SimpleField;
+import com.nuodb.migrator.jdbc.type.JdbcTypeDesc;
+import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Connection;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class ValueHandleListBuilderTest {
+
+    @Test
+    public void testValueFormatBuiltOnce() {
+        final List<JdbcTypeDesc> lookups = newArrayList();
+        ValueFormatRegistry valueFormatRegistry = new SimpleValueFormatRegistry() {
+            @Override
+            public ValueFormat getValueFormat(JdbcTypeDesc jdbcTypeDesc) {
+                lookups.add(jdbcTypeDesc);
+                return super.getValueFormat(jdbcTypeDesc);
+            }
+        };
+        ValueHandleList valueHandleList = new ValueHandleListBuilder() {
+            @Override
+            protected JdbcValueAccess buildJdbcValueAccess(ValueHandle valueHandle) {
+                return null;
+            }
+        }.withDialect(new NuoDBDialect()).withValueFormatRegistry(valueFormatRegistry)
+                .withFields(newArrayList(createField("id", Types.INTEGER), createField("name", Types.VARCHAR)))
+                .build();
+
+        // value type is resolved with the format set on the handle
+        assertEquals(lookups.size(), 2);
+        for (ValueHandle valueHandle : valueHandleList) {
+            assertNotNull(valueHandle.getValueFormat());
+            assertNotNull(valueHandle.getValueType());
+        }
+    }
+
+    @Test
+    public void testValueAccessorsSpecializedByType() throws Exception {
+        final List<Object> bound = newArrayList();
+        ValueHandleList valueHandleList = new ValueHandleListBuilder() {
+            @Override
+            protected JdbcValueAccess buildJdbcValueAccess(ValueHandle valueHandle) {
+                return createJdbcValueAccess(valueHandle, bound);
+            }
+        }.withDialect(new NuoDBDialect()).withValueFormatRegistry(new SimpleValueFormatRegistry())
+                .withLobStreaming(true)
+                .withFields(newArrayList(createField("id", Types.INTEGER), createField("price", Types.DECIMAL),
+                        createField("name", Types.VARCHAR), createField("data", Types.BLOB),
+                        createField("link", Types.DATALINK)))
+                .build();
+        ValueAccessor[] valueAccessors = valueHandleList.getValueAccessors();
+        assertEquals(valueAccessors.length, 5);
+
+        MutableValue value = new MutableValue();
+        assertEquals(valueAccessors[0].getValue(value).asString(), "42");
+        assertEquals(valueAccessors[2].getValue(value).asString(), "text");
+        // blob column is streamed as the lob streaming is resolved per column
+        valueAccessors[3].getValue(value);
+        assertTrue(value.isStream());
+
+        valueAccessors[0].setValue(string("7"));
+        valueAccessors[1].setValue(string("1.5"));
+        valueAccessors[2].setValue(string("text"));
+        valueAccessors[3].setValue(binary(new byte[] { 1 }));
+        valueAccessors[4].setValue(string("http://localhost"));
+        valueAccessors[0].setValue(string(null));
+        assertEquals(bound.get(0), 7);
+        assertEquals(bound.get(1), new BigDecimal("1.5"));
+        assertEquals(bound.get(2), "text");
+        assertEquals((byte[]) bound.get(3), new byte[] { 1 });
+        assertEquals(bound.get(4), new URL("http://localhost"));
+        assertNull(bound.get(5));
+    }
+
+    @Test(expectedExceptions = ValueFormatException.class)
+    public void testValueAccessorError() {
+        ValueHandleList valueHandleList = new ValueHandleListBuilder() {
+            @Override
+            protected JdbcValueAccess buildJdbcValueAccess(ValueHandle valueHandle) {
+                return createJdbcValueAccess(valueHandle, null);
+            }
+        }.withDialect(new NuoDBDialect()).withValueFormatRegistry(new SimpleValueFormatRegistry())
+                .withFields(newArrayList(createField("id", Types.INTEGER))).build();
+        valueHandleList.getValueAccessors()[0].setValue(string("id"));
+    }
+
+    protected static JdbcValueAccess createJdbcValueAccess(final Field field, final List<Object> bound) {
+        return new JdbcValueAccess<Object>() {
+            @Override
+            public Field getField() {
+                return field;
+            }
+
+            @Override
+            public int getIndex() {
+                return 0;
+            }
+
+            @Override
+            public Connection getConnection() {
+                return null;
+            }
+
+            @Override
+            public Object getValue(Map<String, Object> options) {
+                return 42;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <X> X getValue(Class<X> valueClass, Map<String, Object> options) {
+                Object value;
+                if (valueClass == InputStream.class) {
+                    value = new ByteArrayInputStream(new byte[] { 1 });
+                } else if (valueClass == byte[].class) {
+                    value = new byte[] { 1 };
+                } else {
+                    value = "text";
+                }
+                return (X) value;
+            }
+
+            @Override
+            public <X> void setValue(X value, Map<String, Object> options) {
+                bound.add(value);
+            }
+        };
+    }
+
+    protected static SimpleField createField(String name, int typeCode) {
+        SimpleField field = new SimpleField();
+        field.setName(name);
+        field.setTypeCode(typeCode);
+        return field;
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.codec.SplittableCodec;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class ChunkLevelParallelizerTest {
+
+    private int decodes;
+    private Long length;
+    private ChunkLevelParallelizer parallelizer;
+    private BackupLoaderContext backupLoaderContext;
+
+    @BeforeMethod
+    public void setUp() {
+        decodes = 0;
+        parallelizer = new ChunkLevelParallelizer() {
+            @Override
+            protected Long getLength(Chunk chunk, SplittableCodec codec, BackupOps backupOps) {
+                decodes++;
+                return length;
+            }
+        };
+        parallelizer.setMinRangeSize(10);
+        backupLoaderContext = new SimpleBackupLoaderContext();
+    }
+
+    @Test
+    public void testLengthDecodedOnce() {
+        length = 100L;
+        Chunk chunk = new Chunk();
+        assertEquals(parallelizer.getLength(chunk, backupLoaderContext), length);
+        assertEquals(parallelizer.getMaxChunkRanges(chunk, parallelizer.getLength(chunk, backupLoaderContext),
+                backupLoaderContext), 10L);
+        assertEquals(decodes, 1);
+    }
+
+    @Test
+    public void testUnknownLengthDecodedOnce() {
+        length = null;
+        Chunk chunk = new Chunk();
+        assertNull(parallelizer.getLength(chunk, backupLoaderContext));
+        assertNull(parallelizer.getLength(chunk, backupLoaderContext));
+        assertEquals(decodes, 1);
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.backup.TableRowSet;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.PrimaryKey;
+import com.nuodb.migrator.jdbc.metadata.Schema;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.session.WorkEvent;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.jdbc.metadata.Identifier.valueOf;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createForeignKey;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createIndex;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createSchema;
+import static com.nuodb.migrator.spec.MigrationMode.DATA;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Verifies order in which {@link LoadConstraintScheduler} starts constraints
+ */
+public class LoadConstraintSchedulerTest {
+
+    private Table table1;
+    private Table table2;
+    private LoadTables loadTables;
+    private BackupLoader backupLoader;
+    private SimpleBackupLoaderManager backupLoaderManager;
+    private List<String> started;
+    private Map<String, LoadConstraint> loadConstraints;
+    private boolean loadConstraintsDone;
+
+    @BeforeMethod
+    public void setUp() {
+        Schema schema = createSchema(null, "schema");
+        table1 = schema.addTable("t1");
+        table2 = schema.addTable("t2");
+        Column id1 = table1.addColumn("id");
+        Column name1 = table1.addColumn("name");
+        Column id2 = table2.addColumn("id");
+        Column ref2 = table2.addColumn("t1_id");
+
+        LoadConstraints constraints = new LoadConstraints();
+        constraints.addForeignKey(createForeignKey("fk", singleton(id1), singleton(ref2)));
+        constraints.addIndex(createIndex("idx", singleton(name1), false));
+        constraints.addIndex(createIndex("uidx", asList(id1, name1), true));
+        constraints.addPrimaryKey(createPrimaryKey("pk1", id1));
+        constraints.addPrimaryKey(createPrimaryKey("pk2", id2));
+        loadConstraints = newHashMap();
+        for (LoadConstraint loadConstraint : constraints) {
+            loadConstraints.put(loadConstraint.getConstraint().getName(), loadConstraint);
+        }
+        loadTables = new LoadTables();
+
+        SimpleBackupLoaderContext backupLoaderContext = new SimpleBackupLoaderContext();
+        backupLoaderContext.setMigrationModes(newArrayList(DATA));
+        backupLoaderContext.setLoadConstraints(constraints);
+        backupLoaderContext.setLoadTables(loadTables);
+
+        started = newArrayList();
+        loadConstraintsDone = false;
+        backupLoaderManager = new SimpleBackupLoaderManager() {
+            @Override
+            public void loadConstraintsDone() {
+                loadConstraintsDone = true;
+            }
+        };
+        backupLoaderManager.setBackupLoaderContext(backupLoaderContext);
+        backupLoader = new BackupLoader() {
+            @Override
+            protected Table getTable(LoadTable loadTable, BackupLoaderContext backupLoaderContext) {
+                return loadTable.getTable();
+            }
+
+            @Override
+            protected void loadConstraint(LoadConstraint loadConstraint, BackupLoaderManager backupLoaderManager) {
+                started.add(loadConstraint.getConstraint().getName());
+            }
+        };
+    }
+
+    @Test
+    public void testRankOrder() {
+        backupLoader.setConstraintThreads(1);
+        LoadConstraintScheduler scheduler = new LoadConstraintScheduler(backupLoader, backupLoaderManager);
+        scheduler.start();
+        assertEquals(started.size(), 1);
+        for (int i = 0; i < loadConstraints.size(); i++) {
+            loaded(scheduler, started.get(i));
+        }
+        assertEquals(started.subList(2, started.size()), asList("uidx", "idx", "fk"));
+        assertTrue(started.subList(0, 2).containsAll(asList("pk1", "pk2")));
+        assertTrue(loadConstraintsDone);
+    }
+
+    @Test
+    public void testWaitForTables() {
+        backupLoader.setConstraintThreads(4);
+        loadTables.addLoadTable(new LoadTable(new TableRowSet(table1), table1, null));
+        loadTables.addLoadTable(new LoadTable(new TableRowSet(table2), table2, null));
+        LoadConstraintScheduler scheduler = new LoadConstraintScheduler(backupLoader, backupLoaderManager);
+        scheduler.start();
+        assertEquals(started.size(), 0);
+
+        tableLoaded(scheduler, table2);
+        assertEquals(started, asList("pk2"));
+        tableLoaded(scheduler, table1);
+        assertEquals(started, asList("pk2", "pk1", "uidx", "idx"));
+
+        // foreign key waits for primary keys & indexes of both tables
+        loaded(scheduler, "pk1");
+        loaded(scheduler, "uidx");
+        loaded(scheduler, "idx");
+        assertEquals(started.size(), 4);
+        loaded(scheduler, "pk2");
+        assertEquals(started, asList("pk2", "pk1", "uidx", "idx", "fk"));
+        assertFalse(loadConstraintsDone);
+        loaded(scheduler, "fk");
+        assertTrue(loadConstraintsDone);
+    }
+
+    @Test
+    public void testDeferConstraints() {
+        backupLoader.setConstraintThreads(4);
+        backupLoader.setDeferConstraints(true);
+        loadTables.addLoadTable(new LoadTable(new TableRowSet(table1), table1, null));
+        LoadConstraintScheduler scheduler = new LoadConstraintScheduler(backupLoader, backupLoaderManager);
+        scheduler.start();
+        tableLoaded(scheduler, table1);
+        assertEquals(started.size(), 0);
+
+        scheduler.onExecuteEnd(new WorkEvent(new LoadTablesWork(backupLoaderManager)));
+        assertEquals(started.size(), 4);
+        assertFalse(started.contains("fk"));
+    }
+
+    protected void tableLoaded(LoadConstraintScheduler scheduler, Table table) {
+        LoadTable loadTable = new LoadTable(new TableRowSet(table), table, null);
+        scheduler.onExecuteEnd(new WorkEvent(new LoadTableWork(loadTable, backupLoaderManager)));
+    }
+
+    protected void loaded(LoadConstraintScheduler scheduler, String constraint) {
+        scheduler.onExecuteEnd(
+                new WorkEvent(new LoadConstraintWork(loadConstraints.get(constraint), backupLoaderManager)));
+    }
+
+    protected static PrimaryKey createPrimaryKey(String name, Column column) {
+        PrimaryKey primaryKey = new PrimaryKey(valueOf(name));
+        primaryKey.setTable(column.getTable());
+        primaryKey.addColumn(column, 0);
+        return primaryKey;
+    }
+}
@@ -0,0 +1,313 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.TableRowSet;
+import com.nuodb.migrator.backup.XmlBackupOps;
+import com.nuodb.migrator.backup.format.value.LobValue;
+import com.nuodb.migrator.backup.format.value.Row;
+import com.nuodb.migrator.backup.format.value.RowReader;
+import com.nuodb.migrator.backup.format.value.SimpleValueFormatRegistry;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueAccessor;
+import com.nuodb.migrator.backup.format.value.ValueType;
+import com.nuodb.migrator.backup.writer.LobOutput;
+import com.nuodb.migrator.jdbc.commit.CommitExecutor;
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.InsertQuery;
+import com.nuodb.migrator.jdbc.session.SessionBase;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.io.ByteStreams.toByteArray;
+import static com.google.common.io.Files.createTempDir;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createTable;
+import static java.sql.Types.BLOB;
+import static java.sql.Types.CLOB;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Verifies order of the chunk & row events raised by a fork work loading rows
+ * with multi row inserts and streaming of large objects from the lob files
+ */
+public class LoadTableForkWorkTest {
+
+    @Test
+    public void testMultiRowEventOrder() throws Exception {
+        Table table = createTable(null, "schema", "table");
+        Column column = table.addColumn("id");
+        TableRowSet rowSet = new TableRowSet(table);
+        rowSet.addColumn("id", STRING);
+        Chunk chunk1 = createChunk(rowSet, "chunk1");
+        Chunk chunk2 = createChunk(rowSet, "chunk2");
+
+        InsertQuery query = new InsertQuery();
+        query.setDialect(new NuoDBDialect());
+        query.setInto(table);
+        query.addColumn(column);
+        LoadTable loadTable = new LoadTable(rowSet, table, query, 1);
+
+        SimpleBackupLoaderContext backupLoaderContext = new SimpleBackupLoaderContext();
+        backupLoaderContext.setInsertRows(3);
+        SimpleBackupLoaderManager backupLoaderManager = new SimpleBackupLoaderManager();
+        backupLoaderManager.setBackupLoaderContext(backupLoaderContext);
+        final List<String> events = newArrayList();
+        backupLoaderManager.addListener(new LoadEventRecorder(events));
+
+        AtomicInteger commits = new AtomicInteger();
+        execute(loadTable, backupLoaderManager, commits, new Row(chunk1, new Value[1], 0),
+                new Row(chunk1, new Value[1], 1), new Row(chunk2, new Value[1], 0), new Row(chunk2, new Value[1], 1));
+
+        // rows of the first chunk are buffered and loaded before the chunk ends
+        assertEquals(events, asList("start chunk1", "row chunk1 0", "row chunk1 1", "end chunk1", "start chunk2",
+                "row chunk2 0", "row chunk2 1", "end chunk2"));
+        // the multi row insert spans chunks, so only the batch & the tail are committed
+        assertEquals(commits.get(), 2);
+    }
+
+    @Test
+    public void testChunkSharedByWorks() throws Exception {
+        Table table = createTable(null, "schema", "table");
+        Column column = table.addColumn("id");
+        TableRowSet rowSet = new TableRowSet(table);
+        rowSet.addColumn("id", STRING);
+        Chunk chunk = createChunk(rowSet, "chunk");
+
+        InsertQuery query = new InsertQuery();
+        query.setDialect(new NuoDBDialect());
+        query.setInto(table);
+        query.addColumn(column);
+        LoadTable loadTable = new LoadTable(rowSet, table, query, 2);
+
+        SimpleBackupLoaderManager backupLoaderManager = new SimpleBackupLoaderManager();
+        backupLoaderManager.setBackupLoaderContext(new SimpleBackupLoaderContext());
+        final List<String> events = newArrayList();
+        backupLoaderManager.addListener(new LoadEventRecorder(events));
+
+        // rows of the chunk are shared by two works
+        execute(loadTable, backupLoaderManager, null, new Row(chunk, new Value[1], 0));
+        assertEquals(events, asList("start chunk", "row chunk 0"));
+        execute(loadTable, backupLoaderManager, null, new Row(chunk, new Value[1], 1));
+        assertEquals(events, asList("start chunk", "row chunk 0", "row chunk 1", "end chunk"));
+    }
+
+    protected static void execute(LoadTable loadTable, BackupLoaderManager backupLoaderManager,
+            AtomicInteger commits, Row... rows) throws Exception {
+        final Iterator<Row> iterator = asList(rows).iterator();
+        LoadTableForkWork loadTableForkWork = new LoadTableForkWork(loadTable, new RowReader() {
+            @Override
+            public Row readRow() {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+
+            @Override
+            public void close() {
+            }
+        }, 0, backupLoaderManager) {
+            @Override
+            protected ValueAccessor[] createValueAccessors(PreparedStatement statement, int offset) {
+                return null;
+            }
+
+            @Override
+            protected void setValues(CommitExecutor commitExecutor, ValueAccessor[] valueAccessors,
+                    Value[] values) {
+            }
+        };
+        loadTableForkWork.init(
+                new SessionBase(null, createConnection(null, commits), new NuoDBDialect(), false));
+        loadTableForkWork.execute();
+    }
+
+    @Test
+    public void testLobStreamedOnBind() throws Exception {
+        File dir = createTempDir();
+        try {
+            XmlBackupOps backupOps = new XmlBackupOps();
+            backupOps.setPath(dir.getAbsolutePath());
+            LobOutput lobOutput = new LobOutput(backupOps, "table.lob");
+            String blob = lobOutput.write(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+            String clob = lobOutput.write(new StringReader("clob"));
+            lobOutput.close();
+
+            Table table = createTable(null, "schema", "table");
+            table.addColumn("blob").setTypeCode(BLOB);
+            table.addColumn("clob").setTypeCode(CLOB);
+            TableRowSet rowSet = new TableRowSet(table);
+            addLob(rowSet, "blob", BINARY);
+            addLob(rowSet, "clob", STRING);
+            Chunk chunk = createChunk(rowSet, "chunk");
+            chunk.setLobs(lobOutput.getName());
+
+            InsertQuery query = new InsertQuery();
+            query.setDialect(new NuoDBDialect());
+            query.setInto(table);
+            for (Column column : table.getColumns()) {
+                query.addColumn(column);
+            }
+            LoadTable loadTable = new LoadTable(rowSet, table, query, 1);
+
+            SimpleBackupLoaderContext backupLoaderContext = new SimpleBackupLoaderContext();
+            backupLoaderContext.setBackupOps(backupOps);
+            backupLoaderContext.setValueFormatRegistry(new SimpleValueFormatRegistry());
+            SimpleBackupLoaderManager backupLoaderManager = new SimpleBackupLoaderManager();
+            backupLoaderManager.setBackupLoaderContext(backupLoaderContext);
+
+            final Value[] values = new Value[] { string(blob), string(clob) };
+            final Iterator<Row> rows = asList(new Row(chunk, values, 0)).iterator();
+            LoadTableForkWork loadTableForkWork = new LoadTableForkWork(loadTable, new RowReader() {
+                @Override
+                public Row readRow() {
+                    return rows.hasNext() ? rows.next() : null;
+                }
+
+                @Override
+                public void close() {
+                }
+            }, 0, backupLoaderManager);
+            List<String> calls = newArrayList();
+            loadTableForkWork.init(new SessionBase(null, createConnection(calls, null), new NuoDBDialect(), false));
+            loadTableForkWork.execute();
+
+            // references read from the chunk are turned to values streaming from the lob file
+            assertTrue(values[0] instanceof LobValue);
+            assertTrue(values[1] instanceof LobValue);
+            assertEquals(((LobValue) values[0]).getOffset(), 0L);
+            assertEquals(((LobValue) values[0]).getLength(), 3L);
+            assertEquals(((LobValue) values[1]).getOffset(), 3L);
+            assertEquals(((LobValue) values[1]).getLength(), 4L);
+            assertEquals(toByteArray(((LobValue) values[0]).asInputStream()), new byte[] { 1, 2, 3 });
+            assertEquals(values[1].asString(), "clob");
+            // and are bound as streams
+            assertEquals(calls, asList("setBinaryStream", "setCharacterStream"));
+            loadTableForkWork.close();
+        } finally {
+            FileUtils.deleteQuietly(dir);
+        }
+    }
+
+    protected static void addLob(RowSet rowSet, String name, ValueType valueType) {
+        com.nuodb.migrator.backup.Column column = new com.nuodb.migrator.backup.Column(name, valueType);
+        column.setLob(true);
+        rowSet.addColumn(column);
+    }
+
+    protected static Chunk createChunk(TableRowSet rowSet, String name) {
+        Chunk chunk = new Chunk();
+        chunk.setName(name);
+        chunk.setRowCount(2L);
+        rowSet.addChunk(chunk);
+        return chunk;
+    }
+
+    /**
+     * Creates connection which prepares statements doing nothing
+     *
+     * @param calls
+     *            records names of the setters called on the statements, if
+     *            not null
+     * @param commits
+     *            counts commits of the connection, if not null
+     */
+    protected static Connection createConnection(final List<String> calls, final AtomicInteger commits) {
+        final Connection[] connection = new Connection[1];
+        final PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(
+                LoadTableForkWorkTest.class.getClassLoader(), new Class[] { PreparedStatement.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (calls != null && method.getName().startsWith("set")) {
+                            calls.add(method.getName());
+                        }
+                        if (method.getName().equals("getConnection")) {
+                            return connection[0];
+                        } else if (method.getName().equals("executeBatch")) {
+                            return new int[0];
+                        }
+                        return null;
+                    }
+                });
+        connection[0] = (Connection) Proxy.newProxyInstance(LoadTableForkWorkTest.class.getClassLoader(),
+                new Class[] { Connection.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (commits != null && method.getName().equals("commit")) {
+                            commits.incrementAndGet();
+                        }
+                        return method.getName().equals("prepareStatement") ? statement : null;
+                    }
+                });
+        return connection[0];
+    }
+
+    static class LoadEventRecorder extends BackupLoaderAdapter implements LoadRowListener {
+
+        private final List<String> events;
+
+        public LoadEventRecorder(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void onLoadStart(LoadChunkEvent event) {
+            events.add("start " + event.getChunk().getName());
+        }
+
+        @Override
+        public void onLoadEnd(LoadChunkEvent event) {
+            events.add("end " + event.getChunk().getName());
+        }
+
+        @Override
+        public void onLoadRow(LoadRowEvent event) {
+            events.add("row " + event.getRow().getChunk().getName() + " " + event.getRow().getNumber());
+        }
+    }
+}
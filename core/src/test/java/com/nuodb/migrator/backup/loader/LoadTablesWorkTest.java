@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.TableRowSet;
+import com.nuodb.migrator.backup.format.value.ChunkCursor;
+import com.nuodb.migrator.backup.format.value.ChunkRange;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createTable;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Verifies that idle threads of the work stealing parallelizer steal chunks
+ * of the running table with the most chunks left
+ */
+public class LoadTablesWorkTest {
+
+    private final Map<LoadTable, ChunkCursor> chunkCursors = newHashMap();
+    private SimpleBackupLoaderManager backupLoaderManager;
+
+    @BeforeMethod
+    public void setUp() {
+        chunkCursors.clear();
+        SimpleBackupLoaderContext backupLoaderContext = new SimpleBackupLoaderContext();
+        backupLoaderContext.setParallelizer(new WorkStealingParallelizer() {
+            @Override
+            public ChunkCursor createChunkCursor(LoadTable loadTable, BackupLoaderContext backupLoaderContext) {
+                return chunkCursors.get(loadTable);
+            }
+        });
+        backupLoaderManager = new SimpleBackupLoaderManager();
+        backupLoaderManager.setBackupLoaderContext(backupLoaderContext);
+    }
+
+    @Test
+    public void testStealFromTableWithMostChunks() throws Exception {
+        LoadTableWork small = createLoadTableWork("small", 2);
+        LoadTableWork large = createLoadTableWork("large", 5);
+        Collection<LoadTableWork> running = asList(small, large);
+        LoadTablesWork loadTablesWork = new LoadTablesWork(backupLoaderManager);
+
+        LoadTableForkWork stolen = loadTablesWork.steal(running);
+        assertNotNull(stolen);
+        assertEquals(stolen.getLoadTable(), large.getLoadTable());
+        // stolen fork works are numbered after the table's own fork work
+        assertEquals(stolen.getThread(), 1);
+        assertEquals(loadTablesWork.steal(running).getThread(), 2);
+
+        // readers of the large table take all but one of its chunks
+        for (int i = 0; i < 4; i++) {
+            chunkCursors.get(large.getLoadTable()).next();
+        }
+        assertEquals(large.getStealableChunks(), 1);
+        stolen = loadTablesWork.steal(running);
+        assertEquals(stolen.getLoadTable(), small.getLoadTable());
+        assertEquals(stolen.getThread(), 1);
+    }
+
+    @Test
+    public void testNothingToSteal() throws Exception {
+        LoadTableWork loadTableWork = createLoadTableWork("table", 2);
+        LoadTableWork notStarted = new LoadTableWork(
+                new LoadTable(new TableRowSet(createTable(null, "schema", "other")), null, null, 1),
+                backupLoaderManager);
+        Collection<LoadTableWork> running = asList(loadTableWork, notStarted);
+        ChunkCursor chunkCursor = chunkCursors.get(loadTableWork.getLoadTable());
+        chunkCursor.next();
+        chunkCursor.next();
+        assertEquals(notStarted.getStealableChunks(), 0);
+        assertEquals(loadTableWork.getStealableChunks(), 0);
+        assertNull(loadTableWork.steal());
+        assertNull(new LoadTablesWork(backupLoaderManager).steal(running));
+    }
+
+    protected LoadTableWork createLoadTableWork(String name, int chunks) throws Exception {
+        Table table = createTable(null, "schema", name);
+        TableRowSet rowSet = new TableRowSet(table);
+        List<ChunkRange> chunkRanges = newArrayList();
+        for (int index = 0; index < chunks; index++) {
+            Chunk chunk = new Chunk();
+            chunk.setName(name + "." + index);
+            rowSet.addChunk(chunk);
+            chunkRanges.add(new ChunkRange(chunk));
+        }
+        LoadTable loadTable = new LoadTable(rowSet, table, null, 1);
+        chunkCursors.put(loadTable, new ChunkCursor(chunkRanges));
+        LoadTableWork loadTableWork = new LoadTableWork(loadTable, backupLoaderManager);
+        loadTableWork.init();
+        return loadTableWork;
+    }
+}
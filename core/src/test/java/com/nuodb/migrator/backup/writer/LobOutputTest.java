@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.writer;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+import com.nuodb.migrator.backup.XmlBackupOps;
+import com.nuodb.migrator.backup.format.value.LobValue;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.StringReader;
+
+import static com.google.common.io.Files.createTempDir;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static org.testng.Assert.assertEquals;
+
+public class LobOutputTest {
+
+    private File dir;
+    private XmlBackupOps backupOps;
+
+    @BeforeMethod
+    public void setUp() {
+        dir = createTempDir();
+        backupOps = new XmlBackupOps();
+        backupOps.setPath(dir.getAbsolutePath());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testWriteRead() throws Exception {
+        byte[] blob = new byte[100000];
+        for (int index = 0; index < blob.length; index++) {
+            blob[index] = (byte) index;
+        }
+        String clob = "файл lob";
+
+        LobOutput lobOutput = new LobOutput(backupOps, "t1.lob");
+        String blobReference = lobOutput.write(new ByteArrayInputStream(blob));
+        String clobReference = lobOutput.write(new StringReader(clob));
+        String emptyReference = lobOutput.write(new ByteArrayInputStream(new byte[0]));
+        lobOutput.close();
+
+        assertEquals(blobReference, "0:100000");
+        LobValue blobValue = new LobValue(backupOps, "t1.lob", blobReference, BINARY);
+        InputStream input = blobValue.asInputStream();
+        assertEquals(ByteStreams.toByteArray(input), blob);
+        assertEquals(input.read(), -1);
+
+        LobValue clobValue = new LobValue(backupOps, "t1.lob", clobReference, STRING);
+        assertEquals(clobValue.getOffset(), 100000);
+        assertEquals(CharStreams.toString(clobValue.asReader()), clob);
+        assertEquals(clobValue.asString(), clob);
+
+        LobValue emptyValue = new LobValue(backupOps, "t1.lob", emptyReference, BINARY);
+        assertEquals(emptyValue.asBytes().length, 0);
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.writer;
+
+import com.nuodb.migrator.jdbc.session.Work;
+import com.nuodb.migrator.jdbc.session.WorkBase;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class SimpleBackupWriterManagerTest {
+
+    private SimpleBackupWriterManager backupWriterManager;
+    private Work work;
+
+    @BeforeMethod
+    public void setUp() {
+        BackupWriterContext backupWriterContext = new SimpleBackupWriterContext();
+        backupWriterContext.setThreads(1);
+        backupWriterManager = new SimpleBackupWriterManager();
+        backupWriterManager.setBackupWriterContext(backupWriterContext);
+        work = new WorkBase() {
+            @Override
+            public String getName() {
+                return "work";
+            }
+
+            @Override
+            public void execute() {
+            }
+        };
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        backupWriterManager.getWriteStageExecutor().shutdownNow();
+    }
+
+    @Test
+    public void testExecuteWriteStage() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicReference<String> thread = new AtomicReference<String>();
+        Future<?> writeFuture = backupWriterManager.executeWriteStage(work, new Runnable() {
+            @Override
+            public void run() {
+                thread.set(Thread.currentThread().getName());
+                try {
+                    release.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertNotNull(writeFuture);
+        // the only write stage thread is busy, next write stage is rejected
+        assertNull(backupWriterManager.executeWriteStage(work, new Runnable() {
+            @Override
+            public void run() {
+            }
+        }));
+        release.countDown();
+        writeFuture.get();
+        assertTrue(thread.get().startsWith("write-stage-"));
+        // the thread is released and takes next write stage
+        Future<?> nextWriteFuture = null;
+        for (int attempt = 0; attempt < 100 && nextWriteFuture == null; attempt++) {
+            nextWriteFuture = backupWriterManager.executeWriteStage(work, new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            if (nextWriteFuture == null) {
+                Thread.sleep(10);
+            }
+        }
+        assertNotNull(nextWriteFuture);
+    }
+}
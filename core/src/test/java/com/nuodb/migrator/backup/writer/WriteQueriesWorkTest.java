@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.writer;
+
+import com.nuodb.migrator.backup.TableRowSet;
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.jdbc.session.SessionBase;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createTable;
+import static com.nuodb.migrator.jdbc.query.Queries.newQuery;
+import static com.nuodb.migrator.jdbc.split.QuerySplitters.newAdaptiveLimitSplitter;
+import static com.nuodb.migrator.jdbc.split.RowCountStrategies.newProvidedStrategy;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Verifies that the splits planned by {@link PlanQueryWork} are written
+ * heaviest query first, that a query is reported written after its last split
+ * and that the number of queries written at a time is limited
+ */
+public class WriteQueriesWorkTest {
+
+    private BackupWriterManager backupWriterManager;
+    private List<Runnable> forks;
+    private List<String> writes;
+    private WriteQueriesWork writeQueriesWork;
+
+    @BeforeMethod
+    public void setUp() {
+        backupWriterManager = new SimpleBackupWriterManager();
+        backupWriterManager.setBackupWriterContext(new SimpleBackupWriterContext());
+        forks = newArrayList();
+        writes = newArrayList();
+        writeQueriesWork = new WriteQueriesWork(backupWriterManager) {
+            @Override
+            protected void fork(Runnable runnable) {
+                forks.add(runnable);
+            }
+
+            @Override
+            protected void writeSplit(WriteQueryWork writeQueryWork) {
+                writes.add(writeQueryWork.getSplitName());
+            }
+        };
+    }
+
+    @Test
+    public void testHeaviestQueryFirst() throws Exception {
+        plan("small", 100);
+        plan("large", 300);
+        plan("medium", 200);
+        assertEquals(forks.size(), 6);
+        for (Runnable fork : forks) {
+            fork.run();
+        }
+        assertEquals(writes, asList("schema.large.1", "schema.large.2", "schema.large.3", "schema.medium.1",
+                "schema.medium.2", "schema.small.1"));
+    }
+
+    @Test
+    public void testPendingSplitsOvertaken() throws Exception {
+        plan("small", 200);
+        // a split of the small query is taken before the large query is planned
+        forks.remove(0).run();
+        plan("large", 300);
+        for (Runnable fork : forks) {
+            fork.run();
+        }
+        assertEquals(writes, asList("schema.small.1", "schema.large.1", "schema.large.2", "schema.large.3",
+                "schema.small.2"));
+    }
+
+    @Test
+    public void testWriteQueryEnd() throws Exception {
+        final List<String> writeQueryEnds = newArrayList();
+        backupWriterManager.addListener(new WriteQueryAdapter() {
+            @Override
+            public void onWriteQueryEnd(WriteChunkEvent event) {
+                writeQueryEnds.add(((WriteTable) event.getWriteQuery()).getTable().getName());
+            }
+        });
+        plan("small", 100);
+        plan("large", 300);
+        assertEquals(writeQueryEnds.size(), 0);
+        for (int i = 0; i < 3; i++) {
+            forks.remove(0).run();
+        }
+        // splits of the large query are taken first
+        assertEquals(writeQueryEnds, asList("large"));
+        forks.remove(0).run();
+        assertEquals(writeQueryEnds, asList("large", "small"));
+    }
+
+    @Test
+    public void testEmptyPlanWriteQueryEnd() throws Exception {
+        final List<String> writeQueryEnds = newArrayList();
+        backupWriterManager.addListener(new WriteQueryAdapter() {
+            @Override
+            public void onWriteQueryEnd(WriteChunkEvent event) {
+                writeQueryEnds.add(((WriteTable) event.getWriteQuery()).getTable().getName());
+            }
+        });
+        planEmpty("empty");
+        assertEquals(forks.size(), 0);
+        assertEquals(writeQueryEnds, asList("empty"));
+    }
+
+    @Test
+    public void testMaxWriteQueries() throws Exception {
+        backupWriterManager.getBackupWriterContext().setMaxWriteQueries(1);
+        final List<String> events = newArrayList();
+        backupWriterManager.addListener(new WriteQueryAdapter() {
+            @Override
+            public void onWriteQueryStart(WriteChunkEvent event) {
+                events.add("start " + ((WriteTable) event.getWriteQuery()).getTable().getName());
+            }
+
+            @Override
+            public void onWriteQueryEnd(WriteChunkEvent event) {
+                events.add("end " + ((WriteTable) event.getWriteQuery()).getTable().getName());
+            }
+        });
+        plan("small", 100);
+        plan("medium", 200);
+        plan("large", 300);
+        // empty query takes no slot
+        planEmpty("empty");
+        assertEquals(events, asList("start small", "start empty", "end empty"));
+        assertEquals(forks.size(), 1);
+        forks.remove(0).run();
+        // heaviest of the waiting queries is started once the slot is free
+        assertEquals(events, asList("start small", "start empty", "end empty", "end small", "start large"));
+        assertEquals(forks.size(), 3);
+        while (!forks.isEmpty()) {
+            forks.remove(0).run();
+        }
+        assertEquals(events, asList("start small", "start empty", "end empty", "end small", "start large",
+                "end large", "start medium", "end medium"));
+        assertEquals(writes, asList("schema.small.1", "schema.large.1", "schema.large.2", "schema.large.3",
+                "schema.medium.1", "schema.medium.2"));
+    }
+
+    protected void plan(String name, long rowCount) throws Exception {
+        Table table = createTable(null, "schema", name);
+        WriteQuery writeQuery = new WriteTable(table, table.getColumns(), null,
+                newAdaptiveLimitSplitter(new NuoDBDialect(), newProvidedStrategy(rowCount),
+                        newQuery("SELECT * FROM " + name), new QueryLimit(100L)),
+                new TableRowSet());
+        // the planning itself is pending until splits are scheduled
+        writeQueriesWork.addPendingWrites(writeQuery, 1);
+        PlanQueryWork planQueryWork = new PlanQueryWork(writeQuery, writeQueriesWork, backupWriterManager);
+        planQueryWork.init(new SessionBase(null, null, null, false));
+        planQueryWork.execute();
+    }
+
+    protected void planEmpty(String name) {
+        Table table = createTable(null, "schema", name);
+        WriteQuery writeQuery = new WriteTable(table, table.getColumns(), null, null, new TableRowSet());
+        writeQueriesWork.addPendingWrites(writeQuery, 1);
+        writeQueriesWork.schedule(writeQuery, Collections.<WriteQueryWork> emptyList());
+    }
+
+    static class WriteQueryAdapter extends BackupWriterAdapter implements WriteQueryListener {
+
+        @Override
+        public void onWriteQueryStart(WriteChunkEvent event) {
+        }
+
+        @Override
+        public void onWriteQueryEnd(WriteChunkEvent event) {
+        }
+    }
+}
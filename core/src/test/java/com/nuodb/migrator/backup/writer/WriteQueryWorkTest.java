@@ -0,0 +1,274 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.writer;
+
+import com.nuodb.migrator.backup.BackupJournal;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.Column;
+import com.nuodb.migrator.backup.TableRowSet;
+import com.nuodb.migrator.backup.XmlBackupOps;
+import com.nuodb.migrator.backup.format.SimpleFormatFactory;
+import com.nuodb.migrator.backup.format.csv.CsvFormat;
+import com.nuodb.migrator.backup.format.value.MutableValue;
+import com.nuodb.migrator.backup.format.value.SimpleValueFormatRegistry;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.jdbc.query.StatementCallback;
+import com.nuodb.migrator.jdbc.session.SessionBase;
+import com.nuodb.migrator.jdbc.split.AdaptiveLimitQuerySplitter;
+import com.nuodb.migrator.jdbc.split.QuerySplit;
+import com.nuodb.migrator.jdbc.split.QuerySplitter;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static com.google.common.collect.Iterables.get;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.io.Files.createTempDir;
+import static com.nuodb.migrator.backup.BackupJournal.DUMP_JOURNAL;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createTable;
+import static com.nuodb.migrator.jdbc.query.Queries.newQuery;
+import static com.nuodb.migrator.jdbc.split.QuerySplitters.newAdaptiveLimitSplitter;
+import static com.nuodb.migrator.jdbc.split.RowCountStrategies.newProvidedStrategy;
+import static java.sql.Types.BLOB;
+import static java.sql.Types.CLOB;
+import static java.sql.Types.INTEGER;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class WriteQueryWorkTest {
+
+    private BackupWriterManager backupWriterManager;
+    private Table table;
+
+    @BeforeMethod
+    public void setUp() {
+        backupWriterManager = new SimpleBackupWriterManager();
+        backupWriterManager.setBackupWriterContext(new SimpleBackupWriterContext());
+        table = createTable(null, "schema", "table");
+    }
+
+    @Test
+    public void testSplitNameOnZeroEstimate() throws Exception {
+        QuerySplitter querySplitter = newAdaptiveLimitSplitter(new NuoDBDialect(), newProvidedStrategy(0),
+                newQuery("SELECT * FROM t"), new QueryLimit(100L));
+        WriteQuery writeQuery = new WriteTable(table, table.getColumns(), null, querySplitter, new TableRowSet());
+
+        QuerySplit querySplit = querySplitter.getNextQuerySplit(null);
+        assertFalse(querySplitter.hasNextQuerySplit(null));
+        WriteQueryWork writeQueryWork = new WriteQueryWork(writeQuery, querySplit, false, backupWriterManager);
+        // the only planned split is numbered, as the plan may still be extended
+        assertEquals(writeQueryWork.getSplitName(), "schema.table.1");
+
+        ((AdaptiveLimitQuerySplitter) querySplitter).querySplitDone(querySplit, 100);
+        WriteQueryWork nextWriteQueryWork = new WriteQueryWork(writeQuery, querySplitter.getNextQuerySplit(null),
+                false, backupWriterManager);
+        assertEquals(nextWriteQueryWork.getSplitName(), "schema.table.2");
+    }
+
+    @Test
+    public void testStreamReplacedWithLobReference() throws Exception {
+        File dir = createTempDir();
+        try {
+            XmlBackupOps backupOps = new XmlBackupOps();
+            backupOps.setPath(dir.getAbsolutePath());
+            SimpleBackupWriterContext backupWriterContext = (SimpleBackupWriterContext) backupWriterManager
+                    .getBackupWriterContext();
+            backupWriterContext.setBackupOps(backupOps);
+            backupWriterContext.setFormat(CsvFormat.TYPE);
+            backupWriterContext.setFormatFactory(new SimpleFormatFactory());
+            backupWriterContext.setValueFormatRegistry(new SimpleValueFormatRegistry());
+            backupWriterContext.setLobStreaming(true);
+
+            table.addColumn("id").setTypeCode(INTEGER);
+            table.addColumn("blob").setTypeCode(BLOB);
+            table.addColumn("clob").setTypeCode(CLOB);
+            final ResultSet resultSet = createResultSet(new byte[] { 1, 2, 3 }, "clob");
+            QuerySplit querySplit = new QuerySplitBase() {
+                @Override
+                public ResultSet getResultSet(Connection connection, StatementCallback callback) {
+                    return resultSet;
+                }
+            };
+            WriteQuery writeQuery = new WriteTable(table, table.getColumns(), null, null, new TableRowSet(table));
+            WriteQueryWork writeQueryWork = new WriteQueryWork(writeQuery, querySplit, false, backupWriterManager);
+            writeQueryWork.init(new SessionBase(null, null, new NuoDBDialect(), false));
+
+            Value[] values = new Value[] { new MutableValue(), new MutableValue(), new MutableValue() };
+            writeQueryWork.getValues(values);
+            assertFalse(((MutableValue) values[1]).isStream());
+            assertFalse(((MutableValue) values[2]).isStream());
+            assertEquals(values[1].asString(), "0:3");
+            assertEquals(values[2].asString(), "3:4");
+            assertTrue(get(writeQuery.getRowSet().getColumns(), 1).isLob());
+            assertFalse(get(writeQuery.getRowSet().getColumns(), 0).isLob());
+            writeQueryWork.close();
+        } finally {
+            FileUtils.deleteQuietly(dir);
+        }
+    }
+
+    @Test
+    public void testResumeOnMatchingBounds() throws Exception {
+        File dir = createTempDir();
+        try {
+            XmlBackupOps backupOps = new XmlBackupOps();
+            backupOps.setPath(dir.getAbsolutePath());
+            SimpleBackupWriterContext backupWriterContext = (SimpleBackupWriterContext) backupWriterManager
+                    .getBackupWriterContext();
+            backupWriterContext.setBackupOps(backupOps);
+            backupWriterContext.setFormat(CsvFormat.TYPE);
+            backupWriterContext.setFormatFactory(new SimpleFormatFactory());
+            backupWriterContext.setValueFormatRegistry(new SimpleValueFormatRegistry());
+            BackupJournal backupJournal = new BackupJournal(backupOps, DUMP_JOURNAL);
+            backupJournal.startSplit("schema.table", "0,100");
+            backupJournal.writeChunk("schema.table", createChunk("schema.table.csv"));
+            backupJournal.completeSplit("schema.table", "0,100",
+                    newArrayList(new Column("id", STRING)));
+            backupWriterContext.setBackupJournal(backupJournal);
+
+            table.addColumn("id").setTypeCode(INTEGER);
+            WriteQuery writeQuery = new WriteTable(table, table.getColumns(), null, null, new TableRowSet(table));
+            WriteQueryWork writeQueryWork = new WriteQueryWork(writeQuery, createQuerySplit("0,100"), false,
+                    backupWriterManager);
+            writeQueryWork.init(new SessionBase(null, null, new NuoDBDialect(), false));
+            assertTrue(writeQueryWork.isResumed());
+            assertEquals(writeQueryWork.getChunks().size(), 1);
+
+            // the same split planned over other rows is dumped again
+            writeQueryWork = new WriteQueryWork(writeQuery, createQuerySplit("0,50"), false, backupWriterManager);
+            writeQueryWork.init(new SessionBase(null, null, new NuoDBDialect(), false));
+            assertFalse(writeQueryWork.isResumed());
+            writeQueryWork.close();
+        } finally {
+            FileUtils.deleteQuietly(dir);
+        }
+    }
+
+    protected static QuerySplit createQuerySplit(final String bounds) {
+        final ResultSet resultSet = createResultSet(new byte[0], "");
+        return new QuerySplitBase() {
+            @Override
+            public String getBounds() {
+                return bounds;
+            }
+
+            @Override
+            public ResultSet getResultSet(Connection connection, StatementCallback callback) {
+                return resultSet;
+            }
+        };
+    }
+
+    protected static Chunk createChunk(String name) {
+        Chunk chunk = new Chunk();
+        chunk.setName(name);
+        chunk.setRowCount(100L);
+        return chunk;
+    }
+
+    /**
+     * Creates result set positioned on a row with integer, blob & clob values,
+     * where blob & clob streams are read from the same handler
+     */
+    protected static ResultSet createResultSet(final byte[] blob, final String clob) {
+        return (ResultSet) Proxy.newProxyInstance(WriteQueryWorkTest.class.getClassLoader(),
+                new Class[] { ResultSet.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        String name = method.getName();
+                        if (name.equals("getBlob") || name.equals("getClob")) {
+                            return Proxy.newProxyInstance(WriteQueryWorkTest.class.getClassLoader(),
+                                    new Class[] { method.getReturnType() }, this);
+                        } else if (name.equals("getBinaryStream")) {
+                            return new ByteArrayInputStream(blob);
+                        } else if (name.equals("getCharacterStream")) {
+                            return new StringReader(clob);
+                        } else if (name.equals("getInt")) {
+                            return 1;
+                        } else if (method.getReturnType() == boolean.class) {
+                            return false;
+                        }
+                        return null;
+                    }
+                });
+    }
+
+    static class QuerySplitBase implements QuerySplit {
+
+        @Override
+        public int getSplitIndex() {
+            return 0;
+        }
+
+        @Override
+        public Query getQuery() {
+            return null;
+        }
+
+        @Override
+        public QueryLimit getQueryLimit() {
+            return null;
+        }
+
+        @Override
+        public String getBounds() {
+            return null;
+        }
+
+        @Override
+        public ResultSet getResultSet() {
+            return null;
+        }
+
+        @Override
+        public ResultSet getResultSet(Connection connection) {
+            return null;
+        }
+
+        @Override
+        public ResultSet getResultSet(Connection connection, StatementCallback callback) throws SQLException {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.commit;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+
+public class AdaptiveBatchCommitExecutorTest {
+
+    @DataProvider(name = "nextBatchSize")
+    public Object[][] createNextBatchSizeData() {
+        return new Object[][] {
+                // twice faster than the target grows batch twice
+                { 1000L, 1001L, 0L, 500L, true, 2000L },
+                // growth per batch is limited to 2 times
+                { 1000L, 1001L, 0L, 10L, true, 2000L },
+                // twice slower than the target shrinks batch twice
+                { 1000L, 1001L, 0L, 2000L, true, 500L },
+                // within tolerance batch size is kept
+                { 1000L, 1001L, 0L, 950L, true, 1000L },
+                // partial batch is ignored, even if it's as large as a full one
+                { 1000L, 1001L, 0L, 10L, false, 1000L },
+                { 1000L, 10L, 0L, 10L, false, 1000L },
+                // bytes limit caps the batch
+                { 1000L, 1001L, 1001L * 1024, 100L, true, 1024L },
+                // batch size stays within bounds
+                { 100L, 101L, 0L, 10000L, true, 100L }, { 8000L, 8001L, 0L, 100L, true, 10000L } };
+    }
+
+    @Test(dataProvider = "nextBatchSize")
+    public void testNextBatchSize(long batchSize, long rows, long bytes, long duration, boolean full,
+            long nextBatchSize) {
+        AdaptiveBatchCommitExecutor commitExecutor = new AdaptiveBatchCommitExecutor(null, null, batchSize, 100,
+                10000, 1024 * 1024, 1000);
+        assertEquals(commitExecutor.getNextBatchSize(rows, bytes, MILLISECONDS.toNanos(duration), full), nextBatchSize);
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.dialect;
+
+import com.nuodb.migrator.jdbc.metadata.Table;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static com.nuodb.migrator.jdbc.dialect.RowCountHandler.UNKNOWN_ROW_COUNT;
+import static com.nuodb.migrator.jdbc.dialect.RowCountType.APPROX;
+import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.MYSQL;
+import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.POSTGRE_SQL;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createTable;
+import static java.lang.reflect.Proxy.newProxyInstance;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Verifies row count estimates read from the statistics, which were never
+ * collected, are unknown rather than zero
+ */
+public class TableRowCountHandlerTest {
+
+    @DataProvider(name = "approxRowCount")
+    public Object[][] createApproxRowCountData() {
+        Table table = createTable(null, "schema", "table");
+        RowCountHandler postgreSQL = new PostgreSQLTableRowCountHandler(new PostgreSQLDialect(POSTGRE_SQL), table, null, null,
+                APPROX);
+        RowCountHandler mySQL = new MySQLTableRowCountHandler(new MySQLDialect(MYSQL), table, null, null, APPROX);
+        return new Object[][] { { postgreSQL, 10L, 10L }, { postgreSQL, 0L, 0L },
+                { postgreSQL, -1L, UNKNOWN_ROW_COUNT }, { mySQL, 10L, 10L }, { mySQL, 0L, UNKNOWN_ROW_COUNT } };
+    }
+
+    @Test(dataProvider = "approxRowCount")
+    public void testApproxRowCount(RowCountHandler rowCountHandler, long value, long rowCount) throws Exception {
+        assertEquals(rowCountHandler.getRowCount(createConnection(value)), rowCount);
+    }
+
+    /**
+     * Creates connection which statements select a single row holding the
+     * given value
+     */
+    protected static Connection createConnection(final long value) {
+        ClassLoader classLoader = TableRowCountHandlerTest.class.getClassLoader();
+        final ResultSet resultSet = (ResultSet) newProxyInstance(classLoader, new Class[] { ResultSet.class },
+                new InvocationHandler() {
+                    private boolean next;
+
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("next")) {
+                            next = !next;
+                            return next;
+                        } else if (method.getName().equals("getLong")) {
+                            return value;
+                        } else if (method.getName().equals("wasNull")) {
+                            return false;
+                        }
+                        return null;
+                    }
+                });
+        final Statement statement = (Statement) newProxyInstance(classLoader, new Class[] { Statement.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        return method.getName().equals("executeQuery") ? resultSet : null;
+                    }
+                });
+        return (Connection) newProxyInstance(classLoader, new Class[] { Connection.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return method.getName().equals("createStatement") ? statement : null;
+            }
+        });
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Locale;
+
+import static com.nuodb.migrator.jdbc.metadata.Identifier.valueOf;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class IdentifierTest {
+
+    @Test
+    public void testValueOf() {
+        assertNull(valueOf(null));
+        assertNull(valueOf(""));
+        assertSame(valueOf("table"), valueOf("table"));
+        assertSame(valueOf("\"table\""), valueOf("table"));
+        assertSame(valueOf("[table]"), valueOf("`table`"));
+    }
+
+    @Test
+    public void testCaseInsensitive() {
+        Identifier lower = valueOf("table");
+        Identifier upper = valueOf("TABLE");
+        assertNotSame(lower, upper);
+        assertEquals(lower, upper);
+        assertEquals(lower.hashCode(), upper.hashCode());
+        assertEquals(upper.value(), "TABLE");
+    }
+
+    @Test
+    public void testCaseInsensitiveInTurkishLocale() {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            assertEqualsIgnoreCase(valueOf("\u0130D"), valueOf("id"));
+            assertEqualsIgnoreCase(valueOf("ID"), valueOf("id"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    protected static void assertEqualsIgnoreCase(Identifier identifier1, Identifier identifier2) {
+        assertEquals(identifier1, identifier2);
+        assertEquals(identifier1.hashCode(), identifier2.hashCode());
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        Identifier identifier = valueOf("column");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutput = new ObjectOutputStream(output);
+        objectOutput.writeObject(identifier);
+        objectOutput.close();
+        ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(output.toByteArray()));
+        assertSame(objectInput.readObject(), identifier);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.metadata.ForeignKey;
+import com.nuodb.migrator.jdbc.metadata.ForeignKeyReference;
+import com.nuodb.migrator.jdbc.metadata.ReferenceAction;
+import org.testng.annotations.Test;
+
+import java.sql.ResultSet;
+import java.util.Collection;
+
+import static com.google.common.collect.Iterables.get;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.FOREIGN_KEY;
+import static com.nuodb.migrator.jdbc.metadata.inspector.TableInspectorBaseTest.createResultSet;
+import static java.sql.DatabaseMetaData.importedKeyCascade;
+import static java.sql.DatabaseMetaData.importedKeyNoAction;
+import static java.sql.DatabaseMetaData.importedKeyNotDeferrable;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class MySQLForeignKeyInspectorTest {
+
+    private static final String[] LABELS = new String[] { "PKTABLE_CAT", "PKTABLE_SCHEM", "PKTABLE_NAME",
+            "PKCOLUMN_NAME", "FKTABLE_CAT", "FKTABLE_SCHEM", "FKTABLE_NAME", "FKCOLUMN_NAME", "KEY_SEQ",
+            "UPDATE_RULE", "DELETE_RULE", "FK_NAME", "DEFERRABILITY" };
+
+    private MySQLForeignKeyInspector inspector = new MySQLForeignKeyInspector();
+
+    @Test
+    public void testBulkQuery() {
+        String query = inspector.createQuery(null, new BulkTableInspectionScope("catalog", null, asList("t1")))
+                .toString();
+        assertTrue(query.startsWith("SELECT K.REFERENCED_TABLE_SCHEMA AS PKTABLE_CAT"));
+        assertTrue(query.contains("CASE R.UPDATE_RULE WHEN 'CASCADE' THEN 0 WHEN 'RESTRICT' THEN 1 "
+                + "WHEN 'SET NULL' THEN 2 WHEN 'SET DEFAULT' THEN 4 ELSE 3 END AS UPDATE_RULE"));
+        assertTrue(query.endsWith("WHERE K.REFERENCED_TABLE_NAME IS NOT NULL AND K.TABLE_SCHEMA=? "
+                + "ORDER BY FKTABLE_NAME, FK_NAME, KEY_SEQ"));
+        assertNull(inspector.createQuery(null, new TableInspectionScope("catalog", null, "t1")));
+    }
+
+    @Test
+    public void testProcessBulkResultSet() throws Exception {
+        BulkTableInspectionScope inspectionScope = new BulkTableInspectionScope("catalog", null, asList("t2"));
+        ResultSet resultSet = inspector.createBulkResultSet(createResultSet(LABELS,
+                new Object[] { "catalog", null, "t1", "id", "catalog", null, "t2", "t1_id", 1, importedKeyNoAction,
+                        importedKeyCascade, "fk_t2_t1", importedKeyNotDeferrable },
+                new Object[] { "catalog", null, "t1", "id", "catalog", null, "t3", "t1_id", 1, importedKeyNoAction,
+                        importedKeyNoAction, "fk_t3_t1", importedKeyNotDeferrable }), inspectionScope);
+        InspectionResults inspectionResults = new SimpleInspectionResults();
+        inspector.processResultSet(new SimpleInspectionContext(null, null, inspectionResults), inspectionScope,
+                resultSet);
+
+        // foreign key of the table outside of the scope is skipped
+        Collection<ForeignKey> foreignKeys = inspectionResults.getObjects(FOREIGN_KEY);
+        assertEquals(foreignKeys.size(), 1);
+        ForeignKey foreignKey = get(foreignKeys, 0);
+        assertEquals(foreignKey.getName(), "fk_t2_t1");
+        assertEquals(foreignKey.getForeignTable().getName(), "t2");
+        assertEquals(foreignKey.getPrimaryTable().getName(), "t1");
+        assertEquals(foreignKey.getDeleteAction(), ReferenceAction.CASCADE);
+        ForeignKeyReference reference = get(foreignKey.getReferences(), 0);
+        assertEquals(reference.getForeignColumn().getName(), "t1_id");
+        assertEquals(reference.getPrimaryColumn().getName(), "id");
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.query.ParameterizedQuery;
+import org.testng.annotations.Test;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class MySQLPrimaryKeyInspectorTest {
+
+    private MySQLPrimaryKeyInspector inspector = new MySQLPrimaryKeyInspector();
+
+    @Test
+    public void testBulkQuery() {
+        ParameterizedQuery query = (ParameterizedQuery) inspector.createQuery(null,
+                new BulkTableInspectionScope("catalog", null, asList("t1", "t2")));
+        assertEquals(query.getQuery().toString(),
+                "SELECT K.TABLE_SCHEMA AS TABLE_CAT, NULL AS TABLE_SCHEM, K.TABLE_NAME, K.COLUMN_NAME, "
+                        + "K.ORDINAL_POSITION AS KEY_SEQ FROM INFORMATION_SCHEMA.KEY_COLUMN_USAGE K "
+                        + "WHERE K.CONSTRAINT_NAME='PRIMARY' AND K.TABLE_SCHEMA=?");
+        assertEquals(query.getParameters(), asList((Object) "catalog"));
+
+        query = (ParameterizedQuery) inspector.createQuery(null,
+                new BulkTableInspectionScope(null, null, asList("t1", "t2")));
+        assertEquals(query.getQuery().toString(),
+                "SELECT K.TABLE_SCHEMA AS TABLE_CAT, NULL AS TABLE_SCHEM, K.TABLE_NAME, K.COLUMN_NAME, "
+                        + "K.ORDINAL_POSITION AS KEY_SEQ FROM INFORMATION_SCHEMA.KEY_COLUMN_USAGE K "
+                        + "WHERE K.CONSTRAINT_NAME='PRIMARY' AND K.TABLE_SCHEMA=DATABASE()");
+    }
+
+    @Test
+    public void testTableQuery() {
+        // single table is inspected with database metadata
+        assertNull(inspector.createQuery(null, new TableInspectionScope("catalog", null, "t1")));
+    }
+}
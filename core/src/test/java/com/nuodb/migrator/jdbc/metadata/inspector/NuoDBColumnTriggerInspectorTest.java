@@ -77,8 +77,10 @@ public class NuoDBColumnTriggerInspectorTest extends InspectorTestBase {
         given(resultSet.getInt("TRIGGER_TYPE")).willReturn(1);
         given(resultSet.getInt("TYPE_MASK")).willReturn(1);
         given(resultSet.getInt("ACTIVE")).willReturn(1);
+        given(resultSet.getString("SCHEMA")).willReturn(schemaName);
         given(resultSet.getString("TABLENAME")).willReturn(tableName);
         given(resultSet.getString("TRIGGER_TEXT")).willReturn("NEW.`f1` = 'NOW'; END_TRIGGER;");
+        inspectionResults.addObject(table.getDatabase());
         inspectionResults.addObject(table);
 
         TableInspectionScope inspectionScope = new TableInspectionScope(catalogName, schemaName, tableName);
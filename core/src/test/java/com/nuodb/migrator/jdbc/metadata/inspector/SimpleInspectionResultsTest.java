@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.Identifiable;
+import com.nuodb.migrator.jdbc.metadata.Identifier;
+import com.nuodb.migrator.jdbc.metadata.MetaData;
+import com.nuodb.migrator.jdbc.metadata.MetaDataType;
+import com.nuodb.migrator.jdbc.metadata.Schema;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.jdbc.metadata.Identifier.valueOf;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.COLUMN;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.TABLE;
+import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addSchema;
+import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class SimpleInspectionResultsTest {
+
+    private InspectionResults inspectionResults;
+
+    @BeforeMethod
+    public void setUp() {
+        inspectionResults = new SimpleInspectionResults();
+    }
+
+    @Test
+    public void testGetObjectByIdentifier() {
+        Table table1 = addTable(inspectionResults, "catalog", "schema1", "table");
+        addTable(inspectionResults, "catalog", "schema2", "table");
+        assertSame(inspectionResults.getObject(TABLE, "table"), table1);
+        assertNull(inspectionResults.getObject(TABLE, "missing"));
+        assertEquals(inspectionResults.getObjects(TABLE).size(), 2);
+    }
+
+    @Test
+    public void testGetObjectByParent() {
+        Table table1 = addTable(inspectionResults, "catalog", "schema1", "table");
+        Table table2 = addTable(inspectionResults, "catalog", "schema2", "table");
+        assertSame(inspectionResults.getObject(TABLE, table1.getSchema(), valueOf("table")), table1);
+        assertSame(inspectionResults.getObject(TABLE, table2.getSchema(), valueOf("table")), table2);
+
+        Schema schema3 = addSchema(inspectionResults, "catalog", "schema3");
+        assertNull(inspectionResults.getObject(TABLE, schema3, valueOf("table")));
+        Table table3 = addTable(inspectionResults, "catalog", "schema3", "table");
+        assertSame(inspectionResults.getObject(TABLE, schema3, valueOf("table")), table3);
+    }
+
+    @Test
+    public void testAddTableFoundByParent() {
+        final List<Identifier> found = newArrayList();
+        inspectionResults = new SimpleInspectionResults() {
+            @Override
+            public <M extends Identifiable> M getObject(MetaDataType objectType, MetaData parent,
+                    Identifier identifier) {
+                M object = super.getObject(objectType, parent, identifier);
+                if (object != null) {
+                    found.add(identifier);
+                }
+                return object;
+            }
+        };
+        Table table = addTable(inspectionResults, "catalog", "schema", "table");
+        assertSame(addTable(inspectionResults, "catalog", "schema", "table"), table);
+        assertEquals(found, newArrayList(valueOf("table")));
+        assertEquals(inspectionResults.getObjects(TABLE).size(), 1);
+    }
+
+    @Test
+    public void testAddObjects() {
+        Table table = addTable(inspectionResults, "catalog", "schema", "table");
+        Column column1 = table.addColumn("column1");
+        Column column2 = table.addColumn("column2");
+        inspectionResults.addObjects(newArrayList(column1, column2, column1));
+        assertEquals(inspectionResults.getObjects(COLUMN).size(), 2);
+        assertSame(inspectionResults.getObject(COLUMN, table, valueOf("column2")), column2);
+
+        // objects added after the scoped index is built are found within their parents
+        Column column3 = table.addColumn("column3");
+        inspectionResults.addObjects(newArrayList(column3));
+        assertSame(inspectionResults.getObject(COLUMN, table, valueOf("column3")), column3);
+    }
+
+    @Test
+    public void testRemoveObject() {
+        Table table1 = addTable(inspectionResults, "catalog", "schema1", "table");
+        Table table2 = addTable(inspectionResults, "catalog", "schema2", "table");
+        assertSame(inspectionResults.getObject(TABLE, table1.getSchema(), valueOf("table")), table1);
+        inspectionResults.removeObject(table1);
+        assertSame(inspectionResults.getObject(TABLE, "table"), table2);
+        assertNull(inspectionResults.getObject(TABLE, table1.getSchema(), valueOf("table")));
+        assertSame(inspectionResults.getObject(TABLE, table2.getSchema(), valueOf("table")), table2);
+        inspectionResults.removeObject(table2);
+        assertNull(inspectionResults.getObject(TABLE, "table"));
+    }
+}
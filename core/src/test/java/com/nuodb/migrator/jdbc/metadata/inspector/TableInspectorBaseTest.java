@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.metadata.Table;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Iterables.get;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newLinkedHashSet;
+import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TableInspectorBaseTest {
+
+    private SimpleColumnInspector inspector;
+    private InspectionResults inspectionResults;
+    private Map<String, Integer> schemaTables;
+    private InspectionContext inspectionContext;
+
+    @BeforeMethod
+    public void setUp() {
+        inspector = new SimpleColumnInspector();
+        inspector.setBulkInspectionThreshold(2);
+        inspectionResults = new SimpleInspectionResults();
+        schemaTables = newHashMap();
+        inspectionContext = createInspectionContext(schemaTables);
+    }
+
+    @Test
+    public void testCreateBulkInspectionScopes() throws Exception {
+        Collection<Table> tables = newArrayList();
+        tables.add(addTable(inspectionResults, "catalog", "schema1", "t1"));
+        tables.add(addTable(inspectionResults, "catalog", "schema2", "t2"));
+        tables.add(addTable(inspectionResults, "catalog", "schema1", "t3"));
+        schemaTables.put("schema1", 2);
+        schemaTables.put("schema2", 1);
+
+        Collection<? extends TableInspectionScope> inspectionScopes = inspector
+                .createBulkInspectionScopes(inspectionContext, tables);
+        assertEquals(inspectionScopes.size(), 2);
+
+        Iterator<? extends TableInspectionScope> iterator = inspectionScopes.iterator();
+        TableInspectionScope inspectionScope = iterator.next();
+        assertTrue(inspectionScope instanceof BulkTableInspectionScope);
+        assertEquals(inspectionScope.getSchema(), "schema1");
+        assertEquals(((BulkTableInspectionScope) inspectionScope).getTables(), newLinkedHashSet(asList("t1", "t3")));
+
+        inspectionScope = iterator.next();
+        assertFalse(inspectionScope instanceof BulkTableInspectionScope);
+        assertEquals(inspectionScope.getSchema(), "schema2");
+        assertEquals(inspectionScope.getTable(), "t2");
+    }
+
+    @Test
+    public void testBulkTableInspectionScope() {
+        BulkTableInspectionScope inspectionScope = new BulkTableInspectionScope("catalog", "schema",
+                asList("t1", "t2"));
+        assertEquals(inspectionScope.getTable(), null);
+        assertTrue(inspectionScope.hasTable("t1"));
+        assertFalse(inspectionScope.hasTable("t3"));
+    }
+
+    @Test
+    public void testBulkInspectionRatio() throws Exception {
+        Collection<Table> tables = newArrayList();
+        tables.add(addTable(inspectionResults, "catalog", "schema", "t1"));
+        tables.add(addTable(inspectionResults, "catalog", "schema", "t2"));
+        // half of the tables of the schema are inspected with a schema wide query
+        schemaTables.put("schema", 4);
+        Collection<? extends TableInspectionScope> inspectionScopes = inspector
+                .createBulkInspectionScopes(inspectionContext, tables);
+        assertTrue(get(inspectionScopes, 0) instanceof BulkTableInspectionScope);
+
+        schemaTables.put("schema", 5);
+        inspectionScopes = inspector.createBulkInspectionScopes(inspectionContext, tables);
+        assertEquals(inspectionScopes.size(), 2);
+        assertFalse(get(inspectionScopes, 0) instanceof BulkTableInspectionScope);
+    }
+
+    @Test
+    public void testBulkInspectionOfFilteredTables() throws Exception {
+        inspector.setBulkInspectionThreshold(3);
+        Collection<Table> tables = newArrayList();
+        tables.add(addTable(inspectionResults, "catalog", "schema", "t1"));
+        tables.add(addTable(inspectionResults, "catalog", "schema", "t2"));
+        tables.add(addTable(inspectionResults, "catalog", "schema", "t3"));
+        // model holds only the tables selected by the table filter, while the
+        // schema in the database has many more
+        schemaTables.put("schema", 1000);
+        Collection<? extends TableInspectionScope> inspectionScopes = inspector
+                .createBulkInspectionScopes(inspectionContext, tables);
+        assertEquals(inspectionScopes.size(), 3);
+        for (TableInspectionScope inspectionScope : inspectionScopes) {
+            assertFalse(inspectionScope instanceof BulkTableInspectionScope);
+        }
+
+        schemaTables.put("schema", 3);
+        inspectionScopes = inspector.createBulkInspectionScopes(inspectionContext, tables);
+        assertEquals(inspectionScopes.size(), 1);
+        assertTrue(get(inspectionScopes, 0) instanceof BulkTableInspectionScope);
+    }
+
+    @Test
+    public void testCreateBulkResultSet() throws Exception {
+        BulkTableInspectionScope inspectionScope = new BulkTableInspectionScope("catalog", "schema",
+                asList("t1", "t3"));
+        ResultSet resultSet = inspector.createBulkResultSet(createResultSet(new String[] { "TABLE_NAME" },
+                new Object[] { "t1" }, new Object[] { "t2" }, new Object[] { "t3" }, new Object[] { "t4" }),
+                inspectionScope);
+        List<String> tables = newArrayList();
+        while (resultSet.next()) {
+            tables.add(resultSet.getString("TABLE_NAME"));
+        }
+        assertEquals(tables, asList("t1", "t3"));
+    }
+
+    /**
+     * Creates inspection context which connection lists the given number of
+     * tables of a schema
+     */
+    protected static InspectionContext createInspectionContext(final Map<String, Integer> schemaTables) {
+        final DatabaseMetaData metaData = (DatabaseMetaData) Proxy.newProxyInstance(
+                TableInspectorBaseTest.class.getClassLoader(), new Class[] { DatabaseMetaData.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getTables")) {
+                            Integer tables = schemaTables.get(args[1]);
+                            Object[][] rows = new Object[tables != null ? tables : 0][];
+                            for (int row = 0; row < rows.length; row++) {
+                                rows[row] = new Object[] { "t" + (row + 1) };
+                            }
+                            return createResultSet(new String[] { "TABLE_NAME" }, rows);
+                        }
+                        return null;
+                    }
+                });
+        final Connection connection = (Connection) Proxy.newProxyInstance(
+                TableInspectorBaseTest.class.getClassLoader(), new Class[] { Connection.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        return method.getName().equals("getMetaData") ? metaData : null;
+                    }
+                });
+        return (InspectionContext) Proxy.newProxyInstance(TableInspectorBaseTest.class.getClassLoader(),
+                new Class[] { InspectionContext.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        return method.getName().equals("getConnection") ? connection : null;
+                    }
+                });
+    }
+
+    /**
+     * Creates forward only result set over the rows, values of a row are read
+     * by the labels of their columns
+     */
+    protected static ResultSet createResultSet(final String[] labels, final Object[]... rows) {
+        return (ResultSet) Proxy.newProxyInstance(TableInspectorBaseTest.class.getClassLoader(),
+                new Class[] { ResultSet.class }, new InvocationHandler() {
+
+                    private int row = -1;
+
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        String name = method.getName();
+                        Class<?> returnType = method.getReturnType();
+                        if (name.equals("next")) {
+                            return ++row < rows.length;
+                        } else if (name.equals("hashCode")) {
+                            return System.identityHashCode(proxy);
+                        } else if (name.equals("equals")) {
+                            return proxy == args[0];
+                        } else if (name.equals("toString")) {
+                            return "ResultSet" + asList(labels);
+                        } else if (name.startsWith("get") && args != null && args[0] instanceof String) {
+                            Object value = rows[row][asList(labels).indexOf(args[0])];
+                            if (returnType == int.class) {
+                                return value != null ? ((Number) value).intValue() : 0;
+                            }
+                            return value;
+                        }
+                        return returnType == boolean.class ? false : null;
+                    }
+                });
+    }
+}
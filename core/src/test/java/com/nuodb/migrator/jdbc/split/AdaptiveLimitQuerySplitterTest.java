@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.split;
+
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.jdbc.query.Queries.newQuery;
+import static com.nuodb.migrator.jdbc.split.RowCountStrategies.newProvidedStrategy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class AdaptiveLimitQuerySplitterTest {
+
+    @Test
+    public void testExtendPastEstimate() throws SQLException {
+        AdaptiveLimitQuerySplitter querySplitter = new AdaptiveLimitQuerySplitter(new NuoDBDialect(),
+                newProvidedStrategy(250), newQuery("SELECT * FROM t"), new QueryLimit(100L), null);
+        QuerySplit querySplit = null;
+        for (int splitIndex = 0; splitIndex < 3; splitIndex++) {
+            assertTrue(querySplitter.hasNextQuerySplit(null));
+            querySplit = querySplitter.getNextQuerySplit(null);
+            assertEquals(querySplit.getQueryLimit(), new QueryLimit(100L, splitIndex * 100L));
+        }
+        assertFalse(querySplitter.hasNextQuerySplit(null));
+
+        assertTrue(querySplitter.querySplitDone(querySplit, 100));
+        assertTrue(querySplitter.hasNextQuerySplit(null));
+        querySplit = querySplitter.getNextQuerySplit(null);
+        assertEquals(querySplit.getQueryLimit(), new QueryLimit(100L, 300L));
+        assertFalse(querySplitter.hasNextQuerySplit(null));
+
+        assertTrue(querySplitter.querySplitDone(querySplit, 100));
+        querySplitter.getNextQuerySplit(null);
+        querySplit = querySplitter.getNextQuerySplit(null);
+        assertFalse(querySplitter.hasNextQuerySplit(null));
+
+        assertFalse(querySplitter.querySplitDone(querySplit, 42));
+        assertFalse(querySplitter.hasNextQuerySplit(null));
+    }
+
+    @Test
+    public void testZeroEstimate() throws SQLException {
+        AdaptiveLimitQuerySplitter querySplitter = new AdaptiveLimitQuerySplitter(new NuoDBDialect(),
+                newProvidedStrategy(0), newQuery("SELECT * FROM t"), new QueryLimit(100L), null);
+        assertTrue(querySplitter.hasNextQuerySplit(null));
+        QuerySplit querySplit = querySplitter.getNextQuerySplit(null);
+        assertEquals(querySplit.getQueryLimit(), new QueryLimit(100L, 0L));
+        assertFalse(querySplitter.hasNextQuerySplit(null));
+
+        assertTrue(querySplitter.querySplitDone(querySplit, 100));
+        querySplit = querySplitter.getNextQuerySplit(null);
+        assertEquals(querySplit.getQueryLimit(), new QueryLimit(100L, 100L));
+    }
+
+    @Test
+    public void testSkipPastShortSplit() throws SQLException {
+        AdaptiveLimitQuerySplitter querySplitter = new AdaptiveLimitQuerySplitter(new NuoDBDialect(),
+                newProvidedStrategy(1000), newQuery("SELECT * FROM t"), new QueryLimit(100L), null);
+        List<QuerySplit> querySplits = newArrayList();
+        while (querySplitter.hasNextQuerySplit(null)) {
+            querySplits.add(querySplitter.getNextQuerySplit(null));
+        }
+        assertEquals(querySplits.size(), 10);
+        for (QuerySplit querySplit : querySplits) {
+            assertFalse(querySplitter.isQuerySplitSkipped(querySplit));
+        }
+        // estimate was high, split 3 returns the last rows
+        assertFalse(querySplitter.querySplitDone(querySplits.get(0), 100));
+        assertFalse(querySplitter.querySplitDone(querySplits.get(3), 42));
+        assertFalse(querySplitter.isQuerySplitSkipped(querySplits.get(2)));
+        assertFalse(querySplitter.isQuerySplitSkipped(querySplits.get(3)));
+        for (QuerySplit querySplit : querySplits.subList(4, querySplits.size())) {
+            assertTrue(querySplitter.isQuerySplitSkipped(querySplit));
+        }
+    }
+}
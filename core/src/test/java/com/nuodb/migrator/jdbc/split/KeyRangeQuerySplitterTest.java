@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.split;
+
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.PrimaryKey;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.math.BigInteger;
+import java.sql.Types;
+import java.util.Collection;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createTable;
+import static com.nuodb.migrator.jdbc.split.KeyRangeQuerySplitter.createQuery;
+import static com.nuodb.migrator.jdbc.split.KeyRangeQuerySplitter.getWidth;
+import static com.nuodb.migrator.jdbc.split.QuerySplitters.supportsKeyRangeSplitter;
+import static java.math.BigInteger.valueOf;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class KeyRangeQuerySplitterTest {
+
+    @DataProvider(name = "width")
+    public Object[][] createWidthData() {
+        return new Object[][] { { 1L, 1000L, 100L, 1000L, valueOf(100) }, { 1L, 1000L, 100L, 10L, valueOf(1000) },
+                { 1L, 10000L, 100L, 1000L, valueOf(1000) }, { 1L, 1000L, 300L, 1000L, valueOf(250) },
+                { 1L, 1000L, 100L, -1L, valueOf(100) }, { 5L, 5L, 100L, 1L, valueOf(1) },
+                // sparse key space is split in at most MAX_SPLITS ranges
+                { 1L, 1000000000000L, 100L, -1L, valueOf(100000000) },
+                { 1L, 1000000000000L, 100L, 1000000000L, valueOf(100000000) } };
+    }
+
+    @Test(dataProvider = "width")
+    public void testWidth(long minKey, long maxKey, long count, long rowCount, BigInteger width) {
+        assertEquals(getWidth(valueOf(minKey), valueOf(maxKey), count, rowCount), width);
+    }
+
+    @Test
+    public void testSupportsKeyRangeSplitter() {
+        Table table = createTable(null, "schema", "table");
+        Column id = table.addColumn("id");
+        id.setTypeCode(Types.BIGINT);
+        Column name = table.addColumn("name");
+        name.setTypeCode(Types.VARCHAR);
+        QueryLimit queryLimit = new QueryLimit(1000L);
+
+        assertFalse(supportsKeyRangeSplitter(table, queryLimit));
+
+        PrimaryKey primaryKey = new PrimaryKey();
+        primaryKey.addColumn(id, 1);
+        table.setPrimaryKey(primaryKey);
+        assertTrue(supportsKeyRangeSplitter(table, queryLimit));
+        assertFalse(supportsKeyRangeSplitter(table, null));
+        assertFalse(supportsKeyRangeSplitter(table, new QueryLimit(1000L, 10L)));
+
+        primaryKey.addColumn(name, 2);
+        assertFalse(supportsKeyRangeSplitter(table, queryLimit));
+    }
+
+    @Test
+    public void testOrFilter() {
+        Table table = createTable(null, "schema", "table");
+        Column id = table.addColumn("id");
+        id.setTypeCode(Types.BIGINT);
+        Collection<Column> columns = newArrayList(table.getColumns());
+        Dialect dialect = new NuoDBDialect();
+        String filter = "id=1 OR id=2";
+
+        // user filter is enclosed in parentheses, so that OR does not take over key range predicate
+        assertEquals(createQuery(dialect, table, columns, filter, "id>=? AND id<?").toString(),
+                "SELECT \"id\" FROM \"schema\".\"table\" WHERE (id=1 OR id=2) AND id>=? AND id<?");
+        KeyRangeQuerySplitter querySplitter = new KeyRangeQuerySplitter(dialect, null, table, id, columns, filter,
+                new QueryLimit(1000L), null);
+        assertEquals(querySplitter.createBoundsQuery().toString(),
+                "SELECT MIN(\"id\"), MAX(\"id\") FROM \"schema\".\"table\" WHERE (id=1 OR id=2)");
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.split;
+
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static com.nuodb.migrator.jdbc.dialect.RowCountHandler.UNKNOWN_ROW_COUNT;
+import static com.nuodb.migrator.jdbc.split.RowCountStrategies.newFallbackStrategy;
+import static com.nuodb.migrator.jdbc.split.RowCountStrategies.newProvidedStrategy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+public class RowCountStrategiesTest {
+
+    @Test
+    public void testFallbackStrategy() throws Exception {
+        RowCountStrategy exactStrategy = newProvidedStrategy(100L);
+        assertEquals(newFallbackStrategy(newProvidedStrategy(UNKNOWN_ROW_COUNT), exactStrategy).getRowCount(null),
+                100L);
+        // known estimate is used as is, even if it's zero, and the rows are not counted
+        RowCountStrategy failingStrategy = new RowCountStrategy() {
+            @Override
+            public long getRowCount(Connection connection) throws SQLException {
+                fail("Rows should not be counted");
+                return 0;
+            }
+        };
+        assertEquals(newFallbackStrategy(newProvidedStrategy(0L), failingStrategy).getRowCount(null), 0L);
+    }
+}
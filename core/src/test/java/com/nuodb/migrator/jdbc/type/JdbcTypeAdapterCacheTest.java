@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.type;
+
+import com.nuodb.migrator.jdbc.type.adapter.JdbcBlobTypeAdapter;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Blob;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class JdbcTypeAdapterCacheTest {
+
+    private int lookups;
+    private JdbcTypeAdapterCache jdbcTypeAdapterCache;
+
+    @BeforeMethod
+    public void setUp() {
+        lookups = 0;
+        JdbcTypeRegistry jdbcTypeRegistry = new SimpleJdbcTypeRegistry() {
+            @Override
+            public JdbcTypeAdapter getJdbcTypeAdapter(Class valueClass, Class typeClass) {
+                lookups++;
+                return super.getJdbcTypeAdapter(valueClass, typeClass);
+            }
+        };
+        jdbcTypeRegistry.addJdbcTypeAdapter(JdbcBlobTypeAdapter.INSTANCE);
+        jdbcTypeAdapterCache = new JdbcTypeAdapterCache(jdbcTypeRegistry, Blob.class);
+    }
+
+    @Test
+    public void testResolvedOncePerValueClass() {
+        JdbcTypeAdapter jdbcTypeAdapter = jdbcTypeAdapterCache.getJdbcTypeAdapter(byte[].class);
+        assertSame(jdbcTypeAdapter, JdbcBlobTypeAdapter.INSTANCE);
+        assertSame(jdbcTypeAdapterCache.getJdbcTypeAdapter(byte[].class), jdbcTypeAdapter);
+        assertEquals(lookups, 1);
+    }
+
+    @Test
+    public void testResolvedWhenValueClassChanges() {
+        jdbcTypeAdapterCache.getJdbcTypeAdapter(byte[].class);
+        assertNull(jdbcTypeAdapterCache.getJdbcTypeAdapter(Blob.class));
+        assertNull(jdbcTypeAdapterCache.getJdbcTypeAdapter(null));
+        assertEquals(lookups, 3);
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.metrics;
+
+import org.testng.annotations.Test;
+
+import java.io.StringWriter;
+import java.util.regex.Pattern;
+
+import static com.nuodb.migrator.metrics.Histogram.BUCKETS;
+import static com.nuodb.migrator.metrics.Histogram.getBucket;
+import static com.nuodb.migrator.metrics.Histogram.getUpperBound;
+import static com.nuodb.migrator.metrics.Metrics.LOAD_COMMIT;
+import static com.nuodb.migrator.metrics.Metrics.LOAD_ROWS;
+import static com.nuodb.migrator.metrics.Metrics.TABLE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class HistogramTest {
+
+    @Test
+    public void testBucket() {
+        assertEquals(getBucket(0), 0);
+        assertEquals(getBucket(1), 1);
+        assertEquals(getBucket(1023), 10);
+        assertEquals(getBucket(1024), 11);
+        assertEquals(getBucket(Long.MAX_VALUE), 63);
+        for (long value : new long[] { 0, 1, 7, 1000, 1000000 }) {
+            assertTrue(value < getUpperBound(getBucket(value)));
+        }
+    }
+
+    @Test
+    public void testPercentile() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value < 100 ? 100 : 1000000);
+        }
+        assertEquals(histogram.getCount(), 100);
+        assertEquals(histogram.getMax(), 1000000);
+        assertEquals(histogram.getPercentile(0.5), 128);
+        assertEquals(histogram.getPercentile(0.99), 128);
+        assertEquals(histogram.getPercentile(1), 1000000);
+    }
+
+    @Test
+    public void testPrometheusExport() throws Exception {
+        MetricRegistry metricRegistry = new MetricRegistry();
+        metricRegistry.getCounter(LOAD_ROWS, TABLE, "t1").add(10);
+        assertSame(metricRegistry.getCounter(LOAD_ROWS, TABLE, "t1"), metricRegistry.getCounter(LOAD_ROWS, TABLE, "t1"));
+        metricRegistry.getHistogram(LOAD_COMMIT).record(3);
+        StringWriter writer = new StringWriter();
+        new PrometheusMetricsExporter().export(metricRegistry, writer);
+        String metrics = writer.toString();
+        assertTrue(metrics.contains("nuodb_migrator_load_rows_total{table=\"t1\"} 10\n"), metrics);
+        assertTrue(metrics.contains("nuodb_migrator_load_commit_seconds_bucket{le=\"+Inf\"} 1\n"), metrics);
+        assertTrue(metrics.contains("nuodb_migrator_load_commit_seconds_count 1\n"), metrics);
+    }
+
+    @Test
+    public void testPrometheusExportAllBuckets() throws Exception {
+        MetricRegistry metricRegistry = new MetricRegistry();
+        metricRegistry.getHistogram(LOAD_COMMIT, TABLE, "t1").record(3);
+        metricRegistry.getHistogram(LOAD_COMMIT, TABLE, "t2").record(1000000000);
+        StringWriter writer = new StringWriter();
+        new PrometheusMetricsExporter().export(metricRegistry, writer);
+        String metrics = writer.toString();
+        // every series has the same fixed set of buckets regardless of the recorded values
+        for (String table : new String[] { "t1", "t2" }) {
+            String bucket = "nuodb_migrator_load_commit_seconds_bucket{table=\"" + table + "\",le=";
+            assertEquals(metrics.split(Pattern.quote(bucket), -1).length - 1, BUCKETS, metrics);
+            assertTrue(metrics.contains(bucket + "\"" + getSeconds(getUpperBound(BUCKETS - 2)) + "\"} 1\n"),
+                    metrics);
+        }
+        assertTrue(metrics.contains("nuodb_migrator_load_commit_seconds_bucket{table=\"t2\",le=\""
+                + getSeconds(getUpperBound(29)) + "\"} 0\n"), metrics);
+        assertTrue(metrics.contains("nuodb_migrator_load_commit_seconds_bucket{table=\"t2\",le=\""
+                + getSeconds(getUpperBound(30)) + "\"} 1\n"), metrics);
+    }
+
+    private static String getSeconds(long nanos) {
+        return new PrometheusMetricsExporter().getSeconds(nanos);
+    }
+}
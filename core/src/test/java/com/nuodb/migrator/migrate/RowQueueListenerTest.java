@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.migrate;
+
+import com.nuodb.migrator.backup.TableRowSet;
+import com.nuodb.migrator.backup.format.value.MutableValue;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.writer.BackupWriterManager;
+import com.nuodb.migrator.backup.writer.SimpleBackupWriterContext;
+import com.nuodb.migrator.backup.writer.SimpleBackupWriterManager;
+import com.nuodb.migrator.backup.writer.WriteChunkEvent;
+import com.nuodb.migrator.backup.writer.WriteQueriesWork;
+import com.nuodb.migrator.backup.writer.WriteTable;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import org.testng.annotations.Test;
+
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createTable;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Verifies that only row queue of the started table is opened and only row
+ * queue of the written table is closed
+ */
+public class RowQueueListenerTest {
+
+    @Test
+    public void testOpenStartedTable() {
+        RowQueues rowQueues = new RowQueues();
+        RowQueue rowQueue1 = new RowQueue(createRowSet("t1"), 2);
+        RowQueue rowQueue2 = new RowQueue(createRowSet("t2"), 2);
+        rowQueues.addRowQueue(rowQueue1);
+        rowQueues.addRowQueue(rowQueue2);
+
+        new RowQueueListener(rowQueues).onWriteQueryStart(createEvent("t2"));
+        rowQueues.close();
+        assertSame(rowQueues.takeOpened(), rowQueue2);
+        assertNull(rowQueues.takeOpened());
+    }
+
+    @Test
+    public void testCloseWrittenTable() {
+        RowQueues rowQueues = new RowQueues();
+        RowQueue rowQueue1 = new RowQueue(createRowSet("t1"), 2);
+        RowQueue rowQueue2 = new RowQueue(createRowSet("t2"), 2);
+        rowQueues.addRowQueue(rowQueue1);
+        rowQueues.addRowQueue(rowQueue2);
+
+        new RowQueueListener(rowQueues).onWriteQueryEnd(createEvent("t1"));
+
+        MutableValue value = new MutableValue();
+        value.setString("a");
+        rowQueue1.put(new Value[] { value });
+        rowQueue2.put(new Value[] { value });
+        assertNull(rowQueue1.take());
+        assertEquals(rowQueue1.getRowSet().getRowCount(), 0);
+        assertEquals(rowQueue2.getRowSet().getRowCount(), 1);
+    }
+
+    /**
+     * Row set of the writer is a distinct row set of the same table
+     */
+    protected WriteChunkEvent createEvent(String name) {
+        BackupWriterManager backupWriterManager = new SimpleBackupWriterManager();
+        backupWriterManager.setBackupWriterContext(new SimpleBackupWriterContext());
+        Table table = createTable(null, "schema", name);
+        return new WriteChunkEvent(new WriteQueriesWork(backupWriterManager),
+                new WriteTable(table, table.getColumns(), null, null, new TableRowSet(table)));
+    }
+
+    protected TableRowSet createRowSet(String name) {
+        TableRowSet rowSet = new TableRowSet();
+        rowSet.setName(name);
+        rowSet.setSchema("schema");
+        rowSet.setTable(name);
+        return rowSet;
+    }
+}
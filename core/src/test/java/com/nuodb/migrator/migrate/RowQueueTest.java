@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.migrate;
+
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.TableRowSet;
+import com.nuodb.migrator.backup.format.value.MutableValue;
+import com.nuodb.migrator.backup.format.value.Value;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.fail;
+
+public class RowQueueTest {
+
+    private RowSet rowSet;
+
+    @BeforeMethod
+    public void setUp() {
+        TableRowSet rowSet = new TableRowSet();
+        rowSet.setName("t1");
+        rowSet.setTable("t1");
+        this.rowSet = rowSet;
+    }
+
+    @Test
+    public void testCopyRows() {
+        RowQueue rowQueue = new RowQueue(rowSet, 2);
+        MutableValue value = new MutableValue();
+        value.setString("a");
+        rowQueue.put(new Value[] { value });
+        value.setString("b");
+        rowQueue.put(new Value[] { value });
+        rowQueue.close();
+
+        assertEquals(rowQueue.take()[0].asString(), "a");
+        assertEquals(rowQueue.take()[0].asString(), "b");
+        assertNull(rowQueue.take());
+        assertEquals(rowSet.getRowCount(), 2);
+    }
+
+    @Test
+    public void testStreamRows() throws Exception {
+        final RowQueue rowQueue = new RowQueue(rowSet, 4);
+        ExecutorService executor = newSingleThreadExecutor();
+        try {
+            Future<Long> write = executor.submit(new Callable<Long>() {
+                @Override
+                public Long call() throws Exception {
+                    MutableValue value = new MutableValue();
+                    for (long row = 0; row < 1000; row++) {
+                        value.setLong(row);
+                        rowQueue.put(new Value[] { value });
+                    }
+                    rowQueue.close();
+                    return 1000L;
+                }
+            });
+            long rows = 0;
+            Value[] values;
+            while ((values = rowQueue.take()) != null) {
+                assertEquals(values[0].asString(), String.valueOf(rows++));
+            }
+            assertEquals(rows, (long) write.get(10, SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testAbortWaitingProducer() throws Exception {
+        final RowQueue rowQueue = new RowQueue(rowSet, 1);
+        rowQueue.put(new Value[] { new MutableValue() });
+        ExecutorService executor = newSingleThreadExecutor();
+        try {
+            Future<?> write = executor.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    rowQueue.put(new Value[] { new MutableValue() });
+                    return null;
+                }
+            });
+            rowQueue.abort(new RuntimeException());
+            try {
+                write.get(10, SECONDS);
+                fail("Waiting producer is expected to fail");
+            } catch (ExecutionException exception) {
+                assertEquals(exception.getCause().getClass(), MigrateException.class);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        try {
+            rowQueue.take();
+            fail("Consumer is expected to fail");
+        } catch (MigrateException exception) {
+        }
+    }
+}
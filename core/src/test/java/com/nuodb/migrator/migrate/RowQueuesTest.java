@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.migrate;
+
+import com.nuodb.migrator.backup.TableRowSet;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+public class RowQueuesTest {
+
+    @Test
+    public void testTakeOpenedInOrder() throws Exception {
+        final RowQueues rowQueues = new RowQueues();
+        final RowQueue rowQueue1 = createRowQueue(rowQueues, "t1");
+        final RowQueue rowQueue2 = createRowQueue(rowQueues, "t2");
+        ExecutorService executor = newSingleThreadExecutor();
+        try {
+            // loader waits for the writer to open a queue
+            Future<RowQueue> take = executor.submit(new Callable<RowQueue>() {
+                @Override
+                public RowQueue call() throws Exception {
+                    return rowQueues.takeOpened();
+                }
+            });
+            rowQueues.open(rowQueue2);
+            assertSame(take.get(10, SECONDS), rowQueue2);
+        } finally {
+            executor.shutdown();
+        }
+        rowQueues.open(rowQueue1);
+        rowQueues.close();
+        assertSame(rowQueues.takeOpened(), rowQueue1);
+        assertNull(rowQueues.takeOpened());
+    }
+
+    @Test
+    public void testAbortWaitingLoader() throws Exception {
+        final RowQueues rowQueues = new RowQueues();
+        createRowQueue(rowQueues, "t1");
+        ExecutorService executor = newSingleThreadExecutor();
+        try {
+            Future<RowQueue> take = executor.submit(new Callable<RowQueue>() {
+                @Override
+                public RowQueue call() throws Exception {
+                    return rowQueues.takeOpened();
+                }
+            });
+            rowQueues.abort(new RuntimeException());
+            try {
+                take.get(10, SECONDS);
+                fail("Waiting loader is expected to fail");
+            } catch (ExecutionException exception) {
+                assertEquals(exception.getCause().getClass(), MigrateException.class);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    protected static RowQueue createRowQueue(RowQueues rowQueues, String name) {
+        TableRowSet rowSet = new TableRowSet();
+        rowSet.setName(name);
+        rowSet.setTable(name);
+        RowQueue rowQueue = new RowQueue(rowSet);
+        rowQueues.addRowQueue(rowQueue);
+        return rowQueue;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.utils.concurrent;
+
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Verifies that items pass through the ring in order and that abort releases
+ * a blocked producer
+ */
+public class RingBufferTest {
+
+    @Test
+    public void testOrder() throws Exception {
+        final RingBuffer<long[]> ringBuffer = new RingBuffer<long[]>(new long[4][1]);
+        final List<Long> taken = newArrayList();
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    long[] slot;
+                    while ((slot = ringBuffer.take()) != null) {
+                        taken.add(slot[0]);
+                        ringBuffer.release();
+                    }
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        consumer.start();
+        for (long item = 0; item < 1000; item++) {
+            ringBuffer.claim()[0] = item;
+            ringBuffer.publish();
+        }
+        ringBuffer.close();
+        consumer.join();
+        assertEquals(taken.size(), 1000);
+        for (int item = 0; item < 1000; item++) {
+            assertEquals(taken.get(item).longValue(), item);
+        }
+    }
+
+    @Test
+    public void testAbort() throws Exception {
+        final RingBuffer<long[]> ringBuffer = new RingBuffer<long[]>(new long[1][1]);
+        ringBuffer.claim();
+        ringBuffer.publish();
+        Thread aborter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ringBuffer.abort();
+            }
+        });
+        aborter.start();
+        assertNull(ringBuffer.claim());
+        aborter.join();
+        assertTrue(ringBuffer.isAborted());
+        assertNull(ringBuffer.take());
+    }
+}